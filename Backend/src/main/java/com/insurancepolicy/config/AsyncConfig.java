@@ -0,0 +1,14 @@
+package com.insurancepolicy.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * {@code @Async} methods run on the {@code applicationTaskExecutor}: Boot's
+ * bounded pool by default, or virtual threads when
+ * {@link VirtualThreadConfig} is active.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,18 @@
+package com.insurancepolicy.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The caches themselves (Caffeine, size and TTL bounds) are configured through
+ * {@code spring.cache.*} in application.properties so Boot registers their
+ * metrics with the actuator.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	public static final String POLICIES = "policies";
+
+	public static final String POLICIES_BY_NUMBER = "policiesByNumber";
+}
@@ -0,0 +1,53 @@
+package com.insurancepolicy.config;
+
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * {@code application/cbor} for internal consumers, chosen by the
+ * {@code Accept} header next to JSON. Dates go over the wire as epoch-millis
+ * integers and premiums as CBOR decimal fractions, so neither side parses
+ * text.
+ * <p>
+ * The converter replaces Spring MVC's default CBOR converter in place, after
+ * the JSON one, so clients that accept anything still get JSON.
+ */
+@Configuration
+public class CborConfig {
+
+	/**
+	 * Not a bean: a second {@link ObjectMapper} in the context would make Boot
+	 * back off the JSON one.
+	 */
+	public static ObjectMapper cborObjectMapper() {
+		return Jackson2ObjectMapperBuilder.cbor().featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+	}
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+		return new MappingJackson2CborHttpMessageConverter(cborObjectMapper());
+	}
+
+	/**
+	 * WebFlux (reactive profile). The encoder only handles single values; the
+	 * reactive controller frames streamed lists itself.
+	 */
+	@Bean
+	public CodecCustomizer cborCodecCustomizer() {
+		ObjectMapper mapper = cborObjectMapper();
+		return configurer -> {
+			configurer.customCodecs().register(new Jackson2CborEncoder(mapper, MediaType.APPLICATION_CBOR));
+			configurer.customCodecs().register(new Jackson2CborDecoder(mapper, MediaType.APPLICATION_CBOR));
+		};
+	}
+}
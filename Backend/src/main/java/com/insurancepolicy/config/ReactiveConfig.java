@@ -0,0 +1,43 @@
+package com.insurancepolicy.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Infrastructure for the {@code reactive} profile, where reads use R2DBC and
+ * writes keep going through JPA.
+ * <p>
+ * Tomcat is on the classpath for the default MVC stack and would otherwise win
+ * the reactive server auto-configuration; Reactor Netty serves every
+ * connection from a small event-loop group instead. Boot also backs off its
+ * JDBC {@code DataSource} once an R2DBC {@code ConnectionFactory} exists, so
+ * the Hikari pool the write path needs is declared here from the usual
+ * {@code spring.datasource.*} properties.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+
+	@Bean
+	@ConfigurationProperties("spring.datasource")
+	public DataSourceProperties dataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+		return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+}
@@ -0,0 +1,84 @@
+package com.insurancepolicy.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.insurancepolicy.routing.ReplicaPool;
+import com.insurancepolicy.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Splits JDBC traffic between the primary ({@code spring.datasource.*}) and
+ * the read replicas in {@code insurancepolicy.replicas.urls}: read-only
+ * transactions go to a replica, everything else to the primary. Each replica
+ * gets a read-only Hikari pool with the primary's settings, a short
+ * connection timeout so a dead one is ejected quickly, and no fail-fast, so
+ * the application starts while a replica is down.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "insurancepolicy.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource")
+	public DataSourceProperties dataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+		return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	public ReplicaPool replicaPool(HikariDataSource primaryDataSource, DataSourceProperties dataSourceProperties,
+			MeterRegistry meterRegistry, @Value("${insurancepolicy.replicas.urls}") List<String> urls,
+			@Value("${insurancepolicy.replicas.username:}") String username,
+			@Value("${insurancepolicy.replicas.password:}") String password,
+			@Value("${insurancepolicy.replicas.max-lag-ms:5000}") long maxLagMillis,
+			@Value("${insurancepolicy.replicas.check-interval-ms:500}") long checkIntervalMillis,
+			@Value("${insurancepolicy.replicas.connection-timeout-ms:1000}") long connectionTimeoutMillis) {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (String url : urls) {
+			if (url.isBlank()) {
+				continue;
+			}
+			String name = "replica-" + (replicas.size() + 1);
+			HikariConfig config = new HikariConfig();
+			primaryDataSource.copyStateTo(config);
+			config.setPoolName(name);
+			config.setJdbcUrl(url.trim());
+			config.setUsername(username.isEmpty() ? dataSourceProperties.determineUsername() : username);
+			config.setPassword(username.isEmpty() ? dataSourceProperties.determinePassword() : password);
+			config.setReadOnly(true);
+			config.setConnectionTimeout(connectionTimeoutMillis);
+			config.setInitializationFailTimeout(-1);
+			replicas.put(name, new HikariDataSource(config));
+		}
+		return new ReplicaPool(primaryDataSource, replicas, maxLagMillis, checkIntervalMillis, meterRegistry);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool) {
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaPool));
+	}
+}
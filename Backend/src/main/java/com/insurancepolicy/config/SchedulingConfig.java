@@ -0,0 +1,13 @@
+package com.insurancepolicy.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * {@code @Scheduled} methods run on Boot's single-threaded task scheduler; jobs
+ * that need parallelism hand their work to their own pool.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,130 @@
+package com.insurancepolicy.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.insurancepolicy.service.PolicyAggregateService;
+import com.insurancepolicy.sharding.ShardDirectory;
+import com.insurancepolicy.sharding.ShardRebalancer;
+import com.insurancepolicy.sharding.ShardRoutingDataSource;
+import com.insurancepolicy.sharding.ShardSchemaUpdater;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hash-partitions the policies over several databases: shard 0 is
+ * {@code spring.datasource.*} and also holds the shard directory, shards 1
+ * and up are {@code insurancepolicy.shards.urls}, each with a Hikari pool
+ * configured like shard 0's. Every shard has the full schema, and its
+ * outbox, premium summary, renewal flags, archive and job checkpoints cover
+ * the policies it holds. Not combined with read replicas.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "insurancepolicy.shards.enabled", havingValue = "true")
+public class ShardingConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource")
+	public DataSourceProperties dataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource shardZeroDataSource(DataSourceProperties dataSourceProperties) {
+		return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	public ShardDirectory shardDirectory(HikariDataSource shardZeroDataSource,
+			DataSourceProperties dataSourceProperties, @Value("${insurancepolicy.shards.urls:}") List<String> urls,
+			@Value("${insurancepolicy.shards.username:}") String username,
+			@Value("${insurancepolicy.shards.password:}") String password,
+			@Value("${insurancepolicy.shards.move-wait-ms:10000}") long moveWaitMillis,
+			@Value("${insurancepolicy.replicas.enabled:false}") boolean replicasEnabled) {
+		if (replicasEnabled) {
+			throw new IllegalStateException("insurancepolicy.shards and insurancepolicy.replicas cannot both be enabled");
+		}
+		List<DataSource> shards = new ArrayList<>();
+		shards.add(shardZeroDataSource);
+		for (String url : urls) {
+			if (url.isBlank()) {
+				continue;
+			}
+			HikariConfig config = new HikariConfig();
+			shardZeroDataSource.copyStateTo(config);
+			config.setPoolName("shard-" + shards.size());
+			config.setJdbcUrl(url.trim());
+			config.setUsername(username.isEmpty() ? dataSourceProperties.determineUsername() : username);
+			config.setPassword(username.isEmpty() ? dataSourceProperties.determinePassword() : password);
+			shards.add(new HikariDataSource(config));
+		}
+		return new ShardDirectory(shards, moveWaitMillis);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(ShardDirectory shardDirectory) {
+		List<DataSource> shards = new ArrayList<>(shardDirectory.shardCount());
+		for (int shard = 0; shard < shardDirectory.shardCount(); shard++) {
+			shards.add(shardDirectory.shard(shard));
+		}
+		return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shards));
+	}
+
+	@Bean
+	public ShardSchemaUpdater shardSchemaUpdater() {
+		return new ShardSchemaUpdater();
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaUpdater shardSchemaUpdater) {
+		return properties -> properties.put("hibernate.integrator_provider",
+				(IntegratorProvider) () -> List.of(shardSchemaUpdater));
+	}
+
+	/**
+	 * Once the session factory exists: the schema on every shard, then the
+	 * directory, before anything reads or writes a policy.
+	 */
+	@Bean
+	public SmartInitializingSingleton shardStartup(ShardSchemaUpdater shardSchemaUpdater,
+			ShardDirectory shardDirectory, @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto,
+			@Value("${insurancepolicy.shards.directory-refresh-ms:5000}") long refreshMillis) {
+		return () -> {
+			if (!"none".equals(ddlAuto) && !"validate".equals(ddlAuto)) {
+				shardSchemaUpdater.updateShards(shardDirectory.shardCount());
+			}
+			shardDirectory.load();
+			shardDirectory.startRefreshing(refreshMillis);
+		};
+	}
+
+	@Bean
+	public ShardRebalancer shardRebalancer(ShardDirectory shardDirectory,
+			@Lazy PolicyAggregateService policyAggregateService, MeterRegistry meterRegistry,
+			@Value("${insurancepolicy.shards.rebalance.buckets-per-step:16}") int bucketsPerStep,
+			@Value("${insurancepolicy.shards.rebalance.batch-size:1000}") int batchSize) {
+		return new ShardRebalancer(shardDirectory, policyAggregateService::rebuildSummary, meterRegistry,
+				bucketsPerStep, batchSize);
+	}
+}
@@ -0,0 +1,56 @@
+package com.insurancepolicy.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+/**
+ * Opt-in ({@code insurancepolicy.threads.virtual=true}) virtual-thread mode.
+ * Tomcat gets a thread-per-request virtual executor, and the
+ * {@code applicationTaskExecutor} used by {@code @Async} and by MVC async
+ * responses such as {@code /api/policies/stream} is replaced by one.
+ * <p>
+ * The project still compiles for Java 17, so the executor factory is looked up
+ * reflectively and startup fails fast on an older runtime. Database
+ * concurrency stays bounded by the Hikari pool; Connector/J 9 and HikariCP use
+ * j.u.c locks rather than monitors, so threads waiting on either do not pin
+ * their carrier.
+ */
+@Configuration
+@ConditionalOnProperty(name = "insurancepolicy.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		return protocolHandler -> protocolHandler.setExecutor(newVirtualThreadPerTaskExecutor());
+	}
+
+	@Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+			AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+	public AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+	}
+
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+					"newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+			return (ExecutorService) factory.invoke();
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalStateException("insurancepolicy.threads.virtual=true requires Java 21 or later", e);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Could not create a virtual thread executor", e);
+		}
+	}
+}
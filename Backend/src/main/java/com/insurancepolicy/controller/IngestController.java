@@ -0,0 +1,49 @@
+package com.insurancepolicy.controller;
+
+import java.io.IOException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.insurancepolicy.ingest.CsvIngestService;
+import com.insurancepolicy.ingest.PolicyImportReport;
+import com.insurancepolicy.ingest.PolicyImportService;
+import com.insurancepolicy.ingest.ValidationReport;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@CrossOrigin
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/ingest")
+public class IngestController {
+
+	private final CsvIngestService csvIngestService;
+
+	private final PolicyImportService policyImportService;
+
+	public IngestController(CsvIngestService csvIngestService, PolicyImportService policyImportService) {
+		this.csvIngestService = csvIngestService;
+		this.policyImportService = policyImportService;
+	}
+
+	// the body is read as a stream, never buffered, so there is no size limit
+	// beyond the output directory's disk space
+	@PostMapping("/{schema}/validate")
+	public ResponseEntity<ValidationReport> validate(@PathVariable String schema, HttpServletRequest request)
+			throws IOException {
+		return ResponseEntity.ok(csvIngestService.validate(schema, request.getInputStream()));
+	}
+
+	// backfill files are placed in insurancepolicy.import.dir and read from there
+	// memory-mapped, rather than uploaded through the request
+	@PostMapping("/policies/{file}/import")
+	public ResponseEntity<PolicyImportReport> importPolicies(@PathVariable String file) throws IOException {
+		return ResponseEntity.ok(policyImportService.importFile(file));
+	}
+}
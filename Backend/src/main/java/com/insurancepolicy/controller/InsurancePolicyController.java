@@ -1,14 +1,179 @@
 package com.insurancepolicy.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.insurancepolicy.config.CborConfig;
+import com.insurancepolicy.dto.BulkResultDTO;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.exception.PreconditionFailedException;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 
-@CrossOrigin
+// the Angular client needs to read the ETag to send it back in If-Match
+@CrossOrigin(exposedHeaders = HttpHeaders.ETAG)
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/policies")
 public class InsurancePolicyController {
 
-	// write your logic here
+	private final InsurancePolicyService insurancePolicyService;
+
+	// one writer for the whole response; flushing per element would defeat the
+	// servlet output buffer
+	private final ObjectWriter jsonElementWriter;
+
+	private final ObjectWriter cborElementWriter;
+
+	// bulk bodies are read element by element, whether a JSON array or NDJSON
+	private final ObjectReader policyReader;
+
+	private final ObjectReader idReader;
+
+	public InsurancePolicyController(InsurancePolicyService insurancePolicyService, ObjectMapper objectMapper) {
+		this.insurancePolicyService = insurancePolicyService;
+		this.jsonElementWriter = objectMapper.writerFor(InsurancePolicyDTO.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.cborElementWriter = CborConfig.cborObjectMapper().writerFor(InsurancePolicyDTO.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.policyReader = objectMapper.readerFor(InsurancePolicyDTO.class);
+		this.idReader = objectMapper.readerFor(Long.class);
+	}
+
+	@GetMapping
+	public ResponseEntity<List<InsurancePolicyDTO>> getAllPolicies() {
+		return ResponseEntity.ok(insurancePolicyService.getAllPolicies());
+	}
+
+	@GetMapping("/page")
+	public ResponseEntity<PolicyPageDTO> getPolicies(@RequestParam(required = false) Long after,
+			@RequestParam(defaultValue = "100") int size) {
+		return ResponseEntity.ok(insurancePolicyService.getPolicies(after, size));
+	}
+
+	@GetMapping("/search")
+	public ResponseEntity<PolicyPageDTO> searchPolicies(PolicySearchCriteria criteria,
+			@RequestParam(required = false) Long after, @RequestParam(defaultValue = "100") int size) {
+		return ResponseEntity.ok(insurancePolicyService.searchPolicies(criteria, after, size));
+	}
+
+	@GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllPolicies() {
+		return stream(jsonElementWriter, MediaType.APPLICATION_JSON);
+	}
+
+	// an indefinite-length CBOR array, written element by element like the JSON one
+	@GetMapping(value = "/stream", produces = MediaType.APPLICATION_CBOR_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllPoliciesCbor() {
+		return stream(cborElementWriter, MediaType.APPLICATION_CBOR);
+	}
+
+	private ResponseEntity<StreamingResponseBody> stream(ObjectWriter writer, MediaType contentType) {
+		StreamingResponseBody body = out -> {
+			try (SequenceWriter sequence = writer.writeValuesAsArray(out)) {
+				insurancePolicyService.streamAllPolicies(policy -> {
+					try {
+						sequence.write(policy);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		return ResponseEntity.ok().contentType(contentType).body(body);
+	}
+
+	@PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<BulkResultDTO> bulkCreateInsurancePolicies(HttpServletRequest request) throws IOException {
+		try (MappingIterator<InsurancePolicyDTO> policies = policyReader.readValues(request.getInputStream())) {
+			return ResponseEntity.ok(insurancePolicyService.bulkCreateInsurancePolicies(policies));
+		}
+	}
+
+	@PutMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<BulkResultDTO> bulkUpdateInsurancePolicies(HttpServletRequest request) throws IOException {
+		try (MappingIterator<InsurancePolicyDTO> policies = policyReader.readValues(request.getInputStream())) {
+			return ResponseEntity.ok(insurancePolicyService.bulkUpdateInsurancePolicies(policies));
+		}
+	}
+
+	@DeleteMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<BulkResultDTO> bulkDeleteInsurancePolicies(HttpServletRequest request) throws IOException {
+		try (MappingIterator<Long> ids = idReader.readValues(request.getInputStream())) {
+			return ResponseEntity.ok(insurancePolicyService.bulkDeleteInsurancePolicies(ids));
+		}
+	}
+
+	@GetMapping("/{id}")
+	public ResponseEntity<InsurancePolicyDTO> getInsurancePolicyById(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		return PolicyETag.ok(insurancePolicyService.getInsurancePolicyById(id), accept);
+	}
+
+	@GetMapping("/number/{policyNumber}")
+	public ResponseEntity<InsurancePolicyDTO> getInsurancePolicyByNumber(@PathVariable String policyNumber,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		return PolicyETag.ok(insurancePolicyService.getInsurancePolicyByNumber(policyNumber), accept);
+	}
+
+	@PostMapping
+	public ResponseEntity<InsurancePolicyDTO> createInsurancePolicy(
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			@Valid @RequestBody InsurancePolicyDTO insurancePolicyDTO) {
+		return PolicyETag.ok(insurancePolicyService.createInsurancePolicy(insurancePolicyDTO), accept);
+	}
+
+	@PutMapping("/{id}")
+	public ResponseEntity<InsurancePolicyDTO> updateInsurancePolicy(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			@Valid @RequestBody InsurancePolicyDTO insurancePolicyDTO) {
+		Set<Long> requiredVersions = PolicyETag.requiredVersions(id, ifMatch);
+		if (requiredVersions == null) {
+			return PolicyETag.ok(insurancePolicyService.updateInsurancePolicy(id, insurancePolicyDTO), accept);
+		}
+		try {
+			return PolicyETag.ok(
+					insurancePolicyService.updateInsurancePolicy(id, insurancePolicyDTO, requiredVersions), accept);
+		} catch (OptimisticLockingFailureException e) {
+			// passed the version check, then lost the race to another writer's commit
+			throw new PreconditionFailedException("Insurance Policy has been modified");
+		}
+	}
 
+	@DeleteMapping("/{id}")
+	public ResponseEntity<Void> deleteInsurancePolicy(@PathVariable Long id) {
+		insurancePolicyService.deleteInsurancePolicy(id);
+		return ResponseEntity.noContent().build();
+	}
 }
@@ -0,0 +1,56 @@
+package com.insurancepolicy.controller;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.insurancepolicy.dto.PremiumTotalDTO;
+import com.insurancepolicy.dto.PremiumTotalPageDTO;
+import com.insurancepolicy.service.PolicyAggregateService;
+
+@CrossOrigin
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/policies/aggregates")
+public class PolicyAggregateController {
+
+	private final PolicyAggregateService policyAggregateService;
+
+	public PolicyAggregateController(PolicyAggregateService policyAggregateService) {
+		this.policyAggregateService = policyAggregateService;
+	}
+
+	@GetMapping("/by-type")
+	public ResponseEntity<List<PremiumTotalDTO>> getTotalsByType(
+			@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+			@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+		return ResponseEntity.ok(policyAggregateService.getTotalsByType(from, to));
+	}
+
+	@GetMapping("/by-month")
+	public ResponseEntity<List<PremiumTotalDTO>> getTotalsByMonth(@RequestParam(required = false) String policyType,
+			@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+			@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+		return ResponseEntity.ok(policyAggregateService.getTotalsByMonth(policyType, from, to));
+	}
+
+	@GetMapping("/by-customer")
+	public ResponseEntity<PremiumTotalPageDTO> getTotalsByCustomer(@RequestParam(required = false) Integer after,
+			@RequestParam(defaultValue = "100") int size) {
+		return ResponseEntity.ok(policyAggregateService.getTotalsByCustomer(after, size));
+	}
+
+	@PostMapping("/rebuild")
+	public ResponseEntity<Integer> rebuildSummary() {
+		return ResponseEntity.ok(policyAggregateService.rebuildSummary());
+	}
+}
@@ -0,0 +1,30 @@
+package com.insurancepolicy.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.insurancepolicy.lifecycle.JobPassReport;
+import com.insurancepolicy.lifecycle.PolicyArchiveJob;
+
+@CrossOrigin
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/jobs/policy-archive")
+public class PolicyArchiveController {
+
+	private final PolicyArchiveJob policyArchiveJob;
+
+	public PolicyArchiveController(PolicyArchiveJob policyArchiveJob) {
+		this.policyArchiveJob = policyArchiveJob;
+	}
+
+	// archives what is old enough now, outside the schedule, and waits for it
+	@PostMapping
+	public ResponseEntity<JobPassReport> run() {
+		return ResponseEntity.ok(policyArchiveJob.run());
+	}
+}
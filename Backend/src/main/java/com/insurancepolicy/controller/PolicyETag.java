@@ -0,0 +1,119 @@
+package com.insurancepolicy.controller;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+
+/**
+ * Entity tags for single-policy responses. The tag is the policy id and the
+ * row's optimistic-lock version, so it changes exactly when the row does and is
+ * computed from the (possibly cached) DTO without serializing it. The id is in
+ * the tag because a policy number is reused once its policy is deleted or
+ * archived, and the new policy starts again at version 0.
+ * <p>
+ * JSON and CBOR are different bytes, so each gets its own strong tag and every
+ * response varies by {@code Accept}; a cache never answers a CBOR client's
+ * revalidation with the JSON body.
+ */
+final class PolicyETag {
+
+	private static final String CBOR_SUFFIX = "-cbor";
+
+	private PolicyETag() {
+	}
+
+	static String of(InsurancePolicyDTO policy, String accept) {
+		return "\"" + policy.getPolicyId() + "-" + policy.getVersion() + (prefersCbor(accept) ? CBOR_SUFFIX : "")
+				+ "\"";
+	}
+
+	/**
+	 * 200 carrying the tag of the representation {@code accept} selects. For GET
+	 * the return value handler compares it with {@code If-None-Match} and sends a
+	 * bodiless 304 when it matches.
+	 */
+	static ResponseEntity<InsurancePolicyDTO> ok(InsurancePolicyDTO policy, String accept) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+		if (policy.getVersion() == null) {
+			return response.body(policy);
+		}
+		return response.eTag(of(policy, accept)).body(policy);
+	}
+
+	/**
+	 * Whether content negotiation picks CBOR for this {@code Accept} header:
+	 * CBOR's best match must rank above JSON's by quality, then by naming the
+	 * type rather than a wildcard. Ties go to JSON, whose converter comes first.
+	 */
+	static boolean prefersCbor(String accept) {
+		if (accept == null || accept.isBlank()) {
+			return false;
+		}
+		List<MediaType> accepted;
+		try {
+			accepted = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			return false;
+		}
+		return rank(accepted, MediaType.APPLICATION_CBOR) > rank(accepted, MediaType.APPLICATION_JSON);
+	}
+
+	private static double rank(List<MediaType> accepted, MediaType type) {
+		double best = 0;
+		for (MediaType candidate : accepted) {
+			if (candidate.getQualityValue() > 0 && candidate.isCompatibleWith(type)) {
+				// an exact type outranks a wildcard of the same quality
+				double rank = candidate.getQualityValue() * 2 + (candidate.isConcrete() ? 1 : 0);
+				best = Math.max(best, rank);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * The versions an {@code If-Match} header accepts for policy {@code id}, or
+	 * null when there is no header or it is {@code *}; the update goes ahead if
+	 * the stored version is any of them. Clients send back strong tags they were
+	 * given, of either representation: both name the same row version. Weak tags,
+	 * another policy's tags and anything else that is not one of our tags cannot
+	 * match under the strong comparison If-Match uses, so a header of only those
+	 * gives an empty set.
+	 */
+	static Set<Long> requiredVersions(Long id, String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+			return null;
+		}
+		Set<Long> versions = new HashSet<>();
+		// none of our tags contains a comma
+		for (String tag : ifMatch.split(",")) {
+			Long version = version(id, tag.trim());
+			if (version != null) {
+				versions.add(version);
+			}
+		}
+		return versions;
+	}
+
+	private static Long version(Long id, String tag) {
+		String prefix = "\"" + id + "-";
+		if (tag.length() <= prefix.length() + 1 || !tag.startsWith(prefix) || tag.charAt(tag.length() - 1) != '"') {
+			return null;
+		}
+		String version = tag.substring(prefix.length(), tag.length() - 1);
+		if (version.endsWith(CBOR_SUFFIX)) {
+			version = version.substring(0, version.length() - CBOR_SUFFIX.length());
+		}
+		try {
+			return Long.parseLong(version);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.insurancepolicy.controller;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.insurancepolicy.dto.PolicyChangeEventDTO;
+import com.insurancepolicy.events.PolicyEventStreamer;
+
+@CrossOrigin
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/policies/events")
+public class PolicyEventController {
+
+	private final PolicyEventStreamer policyEventStreamer;
+
+	public PolicyEventController(PolicyEventStreamer policyEventStreamer) {
+		this.policyEventStreamer = policyEventStreamer;
+	}
+
+	// long poll: pass the offset of the last event seen as "after"
+	@GetMapping
+	public DeferredResult<List<PolicyChangeEventDTO>> pollEvents(@RequestParam(required = false) Long after,
+			@RequestParam(defaultValue = "100") int limit, @RequestParam(defaultValue = "0") long waitMs) {
+		return policyEventStreamer.poll(after, limit, waitMs);
+	}
+
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamEvents(@RequestParam(required = false) Long after,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		return policyEventStreamer.stream(lastEventId != null ? lastEventId : after);
+	}
+}
@@ -0,0 +1,39 @@
+package com.insurancepolicy.controller;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.insurancepolicy.entity.PolicyJobCheckpoint;
+import com.insurancepolicy.lifecycle.JobPassReport;
+import com.insurancepolicy.lifecycle.PolicyLifecycleJob;
+
+@CrossOrigin
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/jobs/policy-lifecycle")
+public class PolicyLifecycleController {
+
+	private final PolicyLifecycleJob policyLifecycleJob;
+
+	public PolicyLifecycleController(PolicyLifecycleJob policyLifecycleJob) {
+		this.policyLifecycleJob = policyLifecycleJob;
+	}
+
+	// runs (or finishes) today's passes outside the schedule and waits for them
+	@PostMapping
+	public ResponseEntity<List<JobPassReport>> run() {
+		return ResponseEntity.ok(policyLifecycleJob.run());
+	}
+
+	@GetMapping
+	public ResponseEntity<List<PolicyJobCheckpoint>> getProgress() {
+		return ResponseEntity.ok(policyLifecycleJob.getProgress());
+	}
+}
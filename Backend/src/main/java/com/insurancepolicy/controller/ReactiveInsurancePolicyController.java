@@ -0,0 +1,167 @@
+package com.insurancepolicy.controller;
+
+import java.io.UncheckedIOException;
+import java.util.Set;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insurancepolicy.config.CborConfig;
+import com.insurancepolicy.dto.BulkResultDTO;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.exception.PreconditionFailedException;
+import com.insurancepolicy.service.ReactiveInsurancePolicyService;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The {@link InsurancePolicyController} contract on WebFlux, selected by the
+ * {@code reactive} profile. List responses are written as the rows arrive, as
+ * a JSON array, NDJSON or a CBOR array depending on the {@code Accept} header.
+ */
+@CrossOrigin(exposedHeaders = HttpHeaders.ETAG)
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/policies")
+public class ReactiveInsurancePolicyController {
+
+	// major type 4 (array) with indefinite length, and the "break" stop code
+	private static final byte CBOR_ARRAY_START = (byte) 0x9F;
+
+	private static final byte CBOR_BREAK = (byte) 0xFF;
+
+	private final ReactiveInsurancePolicyService policyService;
+
+	private final ObjectWriter cborElementWriter;
+
+	public ReactiveInsurancePolicyController(ReactiveInsurancePolicyService policyService) {
+		this.policyService = policyService;
+		this.cborElementWriter = CborConfig.cborObjectMapper().writerFor(InsurancePolicyDTO.class);
+	}
+
+	@GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<InsurancePolicyDTO> getAllPolicies() {
+		return policyService.getAllPolicies();
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_CBOR_VALUE)
+	public Flux<DataBuffer> getAllPoliciesCbor() {
+		return cborArray(policyService.getAllPolicies());
+	}
+
+	@GetMapping("/page")
+	public Mono<PolicyPageDTO> getPolicies(@RequestParam(required = false) Long after,
+			@RequestParam(defaultValue = "100") int size) {
+		return policyService.getPolicies(after, size);
+	}
+
+	@GetMapping("/search")
+	public Mono<PolicyPageDTO> searchPolicies(PolicySearchCriteria criteria,
+			@RequestParam(required = false) Long after, @RequestParam(defaultValue = "100") int size) {
+		return policyService.searchPolicies(criteria, after, size);
+	}
+
+	@GetMapping(value = "/stream", produces = { MediaType.APPLICATION_JSON_VALUE,
+			MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<InsurancePolicyDTO> streamAllPolicies() {
+		return policyService.getAllPolicies();
+	}
+
+	@GetMapping(value = "/stream", produces = MediaType.APPLICATION_CBOR_VALUE)
+	public Flux<DataBuffer> streamAllPoliciesCbor() {
+		return cborArray(policyService.getAllPolicies());
+	}
+
+	/**
+	 * Jackson's CBOR encoder only writes single values, so lists are framed here
+	 * as an indefinite-length array: the start byte, each element as its own
+	 * CBOR item as it arrives, then the break byte.
+	 */
+	private Flux<DataBuffer> cborArray(Flux<InsurancePolicyDTO> policies) {
+		DataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+		return policies.map(policy -> {
+			try {
+				return buffers.wrap(cborElementWriter.writeValueAsBytes(policy));
+			} catch (JsonProcessingException e) {
+				throw new UncheckedIOException(e);
+			}
+		}).startWith(Mono.fromSupplier(() -> buffers.wrap(new byte[] { CBOR_ARRAY_START })))
+				.concatWith(Mono.fromSupplier(() -> buffers.wrap(new byte[] { CBOR_BREAK })));
+	}
+
+	@PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Mono<BulkResultDTO> bulkCreateInsurancePolicies(@RequestBody Flux<InsurancePolicyDTO> policies) {
+		return policyService.bulkCreateInsurancePolicies(policies);
+	}
+
+	@PutMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Mono<BulkResultDTO> bulkUpdateInsurancePolicies(@RequestBody Flux<InsurancePolicyDTO> policies) {
+		return policyService.bulkUpdateInsurancePolicies(policies);
+	}
+
+	@DeleteMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Mono<BulkResultDTO> bulkDeleteInsurancePolicies(@RequestBody Flux<Long> ids) {
+		return policyService.bulkDeleteInsurancePolicies(ids);
+	}
+
+	@GetMapping("/{id}")
+	public Mono<ResponseEntity<InsurancePolicyDTO>> getInsurancePolicyById(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		return policyService.getInsurancePolicyById(id).map(policy -> PolicyETag.ok(policy, accept));
+	}
+
+	@GetMapping("/number/{policyNumber}")
+	public Mono<ResponseEntity<InsurancePolicyDTO>> getInsurancePolicyByNumber(@PathVariable String policyNumber,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		return policyService.getInsurancePolicyByNumber(policyNumber).map(policy -> PolicyETag.ok(policy, accept));
+	}
+
+	@PostMapping
+	public Mono<ResponseEntity<InsurancePolicyDTO>> createInsurancePolicy(
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			@Valid @RequestBody InsurancePolicyDTO insurancePolicyDTO) {
+		return policyService.createInsurancePolicy(insurancePolicyDTO).map(policy -> PolicyETag.ok(policy, accept));
+	}
+
+	@PutMapping("/{id}")
+	public Mono<ResponseEntity<InsurancePolicyDTO>> updateInsurancePolicy(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			@Valid @RequestBody InsurancePolicyDTO insurancePolicyDTO) {
+		Set<Long> requiredVersions = PolicyETag.requiredVersions(id, ifMatch);
+		Mono<InsurancePolicyDTO> updated = requiredVersions == null
+				? policyService.updateInsurancePolicy(id, insurancePolicyDTO)
+				: policyService.updateInsurancePolicy(id, insurancePolicyDTO, requiredVersions)
+						.onErrorMap(OptimisticLockingFailureException.class,
+								e -> new PreconditionFailedException("Insurance Policy has been modified"));
+		return updated.map(policy -> PolicyETag.ok(policy, accept));
+	}
+
+	@DeleteMapping("/{id}")
+	public Mono<ResponseEntity<Void>> deleteInsurancePolicy(@PathVariable Long id) {
+		return policyService.deleteInsurancePolicy(id).map(deleted -> ResponseEntity.noContent().build());
+	}
+}
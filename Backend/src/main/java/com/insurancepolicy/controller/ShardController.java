@@ -0,0 +1,41 @@
+package com.insurancepolicy.controller;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.insurancepolicy.sharding.RebalanceReport;
+import com.insurancepolicy.sharding.ShardRebalancer;
+
+@CrossOrigin
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "insurancepolicy.shards.enabled", havingValue = "true")
+@RequestMapping("/api/shards")
+public class ShardController {
+
+	private final ShardRebalancer shardRebalancer;
+
+	public ShardController(ShardRebalancer shardRebalancer) {
+		this.shardRebalancer = shardRebalancer;
+	}
+
+	// buckets owned by each shard, in shard order
+	@GetMapping
+	public ResponseEntity<List<Integer>> getBucketsPerShard() {
+		return ResponseEntity.ok(shardRebalancer.bucketsPerShard());
+	}
+
+	// spreads the buckets evenly over the configured shards and waits for it
+	@PostMapping("/rebalance")
+	public ResponseEntity<RebalanceReport> rebalance() {
+		return ResponseEntity.ok(shardRebalancer.rebalance());
+	}
+}
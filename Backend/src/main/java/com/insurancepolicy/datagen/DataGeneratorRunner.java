@@ -0,0 +1,130 @@
+package com.insurancepolicy.datagen;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.insurancepolicy.service.InsurancePolicyService;
+
+/**
+ * Generates a dataset at startup under the {@code datagen} profile
+ * (application-datagen.properties), then lets the application exit. The
+ * target is a CSV or NDJSON file, or the database through the import path.
+ */
+@Component
+@Profile("datagen")
+public class DataGeneratorRunner implements ApplicationRunner {
+
+	private static final Logger LOG = LoggerFactory.getLogger(DataGeneratorRunner.class);
+
+	private final InsurancePolicyService insurancePolicyService;
+
+	private final PolicyGeneratorSettings settings = new PolicyGeneratorSettings();
+
+	private final long rows;
+
+	private final String target;
+
+	private final Path output;
+
+	private final int parallelism;
+
+	public DataGeneratorRunner(InsurancePolicyService insurancePolicyService,
+			@Value("${insurancepolicy.datagen.rows:1000000}") long rows,
+			@Value("${insurancepolicy.datagen.target:csv}") String target,
+			@Value("${insurancepolicy.datagen.output:policies.csv}") String output,
+			@Value("${insurancepolicy.datagen.parallelism:0}") int parallelism,
+			@Value("${insurancepolicy.datagen.seed:42}") long seed,
+			@Value("${insurancepolicy.datagen.policy-types:Health:35,Motor:30,Life:15,Home:15,Travel:5}") String policyTypes,
+			@Value("${insurancepolicy.datagen.premium-min:100.00}") BigDecimal premiumMin,
+			@Value("${insurancepolicy.datagen.premium-max:50000.00}") BigDecimal premiumMax,
+			@Value("${insurancepolicy.datagen.customers:100000}") int customers,
+			@Value("${insurancepolicy.datagen.customer-skew:1.1}") double customerSkew,
+			@Value("${insurancepolicy.datagen.start-from:2020-01-01}") String startFrom,
+			@Value("${insurancepolicy.datagen.start-to:2026-01-01}") String startTo,
+			@Value("${insurancepolicy.datagen.term-days:365,730,1095}") int[] termDays,
+			@Value("${insurancepolicy.datagen.as-of:2026-01-01}") String asOf,
+			@Value("${insurancepolicy.datagen.cancel-rate:0.05}") double cancelRate,
+			@Value("${insurancepolicy.datagen.policy-number-prefix:GEN}") String policyNumberPrefix) {
+		this.insurancePolicyService = insurancePolicyService;
+		this.rows = rows;
+		this.target = target.toLowerCase(Locale.ROOT);
+		this.output = Paths.get(output);
+		this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		settings.setSeed(seed);
+		settings.setPolicyTypeWeights(parseWeights(policyTypes));
+		settings.setMinPremium(premiumMin);
+		settings.setMaxPremium(premiumMax);
+		settings.setCustomers(customers);
+		settings.setCustomerSkew(customerSkew);
+		settings.setStartFrom(LocalDate.parse(startFrom));
+		settings.setStartTo(LocalDate.parse(startTo));
+		settings.setTermDays(termDays);
+		settings.setAsOf(LocalDate.parse(asOf));
+		settings.setCancelRate(cancelRate);
+		settings.setPolicyNumberPrefix(policyNumberPrefix);
+	}
+
+	// "Health:35,Motor:30"; a type without a weight counts 1
+	static Map<String, Double> parseWeights(String spec) {
+		Map<String, Double> weights = new LinkedHashMap<>();
+		for (String entry : spec.split(",")) {
+			String[] parts = entry.trim().split(":");
+			if (!parts[0].isEmpty()) {
+				weights.put(parts[0], parts.length > 1 ? Double.parseDouble(parts[1]) : 1.0);
+			}
+		}
+		return weights;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws IOException {
+		PolicyDataGenerator generator = new PolicyDataGenerator(settings);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		long started = System.nanoTime();
+		try {
+			if ("db".equals(target)) {
+				AtomicLong failed = new AtomicLong();
+				long inserted = generator.insert(rows, insurancePolicyService, pool, (policy, message) -> {
+					if (failed.getAndIncrement() == 0) {
+						LOG.warn("Policy {} not inserted: {}", policy.getPolicyNumber(), message);
+					}
+				});
+				LOG.info("Inserted {} generated policies ({} failed) in {} ms with {} writers", inserted, failed.get(),
+						elapsedMillis(started), parallelism);
+			} else {
+				PolicyDataGenerator.Format format = PolicyDataGenerator.Format.valueOf(target.toUpperCase(Locale.ROOT));
+				try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 20)) {
+					generator.write(out, rows, format, pool);
+				}
+				LOG.info("Wrote {} generated policies to {} in {} ms (seed {}, term days {})", rows, output,
+						elapsedMillis(started), settings.getSeed(), Arrays.toString(settings.getTermDays()));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static long elapsedMillis(long started) {
+		return (System.nanoTime() - started) / 1_000_000;
+	}
+}
@@ -0,0 +1,341 @@
+package com.insurancepolicy.datagen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+/**
+ * Synthetic policies for load tests and benchmarks. Row {@code n} is a pure
+ * function of the seed and {@code n}: it gets its own random stream, so the
+ * output is identical however the rows are split across threads, and any
+ * slice of a large dataset can be regenerated on its own.
+ * <p>
+ * Output is rendered in blocks on a {@link ForkJoinPool} and written in row
+ * order, one window of blocks ahead of the writer, so memory stays bounded
+ * for any row count. CSV output has the columns
+ * {@link com.insurancepolicy.ingest.MappedPolicyCsvReader} imports and
+ * NDJSON the shape of {@code InsurancePolicyDTO}, as the bulk endpoints read it.
+ */
+public final class PolicyDataGenerator {
+
+	public enum Format {
+		CSV, NDJSON
+	}
+
+	public static final String CSV_HEADER = "policyNumber,policyType,premiumAmount,startDate,endDate,isActive,customerId\n";
+
+	// rows rendered by one fork-join leaf
+	static final int BLOCK_ROWS = 8192;
+
+	private static final long MILLIS_PER_DAY = 86_400_000L;
+
+	// 2^64 / golden ratio, the SplitMix64 increment
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long seed;
+
+	private final String[] policyTypes;
+
+	private final double[] policyTypeCdf;
+
+	private final double logMinPremium;
+
+	private final double logPremiumRange;
+
+	private final long minPremiumCents;
+
+	private final int customers;
+
+	// cumulative Zipf weights of customer ranks; null when uniform
+	private final double[] customerCdf;
+
+	private final long firstStartDay;
+
+	private final long startDays;
+
+	private final int[] termDays;
+
+	private final long asOfDay;
+
+	private final double cancelRate;
+
+	private final String policyNumberPrefix;
+
+	public PolicyDataGenerator(PolicyGeneratorSettings settings) {
+		this.seed = settings.getSeed();
+		Map<String, Double> weights = settings.getPolicyTypeWeights();
+		if (weights.isEmpty()) {
+			throw new IllegalArgumentException("At least one policy type is needed");
+		}
+		this.policyTypes = weights.keySet().toArray(new String[0]);
+		this.policyTypeCdf = cumulative(weights.values().stream().mapToDouble(Double::doubleValue).toArray());
+		BigDecimal minPremium = settings.getMinPremium().max(new BigDecimal("0.01"));
+		BigDecimal maxPremium = settings.getMaxPremium().max(minPremium);
+		this.minPremiumCents = minPremium.movePointRight(2).longValue();
+		this.logMinPremium = Math.log(minPremium.doubleValue());
+		this.logPremiumRange = Math.log(maxPremium.doubleValue()) - logMinPremium;
+		this.customers = Math.max(1, settings.getCustomers());
+		this.customerCdf = settings.getCustomerSkew() > 0 ? zipfCdf(customers, settings.getCustomerSkew()) : null;
+		this.firstStartDay = settings.getStartFrom().toEpochDay();
+		this.startDays = Math.max(1, settings.getStartTo().toEpochDay() - firstStartDay);
+		this.termDays = settings.getTermDays().length == 0 ? new int[] { 365 } : settings.getTermDays().clone();
+		this.asOfDay = settings.getAsOf().toEpochDay();
+		this.cancelRate = settings.getCancelRate();
+		this.policyNumberPrefix = settings.getPolicyNumberPrefix();
+	}
+
+	private static double[] cumulative(double[] weights) {
+		double[] cdf = new double[weights.length];
+		double total = 0;
+		for (int i = 0; i < weights.length; i++) {
+			total += Math.max(0, weights[i]);
+			cdf[i] = total;
+		}
+		for (int i = 0; i < cdf.length; i++) {
+			cdf[i] /= total;
+		}
+		return cdf;
+	}
+
+	private static double[] zipfCdf(int n, double exponent) {
+		double[] weights = new double[n];
+		for (int rank = 1; rank <= n; rank++) {
+			weights[rank - 1] = 1 / Math.pow(rank, exponent);
+		}
+		return cumulative(weights);
+	}
+
+	// first index whose cumulative weight exceeds u
+	private static int pick(double[] cdf, double u) {
+		int index = Arrays.binarySearch(cdf, u);
+		index = index < 0 ? -index - 1 : index + 1;
+		return Math.min(index, cdf.length - 1);
+	}
+
+	// SplitMix64's finaliser, to decorrelate the streams of neighbouring rows
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Row {@code row} (0-based) of the dataset; its policy number is the prefix
+	 * followed by {@code row + 1}. The id is left null.
+	 */
+	public InsurancePolicy policy(long row) {
+		SplittableRandom random = new SplittableRandom(mix(seed + row * GOLDEN_GAMMA));
+		String policyType = policyTypes[pick(policyTypeCdf, random.nextDouble())];
+		long cents = Math.round(Math.exp(logMinPremium + random.nextDouble() * logPremiumRange) * 100);
+		int customerId = customerCdf == null ? 1 + random.nextInt(customers)
+				: 1 + pick(customerCdf, random.nextDouble());
+		long startDay = firstStartDay + random.nextLong(startDays);
+		long endDay = startDay + termDays[random.nextInt(termDays.length)];
+		boolean active = endDay > asOfDay && random.nextDouble() >= cancelRate;
+		return new InsurancePolicy(null, policyNumberPrefix + (row + 1), policyType,
+				BigDecimal.valueOf(Math.max(cents, minPremiumCents), 2), new Date(startDay * MILLIS_PER_DAY),
+				new Date(endDay * MILLIS_PER_DAY), active, customerId);
+	}
+
+	/**
+	 * Rows {@code [from, to)}, generated as the iterator is consumed.
+	 */
+	public Iterator<InsurancePolicy> policies(long from, long to) {
+		return new Iterator<>() {
+
+			private long next = from;
+
+			@Override
+			public boolean hasNext() {
+				return next < to;
+			}
+
+			@Override
+			public InsurancePolicy next() {
+				if (next >= to) {
+					throw new NoSuchElementException();
+				}
+				return policy(next++);
+			}
+		};
+	}
+
+	void append(InsurancePolicy policy, Format format, StringBuilder out) {
+		String start = LocalDate.ofEpochDay(Math.floorDiv(policy.getStartDate().getTime(), MILLIS_PER_DAY)).toString();
+		String end = LocalDate.ofEpochDay(Math.floorDiv(policy.getEndDate().getTime(), MILLIS_PER_DAY)).toString();
+		if (format == Format.CSV) {
+			out.append(policy.getPolicyNumber()).append(',');
+			appendCsvField(policy.getPolicyType(), out);
+			out.append(',').append(policy.getPremiumAmount().toPlainString()).append(',').append(start).append(',')
+					.append(end).append(',').append(policy.isActive()).append(',').append(policy.getCustomerId())
+					.append('\n');
+		} else {
+			out.append("{\"policyNumber\":");
+			appendJsonString(policy.getPolicyNumber(), out);
+			out.append(",\"policyType\":");
+			appendJsonString(policy.getPolicyType(), out);
+			out.append(",\"premiumAmount\":").append(policy.getPremiumAmount().toPlainString())
+					.append(",\"startDate\":\"").append(start).append("\",\"endDate\":\"").append(end)
+					.append("\",\"active\":").append(policy.isActive()).append(",\"customerId\":")
+					.append(policy.getCustomerId()).append("}\n");
+		}
+	}
+
+	private static void appendCsvField(String value, StringBuilder out) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			out.append(value);
+		} else {
+			out.append('"').append(value.replace("\"", "\"\"")).append('"');
+		}
+	}
+
+	private static void appendJsonString(String value, StringBuilder out) {
+		out.append('"');
+		for (int i = 0, n = value.length(); i < n; i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.append('\\').append(c);
+			} else if (c < 0x20) {
+				out.append(String.format("\\u%04x", (int) c));
+			} else {
+				out.append(c);
+			}
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Writes {@code rows} rows to {@code out}, which is not closed. Blocks are
+	 * rendered on {@code pool} while the previous window is being written.
+	 */
+	public void write(OutputStream out, long rows, Format format, ForkJoinPool pool) throws IOException {
+		if (format == Format.CSV) {
+			out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+		}
+		long blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+		int window = Math.max(2, pool.getParallelism() * 2);
+		ForkJoinTask<byte[][]> pending = blocks == 0 ? null
+				: pool.submit(new RenderBlocks(0, Math.min(window, blocks), rows, format));
+		for (long first = 0; first < blocks; first += window) {
+			byte[][] rendered = pending.join();
+			long nextFirst = first + window;
+			pending = nextFirst < blocks
+					? pool.submit(new RenderBlocks(nextFirst, Math.min(nextFirst + window, blocks), rows, format))
+					: null;
+			for (byte[] block : rendered) {
+				out.write(block);
+			}
+		}
+	}
+
+	/**
+	 * Renders blocks {@code [from, to)}, splitting the range in half until one
+	 * block is left.
+	 */
+	private final class RenderBlocks extends RecursiveTask<byte[][]> {
+
+		private final long from;
+
+		private final long to;
+
+		private final long rows;
+
+		private final Format format;
+
+		private final byte[][] result;
+
+		private final int offset;
+
+		RenderBlocks(long from, long to, long rows, Format format) {
+			this(from, to, rows, format, new byte[(int) (to - from)][], 0);
+		}
+
+		private RenderBlocks(long from, long to, long rows, Format format, byte[][] result, int offset) {
+			this.from = from;
+			this.to = to;
+			this.rows = rows;
+			this.format = format;
+			this.result = result;
+			this.offset = offset;
+		}
+
+		@Override
+		protected byte[][] compute() {
+			if (to - from == 1) {
+				StringBuilder out = new StringBuilder(BLOCK_ROWS * 80);
+				for (long row = from * BLOCK_ROWS, end = Math.min(rows, row + BLOCK_ROWS); row < end; row++) {
+					append(policy(row), format, out);
+				}
+				result[offset] = out.toString().getBytes(StandardCharsets.UTF_8);
+			} else {
+				long middle = (from + to) >>> 1;
+				invokeAll(new RenderBlocks(from, middle, rows, format, result, offset),
+						new RenderBlocks(middle, to, rows, format, result, offset + (int) (middle - from)));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Inserts {@code rows} rows through
+	 * {@link InsurancePolicyService#importInsurancePolicies}, one block per
+	 * fork-join leaf, so {@code pool}'s parallelism is the number of concurrent
+	 * writers. Returns the number inserted; rows the database refuses (such as
+	 * policy numbers left over from an earlier run) go to {@code failures}.
+	 */
+	public long insert(long rows, InsurancePolicyService service, ForkJoinPool pool,
+			BiConsumer<InsurancePolicy, String> failures) {
+		long blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+		return blocks == 0 ? 0 : pool.invoke(new InsertBlocks(0, blocks, rows, service, failures));
+	}
+
+	private final class InsertBlocks extends RecursiveTask<Long> {
+
+		private final long from;
+
+		private final long to;
+
+		private final long rows;
+
+		private final InsurancePolicyService service;
+
+		private final BiConsumer<InsurancePolicy, String> failures;
+
+		InsertBlocks(long from, long to, long rows, InsurancePolicyService service,
+				BiConsumer<InsurancePolicy, String> failures) {
+			this.from = from;
+			this.to = to;
+			this.rows = rows;
+			this.service = service;
+			this.failures = failures;
+		}
+
+		@Override
+		protected Long compute() {
+			if (to - from == 1) {
+				long first = from * BLOCK_ROWS;
+				return service.importInsurancePolicies(policies(first, Math.min(rows, first + BLOCK_ROWS)), failures);
+			}
+			long middle = (from + to) >>> 1;
+			InsertBlocks right = new InsertBlocks(middle, to, rows, service, failures);
+			right.fork();
+			long left = new InsertBlocks(from, middle, rows, service, failures).compute();
+			return left + right.join();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.insurancepolicy.datagen;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The distributions {@link PolicyDataGenerator} draws from. The defaults give
+ * a plausible book of business: mostly health and motor policies, premiums
+ * log-uniform between 100 and 50,000, customers Zipf-distributed so a few hold
+ * many policies, one- to three-year terms starting in 2020-2025.
+ */
+public class PolicyGeneratorSettings {
+
+	private long seed = 42;
+
+	private Map<String, Double> policyTypeWeights = defaultPolicyTypeWeights();
+
+	private BigDecimal minPremium = new BigDecimal("100.00");
+
+	private BigDecimal maxPremium = new BigDecimal("50000.00");
+
+	private int customers = 100_000;
+
+	// Zipf exponent of the customer ids; 0 is uniform, around 1 is a typical long tail
+	private double customerSkew = 1.1;
+
+	private LocalDate startFrom = LocalDate.of(2020, 1, 1);
+
+	// exclusive
+	private LocalDate startTo = LocalDate.of(2026, 1, 1);
+
+	private int[] termDays = { 365, 730, 1095 };
+
+	// policies that end before this date are inactive
+	private LocalDate asOf = LocalDate.of(2026, 1, 1);
+
+	// share of the policies still in term that are inactive (cancelled)
+	private double cancelRate = 0.05;
+
+	private String policyNumberPrefix = "GEN";
+
+	// not Map.of: its iteration order changes from run to run
+	private static Map<String, Double> defaultPolicyTypeWeights() {
+		Map<String, Double> weights = new LinkedHashMap<>();
+		weights.put("Health", 35.0);
+		weights.put("Motor", 30.0);
+		weights.put("Life", 15.0);
+		weights.put("Home", 15.0);
+		weights.put("Travel", 5.0);
+		return weights;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public Map<String, Double> getPolicyTypeWeights() {
+		return policyTypeWeights;
+	}
+
+	/**
+	 * Iteration order matters for reproducibility: pass a
+	 * {@link LinkedHashMap}.
+	 */
+	public void setPolicyTypeWeights(Map<String, Double> policyTypeWeights) {
+		this.policyTypeWeights = policyTypeWeights;
+	}
+
+	public BigDecimal getMinPremium() {
+		return minPremium;
+	}
+
+	public void setMinPremium(BigDecimal minPremium) {
+		this.minPremium = minPremium;
+	}
+
+	public BigDecimal getMaxPremium() {
+		return maxPremium;
+	}
+
+	public void setMaxPremium(BigDecimal maxPremium) {
+		this.maxPremium = maxPremium;
+	}
+
+	public int getCustomers() {
+		return customers;
+	}
+
+	public void setCustomers(int customers) {
+		this.customers = customers;
+	}
+
+	public double getCustomerSkew() {
+		return customerSkew;
+	}
+
+	public void setCustomerSkew(double customerSkew) {
+		this.customerSkew = customerSkew;
+	}
+
+	public LocalDate getStartFrom() {
+		return startFrom;
+	}
+
+	public void setStartFrom(LocalDate startFrom) {
+		this.startFrom = startFrom;
+	}
+
+	public LocalDate getStartTo() {
+		return startTo;
+	}
+
+	public void setStartTo(LocalDate startTo) {
+		this.startTo = startTo;
+	}
+
+	public int[] getTermDays() {
+		return termDays;
+	}
+
+	public void setTermDays(int[] termDays) {
+		this.termDays = termDays;
+	}
+
+	public LocalDate getAsOf() {
+		return asOf;
+	}
+
+	public void setAsOf(LocalDate asOf) {
+		this.asOf = asOf;
+	}
+
+	public double getCancelRate() {
+		return cancelRate;
+	}
+
+	public void setCancelRate(double cancelRate) {
+		this.cancelRate = cancelRate;
+	}
+
+	public String getPolicyNumberPrefix() {
+		return policyNumberPrefix;
+	}
+
+	public void setPolicyNumberPrefix(String policyNumberPrefix) {
+		this.policyNumberPrefix = policyNumberPrefix;
+	}
+}
@@ -0,0 +1,69 @@
+package com.insurancepolicy.dto;
+
+public class BulkItemResultDTO {
+
+	public static final String CREATED = "CREATED";
+	public static final String UPDATED = "UPDATED";
+	public static final String DELETED = "DELETED";
+	public static final String FAILED = "FAILED";
+
+	private int index;
+
+	private Long policyId;
+
+	private String status;
+
+	private String error;
+
+	public BulkItemResultDTO() {
+		super();
+	}
+
+	public BulkItemResultDTO(int index, Long policyId, String status, String error) {
+		super();
+		this.index = index;
+		this.policyId = policyId;
+		this.status = status;
+		this.error = error;
+	}
+
+	public static BulkItemResultDTO success(int index, Long policyId, String status) {
+		return new BulkItemResultDTO(index, policyId, status, null);
+	}
+
+	public static BulkItemResultDTO failure(int index, Long policyId, String error) {
+		return new BulkItemResultDTO(index, policyId, FAILED, error);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public Long getPolicyId() {
+		return policyId;
+	}
+
+	public void setPolicyId(Long policyId) {
+		this.policyId = policyId;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+}
@@ -0,0 +1,46 @@
+package com.insurancepolicy.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkResultDTO {
+
+	private int succeeded;
+
+	private int failed;
+
+	private List<BulkItemResultDTO> items = new ArrayList<>();
+
+	public void add(BulkItemResultDTO item) {
+		items.add(item);
+		if (BulkItemResultDTO.FAILED.equals(item.getStatus())) {
+			failed++;
+		} else {
+			succeeded++;
+		}
+	}
+
+	public int getSucceeded() {
+		return succeeded;
+	}
+
+	public void setSucceeded(int succeeded) {
+		this.succeeded = succeeded;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public List<BulkItemResultDTO> getItems() {
+		return items;
+	}
+
+	public void setItems(List<BulkItemResultDTO> items) {
+		this.items = items;
+	}
+}
@@ -3,24 +3,39 @@ package com.insurancepolicy.dto;
 import java.math.BigDecimal;
 import java.util.Date;
 
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
 public class InsurancePolicyDTO {
 
 	private Long policyId;
 
+	@NotNull
+	@Size(max = 20)
 	private String policyNumber;
 
+	@NotNull
+	@Size(min = 2, max = 50)
 	private String policyType;
 
+	@NotNull
+	@DecimalMin("0.01")
 	private BigDecimal premiumAmount;
 
+	@NotNull
 	private Date startDate;
 
+	@NotNull
 	private Date endDate;
 
 	private boolean isActive;
 
 	private int customerId;
 
+	// read-only: updates are made conditional through If-Match, not the body
+	private Long version;
+
 	public InsurancePolicyDTO() {
 		super();
 	}
@@ -102,10 +117,18 @@ public class InsurancePolicyDTO {
 		this.customerId = customerId;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
 		return "InsurancePolicy [policyId=" + policyId + ", policyNumber=" + policyNumber + ", policyType=" + policyType
 				+ ", premiumAmount=" + premiumAmount + ", startDate=" + startDate + ", endDate=" + endDate
-				+ ", isActive=" + isActive + ", customerId=" + customerId + "]";
+				+ ", isActive=" + isActive + ", customerId=" + customerId + ", version=" + version + "]";
 	}
 }
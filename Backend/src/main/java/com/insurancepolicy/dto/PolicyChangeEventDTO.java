@@ -0,0 +1,120 @@
+package com.insurancepolicy.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One published policy change. {@code offset} is its position in the event
+ * log and only grows; delivery is at least once, so consumers drop repeats
+ * by {@code eventId}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PolicyChangeEventDTO {
+
+	public static final String CREATED = "CREATED";
+
+	public static final String UPDATED = "UPDATED";
+
+	public static final String DELETED = "DELETED";
+
+	public static final String EXPIRED = "EXPIRED";
+
+	private long offset;
+
+	private long eventId;
+
+	private String type;
+
+	private Long policyId;
+
+	private String policyNumber;
+
+	// the policy version after the change, when known
+	private Long version;
+
+	private Instant occurredAt;
+
+	// the policy after the change, for CREATED and UPDATED
+	private InsurancePolicyDTO policy;
+
+	public PolicyChangeEventDTO() {
+		super();
+	}
+
+	public PolicyChangeEventDTO(long eventId, String type, Long policyId, String policyNumber, Long version,
+			Instant occurredAt, InsurancePolicyDTO policy) {
+		super();
+		this.eventId = eventId;
+		this.type = type;
+		this.policyId = policyId;
+		this.policyNumber = policyNumber;
+		this.version = version;
+		this.occurredAt = occurredAt;
+		this.policy = policy;
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+	public void setOffset(long offset) {
+		this.offset = offset;
+	}
+
+	public long getEventId() {
+		return eventId;
+	}
+
+	public void setEventId(long eventId) {
+		this.eventId = eventId;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public Long getPolicyId() {
+		return policyId;
+	}
+
+	public void setPolicyId(Long policyId) {
+		this.policyId = policyId;
+	}
+
+	public String getPolicyNumber() {
+		return policyNumber;
+	}
+
+	public void setPolicyNumber(String policyNumber) {
+		this.policyNumber = policyNumber;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Instant getOccurredAt() {
+		return occurredAt;
+	}
+
+	public void setOccurredAt(Instant occurredAt) {
+		this.occurredAt = occurredAt;
+	}
+
+	public InsurancePolicyDTO getPolicy() {
+		return policy;
+	}
+
+	public void setPolicy(InsurancePolicyDTO policy) {
+		this.policy = policy;
+	}
+}
@@ -0,0 +1,47 @@
+package com.insurancepolicy.dto;
+
+import java.util.List;
+
+public class PolicyPageDTO {
+
+	private List<InsurancePolicyDTO> content;
+
+	private int size;
+
+	private Long nextCursor;
+
+	public PolicyPageDTO() {
+		super();
+	}
+
+	public PolicyPageDTO(List<InsurancePolicyDTO> content, Long nextCursor) {
+		super();
+		this.content = content;
+		this.size = content.size();
+		this.nextCursor = nextCursor;
+	}
+
+	public List<InsurancePolicyDTO> getContent() {
+		return content;
+	}
+
+	public void setContent(List<InsurancePolicyDTO> content) {
+		this.content = content;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public Long getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(Long nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
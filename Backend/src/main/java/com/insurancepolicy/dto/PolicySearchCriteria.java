@@ -0,0 +1,83 @@
+package com.insurancepolicy.dto;
+
+import java.util.Date;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+
+/**
+ * Optional filters for policy search; a null field does not constrain the
+ * result. {@code endFrom} and {@code endTo} are inclusive. Archived policies
+ * are only searched with {@code includeArchived}; with no filters that lists
+ * the hot and archived policies together.
+ */
+public class PolicySearchCriteria {
+
+	private Integer customerId;
+
+	private String policyType;
+
+	private Boolean active;
+
+	@DateTimeFormat(iso = ISO.DATE)
+	private Date endFrom;
+
+	@DateTimeFormat(iso = ISO.DATE)
+	private Date endTo;
+
+	private boolean includeArchived;
+
+	public Integer getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Integer customerId) {
+		this.customerId = customerId;
+	}
+
+	public String getPolicyType() {
+		return policyType;
+	}
+
+	public void setPolicyType(String policyType) {
+		this.policyType = policyType;
+	}
+
+	public Boolean getActive() {
+		return active;
+	}
+
+	public void setActive(Boolean active) {
+		this.active = active;
+	}
+
+	public Date getEndFrom() {
+		return endFrom;
+	}
+
+	public void setEndFrom(Date endFrom) {
+		this.endFrom = endFrom;
+	}
+
+	public Date getEndTo() {
+		return endTo;
+	}
+
+	public void setEndTo(Date endTo) {
+		this.endTo = endTo;
+	}
+
+	public boolean isIncludeArchived() {
+		return includeArchived;
+	}
+
+	public void setIncludeArchived(boolean includeArchived) {
+		this.includeArchived = includeArchived;
+	}
+
+	@Override
+	public String toString() {
+		return "PolicySearchCriteria [customerId=" + customerId + ", policyType=" + policyType + ", active=" + active
+				+ ", endFrom=" + endFrom + ", endTo=" + endTo + ", includeArchived=" + includeArchived + "]";
+	}
+}
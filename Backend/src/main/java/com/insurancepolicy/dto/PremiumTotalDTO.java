@@ -0,0 +1,53 @@
+package com.insurancepolicy.dto;
+
+import java.math.BigDecimal;
+
+public class PremiumTotalDTO {
+
+	// the policy type, the start month (yyyy-MM) or the customer id
+	private String key;
+
+	private long policyCount;
+
+	private BigDecimal premiumTotal;
+
+	public PremiumTotalDTO() {
+		super();
+	}
+
+	public PremiumTotalDTO(String key, long policyCount, BigDecimal premiumTotal) {
+		super();
+		this.key = key;
+		this.policyCount = policyCount;
+		this.premiumTotal = premiumTotal;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public void setKey(String key) {
+		this.key = key;
+	}
+
+	public long getPolicyCount() {
+		return policyCount;
+	}
+
+	public void setPolicyCount(long policyCount) {
+		this.policyCount = policyCount;
+	}
+
+	public BigDecimal getPremiumTotal() {
+		return premiumTotal;
+	}
+
+	public void setPremiumTotal(BigDecimal premiumTotal) {
+		this.premiumTotal = premiumTotal;
+	}
+
+	@Override
+	public String toString() {
+		return "PremiumTotalDTO [key=" + key + ", policyCount=" + policyCount + ", premiumTotal=" + premiumTotal + "]";
+	}
+}
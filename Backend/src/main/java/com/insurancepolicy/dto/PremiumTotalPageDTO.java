@@ -0,0 +1,47 @@
+package com.insurancepolicy.dto;
+
+import java.util.List;
+
+public class PremiumTotalPageDTO {
+
+	private List<PremiumTotalDTO> content;
+
+	private int size;
+
+	private Integer nextCursor;
+
+	public PremiumTotalPageDTO() {
+		super();
+	}
+
+	public PremiumTotalPageDTO(List<PremiumTotalDTO> content, Integer nextCursor) {
+		super();
+		this.content = content;
+		this.size = content.size();
+		this.nextCursor = nextCursor;
+	}
+
+	public List<PremiumTotalDTO> getContent() {
+		return content;
+	}
+
+	public void setContent(List<PremiumTotalDTO> content) {
+		this.content = content;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public Integer getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(Integer nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
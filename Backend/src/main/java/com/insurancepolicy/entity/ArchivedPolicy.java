@@ -0,0 +1,111 @@
+package com.insurancepolicy.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * An inactive policy moved out of {@code insurance_policy} by the archive job
+ * once it ended long enough ago. Keeps the policy's id and last version and is
+ * never written again, so the version is a plain column here. Policy numbers
+ * are not unique: a number is free for a new policy once its holder is
+ * archived.
+ */
+@Entity
+@Table(name = "insurance_policy_archive", indexes = {
+		@Index(name = "idx_archive_customer", columnList = "customerId"),
+		@Index(name = "idx_archive_number", columnList = "policyNumber"),
+		@Index(name = "idx_archive_end", columnList = "endDate") })
+public class ArchivedPolicy {
+
+	@Id
+	private Long policyId;
+
+	@Column(nullable = false, length = 20)
+	private String policyNumber;
+
+	@Column(nullable = false, length = 50)
+	private String policyType;
+
+	@Column(nullable = false, precision = 12, scale = 2)
+	private BigDecimal premiumAmount;
+
+	@Column(nullable = false)
+	private Date startDate;
+
+	@Column(nullable = false)
+	private Date endDate;
+
+	private boolean isActive;
+
+	private int customerId;
+
+	private long version;
+
+	@Column(nullable = false)
+	private LocalDate archivedOn;
+
+	public ArchivedPolicy() {
+		super();
+	}
+
+	public ArchivedPolicy(InsurancePolicy policy, LocalDate archivedOn) {
+		super();
+		this.policyId = policy.getPolicyId();
+		this.policyNumber = policy.getPolicyNumber();
+		this.policyType = policy.getPolicyType();
+		this.premiumAmount = policy.getPremiumAmount();
+		this.startDate = policy.getStartDate();
+		this.endDate = policy.getEndDate();
+		this.isActive = policy.isActive();
+		this.customerId = policy.getCustomerId();
+		this.version = policy.getVersion();
+		this.archivedOn = archivedOn;
+	}
+
+	public Long getPolicyId() {
+		return policyId;
+	}
+
+	public String getPolicyNumber() {
+		return policyNumber;
+	}
+
+	public String getPolicyType() {
+		return policyType;
+	}
+
+	public BigDecimal getPremiumAmount() {
+		return premiumAmount;
+	}
+
+	public Date getStartDate() {
+		return startDate;
+	}
+
+	public Date getEndDate() {
+		return endDate;
+	}
+
+	public boolean isActive() {
+		return isActive;
+	}
+
+	public int getCustomerId() {
+		return customerId;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public LocalDate getArchivedOn() {
+		return archivedOn;
+	}
+}
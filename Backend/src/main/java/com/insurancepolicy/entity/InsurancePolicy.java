@@ -3,24 +3,60 @@ package com.insurancepolicy.entity;
 import java.math.BigDecimal;
 import java.util.Date;
 
-public class InsurancePolicy {
-
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import com.insurancepolicy.repo.PolicyFigures;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+
+@Entity
+@Table(name = "insurance_policy", indexes = {
+		@Index(name = "idx_policy_customer", columnList = "customerId"),
+		@Index(name = "idx_policy_active_end", columnList = "isActive, endDate") }, uniqueConstraints = {
+				@UniqueConstraint(name = "uk_policy_number", columnNames = "policyNumber") })
+public class InsurancePolicy implements PolicyFigures {
+
+	// a pooled sequence rather than IDENTITY so Hibernate can batch inserts; when
+	// sharded, the id also carries the shard routing (see PolicyShardKeys)
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "insurance_policy_seq")
+	@GenericGenerator(name = "insurance_policy_seq", strategy = "com.insurancepolicy.sharding.ShardedPolicyIdGenerator",
+			parameters = { @Parameter(name = "sequence_name", value = "insurance_policy_seq"),
+					@Parameter(name = "increment_size", value = "100") })
 	private Long policyId;
 
+	@Column(nullable = false, length = 20)
 	private String policyNumber;
 
+	@Column(nullable = false, length = 50)
 	private String policyType;
 
+	@Column(nullable = false, precision = 12, scale = 2)
 	private BigDecimal premiumAmount;
 
+	@Column(nullable = false)
 	private Date startDate;
 
+	@Column(nullable = false)
 	private Date endDate;
 
 	private boolean isActive;
 
 	private int customerId;
 
+	// optimistic lock: checked in the UPDATE/DELETE where clause and exposed as the ETag
+	@Version
+	private long version;
+
 	public InsurancePolicy() {
 		super();
 	}
@@ -38,6 +74,7 @@ public class InsurancePolicy {
 		this.customerId = customerId;
 	}
 
+	@Override
 	public Long getPolicyId() {
 		return policyId;
 	}
@@ -46,6 +83,7 @@ public class InsurancePolicy {
 		this.policyId = policyId;
 	}
 
+	@Override
 	public String getPolicyNumber() {
 		return policyNumber;
 	}
@@ -54,6 +92,7 @@ public class InsurancePolicy {
 		this.policyNumber = policyNumber;
 	}
 
+	@Override
 	public String getPolicyType() {
 		return policyType;
 	}
@@ -62,6 +101,7 @@ public class InsurancePolicy {
 		this.policyType = policyType;
 	}
 
+	@Override
 	public BigDecimal getPremiumAmount() {
 		return premiumAmount;
 	}
@@ -70,6 +110,7 @@ public class InsurancePolicy {
 		this.premiumAmount = premiumAmount;
 	}
 
+	@Override
 	public Date getStartDate() {
 		return startDate;
 	}
@@ -102,10 +143,18 @@ public class InsurancePolicy {
 		this.customerId = customerId;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
 		return "InsurancePolicy [policyId=" + policyId + ", policyNumber=" + policyNumber + ", policyType=" + policyType
 				+ ", premiumAmount=" + premiumAmount + ", startDate=" + startDate + ", endDate=" + endDate
-				+ ", isActive=" + isActive + ", customerId=" + customerId + "]";
+				+ ", isActive=" + isActive + ", customerId=" + customerId + ", version=" + version + "]";
 	}
 }
@@ -0,0 +1,125 @@
+package com.insurancepolicy.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Progress of one partition (a policy id range) of a lifecycle job run: the
+ * keyset position reached, committed together with each chunk so a restarted
+ * run carries on from there.
+ */
+@Entity
+@Table(name = "policy_job_checkpoint")
+public class PolicyJobCheckpoint {
+
+	@Id
+	@Column(length = 64)
+	private String id;
+
+	@Column(nullable = false, length = 32)
+	private String jobName;
+
+	private int partitionNo;
+
+	@Column(nullable = false)
+	private LocalDate runDate;
+
+	// inclusive policy id range of the partition
+	private long firstId;
+
+	private long lastId;
+
+	// (endDate, policyId) of the last row processed
+	@Column(nullable = false)
+	private Date cursorEndDate;
+
+	private long cursorPolicyId;
+
+	private long processed;
+
+	private boolean completed;
+
+	private Instant updatedAt;
+
+	public PolicyJobCheckpoint() {
+		super();
+	}
+
+	public PolicyJobCheckpoint(String jobName, int partitionNo, LocalDate runDate, long firstId, long lastId,
+			Date cursorEndDate) {
+		super();
+		this.id = jobName + "#" + partitionNo;
+		this.jobName = jobName;
+		this.partitionNo = partitionNo;
+		this.runDate = runDate;
+		this.firstId = firstId;
+		this.lastId = lastId;
+		this.cursorEndDate = cursorEndDate;
+		this.updatedAt = Instant.now();
+	}
+
+	/**
+	 * Moves the cursor past a processed chunk whose last row is given.
+	 */
+	public void advance(Date endDate, long policyId, int rows) {
+		this.cursorEndDate = endDate;
+		this.cursorPolicyId = policyId;
+		this.processed += rows;
+		this.updatedAt = Instant.now();
+	}
+
+	public void complete() {
+		this.completed = true;
+		this.updatedAt = Instant.now();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	public int getPartitionNo() {
+		return partitionNo;
+	}
+
+	public LocalDate getRunDate() {
+		return runDate;
+	}
+
+	public long getFirstId() {
+		return firstId;
+	}
+
+	public long getLastId() {
+		return lastId;
+	}
+
+	public Date getCursorEndDate() {
+		return cursorEndDate;
+	}
+
+	public long getCursorPolicyId() {
+		return cursorPolicyId;
+	}
+
+	public long getProcessed() {
+		return processed;
+	}
+
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+}
@@ -0,0 +1,89 @@
+package com.insurancepolicy.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * A policy change written in the same transaction as the change itself and
+ * deleted once the relay has published it. The id orders events of one
+ * policy, but ids are drawn before commit, so it is not an offset: the
+ * published log assigns those.
+ */
+@Entity
+@Table(name = "policy_outbox")
+public class PolicyOutboxEvent {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "policy_outbox_seq")
+	@SequenceGenerator(name = "policy_outbox_seq", sequenceName = "policy_outbox_seq", allocationSize = 100)
+	private Long eventId;
+
+	@Column(nullable = false, length = 16)
+	private String eventType;
+
+	@Column(nullable = false)
+	private Long policyId;
+
+	@Column(length = 20)
+	private String policyNumber;
+
+	// known for creations, updates and deletions through the service
+	private Long policyVersion;
+
+	// the policy as JSON after the change; null for deletions and expiries
+	@Column(length = 2000)
+	private String payload;
+
+	@Column(nullable = false)
+	private Instant occurredAt;
+
+	public PolicyOutboxEvent() {
+		super();
+	}
+
+	public PolicyOutboxEvent(String eventType, Long policyId, String policyNumber, Long policyVersion, String payload,
+			Instant occurredAt) {
+		super();
+		this.eventType = eventType;
+		this.policyId = policyId;
+		this.policyNumber = policyNumber;
+		this.policyVersion = policyVersion;
+		this.payload = payload;
+		this.occurredAt = occurredAt;
+	}
+
+	public Long getEventId() {
+		return eventId;
+	}
+
+	public String getEventType() {
+		return eventType;
+	}
+
+	public Long getPolicyId() {
+		return policyId;
+	}
+
+	public String getPolicyNumber() {
+		return policyNumber;
+	}
+
+	public Long getPolicyVersion() {
+		return policyVersion;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public Instant getOccurredAt() {
+		return occurredAt;
+	}
+}
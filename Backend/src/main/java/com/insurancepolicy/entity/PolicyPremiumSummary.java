@@ -0,0 +1,60 @@
+package com.insurancepolicy.entity;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Running policy count and premium total per policy type and start month
+ * (yyyymm), kept in step with {@code insurance_policy} by the service writes.
+ * Small enough (types x months) that the dashboard aggregates read it whole.
+ */
+@Entity
+@IdClass(PolicyPremiumSummaryId.class)
+@Table(name = "policy_premium_summary")
+public class PolicyPremiumSummary {
+
+	@Id
+	@Column(length = 50)
+	private String policyType;
+
+	@Id
+	private int startMonth;
+
+	private long policyCount;
+
+	@Column(nullable = false, precision = 19, scale = 2)
+	private BigDecimal premiumTotal;
+
+	public PolicyPremiumSummary() {
+		super();
+	}
+
+	public PolicyPremiumSummary(String policyType, int startMonth, long policyCount, BigDecimal premiumTotal) {
+		super();
+		this.policyType = policyType;
+		this.startMonth = startMonth;
+		this.policyCount = policyCount;
+		this.premiumTotal = premiumTotal;
+	}
+
+	public String getPolicyType() {
+		return policyType;
+	}
+
+	public int getStartMonth() {
+		return startMonth;
+	}
+
+	public long getPolicyCount() {
+		return policyCount;
+	}
+
+	public BigDecimal getPremiumTotal() {
+		return premiumTotal;
+	}
+}
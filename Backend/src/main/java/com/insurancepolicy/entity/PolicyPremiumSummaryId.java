@@ -0,0 +1,57 @@
+package com.insurancepolicy.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Key of {@link PolicyPremiumSummary}. Ordered so that writers touching several
+ * summary rows lock them in the same order.
+ */
+public class PolicyPremiumSummaryId implements Serializable, Comparable<PolicyPremiumSummaryId> {
+
+	private static final long serialVersionUID = 1L;
+
+	private String policyType;
+
+	private int startMonth;
+
+	public PolicyPremiumSummaryId() {
+		super();
+	}
+
+	public PolicyPremiumSummaryId(String policyType, int startMonth) {
+		super();
+		this.policyType = policyType;
+		this.startMonth = startMonth;
+	}
+
+	public String getPolicyType() {
+		return policyType;
+	}
+
+	public int getStartMonth() {
+		return startMonth;
+	}
+
+	@Override
+	public int compareTo(PolicyPremiumSummaryId other) {
+		int byType = policyType.compareTo(other.policyType);
+		return byType != 0 ? byType : Integer.compare(startMonth, other.startMonth);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof PolicyPremiumSummaryId other && startMonth == other.startMonth
+				&& policyType.equals(other.policyType);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(policyType, startMonth);
+	}
+
+	@Override
+	public String toString() {
+		return policyType + "/" + startMonth;
+	}
+}
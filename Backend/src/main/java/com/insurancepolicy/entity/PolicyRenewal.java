@@ -0,0 +1,58 @@
+package com.insurancepolicy.entity;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * An active policy flagged for renewal because its end date falls within the
+ * renewal window. Re-flagged when the policy's end date changes.
+ */
+@Entity
+@Table(name = "policy_renewal")
+public class PolicyRenewal {
+
+	@Id
+	private Long policyId;
+
+	@Column(nullable = false)
+	private Date endDate;
+
+	@Column(nullable = false)
+	private LocalDate flaggedOn;
+
+	public PolicyRenewal() {
+		super();
+	}
+
+	public PolicyRenewal(Long policyId, Date endDate, LocalDate flaggedOn) {
+		super();
+		this.policyId = policyId;
+		this.endDate = endDate;
+		this.flaggedOn = flaggedOn;
+	}
+
+	public Long getPolicyId() {
+		return policyId;
+	}
+
+	public Date getEndDate() {
+		return endDate;
+	}
+
+	public void setEndDate(Date endDate) {
+		this.endDate = endDate;
+	}
+
+	public LocalDate getFlaggedOn() {
+		return flaggedOn;
+	}
+
+	public void setFlaggedOn(LocalDate flaggedOn) {
+		this.flaggedOn = flaggedOn;
+	}
+}
@@ -0,0 +1,34 @@
+package com.insurancepolicy.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The shard a policy bucket lives on, one row per bucket, kept on shard 0.
+ * Mapped only so the schema update creates the table; the shard directory
+ * reads and writes it over plain JDBC.
+ */
+@Entity
+@Table(name = "policy_shard_bucket")
+public class PolicyShardBucket {
+
+	@Id
+	private Integer bucket;
+
+	@Column(nullable = false)
+	private int shard;
+
+	public PolicyShardBucket() {
+		super();
+	}
+
+	public Integer getBucket() {
+		return bucket;
+	}
+
+	public int getShard() {
+		return shard;
+	}
+}
@@ -0,0 +1,34 @@
+package com.insurancepolicy.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The single row the replica health check stamps on the primary and reads
+ * back from each replica to measure its lag. Mapped only so the schema update
+ * creates the table; it is read and written over plain JDBC.
+ */
+@Entity
+@Table(name = "replica_heartbeat")
+public class ReplicaHeartbeat {
+
+	@Id
+	private Integer id;
+
+	@Column(name = "beat_millis", nullable = false)
+	private long beatMillis;
+
+	public ReplicaHeartbeat() {
+		super();
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+	public long getBeatMillis() {
+		return beatMillis;
+	}
+}
@@ -0,0 +1,217 @@
+package com.insurancepolicy.events;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insurancepolicy.dto.PolicyChangeEventDTO;
+import com.insurancepolicy.exception.GoneException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The built-in sink, which the HTTP consumers read: an append-only log that
+ * numbers events with consecutive offsets from 0 and keeps the latest
+ * {@code insurancepolicy.events.retained} of them in a ring. With
+ * {@code insurancepolicy.events.file} set, events are also appended to that
+ * file as NDJSON, and the ring and next offset are recovered from it at
+ * startup; otherwise offsets start over when the application restarts.
+ * <p>
+ * Ordered first among the sinks so the others see the offsets too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PolicyEventLog implements PolicyEventSink {
+
+	private final PolicyChangeEventDTO[] ring;
+
+	private final Path file;
+
+	private final ObjectWriter lineWriter;
+
+	private final Writer out;
+
+	private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+	// Locks, not monitors, so waiting virtual threads do not pin their carriers.
+	// Publishers take turns on the first, numbering and writing their batch to
+	// the file; only then do they take the second to add it to the ring, so
+	// readers never wait on the disk.
+	private final ReentrantLock appending = new ReentrantLock();
+
+	private final ReentrantReadWriteLock ringLock = new ReentrantReadWriteLock();
+
+	// written under both locks, read under either
+	private long nextOffset;
+
+	// the first offset in a recovered file, which may have been truncated at the front
+	private long floorOffset;
+
+	public PolicyEventLog(ObjectMapper objectMapper, @Value("${insurancepolicy.events.retained:100000}") int retained,
+			@Value("${insurancepolicy.events.file:}") String file) throws IOException {
+		this.ring = new PolicyChangeEventDTO[Math.max(1, retained)];
+		this.lineWriter = objectMapper.writerFor(PolicyChangeEventDTO.class);
+		this.file = file.isEmpty() ? null : Paths.get(file);
+		if (this.file == null) {
+			this.out = null;
+			return;
+		}
+		if (Files.exists(this.file)) {
+			recover(objectMapper.readerFor(PolicyChangeEventDTO.class));
+		}
+		this.out = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND);
+	}
+
+	private void recover(ObjectReader lineReader) throws IOException {
+		boolean first = true;
+		try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			for (String line = in.readLine(); line != null; line = in.readLine()) {
+				if (!line.isBlank()) {
+					PolicyChangeEventDTO event = lineReader.readValue(line);
+					if (first) {
+						floorOffset = event.getOffset();
+						first = false;
+					}
+					ring[(int) (event.getOffset() % ring.length)] = event;
+					nextOffset = event.getOffset() + 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Appends the batch, to the file first when there is one, so an event is
+	 * never readable under an offset a restart would hand out again.
+	 */
+	@Override
+	public void publish(List<PolicyChangeEventDTO> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+		appending.lock();
+		try {
+			long offset = nextOffset;
+			for (PolicyChangeEventDTO event : events) {
+				event.setOffset(offset++);
+			}
+			if (out != null) {
+				try {
+					for (PolicyChangeEventDTO event : events) {
+						out.write(lineWriter.writeValueAsString(event));
+						out.write('\n');
+					}
+					out.flush();
+				} catch (IOException e) {
+					throw new UncheckedIOException("Could not append to the policy event log " + file, e);
+				}
+			}
+			ringLock.writeLock().lock();
+			try {
+				for (PolicyChangeEventDTO event : events) {
+					ring[(int) (event.getOffset() % ring.length)] = event;
+				}
+				nextOffset = offset;
+			} finally {
+				ringLock.writeLock().unlock();
+			}
+		} finally {
+			appending.unlock();
+		}
+		listeners.forEach(Runnable::run);
+	}
+
+	/**
+	 * Up to {@code max} events with an offset greater than {@code after}, in
+	 * offset order; empty when there are none yet. Throws
+	 * {@link GoneException} when events after {@code after} have already left
+	 * the ring.
+	 */
+	public List<PolicyChangeEventDTO> read(long after, int max) {
+		ringLock.readLock().lock();
+		try {
+			long first = firstOffset();
+			if (after + 1 < first) {
+				throw new GoneException("Offset " + after + " is no longer retained; the oldest event is " + first);
+			}
+			if (after + 1 >= nextOffset) {
+				return Collections.emptyList();
+			}
+			int count = (int) Math.min(max, nextOffset - after - 1);
+			List<PolicyChangeEventDTO> events = new ArrayList<>(count);
+			for (long offset = after + 1; offset <= after + count; offset++) {
+				events.add(ring[(int) (offset % ring.length)]);
+			}
+			return events;
+		} finally {
+			ringLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The oldest offset still retained; equal to {@link #getNextOffset()} when
+	 * the log is empty.
+	 */
+	public long getFirstOffset() {
+		ringLock.readLock().lock();
+		try {
+			return firstOffset();
+		} finally {
+			ringLock.readLock().unlock();
+		}
+	}
+
+	private long firstOffset() {
+		return Math.max(floorOffset, nextOffset - ring.length);
+	}
+
+	public long getNextOffset() {
+		ringLock.readLock().lock();
+		try {
+			return nextOffset;
+		} finally {
+			ringLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Registers a callback run on the publishing thread after each appended
+	 * batch; it must not block. Returns the action that unregisters it.
+	 */
+	public Runnable subscribe(Runnable listener) {
+		listeners.add(listener);
+		return () -> listeners.remove(listener);
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		appending.lock();
+		try {
+			if (out != null) {
+				out.close();
+			}
+		} finally {
+			appending.unlock();
+		}
+	}
+}
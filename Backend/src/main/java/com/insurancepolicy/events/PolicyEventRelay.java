@@ -0,0 +1,182 @@
+package com.insurancepolicy.events;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyChangeEventDTO;
+import com.insurancepolicy.entity.PolicyOutboxEvent;
+import com.insurancepolicy.repo.PolicyOutboxRepository;
+import com.insurancepolicy.routing.ReadRouting;
+import com.insurancepolicy.sharding.PolicyShards;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Moves committed events from the outbox to the sinks, a batch at a time, on
+ * one background thread: woken right after each writing transaction commits,
+ * and every {@code insurancepolicy.events.relay-interval-ms} to pick up
+ * anything missed or left by a failed attempt.
+ * <p>
+ * A batch is deleted from the outbox only after every sink took it, so
+ * delivery is at least once: a crash or a failing sink means a batch may be
+ * published again. An event whose transaction commits after later-numbered
+ * ones is simply relayed in a later batch, never skipped. One relay per
+ * database: on several instances, enable it on one. Sharded, each shard has
+ * its own outbox and they are drained in turn, so event ids are only unique
+ * within a shard and order is only kept per policy.
+ */
+@Component
+public class PolicyEventRelay {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PolicyEventRelay.class);
+
+	private final PolicyOutboxRepository outboxRepository;
+
+	private final List<PolicyEventSink> sinks;
+
+	private final PolicyShards policyShards;
+
+	private final ObjectReader policyReader;
+
+	private final Counter published;
+
+	private final Timer batchTimer;
+
+	private final int batchSize;
+
+	private final long intervalMillis;
+
+	private final boolean enabled;
+
+	private final ScheduledExecutorService executor;
+
+	// a wake-up is queued and has not started draining yet
+	private final AtomicBoolean wakeUpQueued = new AtomicBoolean();
+
+	public PolicyEventRelay(PolicyOutboxRepository outboxRepository, List<PolicyEventSink> sinks,
+			PolicyShards policyShards, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+			@Value("${insurancepolicy.events.relay-batch-size:500}") int batchSize,
+			@Value("${insurancepolicy.events.relay-interval-ms:1000}") long intervalMillis,
+			@Value("${insurancepolicy.events.relay-enabled:true}") boolean enabled) {
+		this.outboxRepository = outboxRepository;
+		this.sinks = sinks;
+		this.policyShards = policyShards;
+		this.policyReader = objectMapper.readerFor(InsurancePolicyDTO.class);
+		this.published = Counter.builder("insurancepolicy.events.published")
+				.description("Policy change events relayed from the outbox to the sinks").register(meterRegistry);
+		this.batchTimer = Timer.builder("insurancepolicy.events.relay")
+				.description("Time to publish and delete one outbox batch").register(meterRegistry);
+		this.batchSize = Math.max(1, batchSize);
+		this.intervalMillis = Math.max(1, intervalMillis);
+		this.enabled = enabled;
+		this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "policy-event-relay");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PostConstruct
+	public void start() {
+		if (enabled) {
+			executor.scheduleWithFixedDelay(this::drain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Asks for a drain soon; wake-ups arriving while one is queued are merged.
+	 */
+	public void wakeUp() {
+		if (enabled && wakeUpQueued.compareAndSet(false, true)) {
+			try {
+				executor.execute(() -> {
+					wakeUpQueued.set(false);
+					drain();
+				});
+			} catch (RejectedExecutionException e) {
+				// shutting down; whatever is left is relayed after the restart
+			}
+		}
+	}
+
+	/**
+	 * Relays until the outbox is empty or a batch fails. Runs on the relay
+	 * thread only, so batches never overlap.
+	 */
+	void drain() {
+		try {
+			policyShards.eachShard(this::drainShard);
+		} catch (RuntimeException e) {
+			LOG.warn("Relaying policy events failed, retrying in {} ms", intervalMillis, e);
+		}
+	}
+
+	private int drainShard() {
+		int relayed = 0;
+		int batch;
+		do {
+			batch = relayBatch();
+			relayed += batch;
+			// a full batch: there may be more
+		} while (batch == batchSize);
+		return relayed;
+	}
+
+	private int relayBatch() {
+		// a replica may still hold events this relay has already deleted
+		List<PolicyOutboxEvent> batch = ReadRouting
+				.onPrimary(() -> outboxRepository.findOldest(PageRequest.ofSize(batchSize)));
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		long started = System.nanoTime();
+		List<PolicyChangeEventDTO> events = new ArrayList<>(batch.size());
+		List<Long> ids = new ArrayList<>(batch.size());
+		for (PolicyOutboxEvent event : batch) {
+			events.add(toEvent(event));
+			ids.add(event.getEventId());
+		}
+		for (PolicyEventSink sink : sinks) {
+			sink.publish(events);
+		}
+		outboxRepository.deleteAllByIdInBatch(ids);
+		published.increment(batch.size());
+		batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+		return batch.size();
+	}
+
+	private PolicyChangeEventDTO toEvent(PolicyOutboxEvent event) {
+		try {
+			return new PolicyChangeEventDTO(event.getEventId(), event.getEventType(), event.getPolicyId(),
+					event.getPolicyNumber(), event.getPolicyVersion(), event.getOccurredAt(),
+					event.getPayload() == null ? null : policyReader.readValue(event.getPayload()));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unreadable payload in outbox event " + event.getEventId(), e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,19 @@
+package com.insurancepolicy.events;
+
+import java.util.List;
+
+import com.insurancepolicy.dto.PolicyChangeEventDTO;
+
+/**
+ * Destination of the events relayed from the outbox. Every sink bean receives
+ * every batch, in outbox order; a broker-backed sink is added by declaring
+ * another bean.
+ */
+public interface PolicyEventSink {
+
+	/**
+	 * Publishes one batch. Throwing leaves the batch in the outbox, so it is
+	 * offered again, to every sink, on the next attempt.
+	 */
+	void publish(List<PolicyChangeEventDTO> events);
+}
@@ -0,0 +1,166 @@
+package com.insurancepolicy.events;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.insurancepolicy.dto.PolicyChangeEventDTO;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Serves the {@link PolicyEventLog} to HTTP consumers, either as a long poll
+ * that answers as soon as there is an event after the consumer's offset, or
+ * as a server-sent event stream. Neither holds a request thread while waiting:
+ * polls complete from the relay's publish callback, and streams are written
+ * on a separate pool so a slow consumer cannot hold up the relay.
+ */
+@Component
+public class PolicyEventStreamer {
+
+	private final PolicyEventLog eventLog;
+
+	private final int maxBatch;
+
+	private final long maxWaitMillis;
+
+	private final long streamTimeoutMillis;
+
+	private final ExecutorService pushers;
+
+	public PolicyEventStreamer(PolicyEventLog eventLog, @Value("${insurancepolicy.events.max-batch:1000}") int maxBatch,
+			@Value("${insurancepolicy.events.max-wait-ms:30000}") long maxWaitMillis,
+			@Value("${insurancepolicy.events.stream-timeout-ms:1800000}") long streamTimeoutMillis) {
+		this.eventLog = eventLog;
+		this.maxBatch = Math.max(1, maxBatch);
+		this.maxWaitMillis = maxWaitMillis;
+		this.streamTimeoutMillis = streamTimeoutMillis;
+		AtomicInteger threads = new AtomicInteger();
+		this.pushers = Executors.newCachedThreadPool(task -> {
+			Thread thread = new Thread(task, "policy-event-push-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * The events after {@code after} (from the oldest retained one when null),
+	 * waiting up to {@code waitMillis} for the first one; an empty list when
+	 * none arrived in time.
+	 */
+	public DeferredResult<List<PolicyChangeEventDTO>> poll(Long after, int limit, long waitMillis) {
+		long from = after == null ? eventLog.getFirstOffset() - 1 : after;
+		int max = Math.max(1, Math.min(limit, maxBatch));
+		long wait = Math.max(0, Math.min(waitMillis, maxWaitMillis));
+		DeferredResult<List<PolicyChangeEventDTO>> result = new DeferredResult<>(wait, List::of);
+		List<PolicyChangeEventDTO> events = eventLog.read(from, max);
+		if (!events.isEmpty() || wait == 0) {
+			result.setResult(events);
+			return result;
+		}
+		Runnable unsubscribe = eventLog.subscribe(() -> {
+			try {
+				List<PolicyChangeEventDTO> published = eventLog.read(from, max);
+				if (!published.isEmpty()) {
+					result.setResult(published);
+				}
+			} catch (RuntimeException e) {
+				result.setErrorResult(e);
+			}
+		});
+		result.onCompletion(unsubscribe);
+		// published between the read and the subscription
+		List<PolicyChangeEventDTO> published = eventLog.read(from, max);
+		if (!published.isEmpty()) {
+			result.setResult(published);
+		}
+		return result;
+	}
+
+	/**
+	 * Streams the events after {@code after} (from the next one published when
+	 * null), each with its offset as the SSE id, so a reconnecting client's
+	 * {@code Last-Event-ID} resumes it.
+	 */
+	public SseEmitter stream(Long after) {
+		long from = after == null ? eventLog.getNextOffset() - 1 : after;
+		// fail the request itself, before the stream starts, if the offset is gone
+		eventLog.read(from, 1);
+		SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+		Subscriber subscriber = new Subscriber(emitter, from);
+		Runnable unsubscribe = eventLog.subscribe(subscriber::schedule);
+		emitter.onCompletion(unsubscribe);
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(error -> unsubscribe.run());
+		subscriber.schedule();
+		return emitter;
+	}
+
+	/**
+	 * One stream's cursor. Pushes are coalesced and run one at a time.
+	 */
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		// a lock, not synchronized: a push blocks on the client's socket, and a
+		// virtual thread waiting for it must not pin its carrier
+		private final ReentrantLock pushing = new ReentrantLock();
+
+		// only touched by the push holding pushing
+		private long cursor;
+
+		Subscriber(SseEmitter emitter, long cursor) {
+			this.emitter = emitter;
+			this.cursor = cursor;
+		}
+
+		void schedule() {
+			if (scheduled.compareAndSet(false, true)) {
+				try {
+					pushers.execute(this::push);
+				} catch (RejectedExecutionException e) {
+					emitter.complete();
+				}
+			}
+		}
+
+		private void push() {
+			pushing.lock();
+			try {
+				scheduled.set(false);
+				for (List<PolicyChangeEventDTO> events = eventLog.read(cursor, maxBatch); !events
+						.isEmpty(); events = eventLog.read(cursor, maxBatch)) {
+					for (PolicyChangeEventDTO event : events) {
+						emitter.send(SseEmitter.event().id(Long.toString(event.getOffset())).name(event.getType())
+								.data(event, MediaType.APPLICATION_JSON));
+						cursor = event.getOffset();
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				// the client went away, or fell so far behind its offset is gone
+				emitter.completeWithError(e);
+			} finally {
+				pushing.unlock();
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pushers.shutdownNow();
+	}
+}
@@ -0,0 +1,24 @@
+package com.insurancepolicy.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * An expected outcome reported to the client, such as an unknown policy id,
+ * rather than a fault. These are thrown on hot paths (scrapers probing ids)
+ * and always turned into a response by {@link RestExceptionHandler}, so they
+ * skip the stack trace and suppression list: creating one costs no more than
+ * any other small object.
+ */
+public abstract class BusinessException extends RuntimeException {
+
+	private final HttpStatus status;
+
+	protected BusinessException(HttpStatus status, String message) {
+		super(message, null, false, false);
+		this.status = status;
+	}
+
+	public HttpStatus getStatus() {
+		return status;
+	}
+}
@@ -0,0 +1,11 @@
+package com.insurancepolicy.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class GoneException extends BusinessException {
+	public GoneException(String message) {
+		super(HttpStatus.GONE, message);
+	}
+}
@@ -4,8 +4,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.NOT_FOUND)
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends BusinessException {
 	public NotFoundException(String message) {
-		super(message);
+		super(HttpStatus.NOT_FOUND, message);
 	}
 }
@@ -0,0 +1,11 @@
+package com.insurancepolicy.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends BusinessException {
+	public PreconditionFailedException(String message) {
+		super(HttpStatus.PRECONDITION_FAILED, message);
+	}
+}
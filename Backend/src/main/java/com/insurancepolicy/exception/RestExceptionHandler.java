@@ -1,18 +1,102 @@
 package com.insurancepolicy.exception;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 
+/**
+ * Errors are answered as RFC 7807 problem details
+ * ({@code application/problem+json}) with the message as {@code detail}. The
+ * serialised body is cached per status and message, so the common ones (an
+ * unknown policy, a version mismatch) are written from the same bytes every
+ * time; messages that embed request data stop being cached once
+ * {@value #MAX_CACHED_PROBLEMS} distinct bodies are held.
+ */
 @RestControllerAdvice
 public class RestExceptionHandler {
 
-	@ExceptionHandler(NotFoundException.class)
-	@ResponseStatus(HttpStatus.NOT_FOUND)
-	public ErrorResponse handleResourceNotFoundException(NotFoundException ex) {
-		return new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage());
+	private static final int MAX_CACHED_PROBLEMS = 1024;
+
+	private static final String CONCURRENT_MODIFICATION_MESSAGE = "Insurance Policy was modified concurrently";
+
+	private final ObjectMapper objectMapper;
+
+	private final Map<String, byte[]> problems = new ConcurrentHashMap<>();
+
+	public RestExceptionHandler(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
 	}
 
-	// Other exception handlers...
+	// not found, precondition failed, bad request and gone
+	@ExceptionHandler(BusinessException.class)
+	public ResponseEntity<byte[]> handleBusinessException(BusinessException ex) {
+		return problem(ex.getStatus(), ex.getMessage());
+	}
+
+	// an unconditional write raced another one between its read and its flush
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<byte[]> handleConcurrentModification(OptimisticLockingFailureException ex) {
+		return problem(HttpStatus.CONFLICT, CONCURRENT_MODIFICATION_MESSAGE);
+	}
+
+	@ExceptionHandler({ JsonProcessingException.class, RuntimeJsonMappingException.class })
+	public ResponseEntity<byte[]> handleMalformedBody(Exception ex) {
+		return problem(HttpStatus.BAD_REQUEST, "Malformed request body: " + ex.getMessage());
+	}
+
+	// @Valid on a servlet request body
+	@ExceptionHandler(MethodArgumentNotValidException.class)
+	public ResponseEntity<byte[]> handleInvalidBody(MethodArgumentNotValidException ex) {
+		return problem(HttpStatus.BAD_REQUEST, violations(ex.getFieldErrors()));
+	}
+
+	// @Valid on a reactive request body
+	@ExceptionHandler(WebExchangeBindException.class)
+	public ResponseEntity<byte[]> handleInvalidBody(WebExchangeBindException ex) {
+		return problem(HttpStatus.BAD_REQUEST, violations(ex.getFieldErrors()));
+	}
+
+	/**
+	 * Same form as the bulk endpoints report per item.
+	 */
+	private static String violations(List<FieldError> errors) {
+		return errors.stream().map(error -> error.getField() + " " + error.getDefaultMessage()).sorted()
+				.collect(Collectors.joining("; "));
+	}
+
+	ResponseEntity<byte[]> problem(HttpStatus status, String message) {
+		String key = status.value() + " " + message;
+		byte[] body = problems.get(key);
+		if (body == null) {
+			body = serialise(status, message);
+			if (problems.size() < MAX_CACHED_PROBLEMS) {
+				problems.putIfAbsent(key, body);
+			}
+		}
+		return ResponseEntity.status(status).contentType(MediaType.APPLICATION_PROBLEM_JSON).body(body);
+	}
+
+	private byte[] serialise(HttpStatus status, String message) {
+		try {
+			return objectMapper.writeValueAsBytes(ProblemDetail.forStatusAndDetail(status, message));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialise a problem detail", e);
+		}
+	}
 }
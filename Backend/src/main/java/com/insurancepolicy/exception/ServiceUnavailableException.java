@@ -0,0 +1,11 @@
+package com.insurancepolicy.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends BusinessException {
+	public ServiceUnavailableException(String message) {
+		super(HttpStatus.SERVICE_UNAVAILABLE, message);
+	}
+}
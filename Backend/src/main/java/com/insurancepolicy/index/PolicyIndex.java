@@ -0,0 +1,477 @@
+package com.insurancepolicy.index;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+import com.insurancepolicy.repo.PolicyKey;
+import com.insurancepolicy.routing.ReadRouting;
+import com.insurancepolicy.sharding.PolicyShards;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Optional in-process copy of the policy table for lookups by policy id,
+ * policy number and customer id without a database round trip. Policies are
+ * held as fixed-width off-heap records ({@link PolicyRecordStore}) behind
+ * primitive hash tables of slots ({@link SlotTable}), so the heap holds no
+ * object per policy: about 72 bytes per record plus 4 per table cell.
+ * <p>
+ * Loaded in the background once the application is ready, and kept in step
+ * by the service's write paths, which hand their changes over to be applied
+ * when the transaction commits. A stale write never replaces a newer version.
+ * Lookups answer null until the load has finished, and for policies that do
+ * not fit a record (a policy number longer than
+ * {@value PolicyRecordStore#MAX_NUMBER_BYTES} bytes); callers then go to the
+ * database. Writes made by other application instances are not seen.
+ */
+@Component
+public class PolicyIndex {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PolicyIndex.class);
+
+	private static final int LOAD_BATCH_SIZE = 1000;
+
+	private static final long NOT_INDEXABLE = Long.MIN_VALUE;
+
+	private enum ChangeType {
+		STORED, DELETED, EXPIRED
+	}
+
+	private record Change(ChangeType type, PolicyKey policy) {
+	}
+
+	private final InsurancePolicyRepository insurancePolicyRepository;
+
+	private final EntityManager entityManager;
+
+	private final TransactionTemplate readOnlyTransaction;
+
+	private final PolicyShards policyShards;
+
+	private final boolean enabled;
+
+	private final StampedLock lock = new StampedLock();
+
+	// everything below is guarded by lock
+
+	private final PolicyRecordStore records = new PolicyRecordStore();
+
+	private final SlotTable byId;
+
+	private final SlotTable byNumber;
+
+	// one cell per customer, pointing at the head of that customer's chain of records
+	private final SlotTable byCustomer;
+
+	private final List<String> types = new ArrayList<>();
+
+	private final Map<String, Short> typeCodes = new HashMap<>();
+
+	// deleted or expired while the load runs: the load may still read the old row
+	private Set<Long> skipOnLoad = new HashSet<>();
+
+	private volatile boolean ready;
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	public PolicyIndex(InsurancePolicyRepository insurancePolicyRepository, EntityManager entityManager,
+			PlatformTransactionManager transactionManager, PolicyShards policyShards, MeterRegistry meterRegistry,
+			@Value("${insurancepolicy.index.enabled:false}") boolean enabled,
+			@Value("${insurancepolicy.index.expected-size:100000}") int expectedSize) {
+		this.insurancePolicyRepository = insurancePolicyRepository;
+		this.entityManager = entityManager;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.policyShards = policyShards;
+		this.enabled = enabled;
+		this.byId = new SlotTable(expectedSize, records::policyId);
+		this.byNumber = new SlotTable(expectedSize, records::policyNumberHash);
+		this.byCustomer = new SlotTable(expectedSize, slot -> records.customerId(slot));
+		this.hits = Counter.builder("insurancepolicy.index.lookups").tag("result", "hit")
+				.description("Policy lookups answered by the in-memory index").register(meterRegistry);
+		this.misses = Counter.builder("insurancepolicy.index.lookups").tag("result", "miss")
+				.description("Policy lookups the in-memory index could not answer").register(meterRegistry);
+		Gauge.builder("insurancepolicy.index.size", this, PolicyIndex::size)
+				.description("Policies held by the in-memory index").register(meterRegistry);
+		Gauge.builder("insurancepolicy.index.memory", this, PolicyIndex::memoryBytes).baseUnit("bytes")
+				.description("Off-heap records and hash tables of the in-memory index").register(meterRegistry);
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * The policy as last committed through this instance, or null when the
+	 * index cannot tell.
+	 */
+	public InsurancePolicyDTO findById(long policyId) {
+		if (!ready) {
+			return null;
+		}
+		InsurancePolicyDTO policy;
+		long stamp = lock.readLock();
+		try {
+			int slot = slotOf(policyId);
+			policy = slot < 0 ? null : toDto(slot);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+		return counted(policy);
+	}
+
+	/**
+	 * Like {@link #findById(long)}.
+	 */
+	public InsurancePolicyDTO findByNumber(String policyNumber) {
+		byte[] number = policyNumber.getBytes(StandardCharsets.UTF_8);
+		if (!ready || number.length > PolicyRecordStore.MAX_NUMBER_BYTES) {
+			return null;
+		}
+		InsurancePolicyDTO policy;
+		long stamp = lock.readLock();
+		try {
+			int slot = byNumber.find(PolicyRecordStore.hashOf(number), s -> records.hasPolicyNumber(s, number));
+			policy = slot < 0 ? null : toDto(slot);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+		return counted(policy);
+	}
+
+	/**
+	 * The customer's indexed policies, newest write first, or null before the
+	 * index is loaded.
+	 */
+	public List<InsurancePolicyDTO> findByCustomer(int customerId) {
+		if (!ready) {
+			return null;
+		}
+		List<InsurancePolicyDTO> policies = new ArrayList<>();
+		long stamp = lock.readLock();
+		try {
+			for (int slot = headOf(customerId); slot >= 0; slot = records.nextByCustomer(slot)) {
+				policies.add(toDto(slot));
+			}
+		} finally {
+			lock.unlockRead(stamp);
+		}
+		hits.increment();
+		return policies;
+	}
+
+	public int size() {
+		long stamp = lock.readLock();
+		try {
+			return records.size();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	public long memoryBytes() {
+		long stamp = lock.readLock();
+		try {
+			return records.memoryBytes() + byId.memoryBytes() + byNumber.memoryBytes() + byCustomer.memoryBytes();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Records a created or updated policy, applied once the current transaction
+	 * commits. The entity is read at that point, so it carries the committed
+	 * version.
+	 */
+	public void stored(InsurancePolicy policy) {
+		onCommit(new Change(ChangeType.STORED, policy));
+	}
+
+	public void deleted(PolicyKey policy) {
+		onCommit(new Change(ChangeType.DELETED, policy));
+	}
+
+	/**
+	 * Records a deactivation by the expiry job, which also bumped the version.
+	 */
+	public void expired(PolicyKey policy) {
+		onCommit(new Change(ChangeType.EXPIRED, policy));
+	}
+
+	private void onCommit(Change change) {
+		if (!enabled) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			apply(List.of(change));
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		List<Change> changes = (List<Change>) TransactionSynchronizationManager.getResource(this);
+		if (changes == null) {
+			List<Change> pending = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					apply(pending);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(PolicyIndex.this);
+				}
+			});
+			changes = pending;
+		}
+		changes.add(change);
+	}
+
+	private void apply(List<Change> changes) {
+		long stamp = lock.writeLock();
+		try {
+			for (Change change : changes) {
+				switch (change.type()) {
+				case STORED -> put((InsurancePolicy) change.policy());
+				case DELETED -> remove(change.policy().getPolicyId());
+				case EXPIRED -> deactivate(change.policy().getPolicyId());
+				}
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		if (!enabled) {
+			return;
+		}
+		long started = System.nanoTime();
+		// from the primary: a lagging replica could bring back a policy deleted just before
+		policyShards.eachShard(() -> ReadRouting.onPrimary(() -> readOnlyTransaction.execute(status -> {
+			try (Stream<InsurancePolicy> policies = insurancePolicyRepository.streamAll()) {
+				// the persistence context is cleared after every batch
+				loadBatches(policies.iterator(), entityManager::clear);
+			}
+			return null;
+		})));
+		loaded();
+		LOG.info("Policy index loaded {} policies into {} bytes in {} ms", size(), memoryBytes(),
+				(System.nanoTime() - started) / 1_000_000);
+	}
+
+	/**
+	 * Adds every policy from {@code policies}, a batch per write lock, then
+	 * starts answering lookups.
+	 */
+	public void load(Iterator<InsurancePolicy> policies, Runnable afterBatch) {
+		loadBatches(policies, afterBatch);
+		loaded();
+	}
+
+	// a shard at a time when sharded; a policy being moved is read twice, and put() keeps the later version
+	private void loadBatches(Iterator<InsurancePolicy> policies, Runnable afterBatch) {
+		List<InsurancePolicy> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+		while (policies.hasNext()) {
+			batch.add(policies.next());
+			if (batch.size() == LOAD_BATCH_SIZE || !policies.hasNext()) {
+				long stamp = lock.writeLock();
+				try {
+					for (InsurancePolicy policy : batch) {
+						if (!skipOnLoad.contains(policy.getPolicyId())) {
+							put(policy);
+						}
+					}
+				} finally {
+					lock.unlockWrite(stamp);
+				}
+				batch.clear();
+				afterBatch.run();
+			}
+		}
+	}
+
+	private void loaded() {
+		long stamp = lock.writeLock();
+		try {
+			skipOnLoad = null;
+			ready = true;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	private void put(InsurancePolicy policy) {
+		Long policyId = policy.getPolicyId();
+		if (policyId == null) {
+			return;
+		}
+		int slot = slotOf(policyId);
+		if (slot >= 0 && records.version(slot) > policy.getVersion()) {
+			// a later write has already been applied
+			return;
+		}
+		byte[] number = policy.getPolicyNumber() == null ? null
+				: policy.getPolicyNumber().getBytes(StandardCharsets.UTF_8);
+		long premiumCents = cents(policy.getPremiumAmount());
+		short typeCode = typeCode(policy.getPolicyType());
+		if (number == null || number.length > PolicyRecordStore.MAX_NUMBER_BYTES || premiumCents == NOT_INDEXABLE
+				|| typeCode < 0 || policy.getStartDate() == null || policy.getEndDate() == null) {
+			// left to the database rather than served stale
+			if (slot >= 0) {
+				unlink(slot);
+				records.free(slot);
+			}
+			return;
+		}
+		if (slot >= 0) {
+			unlink(slot);
+		} else {
+			slot = records.allocate();
+		}
+		records.write(slot, policyId, policy.getVersion(), premiumCents, policy.getStartDate().getTime(),
+				policy.getEndDate().getTime(), policy.getCustomerId(), typeCode, policy.isActive(), number);
+		link(slot, number);
+	}
+
+	private void remove(long policyId) {
+		skipDuringLoad(policyId);
+		int slot = slotOf(policyId);
+		if (slot >= 0) {
+			unlink(slot);
+			records.free(slot);
+		}
+	}
+
+	private void deactivate(long policyId) {
+		skipDuringLoad(policyId);
+		int slot = slotOf(policyId);
+		if (slot >= 0) {
+			records.deactivate(slot, records.version(slot) + 1);
+		}
+	}
+
+	private void skipDuringLoad(long policyId) {
+		if (skipOnLoad != null) {
+			skipOnLoad.add(policyId);
+		}
+	}
+
+	private void link(int slot, byte[] number) {
+		byId.add(slot);
+		// a rename applied out of order can leave the number on an older record
+		int previous = byNumber.find(PolicyRecordStore.hashOf(number), s -> records.hasPolicyNumber(s, number));
+		if (previous >= 0) {
+			byNumber.remove(previous);
+		}
+		byNumber.add(slot);
+		int head = headOf(records.customerId(slot));
+		if (head >= 0) {
+			byCustomer.remove(head);
+			records.setNextByCustomer(slot, head);
+		}
+		byCustomer.add(slot);
+	}
+
+	private void unlink(int slot) {
+		byId.remove(slot);
+		byNumber.remove(slot);
+		int head = headOf(records.customerId(slot));
+		if (head == slot) {
+			byCustomer.remove(slot);
+			int next = records.nextByCustomer(slot);
+			if (next >= 0) {
+				byCustomer.add(next);
+			}
+			return;
+		}
+		for (int previous = head; previous >= 0; previous = records.nextByCustomer(previous)) {
+			if (records.nextByCustomer(previous) == slot) {
+				records.setNextByCustomer(previous, records.nextByCustomer(slot));
+				return;
+			}
+		}
+	}
+
+	private int slotOf(long policyId) {
+		return byId.find(policyId, slot -> records.policyId(slot) == policyId);
+	}
+
+	private int headOf(int customerId) {
+		return byCustomer.find(customerId, slot -> records.customerId(slot) == customerId);
+	}
+
+	private short typeCode(String policyType) {
+		if (policyType == null) {
+			return -1;
+		}
+		Short code = typeCodes.get(policyType);
+		if (code == null) {
+			if (types.size() == Short.MAX_VALUE) {
+				return -1;
+			}
+			code = (short) types.size();
+			types.add(policyType);
+			typeCodes.put(policyType, code);
+		}
+		return code;
+	}
+
+	private static long cents(BigDecimal amount) {
+		if (amount == null) {
+			return NOT_INDEXABLE;
+		}
+		try {
+			return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+		} catch (ArithmeticException e) {
+			return NOT_INDEXABLE;
+		}
+	}
+
+	private InsurancePolicyDTO toDto(int slot) {
+		InsurancePolicyDTO dto = new InsurancePolicyDTO(records.policyId(slot),
+				new String(records.policyNumber(slot), StandardCharsets.UTF_8), types.get(records.typeCode(slot)),
+				BigDecimal.valueOf(records.premiumCents(slot), 2), new Date(records.startMillis(slot)),
+				new Date(records.endMillis(slot)), records.isActive(slot), records.customerId(slot));
+		dto.setVersion(records.version(slot));
+		return dto;
+	}
+
+	private InsurancePolicyDTO counted(InsurancePolicyDTO policy) {
+		(policy == null ? misses : hits).increment();
+		return policy;
+	}
+}
@@ -0,0 +1,201 @@
+package com.insurancepolicy.index;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed-width policy records in direct (off-heap) buffers, addressed by slot.
+ * Records live in segments of {@value #SEGMENT_RECORDS} that are allocated as
+ * the store grows and never moved; freed slots are reused. Not thread-safe.
+ * <p>
+ * Layout of one {@value #RECORD_BYTES}-byte record: policy id, version,
+ * premium in cents, start and end date in epoch milliseconds (8 bytes each);
+ * customer id, next slot + 1 of the same customer (4 each); policy type code
+ * (2); flags (1); policy number length (1) and its UTF-8 bytes
+ * ({@value #MAX_NUMBER_BYTES}).
+ */
+final class PolicyRecordStore {
+
+	static final int RECORD_BYTES = 72;
+
+	static final int MAX_NUMBER_BYTES = 20;
+
+	private static final int SEGMENT_SHIFT = 16;
+
+	private static final int SEGMENT_RECORDS = 1 << SEGMENT_SHIFT;
+
+	private static final int ID = 0;
+
+	private static final int VERSION = 8;
+
+	private static final int PREMIUM_CENTS = 16;
+
+	private static final int START_MILLIS = 24;
+
+	private static final int END_MILLIS = 32;
+
+	private static final int CUSTOMER_ID = 40;
+
+	private static final int NEXT_BY_CUSTOMER = 44;
+
+	private static final int TYPE_CODE = 48;
+
+	private static final int FLAGS = 50;
+
+	private static final int NUMBER_LENGTH = 51;
+
+	private static final int NUMBER = 52;
+
+	private static final byte ACTIVE = 1;
+
+	private ByteBuffer[] segments = new ByteBuffer[0];
+
+	// slots below this have been handed out at least once
+	private int highWater;
+
+	private int[] freeSlots = new int[16];
+
+	private int freeCount;
+
+	int allocate() {
+		if (freeCount > 0) {
+			return freeSlots[--freeCount];
+		}
+		if (highWater == segments.length * SEGMENT_RECORDS) {
+			segments = Arrays.copyOf(segments, segments.length + 1);
+			segments[segments.length - 1] = ByteBuffer.allocateDirect(SEGMENT_RECORDS * RECORD_BYTES);
+		}
+		return highWater++;
+	}
+
+	void free(int slot) {
+		if (freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+		}
+		freeSlots[freeCount++] = slot;
+	}
+
+	int size() {
+		return highWater - freeCount;
+	}
+
+	long memoryBytes() {
+		return (long) segments.length * SEGMENT_RECORDS * RECORD_BYTES + (long) freeSlots.length * Integer.BYTES;
+	}
+
+	private ByteBuffer segment(int slot) {
+		return segments[slot >>> SEGMENT_SHIFT];
+	}
+
+	private static int offset(int slot, int field) {
+		return (slot & (SEGMENT_RECORDS - 1)) * RECORD_BYTES + field;
+	}
+
+	long policyId(int slot) {
+		return segment(slot).getLong(offset(slot, ID));
+	}
+
+	long version(int slot) {
+		return segment(slot).getLong(offset(slot, VERSION));
+	}
+
+	long premiumCents(int slot) {
+		return segment(slot).getLong(offset(slot, PREMIUM_CENTS));
+	}
+
+	long startMillis(int slot) {
+		return segment(slot).getLong(offset(slot, START_MILLIS));
+	}
+
+	long endMillis(int slot) {
+		return segment(slot).getLong(offset(slot, END_MILLIS));
+	}
+
+	int customerId(int slot) {
+		return segment(slot).getInt(offset(slot, CUSTOMER_ID));
+	}
+
+	/**
+	 * The next slot of the same customer, or -1.
+	 */
+	int nextByCustomer(int slot) {
+		return segment(slot).getInt(offset(slot, NEXT_BY_CUSTOMER)) - 1;
+	}
+
+	short typeCode(int slot) {
+		return segment(slot).getShort(offset(slot, TYPE_CODE));
+	}
+
+	boolean isActive(int slot) {
+		return (segment(slot).get(offset(slot, FLAGS)) & ACTIVE) != 0;
+	}
+
+	byte[] policyNumber(int slot) {
+		ByteBuffer segment = segment(slot);
+		byte[] number = new byte[segment.get(offset(slot, NUMBER_LENGTH))];
+		segment.get(offset(slot, NUMBER), number);
+		return number;
+	}
+
+	boolean hasPolicyNumber(int slot, byte[] number) {
+		ByteBuffer segment = segment(slot);
+		if (segment.get(offset(slot, NUMBER_LENGTH)) != number.length) {
+			return false;
+		}
+		int at = offset(slot, NUMBER);
+		for (int i = 0; i < number.length; i++) {
+			if (segment.get(at + i) != number[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Same as {@link #hashOf(byte[])} of the record's policy number, without
+	 * copying it out.
+	 */
+	long policyNumberHash(int slot) {
+		ByteBuffer segment = segment(slot);
+		int at = offset(slot, NUMBER);
+		long hash = 1;
+		for (int i = 0, n = segment.get(offset(slot, NUMBER_LENGTH)); i < n; i++) {
+			hash = 31 * hash + segment.get(at + i);
+		}
+		return hash;
+	}
+
+	static long hashOf(byte[] number) {
+		long hash = 1;
+		for (byte b : number) {
+			hash = 31 * hash + b;
+		}
+		return hash;
+	}
+
+	void write(int slot, long policyId, long version, long premiumCents, long startMillis, long endMillis,
+			int customerId, short typeCode, boolean active, byte[] number) {
+		ByteBuffer segment = segment(slot);
+		segment.putLong(offset(slot, ID), policyId);
+		segment.putLong(offset(slot, VERSION), version);
+		segment.putLong(offset(slot, PREMIUM_CENTS), premiumCents);
+		segment.putLong(offset(slot, START_MILLIS), startMillis);
+		segment.putLong(offset(slot, END_MILLIS), endMillis);
+		segment.putInt(offset(slot, CUSTOMER_ID), customerId);
+		segment.putInt(offset(slot, NEXT_BY_CUSTOMER), 0);
+		segment.putShort(offset(slot, TYPE_CODE), typeCode);
+		segment.put(offset(slot, FLAGS), active ? ACTIVE : 0);
+		segment.put(offset(slot, NUMBER_LENGTH), (byte) number.length);
+		segment.put(offset(slot, NUMBER), number);
+	}
+
+	void setNextByCustomer(int slot, int next) {
+		segment(slot).putInt(offset(slot, NEXT_BY_CUSTOMER), next + 1);
+	}
+
+	void deactivate(int slot, long version) {
+		ByteBuffer segment = segment(slot);
+		segment.putLong(offset(slot, VERSION), version);
+		segment.put(offset(slot, FLAGS), (byte) 0);
+	}
+}
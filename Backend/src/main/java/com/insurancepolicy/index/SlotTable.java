@@ -0,0 +1,120 @@
+package com.insurancepolicy.index;
+
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Open-addressing hash table of record slots. It stores no keys of its own,
+ * only {@code slot + 1} per cell (0 is empty): the key is read back from the
+ * record, through {@code hashOfSlot} when rehashing and through the caller's
+ * predicate when looking up. Linear probing, kept at most half full, with
+ * backward-shift deletion so there are no tombstones. Not thread-safe.
+ */
+final class SlotTable {
+
+	private final IntToLongFunction hashOfSlot;
+
+	private int[] cells;
+
+	private int mask;
+
+	private int size;
+
+	SlotTable(int expected, IntToLongFunction hashOfSlot) {
+		this.hashOfSlot = hashOfSlot;
+		int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+		this.cells = new int[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * The slot whose key has {@code hash} and satisfies {@code matches}, or -1.
+	 */
+	int find(long hash, IntPredicate matches) {
+		for (int i = index(hash);; i = (i + 1) & mask) {
+			int cell = cells[i];
+			if (cell == 0) {
+				return -1;
+			}
+			if (matches.test(cell - 1)) {
+				return cell - 1;
+			}
+		}
+	}
+
+	/**
+	 * Adds a slot that is not in the table yet.
+	 */
+	void add(int slot) {
+		if ((size + 1) * 2 > cells.length) {
+			resize(cells.length * 2);
+		}
+		insert(slot);
+		size++;
+	}
+
+	/**
+	 * Removes the slot itself (not just any slot with an equal key); false when
+	 * it is not in the table.
+	 */
+	boolean remove(int slot) {
+		int i = index(hashOfSlot.applyAsLong(slot));
+		for (; cells[i] != slot + 1; i = (i + 1) & mask) {
+			if (cells[i] == 0) {
+				return false;
+			}
+		}
+		// shift back the following cells that probed past the hole
+		for (int hole = i, j = (i + 1) & mask;; j = (j + 1) & mask) {
+			int cell = cells[j];
+			if (cell == 0) {
+				cells[hole] = 0;
+				break;
+			}
+			int home = index(hashOfSlot.applyAsLong(cell - 1));
+			if (((j - home) & mask) >= ((j - hole) & mask)) {
+				cells[hole] = cell;
+				hole = j;
+			}
+		}
+		size--;
+		return true;
+	}
+
+	int size() {
+		return size;
+	}
+
+	long memoryBytes() {
+		return (long) cells.length * Integer.BYTES;
+	}
+
+	private void insert(int slot) {
+		int i = index(hashOfSlot.applyAsLong(slot));
+		while (cells[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		cells[i] = slot + 1;
+	}
+
+	private void resize(int capacity) {
+		int[] old = cells;
+		cells = new int[capacity];
+		mask = capacity - 1;
+		for (int cell : old) {
+			if (cell != 0) {
+				insert(cell - 1);
+			}
+		}
+	}
+
+	private int index(long hash) {
+		// murmur3 finaliser, so sequential ids do not cluster
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb93fe53e46b9L;
+		hash ^= hash >>> 33;
+		return (int) hash & mask;
+	}
+}
@@ -0,0 +1,121 @@
+package com.insurancepolicy.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The fields of an Avro record schema ({@code .avsc}), each compiled to a
+ * {@link FieldRule}. Unions take their first non-null branch and are nullable
+ * when they include {@code "null"}, as in COMPARE_PROGRAM.py. Arrays, nested
+ * records and the other complex types are reported per value as
+ * {@code SCHEMA_TYPE}; none of the shipped schemas use them.
+ */
+public final class AvroCsvSchema {
+
+	private static final ObjectMapper JSON = new ObjectMapper();
+
+	private final String name;
+
+	private final List<FieldRule> fields;
+
+	AvroCsvSchema(String name, List<FieldRule> fields) {
+		this.name = name;
+		this.fields = Collections.unmodifiableList(fields);
+	}
+
+	/**
+	 * Reads the first JSON value of the stream; text after it (bba.avsc ends
+	 * with a stray line) is ignored.
+	 */
+	public static AvroCsvSchema parse(InputStream avsc) throws IOException {
+		JsonNode schema = JSON.readTree(avsc);
+		if (schema == null || !schema.path("fields").isArray()) {
+			throw new IOException("Not an Avro record schema: no \"fields\" array");
+		}
+		List<FieldRule> fields = new ArrayList<>();
+		for (JsonNode field : schema.get("fields")) {
+			fields.add(compile(field.path("name").asText(), field.get("type")));
+		}
+		return new AvroCsvSchema(schema.path("name").asText(), fields);
+	}
+
+	private static FieldRule compile(String name, JsonNode type) {
+		boolean nullable = false;
+		if (type != null && type.isArray()) {
+			JsonNode branch = null;
+			for (JsonNode candidate : type) {
+				if (candidate.isTextual() && "null".equals(candidate.asText())) {
+					nullable = true;
+				} else if (branch == null) {
+					branch = candidate;
+				}
+			}
+			type = branch;
+		}
+		if (type == null) {
+			return new FieldRule(name, nullable, FieldRule.Kind.NULL, 0, 0, "null");
+		}
+		return compileBranch(name, nullable, type);
+	}
+
+	private static FieldRule compileBranch(String name, boolean nullable, JsonNode type) {
+		if (type.isObject()) {
+			String logicalType = type.path("logicalType").asText("");
+			switch (logicalType) {
+			case "date":
+				return new FieldRule(name, nullable, FieldRule.Kind.DATE, 0, 0, logicalType);
+			case "timestamp-millis":
+				return new FieldRule(name, nullable, FieldRule.Kind.TIMESTAMP_MILLIS, 0, 0, logicalType);
+			case "timestamp-micros":
+				return new FieldRule(name, nullable, FieldRule.Kind.TIMESTAMP_MICROS, 0, 0, logicalType);
+			case "decimal":
+				if (!type.hasNonNull("precision") || !type.hasNonNull("scale")) {
+					return new FieldRule(name, nullable, FieldRule.Kind.DECIMAL_WITHOUT_PRECISION, 0, 0, logicalType);
+				}
+				return new FieldRule(name, nullable, FieldRule.Kind.DECIMAL, type.get("precision").asInt(),
+						type.get("scale").asInt(), logicalType);
+			default:
+				JsonNode base = type.get("type");
+				return base == null ? unsupported(name, nullable, type) : compileBranch(name, nullable, base);
+			}
+		}
+		switch (type.asText()) {
+		case "string":
+			return new FieldRule(name, nullable, FieldRule.Kind.STRING, 0, 0, "string");
+		case "boolean":
+			return new FieldRule(name, nullable, FieldRule.Kind.BOOLEAN, 0, 0, "boolean");
+		case "int":
+			return new FieldRule(name, nullable, FieldRule.Kind.INT, 0, 0, "int");
+		case "long":
+		case "bigint":
+			return new FieldRule(name, nullable, FieldRule.Kind.LONG, 0, 0, type.asText());
+		case "float":
+			return new FieldRule(name, nullable, FieldRule.Kind.FLOAT, 0, 0, "float");
+		case "double":
+			return new FieldRule(name, nullable, FieldRule.Kind.DOUBLE, 0, 0, "double");
+		case "null":
+			return new FieldRule(name, nullable, FieldRule.Kind.NULL, 0, 0, "null");
+		default:
+			return unsupported(name, nullable, type);
+		}
+	}
+
+	private static FieldRule unsupported(String name, boolean nullable, JsonNode type) {
+		return new FieldRule(name, nullable, FieldRule.Kind.UNSUPPORTED, 0, 0,
+				type.isTextual() ? type.asText() : type.toString());
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	List<FieldRule> getFields() {
+		return fields;
+	}
+}
@@ -0,0 +1,335 @@
+package com.insurancepolicy.ingest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Streams a CSV file through an {@link AvroCsvSchema} with bounded memory and
+ * writes the same two files as COMPARE_PROGRAM.py: the bad records (original
+ * columns plus {@code __errors__}) and the error log
+ * ({@code row_number,column,error_code,message,value}).
+ * <p>
+ * The calling thread reads the input in chunks of whole records and submits
+ * each chunk to the worker pool; at most {@code maxInFlight} chunks exist at
+ * once. Results are written in submission order, so row numbers and the order
+ * of both files are the same as a sequential run.
+ */
+public final class CsvAvroValidator {
+
+	private static final String LINE_END = "\r\n";
+
+	private static final String ERRORS_COLUMN = "__errors__";
+
+	private static final String ERROR_LOG_HEADER = "row_number,column,error_code,message,value";
+
+	// the header is row 1, so the first data row is row 2
+	private static final int FIRST_DATA_ROW = 2;
+
+	private final AvroCsvSchema schema;
+
+	private final ExecutorService workers;
+
+	private final int chunkBytes;
+
+	private final int maxInFlight;
+
+	public CsvAvroValidator(AvroCsvSchema schema, ExecutorService workers, int chunkBytes, int maxInFlight) {
+		this.schema = schema;
+		this.workers = workers;
+		this.chunkBytes = Math.max(4096, chunkBytes);
+		this.maxInFlight = Math.max(1, maxInFlight);
+	}
+
+	public ValidationReport validate(InputStream csv, Path badRecordsOut, Path errorLogOut) throws IOException {
+		long started = System.nanoTime();
+		Output output = new Output(badRecordsOut, errorLogOut);
+		try (output) {
+			byte[] buffer = new byte[chunkBytes];
+			int length = 0;
+			boolean eof = false;
+
+			// header: the first record
+			int headerEnd = 0;
+			while (headerEnd == 0 && !eof) {
+				if (length == buffer.length) {
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+				int read = csv.read(buffer, length, buffer.length - length);
+				if (read < 0) {
+					eof = true;
+				} else {
+					length += read;
+					headerEnd = CsvFormat.lastRecordEnd(buffer, length);
+					if (headerEnd > 0) {
+						headerEnd = firstRecordEnd(buffer, headerEnd);
+					}
+				}
+			}
+			if (eof && headerEnd == 0) {
+				headerEnd = length;
+			}
+			Columns columns = readHeader(new String(buffer, 0, headerEnd, StandardCharsets.UTF_8), output);
+			System.arraycopy(buffer, headerEnd, buffer, 0, length - headerEnd);
+			length -= headerEnd;
+
+			Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>(maxInFlight);
+			while (!eof || length > 0) {
+				if (!eof && length < buffer.length) {
+					int read = csv.read(buffer, length, buffer.length - length);
+					if (read < 0) {
+						eof = true;
+					} else {
+						length += read;
+						continue;
+					}
+				}
+				int end = eof ? length : CsvFormat.lastRecordEnd(buffer, length);
+				if (end == 0) {
+					// one record longer than the buffer
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					continue;
+				}
+				byte[] chunk = Arrays.copyOf(buffer, end);
+				System.arraycopy(buffer, end, buffer, 0, length - end);
+				length -= end;
+				if (inFlight.size() == maxInFlight) {
+					output.write(await(inFlight.removeFirst()));
+				}
+				inFlight.addLast(workers.submit(() -> validateChunk(chunk, columns)));
+			}
+			while (!inFlight.isEmpty()) {
+				output.write(await(inFlight.removeFirst()));
+			}
+		}
+		return new ValidationReport(schema.getName(), output.rows, output.badRows, output.errors,
+				output.badRecords == null ? null : badRecordsOut.toString(), errorLogOut.toString(),
+				(System.nanoTime() - started) / 1_000_000);
+	}
+
+	private static int firstRecordEnd(byte[] buffer, int limit) {
+		for (int end = 1; end <= limit; end++) {
+			if (buffer[end - 1] == '\n' && CsvFormat.lastRecordEnd(buffer, end) == end) {
+				return end;
+			}
+		}
+		return limit;
+	}
+
+	private static ChunkResult await(Future<ChunkResult> result) throws IOException {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while validating", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Validation of a chunk failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Schema fields mapped to CSV columns. A schema field missing from the header
+	 * validates as an empty value on every row; for a duplicated column the last
+	 * one wins, as with {@code csv.DictReader}.
+	 */
+	private static final class Columns {
+
+		private final List<String> header;
+
+		private final int[] indexOfField;
+
+		Columns(List<String> header, int[] indexOfField) {
+			this.header = header;
+			this.indexOfField = indexOfField;
+		}
+	}
+
+	private Columns readHeader(String headerLine, Output output) throws IOException {
+		List<String> header = new ArrayList<>();
+		CsvFormat.forEachRecord(stripByteOrderMark(headerLine), header::addAll);
+		List<FieldRule> fields = schema.getFields();
+		int[] indexOfField = new int[fields.size()];
+		for (int f = 0; f < fields.size(); f++) {
+			indexOfField[f] = header.lastIndexOf(fields.get(f).getName());
+			if (indexOfField[f] < 0) {
+				output.headerError(fields.get(f).getName(), "MISSING_COLUMN",
+						"Column '" + fields.get(f).getName() + "' missing from CSV header");
+			}
+		}
+		for (String column : header) {
+			if (fields.stream().noneMatch(field -> field.getName().equals(column))) {
+				output.headerError(column, "EXTRA_COLUMN", "Column '" + column + "' not defined in schema");
+			}
+		}
+		output.header = header;
+		return new Columns(header, indexOfField);
+	}
+
+	private static String stripByteOrderMark(String text) {
+		return text.startsWith("\uFEFF") ? text.substring(1) : text;
+	}
+
+	/**
+	 * Runs on a worker. Row numbers in the result are relative to the chunk; the
+	 * writer adds the chunk's offset.
+	 */
+	private ChunkResult validateChunk(byte[] chunk, Columns columns) {
+		List<FieldRule> fields = schema.getFields();
+		ChunkResult result = new ChunkResult();
+		List<String> rowErrors = new ArrayList<>();
+		CsvFormat.forEachRecord(new String(chunk, StandardCharsets.UTF_8), values -> {
+			int row = result.rows++;
+			rowErrors.clear();
+			for (int f = 0; f < fields.size(); f++) {
+				FieldRule field = fields.get(f);
+				int index = columns.indexOfField[f];
+				String value = index >= 0 && index < values.size() ? values.get(index) : "";
+				field.check(value, (code, message) -> {
+					result.violations.add(new Violation(row, field.getName(), code, message, value));
+					rowErrors.add(field.getName() + ": " + code);
+				});
+			}
+			if (!rowErrors.isEmpty()) {
+				result.badRows++;
+				StringBuilder line = result.badRecords;
+				for (int c = 0; c < columns.header.size(); c++) {
+					CsvFormat.appendField(line, c < values.size() ? values.get(c) : "");
+					line.append(',');
+				}
+				CsvFormat.appendField(line, String.join("; ", rowErrors));
+				line.append(LINE_END);
+			}
+		});
+		return result;
+	}
+
+	private static final class Violation {
+
+		private final int row;
+
+		private final String column;
+
+		private final String code;
+
+		private final String message;
+
+		private final String value;
+
+		Violation(int row, String column, String code, String message, String value) {
+			this.row = row;
+			this.column = column;
+			this.code = code;
+			this.message = message;
+			this.value = value;
+		}
+	}
+
+	private static final class ChunkResult {
+
+		private int rows;
+
+		private int badRows;
+
+		private final StringBuilder badRecords = new StringBuilder();
+
+		private final List<Violation> violations = new ArrayList<>();
+	}
+
+	/**
+	 * The two output files. Only the validating thread touches this.
+	 */
+	private static final class Output implements AutoCloseable {
+
+		private final Path badRecordsPath;
+
+		private final Writer errorLog;
+
+		private Writer badRecords;
+
+		private List<String> header;
+
+		private long rows;
+
+		private long badRows;
+
+		private long errors;
+
+		private final StringBuilder line = new StringBuilder();
+
+		Output(Path badRecordsPath, Path errorLogPath) throws IOException {
+			this.badRecordsPath = badRecordsPath;
+			this.errorLog = Files.newBufferedWriter(errorLogPath, StandardCharsets.UTF_8);
+			errorLog.write(ERROR_LOG_HEADER);
+			errorLog.write(LINE_END);
+		}
+
+		void headerError(String column, String code, String message) throws IOException {
+			writeError(0, column, code, message, "");
+		}
+
+		void write(ChunkResult chunk) throws IOException {
+			long firstRow = rows + FIRST_DATA_ROW;
+			for (Violation violation : chunk.violations) {
+				writeError(firstRow + violation.row, violation.column, violation.code, violation.message,
+						violation.value);
+			}
+			if (chunk.badRows > 0) {
+				if (badRecords == null) {
+					badRecords = openBadRecords();
+				}
+				badRecords.append(chunk.badRecords);
+			}
+			rows += chunk.rows;
+			badRows += chunk.badRows;
+		}
+
+		private Writer openBadRecords() throws IOException {
+			BufferedWriter writer = Files.newBufferedWriter(badRecordsPath, StandardCharsets.UTF_8);
+			line.setLength(0);
+			for (String column : header) {
+				CsvFormat.appendField(line, column);
+				line.append(',');
+			}
+			line.append(ERRORS_COLUMN).append(LINE_END);
+			writer.append(line);
+			return writer;
+		}
+
+		private void writeError(long row, String column, String code, String message, String value)
+				throws IOException {
+			line.setLength(0);
+			line.append(row).append(',');
+			CsvFormat.appendField(line, column);
+			line.append(',').append(code).append(',');
+			CsvFormat.appendField(line, message);
+			line.append(',');
+			CsvFormat.appendField(line, value);
+			line.append(LINE_END);
+			errorLog.append(line);
+			errors++;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				errorLog.close();
+			} finally {
+				if (badRecords != null) {
+					badRecords.close();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.insurancepolicy.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The CSV dialect of Python's {@code csv} module defaults (comma, double
+ * quote, doubled quotes as escapes, non-strict). One state machine is used
+ * twice: over raw bytes to find record boundaries for chunking (a newline
+ * inside a quoted field does not end a record), and over characters to split
+ * records into fields.
+ */
+final class CsvFormat {
+
+	private static final int START_FIELD = 0;
+
+	private static final int IN_FIELD = 1;
+
+	private static final int IN_QUOTED_FIELD = 2;
+
+	private static final int QUOTE_IN_QUOTED_FIELD = 3;
+
+	private CsvFormat() {
+	}
+
+	private static int next(int state, int c) {
+		switch (state) {
+		case START_FIELD:
+			return c == '"' ? IN_QUOTED_FIELD : c == ',' || c == '\n' ? START_FIELD : IN_FIELD;
+		case IN_FIELD:
+			return c == ',' || c == '\n' ? START_FIELD : IN_FIELD;
+		case IN_QUOTED_FIELD:
+			return c == '"' ? QUOTE_IN_QUOTED_FIELD : IN_QUOTED_FIELD;
+		default:
+			// a doubled quote, the end of the field, or (non-strict) text after the closing quote
+			return c == '"' ? IN_QUOTED_FIELD : c == ',' || c == '\n' ? START_FIELD : IN_FIELD;
+		}
+	}
+
+	/**
+	 * Index just past the last complete record in {@code bytes[0, length)}, which
+	 * must start at a record boundary, or 0 if no record ends there. Quote,
+	 * comma and newline are single bytes in UTF-8, so no decoding is needed.
+	 */
+	static int lastRecordEnd(byte[] bytes, int length) {
+		int state = START_FIELD;
+		int end = 0;
+		for (int i = 0; i < length; i++) {
+			byte b = bytes[i];
+			if (b == '\n' && state != IN_QUOTED_FIELD) {
+				end = i + 1;
+			}
+			state = next(state, b);
+		}
+		return end;
+	}
+
+	/**
+	 * Splits {@code text} into records and hands each one's fields to
+	 * {@code consumer}. Empty lines are skipped, as {@code csv.DictReader} does,
+	 * and a CR before a record's LF is dropped. The list is reused between
+	 * records.
+	 */
+	static void forEachRecord(String text, Consumer<List<String>> consumer) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		int state = START_FIELD;
+		boolean empty = true;
+		for (int i = 0, n = text.length(); i < n; i++) {
+			char c = text.charAt(i);
+			if (c == '\r' && state != IN_QUOTED_FIELD && i + 1 < n && text.charAt(i + 1) == '\n') {
+				continue;
+			}
+			int next = next(state, c);
+			if (c == '\n' && state != IN_QUOTED_FIELD) {
+				if (!empty) {
+					fields.add(field.toString());
+					consumer.accept(fields);
+				}
+				fields.clear();
+				field.setLength(0);
+				empty = true;
+			} else if (c == ',' && state != IN_QUOTED_FIELD) {
+				fields.add(field.toString());
+				field.setLength(0);
+				empty = false;
+			} else {
+				// opening and closing quotes are not part of the value; a doubled one is
+				boolean quoteMark = c == '"' && (state == START_FIELD || state == IN_QUOTED_FIELD);
+				if (!quoteMark) {
+					field.append(c);
+				}
+				empty = false;
+			}
+			state = next;
+		}
+		if (!empty) {
+			fields.add(field.toString());
+			consumer.accept(fields);
+		}
+	}
+
+	/**
+	 * Appends {@code value} quoted only when it has to be, like
+	 * {@code csv.QUOTE_MINIMAL}.
+	 */
+	static void appendField(StringBuilder out, String value) {
+		boolean quote = false;
+		for (int i = 0, n = value.length(); i < n && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!quote) {
+			out.append(value);
+			return;
+		}
+		out.append('"');
+		for (int i = 0, n = value.length(); i < n; i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				out.append('"');
+			}
+			out.append(c);
+		}
+		out.append('"');
+	}
+}
@@ -0,0 +1,99 @@
+package com.insurancepolicy.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.insurancepolicy.exception.NotFoundException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Validates uploaded CSV files against the {@code .avsc} schemas in
+ * {@code insurancepolicy.ingest.schema-dir}. Each run gets its own directory
+ * under {@code insurancepolicy.ingest.output-dir} holding
+ * {@code records_contains_error.csv} and {@code error_log.csv}, the file names
+ * COMPARE_PROGRAM.py uses.
+ */
+@Service
+public class CsvIngestService {
+
+	static final String BAD_RECORDS_FILE = "records_contains_error.csv";
+
+	static final String ERROR_LOG_FILE = "error_log.csv";
+
+	private static final String SCHEMA_NOT_FOUND_MESSAGE = "Schema not found";
+
+	// a schema name is a file name in the schema directory, never a path
+	private static final Pattern SCHEMA_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+
+	private final Path schemaDir;
+
+	private final Path outputDir;
+
+	private final int chunkBytes;
+
+	private final int workerCount;
+
+	private final ExecutorService workers;
+
+	private final Map<String, AvroCsvSchema> schemas = new ConcurrentHashMap<>();
+
+	public CsvIngestService(@Value("${insurancepolicy.ingest.schema-dir:..}") String schemaDir,
+			@Value("${insurancepolicy.ingest.output-dir:${java.io.tmpdir}/insurancepolicy-ingest}") String outputDir,
+			@Value("${insurancepolicy.ingest.chunk-size-kb:4096}") int chunkSizeKb,
+			@Value("${insurancepolicy.ingest.workers:0}") int workers) {
+		this.schemaDir = Paths.get(schemaDir);
+		this.outputDir = Paths.get(outputDir);
+		this.chunkBytes = chunkSizeKb * 1024;
+		this.workerCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+		AtomicInteger threads = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(workerCount, task -> {
+			Thread thread = new Thread(task, "csv-ingest-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public ValidationReport validate(String schemaName, InputStream csv) throws IOException {
+		AvroCsvSchema schema = getSchema(schemaName);
+		Path runDir = Files.createDirectories(outputDir.resolve(schemaName + "-" + UUID.randomUUID()));
+		// two chunks per worker keep every core busy while the oldest is written out
+		CsvAvroValidator validator = new CsvAvroValidator(schema, workers, chunkBytes, 2 * workerCount);
+		return validator.validate(csv, runDir.resolve(BAD_RECORDS_FILE), runDir.resolve(ERROR_LOG_FILE));
+	}
+
+	AvroCsvSchema getSchema(String schemaName) throws IOException {
+		if (!SCHEMA_NAME.matcher(schemaName).matches()) {
+			throw new NotFoundException(SCHEMA_NOT_FOUND_MESSAGE);
+		}
+		AvroCsvSchema schema = schemas.get(schemaName);
+		if (schema == null) {
+			try (InputStream avsc = Files.newInputStream(schemaDir.resolve(schemaName + ".avsc"))) {
+				schema = AvroCsvSchema.parse(avsc);
+			} catch (NoSuchFileException e) {
+				throw new NotFoundException(SCHEMA_NOT_FOUND_MESSAGE);
+			}
+			schemas.putIfAbsent(schemaName, schema);
+		}
+		return schema;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		workers.shutdownNow();
+	}
+}
@@ -0,0 +1,404 @@
+package com.insurancepolicy.ingest;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The check for one schema field, compiled once from its Avro type. Error
+ * codes, messages and parsing rules follow {@code validate_value} in
+ * COMPARE_PROGRAM.py so both tools produce the same error log for the same
+ * file.
+ */
+final class FieldRule {
+
+	enum Kind {
+		STRING, BOOLEAN, INT, LONG, FLOAT, DOUBLE, NULL, DATE, TIMESTAMP_MILLIS, TIMESTAMP_MICROS, DECIMAL,
+		DECIMAL_WITHOUT_PRECISION, UNSUPPORTED
+	}
+
+	/**
+	 * Receives the violations of one value; a value can have several (decimal
+	 * scale and precision).
+	 */
+	@FunctionalInterface
+	interface Violations {
+		void add(String code, String message);
+	}
+
+	private static final Set<String> BOOL_TRUE = Set.of("true", "1", "yes", "y", "t");
+
+	private static final Set<String> BOOL_FALSE = Set.of("false", "0", "no", "n", "f");
+
+	private static final int INVALID = 0;
+
+	private static final int IN_RANGE = 1;
+
+	private static final int OUT_OF_RANGE = 2;
+
+	// 0001-01-01T00:00:00Z and 9999-12-31T23:59:59Z, the range of Python's datetime
+	private static final long MIN_EPOCH_SECOND = -62_135_596_800L;
+
+	private static final long MAX_EPOCH_SECOND = 253_402_300_799L;
+
+	private final String name;
+
+	private final boolean nullable;
+
+	private final Kind kind;
+
+	private final int precision;
+
+	private final int scale;
+
+	// the schema type name reported for UNSUPPORTED
+	private final String typeName;
+
+	FieldRule(String name, boolean nullable, Kind kind, int precision, int scale, String typeName) {
+		this.name = name;
+		this.nullable = nullable;
+		this.kind = kind;
+		this.precision = precision;
+		this.scale = scale;
+		this.typeName = typeName;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	void check(String value, Violations violations) {
+		if (isBlank(value)) {
+			if (!nullable) {
+				violations.add("REQUIRED", "Field '" + name + "' is required but value is empty");
+			}
+			return;
+		}
+		switch (kind) {
+		case STRING:
+			return;
+		case BOOLEAN:
+			String bool = value.strip().toLowerCase(Locale.ROOT);
+			if (!BOOL_TRUE.contains(bool) && !BOOL_FALSE.contains(bool)) {
+				violations.add("TYPE_BOOLEAN",
+						"Invalid boolean for '" + name + "' (accepted: true/false/1/0/yes/no)");
+			}
+			return;
+		case INT:
+			checkInteger(value, Integer.MIN_VALUE, Integer.MAX_VALUE, "TYPE_INT", "Invalid int for '",
+					"RANGE_INT", " out of 32-bit int range for '", violations);
+			return;
+		case LONG:
+			checkInteger(value, Long.MIN_VALUE, Long.MAX_VALUE, "TYPE_LONG", "Invalid long for '", "RANGE_LONG",
+					" out of 64-bit long range for '", violations);
+			return;
+		case FLOAT:
+			if (!isFloat(value.strip())) {
+				violations.add("TYPE_FLOAT", "Invalid float for '" + name + "'");
+			}
+			return;
+		case DOUBLE:
+			if (!isFloat(value.strip())) {
+				violations.add("TYPE_DOUBLE", "Invalid double for '" + name + "'");
+			}
+			return;
+		case NULL:
+			violations.add("TYPE_NULL", "Expected null for '" + name + "'");
+			return;
+		case DATE:
+			if (!isDate(value.strip())) {
+				violations.add("TYPE_DATE", "Invalid date for '" + name + "'; expected YYYY-MM-DD or days since");
+			}
+			return;
+		case TIMESTAMP_MILLIS:
+		case TIMESTAMP_MICROS:
+			boolean millis = kind == Kind.TIMESTAMP_MILLIS;
+			if (!isTimestamp(value.strip(), millis ? 1_000L : 1_000_000L)) {
+				violations.add("TYPE_TIMESTAMP", "Invalid timestamp for '" + name + "'; expected epoch "
+						+ (millis ? "millis" : "micros") + " or ISO datetime");
+			}
+			return;
+		case DECIMAL:
+			checkDecimal(value, violations);
+			return;
+		case DECIMAL_WITHOUT_PRECISION:
+			violations.add("SCHEMA_DECIMAL", "Decimal '" + name + "' missing precision/scale in schema");
+			return;
+		default:
+			violations.add("SCHEMA_TYPE", "Unsupported schema type '" + typeName + "' for '" + name + "'");
+		}
+	}
+
+	private void checkInteger(String value, long min, long max, String typeCode, String typeMessage,
+			String rangeCode, String rangeMessage, Violations violations) {
+		String digits = value.strip();
+		int status = parseInteger(digits, min, max);
+		if (status == INVALID) {
+			violations.add(typeCode, typeMessage + name + "'");
+		} else if (status == OUT_OF_RANGE) {
+			// only the error path pays for the canonical form Python prints
+			violations.add(rangeCode, "Value " + new BigInteger(digits.replace("_", "")) + rangeMessage + name + "'");
+		}
+	}
+
+	private void checkDecimal(String value, Violations violations) {
+		BigDecimal decimal;
+		try {
+			decimal = new BigDecimal(value.strip().replace("_", ""));
+		} catch (NumberFormatException e) {
+			violations.add("TYPE_DECIMAL", "Invalid decimal for '" + name + "'");
+			return;
+		}
+		int valueScale = Math.max(decimal.scale(), 0);
+		// significant digits of the plain (non-scientific) normalised form, at least one
+		BigDecimal normalized = decimal.stripTrailingZeros();
+		int valuePrecision = normalized.scale() < 0 ? normalized.precision() - normalized.scale()
+				: normalized.precision();
+		if (valueScale > scale) {
+			violations.add("DECIMAL_SCALE",
+					"Scale " + valueScale + " exceeds schema scale " + scale + " for '" + name + "'");
+		}
+		if (valuePrecision > precision) {
+			violations.add("DECIMAL_PRECISION",
+					"Precision " + valuePrecision + " exceeds schema precision " + precision + " for '" + name + "'");
+		}
+	}
+
+	static boolean isBlank(String value) {
+		return value == null || value.isBlank();
+	}
+
+	/**
+	 * Python's {@code int()}: optional sign, ASCII digits, single underscores
+	 * between digits. Accumulates negatively so Long.MIN_VALUE parses.
+	 */
+	private static int parseInteger(String s, long min, long max) {
+		int n = s.length();
+		int i = 0;
+		boolean negative = false;
+		if (n > 0 && (s.charAt(0) == '+' || s.charAt(0) == '-')) {
+			negative = s.charAt(0) == '-';
+			i = 1;
+		}
+		long value = 0;
+		boolean overflow = false;
+		int digits = 0;
+		boolean afterUnderscore = false;
+		for (; i < n; i++) {
+			char c = s.charAt(i);
+			if (c >= '0' && c <= '9') {
+				int d = c - '0';
+				if (!overflow) {
+					if (value < (Long.MIN_VALUE + d) / 10) {
+						overflow = true;
+					} else {
+						value = value * 10 - d;
+					}
+				}
+				digits++;
+				afterUnderscore = false;
+			} else if (c == '_' && digits > 0 && !afterUnderscore) {
+				afterUnderscore = true;
+			} else {
+				return INVALID;
+			}
+		}
+		if (digits == 0 || afterUnderscore) {
+			return INVALID;
+		}
+		if (!negative) {
+			if (value == Long.MIN_VALUE) {
+				overflow = true;
+			}
+			value = -value;
+		}
+		return overflow || value < min || value > max ? OUT_OF_RANGE : IN_RANGE;
+	}
+
+	/**
+	 * Python's {@code float()}: decimal or exponent notation, inf/infinity/nan in
+	 * any case. Rejects what Double.parseDouble accepts beyond that (hex, d/f
+	 * suffixes).
+	 */
+	private static boolean isFloat(String s) {
+		String unsigned = s.startsWith("+") || s.startsWith("-") ? s.substring(1) : s;
+		String lower = unsigned.toLowerCase(Locale.ROOT);
+		if (lower.equals("inf") || lower.equals("infinity") || lower.equals("nan")) {
+			return true;
+		}
+		boolean digit = false;
+		for (int i = 0, n = unsigned.length(); i < n; i++) {
+			char c = unsigned.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digit = true;
+			} else if (c != '.' && c != 'e' && c != 'E' && c != '+' && c != '-' && c != '_') {
+				return false;
+			}
+		}
+		if (!digit || unsigned.startsWith("_") || unsigned.endsWith("_") || unsigned.contains("__")) {
+			return false;
+		}
+		try {
+			Double.parseDouble(s.replace("_", ""));
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Integer days since the epoch, or {@code %Y-%m-%d} (four-digit year, month
+	 * and day with or without a leading zero).
+	 */
+	private static boolean isDate(String s) {
+		if (isEpochInteger(s)) {
+			try {
+				LocalDate date = LocalDate.ofEpochDay(Long.parseLong(s));
+				return date.getYear() >= 1 && date.getYear() <= 9999;
+			} catch (NumberFormatException | DateTimeException e) {
+				return false;
+			}
+		}
+		return parseDate(s, 0) == s.length();
+	}
+
+	/**
+	 * Epoch in {@code unitsPerSecond}, or one of the ISO layouts in
+	 * {@code ISO_DATETIME_FORMATS}: date, ' ' or 'T', {@code %H:%M:%S}, then an
+	 * optional fraction and an optional offset, where a fraction followed by an
+	 * offset needs the 'T' separator.
+	 */
+	private static boolean isTimestamp(String s, long unitsPerSecond) {
+		if (isEpochInteger(s)) {
+			try {
+				long seconds = Math.floorDiv(Long.parseLong(s), unitsPerSecond);
+				return seconds >= MIN_EPOCH_SECOND && seconds <= MAX_EPOCH_SECOND;
+			} catch (NumberFormatException e) {
+				return false;
+			}
+		}
+		int i = parseDate(s, 0);
+		if (i < 0 || i >= s.length()) {
+			return false;
+		}
+		char separator = s.charAt(i++);
+		if (separator != ' ' && separator != 'T') {
+			return false;
+		}
+		int[] time = new int[1];
+		for (int part = 0; part < 3; part++) {
+			if (part > 0) {
+				if (i >= s.length() || s.charAt(i++) != ':') {
+					return false;
+				}
+			}
+			i = parseNumber(s, i, 1, 2, time);
+			if (i < 0 || time[0] > (part == 0 ? 23 : 59)) {
+				return false;
+			}
+		}
+		boolean fraction = false;
+		if (i < s.length() && s.charAt(i) == '.') {
+			i = parseNumber(s, i + 1, 1, 6, time);
+			if (i < 0) {
+				return false;
+			}
+			fraction = true;
+		}
+		if (i == s.length()) {
+			return true;
+		}
+		if (fraction && separator == ' ') {
+			return false;
+		}
+		return isUtcOffset(s, i);
+	}
+
+	// Python's %z: Z, or +-HH[:]MM with optional [:]SS
+	private static boolean isUtcOffset(String s, int i) {
+		if (s.charAt(i) == 'Z') {
+			return i + 1 == s.length();
+		}
+		if (s.charAt(i) != '+' && s.charAt(i) != '-') {
+			return false;
+		}
+		int[] part = new int[1];
+		i = parseNumber(s, i + 1, 2, 2, part);
+		if (i < 0 || part[0] > 23) {
+			return false;
+		}
+		boolean colon = i < s.length() && s.charAt(i) == ':';
+		i = parseNumber(s, colon ? i + 1 : i, 2, 2, part);
+		if (i < 0 || part[0] > 59) {
+			return false;
+		}
+		if (i == s.length()) {
+			return true;
+		}
+		if (colon && s.charAt(i++) != ':') {
+			return false;
+		}
+		i = parseNumber(s, i, 2, 2, part);
+		return i == s.length() && part[0] <= 59;
+	}
+
+	private static boolean isEpochInteger(String s) {
+		int n = s.length();
+		int i = n > 0 && s.charAt(0) == '-' ? 1 : 0;
+		if (i == n) {
+			return false;
+		}
+		for (; i < n; i++) {
+			char c = s.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parses {@code yyyy-M-d} from {@code from}; returns the index after it, or
+	 * -1 when it is malformed or not a calendar date.
+	 */
+	private static int parseDate(String s, int from) {
+		int[] field = new int[1];
+		int i = parseNumber(s, from, 4, 4, field);
+		int year = field[0];
+		if (i < 0 || i >= s.length() || s.charAt(i) != '-') {
+			return -1;
+		}
+		i = parseNumber(s, i + 1, 1, 2, field);
+		int month = field[0];
+		if (i < 0 || i >= s.length() || s.charAt(i) != '-') {
+			return -1;
+		}
+		i = parseNumber(s, i + 1, 1, 2, field);
+		if (i < 0 || year < 1 || month < 1 || month > 12 || field[0] < 1
+				|| field[0] > LocalDate.of(year, month, 1).lengthOfMonth()) {
+			return -1;
+		}
+		return i;
+	}
+
+	/**
+	 * Reads {@code min..max} ASCII digits greedily into {@code out[0]}; returns
+	 * the index after them or -1.
+	 */
+	private static int parseNumber(String s, int from, int min, int max, int[] out) {
+		int value = 0;
+		int i = from;
+		while (i < s.length() && i - from < max && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+			value = value * 10 + (s.charAt(i) - '0');
+			i++;
+		}
+		if (i - from < min) {
+			return -1;
+		}
+		out[0] = value;
+		return i;
+	}
+}
@@ -0,0 +1,635 @@
+package com.insurancepolicy.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.insurancepolicy.entity.InsurancePolicy;
+
+/**
+ * Reads policy backfill files ({@code policyNumber, policyType, premiumAmount,
+ * startDate, endDate, isActive, customerId} in any column order, dates as
+ * {@code yyyy-MM-dd}) straight off a memory-mapped {@link FileChannel}.
+ * <p>
+ * Fields are located by offset in the mapped buffer and numbers, dates and
+ * booleans are parsed from the bytes, so the only objects allocated per
+ * record are the ones the entity holds: the policy, its policy number, two
+ * dates and the premium. Policy types repeat and are shared through a small
+ * cache. Values may be double-quoted but must not contain line breaks; rows
+ * that fail the {@code InsurancePolicyDTO} constraints are reported and
+ * skipped.
+ * <p>
+ * {@link #split(int)} cuts the data into line-aligned segments so each can be
+ * read by its own thread; a reader instance is otherwise immutable.
+ */
+public final class MappedPolicyCsvReader implements Closeable {
+
+	/**
+	 * Receives a rejected row: its line number within the segment (the first
+	 * line of the segment is 1) and the reason.
+	 */
+	@FunctionalInterface
+	public interface RowErrors {
+		void reject(long segmentLine, String message);
+	}
+
+	/**
+	 * A line-aligned byte range of the file.
+	 */
+	public static final class Segment {
+
+		private final long start;
+
+		private final long end;
+
+		Segment(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		public long getStart() {
+			return start;
+		}
+
+		public long getEnd() {
+			return end;
+		}
+	}
+
+	static final String[] COLUMNS = { "policyNumber", "policyType", "premiumAmount", "startDate", "endDate",
+			"isActive", "customerId" };
+
+	private static final int POLICY_NUMBER = 0;
+
+	private static final int POLICY_TYPE = 1;
+
+	private static final int PREMIUM_AMOUNT = 2;
+
+	private static final int START_DATE = 3;
+
+	private static final int END_DATE = 4;
+
+	private static final int IS_ACTIVE = 5;
+
+	private static final int CUSTOMER_ID = 6;
+
+	private static final long MILLIS_PER_DAY = 86_400_000L;
+
+	// the DTO limits; the entity columns are sized to match
+	private static final int MAX_POLICY_NUMBER = 20;
+
+	private static final int MIN_POLICY_TYPE = 2;
+
+	private static final int MAX_POLICY_TYPE = 50;
+
+	// larger mappings are fine on 64-bit, but smaller ones let the OS drop pages sooner
+	private static final long DEFAULT_WINDOW = 256L * 1024 * 1024;
+
+	private final FileChannel channel;
+
+	private final long size;
+
+	private final long dataStart;
+
+	private final int fieldCount;
+
+	// file column of each of COLUMNS
+	private final int[] columnIndex = new int[COLUMNS.length];
+
+	private final long window;
+
+	private MappedPolicyCsvReader(FileChannel channel, long window) throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+		this.window = window;
+		ByteBuffer head = ByteBuffer.allocate((int) Math.min(size, 64 * 1024));
+		channel.read(head, 0);
+		byte[] bytes = head.array();
+		int lineEnd = 0;
+		while (lineEnd < head.position() && bytes[lineEnd] != '\n') {
+			lineEnd++;
+		}
+		if (lineEnd == head.position() && head.position() < size) {
+			throw new IllegalArgumentException("CSV header is longer than 64 KB");
+		}
+		this.dataStart = Math.min(size, lineEnd + 1L);
+		String header = new String(bytes, 0, lineEnd, StandardCharsets.UTF_8).replace("\uFEFF", "").strip();
+		String[] names = header.isEmpty() ? new String[0] : header.split(",", -1);
+		this.fieldCount = names.length;
+		for (int c = 0; c < COLUMNS.length; c++) {
+			columnIndex[c] = -1;
+			for (int f = 0; f < names.length; f++) {
+				if (COLUMNS[c].equals(unquote(names[f].strip()))) {
+					columnIndex[c] = f;
+				}
+			}
+			if (columnIndex[c] < 0) {
+				throw new IllegalArgumentException("CSV header has no '" + COLUMNS[c] + "' column");
+			}
+		}
+	}
+
+	public static MappedPolicyCsvReader open(Path file) throws IOException {
+		return open(file, DEFAULT_WINDOW);
+	}
+
+	static MappedPolicyCsvReader open(Path file, long window) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return new MappedPolicyCsvReader(channel, window);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private static String unquote(String name) {
+		return name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")
+				? name.substring(1, name.length() - 1)
+				: name;
+	}
+
+	/**
+	 * Splits the data lines into at most {@code parts} segments of about equal
+	 * size, each ending just after a newline (or at the end of the file).
+	 */
+	public List<Segment> split(int parts) throws IOException {
+		List<Segment> segments = new ArrayList<>(parts);
+		long length = size - dataStart;
+		ByteBuffer probe = ByteBuffer.allocate(8192);
+		long start = dataStart;
+		for (int p = 1; p <= parts && start < size; p++) {
+			long end = p == parts ? size : lineEndAfter(dataStart + length * p / parts, probe);
+			if (end > start) {
+				segments.add(new Segment(start, end));
+				start = end;
+			}
+		}
+		return segments;
+	}
+
+	// offset just past the first newline at or after position
+	private long lineEndAfter(long position, ByteBuffer probe) throws IOException {
+		while (position < size) {
+			probe.clear();
+			int read = channel.read(probe, position);
+			for (int i = 0; i < read; i++) {
+				if (probe.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += Math.max(read, 0);
+		}
+		return size;
+	}
+
+	/**
+	 * The policies of {@code segment}, parsed lazily as the iterator is consumed.
+	 * The iterator must stay on one thread.
+	 */
+	public Cursor policies(Segment segment, RowErrors errors) {
+		return new Cursor(segment, errors);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public final class Cursor implements Iterator<InsurancePolicy> {
+
+		private final long end;
+
+		private final RowErrors errors;
+
+		private final int[] fieldStart = new int[fieldCount];
+
+		private final int[] fieldEnd = new int[fieldCount];
+
+		private final boolean[] fieldQuoted = new boolean[fieldCount];
+
+		private final PolicyTypes policyTypes = new PolicyTypes();
+
+		private byte[] scratch = new byte[64];
+
+		private MappedByteBuffer buffer;
+
+		private long bufferStart;
+
+		private long position;
+
+		private long line;
+
+		private InsurancePolicy next;
+
+		Cursor(Segment segment, RowErrors errors) {
+			this.end = segment.end;
+			this.errors = errors;
+			this.position = segment.start;
+		}
+
+		/**
+		 * Lines of the segment read so far, blank ones included.
+		 */
+		public long getLines() {
+			return line;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				try {
+					next = advance();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public InsurancePolicy next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			InsurancePolicy policy = next;
+			next = null;
+			return policy;
+		}
+
+		private InsurancePolicy advance() throws IOException {
+			while (position < end) {
+				int from = (int) (position - bufferStart);
+				int to = buffer == null ? -1 : newline(from);
+				if (to < 0) {
+					if (buffer != null && bufferStart + buffer.limit() >= end) {
+						// last line without a newline
+						to = buffer.limit();
+					} else if (buffer != null && from == 0) {
+						throw new IOException("Line " + (line + 1) + " is longer than the mapping window");
+					} else {
+						buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(window, end - position));
+						bufferStart = position;
+						continue;
+					}
+				}
+				position = bufferStart + Math.min(to + 1, buffer.limit());
+				line++;
+				int lineEnd = to > from && buffer.get(to - 1) == '\r' ? to - 1 : to;
+				if (lineEnd == from) {
+					continue;
+				}
+				InsurancePolicy policy = parse(from, lineEnd);
+				if (policy != null) {
+					return policy;
+				}
+			}
+			return null;
+		}
+
+		private int newline(int from) {
+			for (int i = from, limit = buffer.limit(); i < limit; i++) {
+				if (buffer.get(i) == '\n') {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private InsurancePolicy parse(int from, int to) {
+			String error = tokenize(from, to);
+			if (error != null) {
+				errors.reject(line, error);
+				return null;
+			}
+			String policyNumber = text(columnIndex[POLICY_NUMBER]);
+			if (policyNumber.isEmpty() || policyNumber.length() > MAX_POLICY_NUMBER) {
+				return reject("policyNumber must be 1 to " + MAX_POLICY_NUMBER + " characters");
+			}
+			String policyType = policyType(columnIndex[POLICY_TYPE]);
+			if (policyType == null) {
+				return reject("policyType must be " + MIN_POLICY_TYPE + " to " + MAX_POLICY_TYPE + " characters");
+			}
+			BigDecimal premium = decimal(columnIndex[PREMIUM_AMOUNT]);
+			if (premium == null || premium.signum() <= 0) {
+				return reject("premiumAmount must be a decimal of at least 0.01");
+			}
+			long startDay = epochDay(columnIndex[START_DATE]);
+			long endDay = epochDay(columnIndex[END_DATE]);
+			if (startDay == Long.MIN_VALUE || endDay == Long.MIN_VALUE) {
+				return reject("startDate and endDate must be yyyy-MM-dd");
+			}
+			int active = bool(columnIndex[IS_ACTIVE]);
+			if (active < 0) {
+				return reject("isActive must be true or false");
+			}
+			long customerId = integer(columnIndex[CUSTOMER_ID]);
+			if (customerId == Long.MIN_VALUE) {
+				return reject("customerId must be an int");
+			}
+			return new InsurancePolicy(null, policyNumber, policyType, premium, new Date(startDay * MILLIS_PER_DAY),
+					new Date(endDay * MILLIS_PER_DAY), active == 1, (int) customerId);
+		}
+
+		private InsurancePolicy reject(String message) {
+			errors.reject(line, message);
+			return null;
+		}
+
+		// records field offsets; a quoted field's offsets exclude the quotes
+		private String tokenize(int from, int to) {
+			int field = 0;
+			int i = from;
+			while (true) {
+				if (field == fieldCount) {
+					return "expected " + fieldCount + " fields but found more";
+				}
+				if (i < to && buffer.get(i) == '"') {
+					int start = ++i;
+					while (i < to && (buffer.get(i) != '"' || i + 1 < to && buffer.get(i + 1) == '"')) {
+						i += buffer.get(i) == '"' ? 2 : 1;
+					}
+					if (i >= to) {
+						return "unterminated quoted field";
+					}
+					fieldStart[field] = start;
+					fieldEnd[field] = i++;
+					fieldQuoted[field] = true;
+				} else {
+					fieldStart[field] = i;
+					while (i < to && buffer.get(i) != ',') {
+						i++;
+					}
+					fieldEnd[field] = i;
+					fieldQuoted[field] = false;
+				}
+				field++;
+				if (i >= to) {
+					break;
+				}
+				if (buffer.get(i) != ',') {
+					return "unexpected character after quoted field";
+				}
+				i++;
+				if (i == to) {
+					// trailing comma: one more empty field
+					if (field == fieldCount) {
+						return "expected " + fieldCount + " fields but found more";
+					}
+					fieldStart[field] = i;
+					fieldEnd[field] = i;
+					fieldQuoted[field] = false;
+					field++;
+					break;
+				}
+			}
+			return field == fieldCount ? null : "expected " + fieldCount + " fields but found " + field;
+		}
+
+		private String text(int f) {
+			int start = fieldStart[f];
+			int length = fieldEnd[f] - start;
+			while (length > 0 && buffer.get(start) == ' ') {
+				start++;
+				length--;
+			}
+			while (length > 0 && buffer.get(start + length - 1) == ' ') {
+				length--;
+			}
+			if (scratch.length < length) {
+				scratch = new byte[Math.max(length, scratch.length * 2)];
+			}
+			buffer.get(start, scratch, 0, length);
+			String value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+			return fieldQuoted[f] ? value.replace("\"\"", "\"") : value;
+		}
+
+		private String policyType(int f) {
+			int length = fieldEnd[f] - fieldStart[f];
+			if (length < MIN_POLICY_TYPE || fieldQuoted[f]) {
+				String value = text(f);
+				return value.length() >= MIN_POLICY_TYPE && value.length() <= MAX_POLICY_TYPE ? value : null;
+			}
+			String value = policyTypes.get(buffer, fieldStart[f], length);
+			if (value == null) {
+				value = text(f);
+				if (value.length() < MIN_POLICY_TYPE || value.length() > MAX_POLICY_TYPE) {
+					return null;
+				}
+				policyTypes.put(buffer, fieldStart[f], length, value);
+			}
+			return value;
+		}
+
+		// unscaled digits and a scale; null when not a plain decimal of at most 18 digits
+		private BigDecimal decimal(int f) {
+			int i = fieldStart[f];
+			int to = fieldEnd[f];
+			boolean negative = false;
+			if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+				negative = buffer.get(i++) == '-';
+			}
+			long unscaled = 0;
+			int digits = 0;
+			int scale = -1;
+			for (; i < to; i++) {
+				byte b = buffer.get(i);
+				if (b >= '0' && b <= '9') {
+					if (++digits > 18) {
+						return null;
+					}
+					unscaled = unscaled * 10 + (b - '0');
+					if (scale >= 0) {
+						scale++;
+					}
+				} else if (b == '.' && scale < 0) {
+					scale = 0;
+				} else {
+					return null;
+				}
+			}
+			if (digits == 0) {
+				return null;
+			}
+			return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+		}
+
+		// days since 1970-01-01 of a yyyy-MM-dd value, or Long.MIN_VALUE
+		private long epochDay(int f) {
+			int i = fieldStart[f];
+			if (fieldEnd[f] - i != 10 || buffer.get(i + 4) != '-' || buffer.get(i + 7) != '-') {
+				return Long.MIN_VALUE;
+			}
+			int year = digits(i, 4);
+			int month = digits(i + 5, 2);
+			int day = digits(i + 8, 2);
+			if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+				return Long.MIN_VALUE;
+			}
+			return daysFromCivil(year, month, day);
+		}
+
+		private int digits(int i, int count) {
+			int value = 0;
+			for (int k = 0; k < count; k++) {
+				int d = buffer.get(i + k) - '0';
+				if (d < 0 || d > 9) {
+					return -1;
+				}
+				value = value * 10 + d;
+			}
+			return value;
+		}
+
+		// 1 for true, 0 for false, -1 otherwise; also accepts 1/0 and any case
+		private int bool(int f) {
+			int start = fieldStart[f];
+			int length = fieldEnd[f] - start;
+			if (length == 1) {
+				byte b = buffer.get(start);
+				return b == '1' ? 1 : b == '0' ? 0 : -1;
+			}
+			if (matches(start, length, "true")) {
+				return 1;
+			}
+			return matches(start, length, "false") ? 0 : -1;
+		}
+
+		private boolean matches(int start, int length, String word) {
+			if (length != word.length()) {
+				return false;
+			}
+			for (int k = 0; k < length; k++) {
+				if ((buffer.get(start + k) | 0x20) != word.charAt(k)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		// an int as a long, or Long.MIN_VALUE
+		private long integer(int f) {
+			int i = fieldStart[f];
+			int to = fieldEnd[f];
+			boolean negative = false;
+			if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+				negative = buffer.get(i++) == '-';
+			}
+			if (i == to || to - i > 10) {
+				return Long.MIN_VALUE;
+			}
+			long value = 0;
+			for (; i < to; i++) {
+				int d = buffer.get(i) - '0';
+				if (d < 0 || d > 9) {
+					return Long.MIN_VALUE;
+				}
+				value = value * 10 + d;
+			}
+			value = negative ? -value : value;
+			return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+		}
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			return Year.isLeap(year) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	// proleptic Gregorian civil date to epoch day, without building a LocalDate
+	static long daysFromCivil(int year, int month, int day) {
+		long y = month <= 2 ? year - 1 : year;
+		long era = Math.floorDiv(y, 400);
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146_097 + dayOfEra - 719_468;
+	}
+
+	/**
+	 * Policy type strings keyed by their bytes, so a repeated type costs a
+	 * comparison instead of a String. Open addressing; once full, new types are
+	 * simply not cached.
+	 */
+	private static final class PolicyTypes {
+
+		private static final int SLOTS = 64;
+
+		private final byte[][] keys = new byte[SLOTS][];
+
+		private final String[] values = new String[SLOTS];
+
+		private int size;
+
+		String get(ByteBuffer buffer, int start, int length) {
+			int slot = hash(buffer, start, length);
+			for (int probes = 0; probes < SLOTS; probes++, slot = (slot + 1) & (SLOTS - 1)) {
+				byte[] key = keys[slot];
+				if (key == null) {
+					return null;
+				}
+				if (equal(key, buffer, start, length)) {
+					return values[slot];
+				}
+			}
+			return null;
+		}
+
+		void put(ByteBuffer buffer, int start, int length, String value) {
+			if (size >= SLOTS / 2) {
+				return;
+			}
+			int slot = hash(buffer, start, length);
+			while (keys[slot] != null) {
+				slot = (slot + 1) & (SLOTS - 1);
+			}
+			byte[] key = new byte[length];
+			buffer.get(start, key, 0, length);
+			keys[slot] = key;
+			values[slot] = value;
+			size++;
+		}
+
+		private static int hash(ByteBuffer buffer, int start, int length) {
+			int h = 1;
+			for (int k = 0; k < length; k++) {
+				h = 31 * h + buffer.get(start + k);
+			}
+			return (h ^ (h >>> 16)) & (SLOTS - 1);
+		}
+
+		private static boolean equal(byte[] key, ByteBuffer buffer, int start, int length) {
+			if (key.length != length) {
+				return false;
+			}
+			for (int k = 0; k < length; k++) {
+				if (key[k] != buffer.get(start + k)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.insurancepolicy.ingest;
+
+import java.util.List;
+
+/**
+ * Outcome of one policy file import. {@code rejected} rows failed parsing or
+ * validation and {@code failed} ones were refused by the database (a
+ * duplicate policy number, say); only the first errors are listed, each
+ * prefixed with its line number or policy number.
+ */
+public class PolicyImportReport {
+
+	private final String file;
+
+	private final long imported;
+
+	private final long rejected;
+
+	private final long failed;
+
+	private final List<String> errors;
+
+	private final long elapsedMillis;
+
+	public PolicyImportReport(String file, long imported, long rejected, long failed, List<String> errors,
+			long elapsedMillis) {
+		this.file = file;
+		this.imported = imported;
+		this.rejected = rejected;
+		this.failed = failed;
+		this.errors = errors;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public List<String> getErrors() {
+		return errors;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+}
@@ -0,0 +1,175 @@
+package com.insurancepolicy.ingest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.insurancepolicy.exception.BadRequestException;
+import com.insurancepolicy.exception.NotFoundException;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Imports policy backfill files from {@code insurancepolicy.import.dir}. The
+ * file is split into one segment per worker; each worker parses its segment
+ * with {@link MappedPolicyCsvReader} and feeds the entities to
+ * {@link InsurancePolicyService#importInsurancePolicies}, committing a chunk
+ * at a time. Every worker holds a connection while it writes, so
+ * {@code insurancepolicy.import.workers} should stay below the pool size.
+ */
+@Service
+public class PolicyImportService {
+
+	private static final String FILE_NOT_FOUND_MESSAGE = "Import file not found";
+
+	// only the first errors are kept; the counts cover all of them
+	private static final int MAX_REPORTED_ERRORS = 100;
+
+	private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+
+	private final InsurancePolicyService insurancePolicyService;
+
+	private final Path importDir;
+
+	private final int workerCount;
+
+	private final ExecutorService workers;
+
+	public PolicyImportService(InsurancePolicyService insurancePolicyService,
+			@Value("${insurancepolicy.import.dir:${java.io.tmpdir}/insurancepolicy-import}") String importDir,
+			@Value("${insurancepolicy.import.workers:4}") int workers) {
+		this.insurancePolicyService = insurancePolicyService;
+		this.importDir = Paths.get(importDir);
+		this.workerCount = Math.max(1, workers);
+		AtomicInteger threads = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(workerCount, task -> {
+			Thread thread = new Thread(task, "policy-import-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public PolicyImportReport importFile(String fileName) throws IOException {
+		Path file = importDir.resolve(fileName);
+		if (!FILE_NAME.matcher(fileName).matches() || !Files.isRegularFile(file)) {
+			throw new NotFoundException(FILE_NOT_FOUND_MESSAGE);
+		}
+		return importFile(file);
+	}
+
+	PolicyImportReport importFile(Path file) throws IOException {
+		long started = System.nanoTime();
+		MappedPolicyCsvReader reader;
+		try {
+			reader = MappedPolicyCsvReader.open(file);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException(e.getMessage());
+		}
+		try (reader) {
+			List<MappedPolicyCsvReader.Segment> segments = reader.split(workerCount);
+			List<Future<SegmentResult>> results = new ArrayList<>(segments.size());
+			for (MappedPolicyCsvReader.Segment segment : segments) {
+				results.add(workers.submit(() -> importSegment(reader, segment)));
+			}
+			long imported = 0;
+			long rejected = 0;
+			long failed = 0;
+			long linesBefore = 1;
+			List<String> errors = new ArrayList<>();
+			for (Future<SegmentResult> future : results) {
+				SegmentResult result = await(future);
+				imported += result.imported;
+				rejected += result.rejected;
+				failed += result.failed;
+				for (SegmentResult.Error error : result.errors) {
+					if (errors.size() < MAX_REPORTED_ERRORS) {
+						errors.add(error.line > 0 ? "line " + (linesBefore + error.line) + ": " + error.message
+								: error.message);
+					}
+				}
+				linesBefore += result.lines;
+			}
+			return new PolicyImportReport(file.getFileName().toString(), imported, rejected, failed, errors,
+					(System.nanoTime() - started) / 1_000_000);
+		}
+	}
+
+	private SegmentResult importSegment(MappedPolicyCsvReader reader, MappedPolicyCsvReader.Segment segment) {
+		SegmentResult result = new SegmentResult();
+		MappedPolicyCsvReader.Cursor policies = reader.policies(segment, (line, message) -> {
+			result.rejected++;
+			result.addError(line, message);
+		});
+		result.imported = insurancePolicyService.importInsurancePolicies(policies, (policy, message) -> {
+			result.failed++;
+			result.addError(0, "policyNumber " + policy.getPolicyNumber() + ": " + message);
+		});
+		result.lines = policies.getLines();
+		return result;
+	}
+
+	private static SegmentResult await(Future<SegmentResult> result) throws IOException {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while importing", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Import of a segment failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Counts and errors of one segment; confined to the worker until its future
+	 * completes.
+	 */
+	private static final class SegmentResult {
+
+		private long imported;
+
+		private long rejected;
+
+		private long failed;
+
+		private long lines;
+
+		private final List<Error> errors = new ArrayList<>();
+
+		void addError(long line, String message) {
+			if (errors.size() < MAX_REPORTED_ERRORS) {
+				errors.add(new Error(line, message));
+			}
+		}
+
+		// line is relative to the segment, or 0 when the row has no line number
+		private static final class Error {
+
+			private final long line;
+
+			private final String message;
+
+			Error(long line, String message) {
+				this.line = line;
+				this.message = message;
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		workers.shutdownNow();
+	}
+}
@@ -0,0 +1,62 @@
+package com.insurancepolicy.ingest;
+
+/**
+ * Outcome of validating one CSV file. The counts match the summary
+ * COMPARE_PROGRAM.py prints; {@code badRecordsFile} is null when every row was
+ * valid, as that tool then writes no bad-records file either.
+ */
+public class ValidationReport {
+
+	private final String schema;
+
+	private final long rows;
+
+	private final long badRows;
+
+	private final long errors;
+
+	private final String badRecordsFile;
+
+	private final String errorLogFile;
+
+	private final long elapsedMillis;
+
+	public ValidationReport(String schema, long rows, long badRows, long errors, String badRecordsFile,
+			String errorLogFile, long elapsedMillis) {
+		this.schema = schema;
+		this.rows = rows;
+		this.badRows = badRows;
+		this.errors = errors;
+		this.badRecordsFile = badRecordsFile;
+		this.errorLogFile = errorLogFile;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public String getSchema() {
+		return schema;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getBadRows() {
+		return badRows;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public String getBadRecordsFile() {
+		return badRecordsFile;
+	}
+
+	public String getErrorLogFile() {
+		return errorLogFile;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+}
@@ -0,0 +1,88 @@
+package com.insurancepolicy.lifecycle;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of one pass of {@link PolicyLifecycleJob}. {@code processed} counts
+ * the due rows walked in this run (not those done before a restart) and
+ * {@code changed} the policies actually expired or flagged; partitions that
+ * failed are retried from their checkpoint by the next run. A
+ * {@link PolicyArchiveJob} run reports the same way with one partition per
+ * shard and the policies archived as changed.
+ */
+public class JobPassReport {
+
+	private final String job;
+
+	private final LocalDate runDate;
+
+	private final int partitions;
+
+	private final boolean resumed;
+
+	private final long processed;
+
+	private final long changed;
+
+	private final int failedPartitions;
+
+	private final long elapsedMillis;
+
+	private final double rowsPerSecond;
+
+	public JobPassReport(String job, LocalDate runDate, int partitions, boolean resumed, long processed, long changed,
+			int failedPartitions, long elapsedMillis) {
+		this.job = job;
+		this.runDate = runDate;
+		this.partitions = partitions;
+		this.resumed = resumed;
+		this.processed = processed;
+		this.changed = changed;
+		this.failedPartitions = failedPartitions;
+		this.elapsedMillis = elapsedMillis;
+		this.rowsPerSecond = elapsedMillis == 0 ? processed * 1000.0 : processed * 1000.0 / elapsedMillis;
+	}
+
+	public String getJob() {
+		return job;
+	}
+
+	public LocalDate getRunDate() {
+		return runDate;
+	}
+
+	public int getPartitions() {
+		return partitions;
+	}
+
+	public boolean isResumed() {
+		return resumed;
+	}
+
+	public long getProcessed() {
+		return processed;
+	}
+
+	public long getChanged() {
+		return changed;
+	}
+
+	public int getFailedPartitions() {
+		return failedPartitions;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public double getRowsPerSecond() {
+		return rowsPerSecond;
+	}
+
+	@Override
+	public String toString() {
+		return "JobPassReport [job=" + job + ", runDate=" + runDate + ", partitions=" + partitions + ", resumed="
+				+ resumed + ", processed=" + processed + ", changed=" + changed + ", failedPartitions="
+				+ failedPartitions + ", elapsedMillis=" + elapsedMillis + ", rowsPerSecond=" + rowsPerSecond + "]";
+	}
+}
@@ -0,0 +1,158 @@
+package com.insurancepolicy.lifecycle;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+import com.insurancepolicy.repo.PolicyDue;
+import com.insurancepolicy.routing.ReadRouting;
+import com.insurancepolicy.service.InsurancePolicyService;
+import com.insurancepolicy.sharding.PolicyShards;
+import com.insurancepolicy.sharding.ShardContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moves the inactive policies that ended more than
+ * {@code insurancepolicy.archive.min-age-days} ago from
+ * {@code insurance_policy} to {@code insurance_policy_archive}, so the hot
+ * table, its indexes and the policy index only hold the policies still in
+ * use. Archived policies are still read by id and number, and searched on
+ * request.
+ * <p>
+ * Walks the (isActive, endDate) index in keyset batches, oldest end date
+ * first, and archives every batch in its own short transaction. Nothing is
+ * checkpointed: what a stopped run left behind is simply found again by the
+ * next one. Sharded, the shards are archived one after the other, each
+ * skipping the policies of buckets moved off it since the walk started.
+ */
+@Component
+public class PolicyArchiveJob {
+
+	public static final String ARCHIVE = "archive";
+
+	private static final Logger LOG = LoggerFactory.getLogger(PolicyArchiveJob.class);
+
+	// the keyset starting point of the walk; no policy ends before it
+	private static final Date EARLIEST = java.sql.Date.valueOf("1900-01-01");
+
+	private final InsurancePolicyRepository insurancePolicyRepository;
+
+	private final InsurancePolicyService insurancePolicyService;
+
+	private final PolicyShards policyShards;
+
+	private final BiPredicate<Integer, PolicyDue> owned;
+
+	private final Counter rows;
+
+	private final int batchSize;
+
+	private final int minAgeDays;
+
+	private final boolean enabled;
+
+	// one run at a time; a lock, so a waiting virtual thread does not pin its carrier
+	private final ReentrantLock running = new ReentrantLock();
+
+	public PolicyArchiveJob(InsurancePolicyRepository insurancePolicyRepository,
+			InsurancePolicyService insurancePolicyService, PolicyShards policyShards, MeterRegistry meterRegistry,
+			@Value("${insurancepolicy.archive.batch-size:500}") int batchSize,
+			@Value("${insurancepolicy.archive.min-age-days:730}") int minAgeDays,
+			@Value("${insurancepolicy.archive.enabled:false}") boolean enabled) {
+		this.insurancePolicyRepository = insurancePolicyRepository;
+		this.insurancePolicyService = insurancePolicyService;
+		this.policyShards = policyShards;
+		this.owned = policyShards.owned(PolicyDue::getPolicyId);
+		this.rows = Counter.builder(PolicyLifecycleJob.ROWS_COUNTER_NAME).tag("job", ARCHIVE)
+				.description("Due policies processed by the lifecycle jobs").register(meterRegistry);
+		this.batchSize = Math.max(1, batchSize);
+		this.minAgeDays = Math.max(0, minAgeDays);
+		this.enabled = enabled;
+	}
+
+	@Scheduled(cron = "${insurancepolicy.archive.cron:0 30 3 * * SUN}")
+	public void scheduledRun() {
+		if (enabled) {
+			LOG.info("Policy archive: {}", run());
+		}
+	}
+
+	/**
+	 * Archives every policy old enough today. Concurrent calls wait for the
+	 * running one, then find little left to do.
+	 */
+	public JobPassReport run() {
+		return run(LocalDate.now());
+	}
+
+	JobPassReport run(LocalDate today) {
+		running.lock();
+		try {
+			long started = System.nanoTime();
+			Date endedBefore = java.sql.Date.valueOf(today.minusDays(minAgeDays));
+			// the scan is a read-only transaction, but what it finds is archived, so it
+			// cannot take a lagging replica
+			List<long[]> shards = policyShards
+					.eachShard(() -> ReadRouting.onPrimary(() -> archiveShard(ShardContext.current(), endedBefore)));
+			long processed = 0;
+			long archived = 0;
+			int failed = 0;
+			for (long[] counts : shards) {
+				processed += counts[0];
+				archived += counts[1];
+				failed += (int) counts[2];
+			}
+			return new JobPassReport(ARCHIVE, today, shards.size(), false, processed, archived, failed,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+		} finally {
+			running.unlock();
+		}
+	}
+
+	/**
+	 * Returns the rows walked, the policies archived and 1 if the shard
+	 * failed part way.
+	 */
+	private long[] archiveShard(int shard, Date endedBefore) {
+		Pageable page = PageRequest.ofSize(batchSize);
+		Date afterEndDate = EARLIEST;
+		long afterId = 0;
+		long processed = 0;
+		long archived = 0;
+		try {
+			while (true) {
+				List<PolicyDue> batch = insurancePolicyRepository.findArchivable(endedBefore, afterEndDate, afterId,
+						page);
+				if (batch.isEmpty()) {
+					return new long[] { processed, archived, 0 };
+				}
+				PolicyDue last = batch.get(batch.size() - 1);
+				archived += insurancePolicyService.archiveInsurancePolicies(
+						batch.stream().filter(policy -> owned.test(shard, policy)).collect(Collectors.toList()),
+						endedBefore);
+				rows.increment(batch.size());
+				processed += batch.size();
+				afterEndDate = last.getEndDate();
+				afterId = last.getPolicyId();
+			}
+		} catch (RuntimeException e) {
+			LOG.error("Archiving shard {} stopped after {} policies; the next run carries on", shard, archived, e);
+			return new long[] { processed, archived, 1 };
+		}
+	}
+}
@@ -0,0 +1,330 @@
+package com.insurancepolicy.lifecycle;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurancepolicy.entity.PolicyJobCheckpoint;
+import com.insurancepolicy.entity.PolicyRenewal;
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+import com.insurancepolicy.repo.PolicyDue;
+import com.insurancepolicy.repo.PolicyJobCheckpointRepository;
+import com.insurancepolicy.repo.PolicyRenewalRepository;
+import com.insurancepolicy.routing.ReadRouting;
+import com.insurancepolicy.service.InsurancePolicyService;
+import com.insurancepolicy.sharding.PolicyShards;
+import com.insurancepolicy.sharding.ShardContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Nightly policy housekeeping in two passes: expiry deactivates the active
+ * policies whose end date has passed, renewal flags the active ones ending
+ * within {@code insurancepolicy.lifecycle.renewal-window-days}.
+ * <p>
+ * Each pass splits the policy id space into one range per worker. A worker
+ * walks the (isActive, endDate) index over its range in keyset chunks and
+ * commits every chunk in its own short transaction together with its
+ * {@link PolicyJobCheckpoint}, so no lock outlives a chunk and a run stopped
+ * half way resumes from the last committed chunk when it is started again the
+ * same day. Runs on a single instance: with several, disable the schedule on
+ * all but one. Sharded, every shard is partitioned and checkpointed on its
+ * own and all their partitions share the workers; a worker skips the
+ * policies of buckets moved off its shard since the walk started.
+ */
+@Component
+public class PolicyLifecycleJob {
+
+	public static final String EXPIRY = "expiry";
+
+	public static final String RENEWAL = "renewal";
+
+	public static final String ROWS_COUNTER_NAME = "insurancepolicy.jobs.rows";
+
+	public static final String THROUGHPUT_GAUGE_NAME = "insurancepolicy.jobs.throughput";
+
+	private static final Logger LOG = LoggerFactory.getLogger(PolicyLifecycleJob.class);
+
+	// the keyset starting point of the expiry pass; no policy ends before it
+	private static final Date EARLIEST = java.sql.Date.valueOf("1900-01-01");
+
+	private final InsurancePolicyRepository insurancePolicyRepository;
+
+	private final PolicyJobCheckpointRepository checkpointRepository;
+
+	private final PolicyRenewalRepository renewalRepository;
+
+	private final InsurancePolicyService insurancePolicyService;
+
+	private final PolicyShards policyShards;
+
+	private final BiPredicate<Integer, PolicyDue> owned;
+
+	private final EntityManager entityManager;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final Map<String, Counter> rowCounters;
+
+	private final Map<String, Timer> chunkTimers;
+
+	// rows per second of the last pass, rounded
+	private final Map<String, AtomicLong> throughput;
+
+	private final int workerCount;
+
+	private final int chunkSize;
+
+	private final int renewalWindowDays;
+
+	private final boolean enabled;
+
+	private final ExecutorService workers;
+
+	// one run at a time; a lock, so a waiting virtual thread does not pin its carrier
+	private final ReentrantLock running = new ReentrantLock();
+
+	public PolicyLifecycleJob(InsurancePolicyRepository insurancePolicyRepository,
+			PolicyJobCheckpointRepository checkpointRepository, PolicyRenewalRepository renewalRepository,
+			InsurancePolicyService insurancePolicyService, PolicyShards policyShards, EntityManager entityManager,
+			PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+			@Value("${insurancepolicy.lifecycle.workers:4}") int workers,
+			@Value("${insurancepolicy.lifecycle.chunk-size:500}") int chunkSize,
+			@Value("${insurancepolicy.lifecycle.renewal-window-days:30}") int renewalWindowDays,
+			@Value("${insurancepolicy.lifecycle.enabled:true}") boolean enabled) {
+		this.insurancePolicyRepository = insurancePolicyRepository;
+		this.checkpointRepository = checkpointRepository;
+		this.renewalRepository = renewalRepository;
+		this.insurancePolicyService = insurancePolicyService;
+		this.policyShards = policyShards;
+		this.owned = policyShards.owned(PolicyDue::getPolicyId);
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.workerCount = Math.max(1, workers);
+		this.chunkSize = Math.max(1, chunkSize);
+		this.renewalWindowDays = renewalWindowDays;
+		this.enabled = enabled;
+		List<String> jobs = List.of(EXPIRY, RENEWAL);
+		this.rowCounters = jobs.stream().collect(Collectors.toMap(Function.identity(),
+				job -> Counter.builder(ROWS_COUNTER_NAME).tag("job", job)
+						.description("Due policies processed by the lifecycle jobs").register(meterRegistry)));
+		this.chunkTimers = jobs.stream().collect(Collectors.toMap(Function.identity(),
+				job -> Timer.builder("insurancepolicy.jobs.chunk").tag("job", job)
+						.description("Time to process and commit one lifecycle job chunk").register(meterRegistry)));
+		this.throughput = jobs.stream().collect(Collectors.toMap(Function.identity(),
+				job -> meterRegistry.gauge(THROUGHPUT_GAUGE_NAME, Tags.of("job", job), new AtomicLong())));
+		AtomicInteger threads = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(workerCount, task -> {
+			Thread thread = new Thread(task, "policy-lifecycle-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Scheduled(cron = "${insurancepolicy.lifecycle.cron:0 30 1 * * *}")
+	public void scheduledRun() {
+		if (enabled) {
+			run().forEach(report -> LOG.info("Policy lifecycle: {}", report));
+		}
+	}
+
+	/**
+	 * Runs both passes for today, or finishes today's run if it was stopped.
+	 * Concurrent calls wait for the running one, then find it completed.
+	 */
+	public List<JobPassReport> run() {
+		return run(LocalDate.now());
+	}
+
+	List<JobPassReport> run(LocalDate today) {
+		running.lock();
+		try {
+			Date startOfToday = java.sql.Date.valueOf(today);
+			Date endOfWindow = java.sql.Date.valueOf(today.plusDays(renewalWindowDays + 1L));
+			return List.of(runPass(EXPIRY, today, EARLIEST, startOfToday,
+					(chunk, runDate) -> insurancePolicyService.expireInsurancePolicies(chunk, startOfToday)),
+					runPass(RENEWAL, today, startOfToday, endOfWindow, this::flagRenewals));
+		} finally {
+			running.unlock();
+		}
+	}
+
+	public List<PolicyJobCheckpoint> getProgress() {
+		List<PolicyJobCheckpoint> progress = new ArrayList<>();
+		policyShards.eachShard(() -> {
+			progress.addAll(checkpointRepository.findByJobNameOrderByPartitionNo(EXPIRY));
+			return progress.addAll(checkpointRepository.findByJobNameOrderByPartitionNo(RENEWAL));
+		});
+		return progress;
+	}
+
+	/**
+	 * Applies a pass to one chunk of due policies inside the chunk's
+	 * transaction and returns how many it changed.
+	 */
+	@FunctionalInterface
+	private interface ChunkHandler {
+		int apply(List<PolicyDue> chunk, LocalDate runDate);
+	}
+
+	/**
+	 * One shard's partitions of a pass; the shard is {@link ShardContext#NONE}
+	 * unsharded.
+	 */
+	private record ShardPlan(int shard, List<PolicyJobCheckpoint> checkpoints, boolean resumed) {
+	}
+
+	private JobPassReport runPass(String job, LocalDate today, Date from, Date until, ChunkHandler handler) {
+		long started = System.nanoTime();
+		// the scans are read-only transactions, but what they find is written
+		// back, so they cannot take a lagging replica
+		List<ShardPlan> plans = policyShards.eachShard(() -> ReadRouting.onPrimary(() -> planShard(job, today, from)));
+		int partitions = 0;
+		boolean resumed = false;
+		List<Future<long[]>> results = new ArrayList<>();
+		for (ShardPlan plan : plans) {
+			partitions += plan.checkpoints().size();
+			resumed |= plan.resumed();
+			for (PolicyJobCheckpoint checkpoint : plan.checkpoints()) {
+				if (!checkpoint.isCompleted()) {
+					results.add(workers.submit(() -> ShardContext.on(plan.shard(),
+							() -> ReadRouting.onPrimary(() -> walk(job, plan.shard(), checkpoint, until, handler)))));
+				}
+			}
+		}
+		long processed = 0;
+		long changed = 0;
+		int failed = 0;
+		for (Future<long[]> result : results) {
+			try {
+				long[] counts = result.get();
+				processed += counts[0];
+				changed += counts[1];
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while running the " + job + " job", e);
+			} catch (ExecutionException e) {
+				failed++;
+				LOG.error("A {} job partition failed; the next run resumes it", job, e.getCause());
+			}
+		}
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+		JobPassReport report = new JobPassReport(job, today, partitions, resumed, processed, changed, failed,
+				elapsedMillis);
+		throughput.get(job).set(Math.round(report.getRowsPerSecond()));
+		return report;
+	}
+
+	private ShardPlan planShard(String job, LocalDate today, Date from) {
+		List<PolicyJobCheckpoint> checkpoints = checkpointRepository.findByJobNameOrderByPartitionNo(job);
+		boolean resumed = !checkpoints.isEmpty() && checkpoints.get(0).getRunDate().equals(today);
+		if (!resumed) {
+			checkpoints = plan(job, today, from, checkpoints);
+		}
+		return new ShardPlan(ShardContext.current(), checkpoints, resumed);
+	}
+
+	/**
+	 * Replaces the previous run's checkpoints with one per id range. The last
+	 * range is open-ended so policies created during the run are covered too.
+	 */
+	private List<PolicyJobCheckpoint> plan(String job, LocalDate today, Date from,
+			List<PolicyJobCheckpoint> previous) {
+		Long minId = insurancePolicyRepository.findMinPolicyId();
+		Long maxId = insurancePolicyRepository.findMaxPolicyId();
+		List<PolicyJobCheckpoint> checkpoints = new ArrayList<>(workerCount);
+		if (minId != null) {
+			long span = (maxId - minId + workerCount) / workerCount;
+			for (int i = 0; i < workerCount; i++) {
+				long firstId = minId + i * span;
+				long lastId = i == workerCount - 1 ? Long.MAX_VALUE : firstId + span - 1;
+				checkpoints.add(new PolicyJobCheckpoint(job, i, today, firstId, lastId, from));
+			}
+		}
+		transactionTemplate.executeWithoutResult(status -> {
+			checkpointRepository.deleteAllInBatch(previous);
+			checkpointRepository.saveAll(checkpoints);
+		});
+		return checkpoints;
+	}
+
+	private long[] walk(String job, int shard, PolicyJobCheckpoint checkpoint, Date until, ChunkHandler handler) {
+		Pageable page = PageRequest.ofSize(chunkSize);
+		long processed = 0;
+		long changed = 0;
+		while (true) {
+			List<PolicyDue> chunk = insurancePolicyRepository.findDue(until, checkpoint.getFirstId(),
+					checkpoint.getLastId(), checkpoint.getCursorEndDate(), checkpoint.getCursorPolicyId(), page);
+			if (chunk.isEmpty()) {
+				checkpoint.complete();
+				checkpointRepository.save(checkpoint);
+				return new long[] { processed, changed };
+			}
+			PolicyDue last = chunk.get(chunk.size() - 1);
+			long chunkStarted = System.nanoTime();
+			List<PolicyDue> due = chunk.stream().filter(policy -> owned.test(shard, policy)).collect(Collectors.toList());
+			changed += transactionTemplate.execute(status -> {
+				int chunkChanged = handler.apply(due, checkpoint.getRunDate());
+				checkpoint.advance(last.getEndDate(), last.getPolicyId(), chunk.size());
+				checkpointRepository.save(checkpoint);
+				return chunkChanged;
+			});
+			chunkTimers.get(job).record(System.nanoTime() - chunkStarted, TimeUnit.NANOSECONDS);
+			rowCounters.get(job).increment(chunk.size());
+			processed += chunk.size();
+		}
+	}
+
+	private int flagRenewals(List<PolicyDue> chunk, LocalDate runDate) {
+		Map<Long, PolicyRenewal> flagged = renewalRepository
+				.findAllById(chunk.stream().map(PolicyDue::getPolicyId).collect(Collectors.toList())).stream()
+				.collect(Collectors.toMap(PolicyRenewal::getPolicyId, Function.identity()));
+		int changed = 0;
+		for (PolicyDue due : chunk) {
+			PolicyRenewal renewal = flagged.get(due.getPolicyId());
+			if (renewal == null) {
+				entityManager.persist(new PolicyRenewal(due.getPolicyId(), due.getEndDate(), runDate));
+				changed++;
+			} else if (renewal.getEndDate().getTime() != due.getEndDate().getTime()) {
+				// the policy was extended or shortened since it was flagged
+				renewal.setEndDate(due.getEndDate());
+				renewal.setFlaggedOn(runDate);
+				changed++;
+			}
+		}
+		return changed;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		workers.shutdownNow();
+	}
+}
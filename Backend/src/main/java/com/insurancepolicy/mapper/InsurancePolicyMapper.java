@@ -0,0 +1,74 @@
+package com.insurancepolicy.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.entity.ArchivedPolicy;
+import com.insurancepolicy.entity.InsurancePolicy;
+
+/**
+ * Straight field-by-field copies between {@link InsurancePolicy} and
+ * {@link InsurancePolicyDTO}. No reflection or type-map lookups, and the only
+ * allocation is the target object itself: dates and amounts are shared by
+ * reference, so callers must not mutate them in place.
+ */
+@Component
+public class InsurancePolicyMapper {
+
+	public InsurancePolicyDTO toDto(InsurancePolicy policy) {
+		InsurancePolicyDTO dto = new InsurancePolicyDTO(policy.getPolicyId(), policy.getPolicyNumber(),
+				policy.getPolicyType(), policy.getPremiumAmount(), policy.getStartDate(), policy.getEndDate(),
+				policy.isActive(), policy.getCustomerId());
+		dto.setVersion(policy.getVersion());
+		return dto;
+	}
+
+	public InsurancePolicyDTO toDto(ArchivedPolicy policy) {
+		InsurancePolicyDTO dto = new InsurancePolicyDTO(policy.getPolicyId(), policy.getPolicyNumber(),
+				policy.getPolicyType(), policy.getPremiumAmount(), policy.getStartDate(), policy.getEndDate(),
+				policy.isActive(), policy.getCustomerId());
+		dto.setVersion(policy.getVersion());
+		return dto;
+	}
+
+	/**
+	 * A new entity from {@code dto}. The version is never copied: it is assigned
+	 * and incremented by Hibernate.
+	 */
+	public InsurancePolicy toEntity(InsurancePolicyDTO dto) {
+		return new InsurancePolicy(dto.getPolicyId(), dto.getPolicyNumber(), dto.getPolicyType(),
+				dto.getPremiumAmount(), dto.getStartDate(), dto.getEndDate(), dto.isActive(), dto.getCustomerId());
+	}
+
+	/**
+	 * Copies every field except the id and version from {@code dto} onto a managed entity.
+	 */
+	public void updateEntity(InsurancePolicyDTO dto, InsurancePolicy policy) {
+		policy.setPolicyNumber(dto.getPolicyNumber());
+		policy.setPolicyType(dto.getPolicyType());
+		policy.setPremiumAmount(dto.getPremiumAmount());
+		policy.setStartDate(dto.getStartDate());
+		policy.setEndDate(dto.getEndDate());
+		policy.setActive(dto.isActive());
+		policy.setCustomerId(dto.getCustomerId());
+	}
+
+	public List<InsurancePolicyDTO> toDtoList(List<InsurancePolicy> policies) {
+		List<InsurancePolicyDTO> dtos = new ArrayList<>(policies.size());
+		for (int i = 0, n = policies.size(); i < n; i++) {
+			dtos.add(toDto(policies.get(i)));
+		}
+		return dtos;
+	}
+
+	public List<InsurancePolicyDTO> toArchivedDtoList(List<ArchivedPolicy> policies) {
+		List<InsurancePolicyDTO> dtos = new ArrayList<>(policies.size());
+		for (int i = 0, n = policies.size(); i < n; i++) {
+			dtos.add(toDto(policies.get(i)));
+		}
+		return dtos;
+	}
+}
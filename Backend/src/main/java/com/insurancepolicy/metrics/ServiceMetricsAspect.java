@@ -0,0 +1,84 @@
+package com.insurancepolicy.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every {@code InsurancePolicyService} operation as
+ * {@value #TIMER_NAME}, tagged with the method name and its outcome, and
+ * counts failures in {@value #ERROR_COUNTER_NAME} by exception type.
+ * Percentiles and histogram buckets come from
+ * {@code management.metrics.distribution.*}.
+ * <p>
+ * Repository calls are timed by Boot as {@code spring.data.repository.invocations}
+ * and the Hikari pool as {@code hikaricp.connections.*}.
+ * <p>
+ * Runs outside the cache and transaction advice, so cache hits and commit
+ * time are part of the measurement.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+	public static final String TIMER_NAME = "insurancepolicy.service";
+
+	public static final String ERROR_COUNTER_NAME = "insurancepolicy.service.errors";
+
+	private static final String SUCCESS = "success";
+
+	private static final String ERROR = "error";
+
+	private final MeterRegistry meterRegistry;
+
+	// the success timer is looked up on every call, so it is kept off the
+	// registry's tag-matching path
+	private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+	public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Around("execution(public * com.insurancepolicy.service.InsurancePolicyService+.*(..))")
+	public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			Object result = joinPoint.proceed();
+			sample.stop(successTimers.computeIfAbsent(method, m -> timer(m.getName(), SUCCESS, "none")));
+			return result;
+		} catch (Throwable e) {
+			String exception = e.getClass().getSimpleName();
+			sample.stop(timer(method.getName(), ERROR, exception));
+			Counter.builder(ERROR_COUNTER_NAME)
+					.description("Insurance policy service calls that ended in an exception")
+					.tag("operation", method.getName())
+					.tag("exception", exception)
+					.register(meterRegistry)
+					.increment();
+			throw e;
+		}
+	}
+
+	private Timer timer(String operation, String outcome, String exception) {
+		return Timer.builder(TIMER_NAME)
+				.description("Insurance policy service call latency")
+				.tag("operation", operation)
+				.tag("outcome", outcome)
+				.tag("exception", exception)
+				.register(meterRegistry);
+	}
+}
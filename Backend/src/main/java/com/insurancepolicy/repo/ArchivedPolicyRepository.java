@@ -0,0 +1,18 @@
+package com.insurancepolicy.repo;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.insurancepolicy.entity.ArchivedPolicy;
+
+public interface ArchivedPolicyRepository extends JpaRepository<ArchivedPolicy, Long>, ArchivedPolicyRepositoryCustom {
+
+	/**
+	 * The archived holder of a policy number with the highest id; a number is
+	 * free again once archived, so there may be several.
+	 */
+	@Transactional(readOnly = true)
+	Optional<ArchivedPolicy> findFirstByPolicyNumberOrderByPolicyIdDesc(String policyNumber);
+}
@@ -0,0 +1,14 @@
+package com.insurancepolicy.repo;
+
+import java.util.List;
+
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.entity.ArchivedPolicy;
+
+public interface ArchivedPolicyRepositoryCustom {
+
+	/**
+	 * Like {@link InsurancePolicyRepositoryCustom#search}, over the archive.
+	 */
+	List<ArchivedPolicy> search(PolicySearchCriteria criteria, Long afterId, int limit);
+}
@@ -0,0 +1,20 @@
+package com.insurancepolicy.repo;
+
+import java.util.List;
+
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.entity.ArchivedPolicy;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+class ArchivedPolicyRepositoryImpl implements ArchivedPolicyRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<ArchivedPolicy> search(PolicySearchCriteria criteria, Long afterId, int limit) {
+		return InsurancePolicyRepositoryImpl.search(entityManager, ArchivedPolicy.class, criteria, afterId, limit);
+	}
+}
@@ -1,9 +1,126 @@
 package com.insurancepolicy.repo;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.insurancepolicy.entity.InsurancePolicy;
 
-public interface InsurancePolicyRepository extends JpaRepository<InsurancePolicy, Long> {
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface InsurancePolicyRepository
+		extends JpaRepository<InsurancePolicy, Long>, InsurancePolicyRepositoryCustom {
+
+	String STREAM_FETCH_SIZE = "1000";
+
+	/**
+	 * Keyset page: the next rows after the given policy id, in id order. Callers
+	 * pass an unsorted {@link Pageable} carrying only the page size so no count
+	 * query is issued.
+	 */
+	@Query("select p from InsurancePolicy p where p.policyId > :afterId order by p.policyId")
+	List<InsurancePolicy> findNextPage(Long afterId, Pageable pageable);
+
+	/**
+	 * Streams every policy in id order through a server-side cursor. Must be
+	 * consumed inside a transaction and closed by the caller.
+	 */
+	@QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+			@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_CACHEABLE, value = "false") })
+	@Query("select p from InsurancePolicy p order by p.policyId")
+	Stream<InsurancePolicy> streamAll();
+
+	// declared query methods get no transaction from Spring Data; read-only
+	// sends the lookup to a replica
+	@Transactional(readOnly = true)
+	Optional<InsurancePolicy> findByPolicyNumber(String policyNumber);
+
+	@Query("select new com.insurancepolicy.repo.PolicyFiguresRow(p.policyId, p.policyNumber, p.policyType,"
+			+ " p.premiumAmount, p.startDate) from InsurancePolicy p where p.policyId in :ids")
+	List<PolicyFigures> findFiguresByIds(Collection<Long> ids);
+
+	/**
+	 * Policy count and premium sum per customer, for the customers after
+	 * {@code afterCustomerId} in id order: a keyset page over the customer index,
+	 * so the cost follows the page size rather than the table size. Pass an
+	 * unsorted {@link Pageable} carrying only the page size.
+	 */
+	@Query("select cast(p.customerId as String) as name, count(p) as policyCount, sum(p.premiumAmount) as premiumTotal"
+			+ " from InsurancePolicy p where p.customerId > :afterCustomerId group by p.customerId order by p.customerId")
+	List<PremiumTotal> totalsByCustomer(int afterCustomerId, Pageable pageable);
+
+	/**
+	 * Keyset page of the active policies ending before {@code until}, within
+	 * the id range of one partition, after the position ({@code afterEndDate},
+	 * {@code afterId}) in (endDate, policyId) order. Walks the (isActive,
+	 * endDate) index, which carries the id, so rows of other partitions are
+	 * skipped without reading them. Pass an unsorted {@link Pageable} carrying
+	 * only the page size.
+	 */
+	@Query("select p.policyId as policyId, p.policyNumber as policyNumber, p.endDate as endDate"
+			+ " from InsurancePolicy p where p.isActive = true and p.endDate < :until"
+			+ " and p.policyId between :firstId and :lastId"
+			+ " and (p.endDate > :afterEndDate or (p.endDate = :afterEndDate and p.policyId > :afterId))"
+			+ " order by p.endDate, p.policyId")
+	@Transactional(readOnly = true)
+	List<PolicyDue> findDue(Date until, long firstId, long lastId, Date afterEndDate, long afterId, Pageable pageable);
+
+	@Query("select min(p.policyId) from InsurancePolicy p")
+	@Transactional(readOnly = true)
+	Long findMinPolicyId();
+
+	@Query("select max(p.policyId) from InsurancePolicy p")
+	@Transactional(readOnly = true)
+	Long findMaxPolicyId();
+
+	/**
+	 * Deactivates the given policies if still active and ending before
+	 * {@code endedBefore}, bumping their version so cached ETags no longer
+	 * match. Returns the number of rows changed.
+	 */
+	@Modifying
+	@Query("update InsurancePolicy p set p.isActive = false, p.version = p.version + 1"
+			+ " where p.policyId in :ids and p.isActive = true and p.endDate < :endedBefore")
+	int deactivate(Collection<Long> ids, Date endedBefore);
+
+	@Query("select p.policyId from InsurancePolicy p where p.policyId in :ids and p.isActive = false")
+	List<Long> findInactiveIds(Collection<Long> ids);
+
+	/**
+	 * Keyset page of the inactive policies ending before {@code endedBefore},
+	 * after the position ({@code afterEndDate}, {@code afterId}) in (endDate,
+	 * policyId) order, over the (isActive, endDate) index. Pass an unsorted
+	 * {@link Pageable} carrying only the page size.
+	 */
+	@Query("select p.policyId as policyId, p.policyNumber as policyNumber, p.endDate as endDate"
+			+ " from InsurancePolicy p where p.isActive = false and p.endDate < :endedBefore"
+			+ " and (p.endDate > :afterEndDate or (p.endDate = :afterEndDate and p.policyId > :afterId))"
+			+ " order by p.endDate, p.policyId")
+	@Transactional(readOnly = true)
+	List<PolicyDue> findArchivable(Date endedBefore, Date afterEndDate, long afterId, Pageable pageable);
 
+	/**
+	 * Those of the given policies still inactive and ending before
+	 * {@code endedBefore}, locked until the transaction ends so none is
+	 * reactivated while it is being archived.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select p from InsurancePolicy p where p.policyId in :ids and p.isActive = false"
+			+ " and p.endDate < :endedBefore")
+	List<InsurancePolicy> lockArchivable(Collection<Long> ids, Date endedBefore);
 }
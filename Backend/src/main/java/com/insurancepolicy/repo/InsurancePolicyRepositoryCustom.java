@@ -0,0 +1,16 @@
+package com.insurancepolicy.repo;
+
+import java.util.List;
+
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.entity.InsurancePolicy;
+
+public interface InsurancePolicyRepositoryCustom {
+
+	/**
+	 * Keyset page of policies matching {@code criteria}. Only the non-null
+	 * criteria become predicates, so the database can pick the matching index
+	 * ({@code idx_policy_customer} or {@code idx_policy_active_end}).
+	 */
+	List<InsurancePolicy> search(PolicySearchCriteria criteria, Long afterId, int limit);
+}
@@ -0,0 +1,59 @@
+package com.insurancepolicy.repo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.entity.InsurancePolicy;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+class InsurancePolicyRepositoryImpl implements InsurancePolicyRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<InsurancePolicy> search(PolicySearchCriteria criteria, Long afterId, int limit) {
+		return search(entityManager, InsurancePolicy.class, criteria, afterId, limit);
+	}
+
+	/**
+	 * The criteria query behind both policy tables; {@code entity} must map the
+	 * policy fields under the same names.
+	 */
+	static <T> List<T> search(EntityManager entityManager, Class<T> entity, PolicySearchCriteria criteria,
+			Long afterId, int limit) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<T> query = cb.createQuery(entity);
+		Root<T> policy = query.from(entity);
+
+		List<Predicate> predicates = new ArrayList<>();
+		if (criteria.getCustomerId() != null) {
+			predicates.add(cb.equal(policy.get("customerId"), criteria.getCustomerId()));
+		}
+		if (criteria.getActive() != null) {
+			predicates.add(cb.equal(policy.get("isActive"), criteria.getActive()));
+		}
+		if (criteria.getEndFrom() != null) {
+			predicates.add(cb.greaterThanOrEqualTo(policy.get("endDate"), criteria.getEndFrom()));
+		}
+		if (criteria.getEndTo() != null) {
+			predicates.add(cb.lessThanOrEqualTo(policy.get("endDate"), criteria.getEndTo()));
+		}
+		if (criteria.getPolicyType() != null) {
+			predicates.add(cb.equal(policy.get("policyType"), criteria.getPolicyType()));
+		}
+		if (afterId != null) {
+			predicates.add(cb.greaterThan(policy.get("policyId"), afterId));
+		}
+
+		query.select(policy).where(predicates.toArray(new Predicate[0])).orderBy(cb.asc(policy.get("policyId")));
+		return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+	}
+}
@@ -0,0 +1,11 @@
+package com.insurancepolicy.repo;
+
+import java.util.Date;
+
+/**
+ * A policy found by its end date, with the keyset position it was read at.
+ */
+public interface PolicyDue extends PolicyKey {
+
+	Date getEndDate();
+}
@@ -0,0 +1,17 @@
+package com.insurancepolicy.repo;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * The columns a policy contributes to the premium aggregates, besides its
+ * lookup keys.
+ */
+public interface PolicyFigures extends PolicyKey {
+
+	String getPolicyType();
+
+	BigDecimal getPremiumAmount();
+
+	Date getStartDate();
+}
@@ -0,0 +1,56 @@
+package com.insurancepolicy.repo;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * {@link PolicyFigures} filled by a JPQL constructor expression. An interface
+ * projection cannot be used here: the policy entity implements
+ * {@link PolicyFigures} itself, so Spring Data does not treat it as one.
+ */
+public class PolicyFiguresRow implements PolicyFigures {
+
+	private final Long policyId;
+
+	private final String policyNumber;
+
+	private final String policyType;
+
+	private final BigDecimal premiumAmount;
+
+	private final Date startDate;
+
+	public PolicyFiguresRow(Long policyId, String policyNumber, String policyType, BigDecimal premiumAmount,
+			Date startDate) {
+		this.policyId = policyId;
+		this.policyNumber = policyNumber;
+		this.policyType = policyType;
+		this.premiumAmount = premiumAmount;
+		this.startDate = startDate;
+	}
+
+	@Override
+	public Long getPolicyId() {
+		return policyId;
+	}
+
+	@Override
+	public String getPolicyNumber() {
+		return policyNumber;
+	}
+
+	@Override
+	public String getPolicyType() {
+		return policyType;
+	}
+
+	@Override
+	public BigDecimal getPremiumAmount() {
+		return premiumAmount;
+	}
+
+	@Override
+	public Date getStartDate() {
+		return startDate;
+	}
+}
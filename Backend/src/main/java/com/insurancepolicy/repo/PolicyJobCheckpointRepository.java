@@ -0,0 +1,16 @@
+package com.insurancepolicy.repo;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.insurancepolicy.entity.PolicyJobCheckpoint;
+
+public interface PolicyJobCheckpointRepository extends JpaRepository<PolicyJobCheckpoint, String> {
+
+	// declared query methods get no transaction from Spring Data, and with
+	// autocommit off a read outside one would be left open on its connection
+	@Transactional(readOnly = true)
+	List<PolicyJobCheckpoint> findByJobNameOrderByPartitionNo(String jobName);
+}
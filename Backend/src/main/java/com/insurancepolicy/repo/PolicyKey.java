@@ -0,0 +1,11 @@
+package com.insurancepolicy.repo;
+
+/**
+ * Projection of the two columns a policy can be looked up by.
+ */
+public interface PolicyKey {
+
+	Long getPolicyId();
+
+	String getPolicyNumber();
+}
@@ -0,0 +1,21 @@
+package com.insurancepolicy.repo;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.insurancepolicy.entity.PolicyOutboxEvent;
+
+public interface PolicyOutboxRepository extends JpaRepository<PolicyOutboxEvent, Long> {
+
+	/**
+	 * The oldest committed events, in event id order. Pass an unsorted
+	 * {@link Pageable} carrying only the batch size.
+	 */
+	@Query("select e from PolicyOutboxEvent e order by e.eventId")
+	@Transactional(readOnly = true)
+	List<PolicyOutboxEvent> findOldest(Pageable pageable);
+}
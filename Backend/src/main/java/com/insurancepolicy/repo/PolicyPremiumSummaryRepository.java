@@ -0,0 +1,68 @@
+package com.insurancepolicy.repo;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.insurancepolicy.entity.PolicyPremiumSummary;
+import com.insurancepolicy.entity.PolicyPremiumSummaryId;
+
+public interface PolicyPremiumSummaryRepository extends JpaRepository<PolicyPremiumSummary, PolicyPremiumSummaryId> {
+
+	/**
+	 * Adds a (possibly negative) delta to a summary row in place, creating the
+	 * row when it does not exist yet, in one statement of the caller's
+	 * transaction; concurrent writers serialise on the row lock rather than
+	 * overwrite each other. The MySQL form; H2 has no ON DUPLICATE KEY outside
+	 * its MySQL mode.
+	 */
+	@Modifying
+	@Query(value = "insert into policy_premium_summary (policy_type, start_month, policy_count, premium_total)"
+			+ " values (:policyType, :startMonth, :policyCount, :premiumTotal) on duplicate key update"
+			+ " policy_count = policy_count + values(policy_count),"
+			+ " premium_total = premium_total + values(premium_total)", nativeQuery = true)
+	int upsertSummary(String policyType, int startMonth, long policyCount, BigDecimal premiumTotal);
+
+	/**
+	 * {@link #upsertSummary} as a MERGE, for H2.
+	 */
+	@Modifying
+	@Query(value = "merge into policy_premium_summary s using (select cast(:policyType as varchar(50)) policy_type,"
+			+ " cast(:startMonth as int) start_month, cast(:policyCount as bigint) policy_count,"
+			+ " cast(:premiumTotal as decimal(19, 2)) premium_total) d"
+			+ " on s.policy_type = d.policy_type and s.start_month = d.start_month"
+			+ " when matched then update set s.policy_count = s.policy_count + d.policy_count,"
+			+ " s.premium_total = s.premium_total + d.premium_total"
+			+ " when not matched then insert (policy_type, start_month, policy_count, premium_total)"
+			+ " values (d.policy_type, d.start_month, d.policy_count, d.premium_total)", nativeQuery = true)
+	int mergeSummary(String policyType, int startMonth, long policyCount, BigDecimal premiumTotal);
+
+	/**
+	 * Recomputes every row from {@code insurance_policy} in one INSERT ... SELECT;
+	 * the caller empties the table first, in the same transaction. Grouped by
+	 * the selected month expression itself, which H2 and MySQL both accept.
+	 */
+	@Modifying
+	@Query("insert into PolicyPremiumSummary (policyType, startMonth, policyCount, premiumTotal)"
+			+ " select p.policyType, year(p.startDate) * 100 + month(p.startDate), count(p), sum(p.premiumAmount)"
+			+ " from InsurancePolicy p group by p.policyType, year(p.startDate) * 100 + month(p.startDate)")
+	int insertFromPolicies();
+
+	@Query("select s.policyType as name, sum(s.policyCount) as policyCount, sum(s.premiumTotal) as premiumTotal"
+			+ " from PolicyPremiumSummary s where s.startMonth between :fromMonth and :toMonth"
+			+ " group by s.policyType having sum(s.policyCount) > 0 order by s.policyType")
+	List<PremiumTotal> totalsByType(int fromMonth, int toMonth);
+
+	/**
+	 * Totals per start month (yyyymm), for one policy type or all of them when
+	 * {@code policyType} is null.
+	 */
+	@Query("select cast(s.startMonth as String) as name, sum(s.policyCount) as policyCount,"
+			+ " sum(s.premiumTotal) as premiumTotal from PolicyPremiumSummary s"
+			+ " where (:policyType is null or s.policyType = :policyType) and s.startMonth between :fromMonth and :toMonth"
+			+ " group by s.startMonth having sum(s.policyCount) > 0 order by s.startMonth")
+	List<PremiumTotal> totalsByMonth(String policyType, int fromMonth, int toMonth);
+}
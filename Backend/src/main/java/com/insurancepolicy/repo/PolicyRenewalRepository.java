@@ -0,0 +1,8 @@
+package com.insurancepolicy.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.insurancepolicy.entity.PolicyRenewal;
+
+public interface PolicyRenewalRepository extends JpaRepository<PolicyRenewal, Long> {
+}
@@ -0,0 +1,16 @@
+package com.insurancepolicy.repo;
+
+import java.math.BigDecimal;
+
+/**
+ * One group of a premium aggregate: the group value rendered as a string, the
+ * number of policies and their premium sum.
+ */
+public interface PremiumTotal {
+
+	String getName();
+
+	long getPolicyCount();
+
+	BigDecimal getPremiumTotal();
+}
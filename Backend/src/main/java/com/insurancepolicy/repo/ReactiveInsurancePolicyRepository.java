@@ -0,0 +1,168 @@
+package com.insurancepolicy.repo;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.entity.InsurancePolicy;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking reads of the {@code insurance_policy} table, and of
+ * {@code insurance_policy_archive} for archived policies, over R2DBC. The SQL
+ * mirrors the JPA queries in {@link InsurancePolicyRepository} and
+ * {@link ArchivedPolicyRepository}, so both stacks return the same rows in
+ * the same order.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveInsurancePolicyRepository {
+
+	private static final String COLUMNS = "policy_id, policy_number, policy_type, premium_amount, start_date,"
+			+ " end_date, is_active, customer_id, version";
+
+	private static final String SELECT = "select " + COLUMNS + " from insurance_policy";
+
+	private static final String SELECT_ARCHIVED = "select " + COLUMNS + " from insurance_policy_archive";
+
+	// rows requested from the server per round trip while a Flux is drained
+	private static final int STREAM_FETCH_SIZE = Integer.parseInt(InsurancePolicyRepository.STREAM_FETCH_SIZE);
+
+	private final DatabaseClient databaseClient;
+
+	// zone the DATETIME columns were written in; must match the JDBC side
+	private final ZoneId zoneId;
+
+	public ReactiveInsurancePolicyRepository(DatabaseClient databaseClient,
+			@Value("${insurancepolicy.reactive.zone-id:#{T(java.time.ZoneId).systemDefault().id}}") String zoneId) {
+		this.databaseClient = databaseClient;
+		this.zoneId = ZoneId.of(zoneId);
+	}
+
+	public Flux<InsurancePolicy> findAll() {
+		return databaseClient.sql(SELECT + " order by policy_id")
+				.filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+				.map(this::toPolicy)
+				.all();
+	}
+
+	public Flux<InsurancePolicy> findNextPage(long afterId, int limit) {
+		return databaseClient.sql(SELECT + " where policy_id > :afterId order by policy_id limit :limit")
+				.bind("afterId", afterId)
+				.bind("limit", limit)
+				.map(this::toPolicy)
+				.all();
+	}
+
+	public Mono<InsurancePolicy> findById(Long id) {
+		return databaseClient.sql(SELECT + " where policy_id = :id").bind("id", id).map(this::toPolicy).one();
+	}
+
+	public Mono<InsurancePolicy> findByPolicyNumber(String policyNumber) {
+		return databaseClient.sql(SELECT + " where policy_number = :policyNumber")
+				.bind("policyNumber", policyNumber)
+				.map(this::toPolicy)
+				.one();
+	}
+
+	public Mono<InsurancePolicy> findArchivedById(Long id) {
+		return databaseClient.sql(SELECT_ARCHIVED + " where policy_id = :id").bind("id", id).map(this::toPolicy).one();
+	}
+
+	/**
+	 * Like {@link ArchivedPolicyRepository#findFirstByPolicyNumberOrderByPolicyIdDesc}.
+	 */
+	public Mono<InsurancePolicy> findArchivedByPolicyNumber(String policyNumber) {
+		return databaseClient
+				.sql(SELECT_ARCHIVED + " where policy_number = :policyNumber order by policy_id desc limit 1")
+				.bind("policyNumber", policyNumber)
+				.map(this::toPolicy)
+				.one();
+	}
+
+	/**
+	 * Same filters as {@link InsurancePolicyRepositoryCustom#search}: only the
+	 * non-null criteria become predicates.
+	 */
+	public Flux<InsurancePolicy> search(PolicySearchCriteria criteria, Long afterId, int limit) {
+		return search(SELECT, criteria, afterId, limit);
+	}
+
+	/**
+	 * {@link #search} over the archive.
+	 */
+	public Flux<InsurancePolicy> searchArchived(PolicySearchCriteria criteria, Long afterId, int limit) {
+		return search(SELECT_ARCHIVED, criteria, afterId, limit);
+	}
+
+	private Flux<InsurancePolicy> search(String select, PolicySearchCriteria criteria, Long afterId, int limit) {
+		StringJoiner where = new StringJoiner(" and ", " where ", "").setEmptyValue("");
+		Map<String, Object> binds = new LinkedHashMap<>();
+		if (criteria.getCustomerId() != null) {
+			where.add("customer_id = :customerId");
+			binds.put("customerId", criteria.getCustomerId());
+		}
+		if (criteria.getActive() != null) {
+			where.add("is_active = :active");
+			binds.put("active", criteria.getActive());
+		}
+		if (criteria.getEndFrom() != null) {
+			where.add("end_date >= :endFrom");
+			binds.put("endFrom", toLocal(criteria.getEndFrom()));
+		}
+		if (criteria.getEndTo() != null) {
+			where.add("end_date <= :endTo");
+			binds.put("endTo", toLocal(criteria.getEndTo()));
+		}
+		if (criteria.getPolicyType() != null) {
+			where.add("policy_type = :policyType");
+			binds.put("policyType", criteria.getPolicyType());
+		}
+		if (afterId != null) {
+			where.add("policy_id > :afterId");
+			binds.put("afterId", afterId);
+		}
+
+		GenericExecuteSpec spec = databaseClient.sql(select + where + " order by policy_id limit :limit")
+				.bind("limit", limit);
+		for (Map.Entry<String, Object> bind : binds.entrySet()) {
+			spec = spec.bind(bind.getKey(), bind.getValue());
+		}
+		return spec.map(this::toPolicy).all();
+	}
+
+	private InsurancePolicy toPolicy(Readable row) {
+		Boolean active = row.get("is_active", Boolean.class);
+		Integer customerId = row.get("customer_id", Integer.class);
+		Long version = row.get("version", Long.class);
+		InsurancePolicy policy = new InsurancePolicy(row.get("policy_id", Long.class),
+				row.get("policy_number", String.class), row.get("policy_type", String.class),
+				row.get("premium_amount", BigDecimal.class), toDate(row.get("start_date", LocalDateTime.class)),
+				toDate(row.get("end_date", LocalDateTime.class)), active != null && active,
+				customerId == null ? 0 : customerId);
+		policy.setVersion(version == null ? 0L : version);
+		return policy;
+	}
+
+	private Date toDate(LocalDateTime value) {
+		return value == null ? null : Date.from(value.atZone(zoneId).toInstant());
+	}
+
+	private LocalDateTime toLocal(Date value) {
+		return LocalDateTime.ofInstant(value.toInstant(), zoneId);
+	}
+}
@@ -0,0 +1,68 @@
+package com.insurancepolicy.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread routing hints for the reads a {@link ReplicaRoutingDataSource}
+ * would otherwise send to any healthy replica. They only matter for the
+ * connection opened while the hint is in place, so a read has to run, and
+ * open its connection, inside the supplier.
+ */
+public final class ReadRouting {
+
+	private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+	private static final ThreadLocal<Long> CAUGHT_UP_TO = new ThreadLocal<>();
+
+	private ReadRouting() {
+	}
+
+	/**
+	 * Runs the read against the primary, for callers that act on what they read
+	 * with a write and cannot afford a replica's lag.
+	 */
+	public static <T> T onPrimary(Supplier<T> read) {
+		Boolean previous = PRIMARY.get();
+		PRIMARY.set(Boolean.TRUE);
+		try {
+			return read.get();
+		} finally {
+			restore(PRIMARY, previous);
+		}
+	}
+
+	/**
+	 * Runs the read against a replica that has applied everything the primary
+	 * committed up to {@code epochMillis}, or the primary when none has; 0 puts
+	 * no constraint on the replica.
+	 */
+	public static <T> T caughtUpTo(long epochMillis, Supplier<T> read) {
+		if (epochMillis <= 0) {
+			return read.get();
+		}
+		Long previous = CAUGHT_UP_TO.get();
+		CAUGHT_UP_TO.set(previous == null ? epochMillis : Math.max(previous, epochMillis));
+		try {
+			return read.get();
+		} finally {
+			restore(CAUGHT_UP_TO, previous);
+		}
+	}
+
+	static boolean isPrimaryRequired() {
+		return PRIMARY.get() != null;
+	}
+
+	static long requiredCaughtUpTo() {
+		Long caughtUpTo = CAUGHT_UP_TO.get();
+		return caughtUpTo == null ? 0 : caughtUpTo;
+	}
+
+	private static <T> void restore(ThreadLocal<T> hint, T previous) {
+		if (previous == null) {
+			hint.remove();
+		} else {
+			hint.set(previous);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package com.insurancepolicy.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.insurancepolicy.repo.PolicyKey;
+
+/**
+ * Read-your-writes on top of replica routing: remembers when each policy was
+ * last written by this instance, by id and by number, so a read of it can ask
+ * {@link ReadRouting#caughtUpTo} for a replica that has applied the write.
+ * A write older than the lag limit is on every replica in rotation and is
+ * forgotten. Writes made by other instances are not seen; reads of those may
+ * be up to the lag limit behind.
+ */
+@Component
+public class ReplicaConsistency {
+
+	// pruned when it grows past this, rather than on every write
+	private static final int PRUNE_AT = 10_000;
+
+	private final boolean enabled;
+
+	private final long maxLagMillis;
+
+	private final Map<Object, Long> lastWrites = new ConcurrentHashMap<>();
+
+	public ReplicaConsistency(@Value("${insurancepolicy.replicas.enabled:false}") boolean enabled,
+			@Value("${insurancepolicy.replicas.max-lag-ms:5000}") long maxLagMillis) {
+		this.enabled = enabled;
+		this.maxLagMillis = maxLagMillis;
+	}
+
+	/**
+	 * Records the write once the current transaction commits; the policy's id
+	 * only has to be assigned by then.
+	 */
+	public void written(PolicyKey policy) {
+		if (!enabled) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			record(List.of(policy));
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		List<PolicyKey> written = (List<PolicyKey>) TransactionSynchronizationManager.getResource(this);
+		if (written == null) {
+			List<PolicyKey> pending = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					record(pending);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaConsistency.this);
+				}
+			});
+			written = pending;
+		}
+		written.add(policy);
+	}
+
+	private void record(List<PolicyKey> policies) {
+		// taken after the commit, so every beat later than this follows the write
+		long committed = System.currentTimeMillis();
+		for (PolicyKey policy : policies) {
+			lastWrites.put(policy.getPolicyId(), committed);
+			if (policy.getPolicyNumber() != null) {
+				lastWrites.put(policy.getPolicyNumber(), committed);
+			}
+		}
+		if (lastWrites.size() > PRUNE_AT) {
+			long horizon = committed - maxLagMillis;
+			lastWrites.values().removeIf(writtenAt -> writtenAt < horizon);
+		}
+	}
+
+	/**
+	 * When this instance last wrote the policy with this id or number, or 0
+	 * when every replica in rotation already has that write.
+	 */
+	public long lastWrite(Object idOrNumber) {
+		if (!enabled) {
+			return 0;
+		}
+		Long writtenAt = lastWrites.get(idOrNumber);
+		if (writtenAt == null) {
+			return 0;
+		}
+		if (writtenAt < System.currentTimeMillis() - maxLagMillis) {
+			lastWrites.remove(idOrNumber, writtenAt);
+			return 0;
+		}
+		return writtenAt;
+	}
+}
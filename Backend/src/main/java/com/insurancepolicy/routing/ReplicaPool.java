@@ -0,0 +1,229 @@
+package com.insurancepolicy.routing;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The read replicas, handed out round robin to read-only transactions.
+ * <p>
+ * Every check interval the primary's row in {@code replica_heartbeat} is set
+ * to the current time and each replica's copy of it is read back: a replica
+ * holding beat {@code t} has applied every commit the primary made before
+ * {@code t}, and lags by now minus {@code t}. A replica is ejected when that
+ * read or a connection attempt fails, and skipped while its lag is over
+ * {@code maxLagMillis}; the next successful check admits it again. Lag is only
+ * as fine as the check interval.
+ */
+public class ReplicaPool implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReplicaPool.class);
+
+	static final String BEAT = "update replica_heartbeat set beat_millis = ? where id = 1";
+
+	static final String FIRST_BEAT = "insert into replica_heartbeat (id, beat_millis) values (1, ?)";
+
+	static final String READ_BEAT = "select beat_millis from replica_heartbeat where id = 1";
+
+	private static final class Replica {
+
+		private final String name;
+
+		private final DataSource dataSource;
+
+		private final Counter reads;
+
+		// false until the first check has read its heartbeat
+		private volatile boolean healthy;
+
+		private volatile long caughtUpTo;
+
+		Replica(String name, DataSource dataSource, Counter reads) {
+			this.name = name;
+			this.dataSource = dataSource;
+			this.reads = reads;
+		}
+	}
+
+	private final DataSource primary;
+
+	private final List<Replica> replicas;
+
+	private final long maxLagMillis;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	private final Counter primaryReads;
+
+	private final ScheduledExecutorService checker;
+
+	public ReplicaPool(DataSource primary, Map<String, DataSource> replicas, long maxLagMillis,
+			long checkIntervalMillis, MeterRegistry meterRegistry) {
+		this.primary = primary;
+		this.maxLagMillis = maxLagMillis;
+		this.replicas = new ArrayList<>(replicas.size());
+		replicas.forEach((name, dataSource) -> {
+			Replica replica = new Replica(name, dataSource, Counter.builder("insurancepolicy.replicas.reads")
+					.tag("target", name).description("Read-only connections handed out, by target")
+					.register(meterRegistry));
+			Gauge.builder("insurancepolicy.replicas.healthy", replica, r -> r.healthy ? 1 : 0).tag("replica", name)
+					.description("1 while the replica is in rotation").register(meterRegistry);
+			Gauge.builder("insurancepolicy.replicas.lag", replica, this::lagMillis).tag("replica", name)
+					.baseUnit("milliseconds").description("Time since the last primary beat the replica has applied")
+					.register(meterRegistry);
+			this.replicas.add(replica);
+		});
+		this.primaryReads = Counter.builder("insurancepolicy.replicas.reads").tag("target", "primary")
+				.description("Read-only connections handed out, by target").register(meterRegistry);
+		if (checkIntervalMillis > 0) {
+			this.checker = Executors.newSingleThreadScheduledExecutor(task -> {
+				Thread thread = new Thread(task, "replica-health-check");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.checker.scheduleWithFixedDelay(this::check, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+		} else {
+			this.checker = null;
+		}
+	}
+
+	/**
+	 * A connection to the next replica in rotation that is healthy, within the
+	 * lag limit and has applied the primary's commits up to
+	 * {@code caughtUpTo}; null when there is none, and the read should go to
+	 * the primary.
+	 */
+	Connection getConnection(long caughtUpTo) {
+		int size = replicas.size();
+		if (size == 0) {
+			return null;
+		}
+		int start = Math.floorMod(next.getAndIncrement(), size);
+		for (int i = 0; i < size; i++) {
+			Replica replica = replicas.get((start + i) % size);
+			if (!usable(replica, caughtUpTo)) {
+				continue;
+			}
+			try {
+				Connection connection = replica.dataSource.getConnection();
+				replica.reads.increment();
+				return connection;
+			} catch (SQLException e) {
+				eject(replica, e);
+			}
+		}
+		return null;
+	}
+
+	void readOnPrimary() {
+		primaryReads.increment();
+	}
+
+	private boolean usable(Replica replica, long caughtUpTo) {
+		return replica.healthy && replica.caughtUpTo > caughtUpTo && lagMillis(replica) <= maxLagMillis;
+	}
+
+	private double lagMillis(Replica replica) {
+		return replica.caughtUpTo == 0 ? Double.NaN : System.currentTimeMillis() - replica.caughtUpTo;
+	}
+
+	/**
+	 * Beats on the primary, then reads every replica's heartbeat, ejecting the
+	 * ones that fail and admitting the ones that answer.
+	 */
+	void check() {
+		try {
+			beat(System.currentTimeMillis());
+		} catch (SQLException | RuntimeException e) {
+			// the table may not exist yet on a first start; lag then only grows
+			LOG.warn("Could not write the replica heartbeat on the primary", e);
+		}
+		for (Replica replica : replicas) {
+			try {
+				Long beat = readBeat(replica.dataSource);
+				if (beat == null) {
+					eject(replica, null);
+				} else {
+					replica.caughtUpTo = beat;
+					if (!replica.healthy) {
+						replica.healthy = true;
+						LOG.info("Replica {} is in rotation, {} ms behind", replica.name, lagMillis(replica));
+					}
+				}
+			} catch (SQLException | RuntimeException e) {
+				eject(replica, e);
+			}
+		}
+	}
+
+	private void beat(long now) throws SQLException {
+		try (Connection connection = primary.getConnection()) {
+			int updated;
+			try (PreparedStatement update = connection.prepareStatement(BEAT)) {
+				update.setLong(1, now);
+				updated = update.executeUpdate();
+			}
+			if (updated == 0) {
+				try (PreparedStatement insert = connection.prepareStatement(FIRST_BEAT)) {
+					insert.setLong(1, now);
+					insert.executeUpdate();
+				}
+			}
+			if (!connection.getAutoCommit()) {
+				connection.commit();
+			}
+		}
+	}
+
+	private static Long readBeat(DataSource replica) throws SQLException {
+		try (Connection connection = replica.getConnection();
+				PreparedStatement select = connection.prepareStatement(READ_BEAT);
+				ResultSet beat = select.executeQuery()) {
+			Long millis = beat.next() ? beat.getLong(1) : null;
+			if (!connection.getAutoCommit()) {
+				connection.rollback();
+			}
+			return millis;
+		}
+	}
+
+	private void eject(Replica replica, Exception cause) {
+		if (replica.healthy) {
+			replica.healthy = false;
+			LOG.warn("Replica {} is out of rotation until its next successful check", replica.name, cause);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (checker != null) {
+			checker.shutdownNow();
+		}
+		for (Replica replica : replicas) {
+			if (replica.dataSource instanceof AutoCloseable closeable) {
+				try {
+					closeable.close();
+				} catch (Exception e) {
+					LOG.warn("Could not close replica {}", replica.name, e);
+				}
+			}
+		}
+	}
+}
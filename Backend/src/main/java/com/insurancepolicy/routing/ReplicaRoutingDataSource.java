@@ -0,0 +1,46 @@
+package com.insurancepolicy.routing;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica from the {@link ReplicaPool} and
+ * everything else to the primary. The read-only flag is only known once the
+ * transaction has begun, after JPA has asked for its connection, so this has
+ * to sit behind a {@code LazyConnectionDataSourceProxy}, which opens the real
+ * connection at the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+	private final DataSource primary;
+
+	private final ReplicaPool replicas;
+
+	public ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicas) {
+		this.primary = primary;
+		this.replicas = replicas;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadRouting.isPrimaryRequired()) {
+			return primary.getConnection();
+		}
+		Connection replica = replicas.getConnection(ReadRouting.requiredCaughtUpTo());
+		if (replica != null) {
+			return replica;
+		}
+		replicas.readOnPrimary();
+		return primary.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new UnsupportedOperationException("Replica routing uses the pools' own credentials");
+	}
+}
@@ -1,17 +1,112 @@
 package com.insurancepolicy.service;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
+import com.insurancepolicy.dto.BulkResultDTO;
 import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.repo.PolicyKey;
 
 public interface InsurancePolicyService {
 	List<InsurancePolicyDTO> getAllPolicies();
 
+	/**
+	 * Returns up to {@code size} policies with an id greater than {@code afterId}
+	 * (or from the start when {@code afterId} is null), in id order. Archived
+	 * policies are not listed.
+	 */
+	PolicyPageDTO getPolicies(Long afterId, int size);
+
+	/**
+	 * Keyset page of the policies matching {@code criteria}, like
+	 * {@link #getPolicies(Long, int)}; archived ones are included only with
+	 * {@link PolicySearchCriteria#isIncludeArchived()}.
+	 */
+	PolicyPageDTO searchPolicies(PolicySearchCriteria criteria, Long afterId, int size);
+
+	/**
+	 * Pushes every policy to {@code consumer} in id order without materialising
+	 * the full result set.
+	 */
+	void streamAllPolicies(Consumer<InsurancePolicyDTO> consumer);
+
+	/**
+	 * Served from the policy cache when possible, and from the archive for an
+	 * archived policy. The returned DTO may be the cached instance and must not
+	 * be modified.
+	 */
 	InsurancePolicyDTO getInsurancePolicyById(Long id);
 
+	/**
+	 * Cached like {@link #getInsurancePolicyById(Long)}.
+	 */
+	InsurancePolicyDTO getInsurancePolicyByNumber(String policyNumber);
+
 	InsurancePolicyDTO createInsurancePolicy(InsurancePolicyDTO insurancePolicyDTO);
 
 	InsurancePolicyDTO updateInsurancePolicy(Long id, InsurancePolicyDTO insurancePolicyDTO);
 
+	/**
+	 * Applies the update only if the stored policy is still at one of
+	 * {@code expectedVersions}, otherwise throws
+	 * {@link com.insurancepolicy.exception.PreconditionFailedException}. No row
+	 * lock is taken: a writer that commits in between fails the version check in
+	 * the UPDATE with an
+	 * {@link org.springframework.dao.OptimisticLockingFailureException}.
+	 */
+	InsurancePolicyDTO updateInsurancePolicy(Long id, InsurancePolicyDTO insurancePolicyDTO,
+			Set<Long> expectedVersions);
+
 	boolean deleteInsurancePolicy(Long id);
+
+	/**
+	 * Creates policies in chunks, one transaction per chunk. The iterator is
+	 * consumed lazily so callers can feed it straight from a streaming parser;
+	 * every item gets an entry in the result.
+	 */
+	BulkResultDTO bulkCreateInsurancePolicies(Iterator<InsurancePolicyDTO> policies);
+
+	/**
+	 * Updates policies identified by their {@code policyId}, chunked like
+	 * {@link #bulkCreateInsurancePolicies(Iterator)}.
+	 */
+	BulkResultDTO bulkUpdateInsurancePolicies(Iterator<InsurancePolicyDTO> policies);
+
+	BulkResultDTO bulkDeleteInsurancePolicies(Iterator<Long> ids);
+
+	/**
+	 * Inserts new policies from a file import, chunked like
+	 * {@link #bulkCreateInsurancePolicies(Iterator)} but without a per-item
+	 * result: the entities are expected to be validated by the reader, only
+	 * rejected ones are passed to {@code failures}, and the number inserted is
+	 * returned. Safe to call from several threads at once.
+	 */
+	long importInsurancePolicies(Iterator<InsurancePolicy> policies, BiConsumer<InsurancePolicy, String> failures);
+
+	/**
+	 * Deactivates those of the given policies that are still active and end
+	 * before {@code endedBefore} (checked again in the UPDATE, in case a policy
+	 * was extended since it was read), and drops them from the read caches once
+	 * the transaction commits. Joins the caller's transaction, so a batch job
+	 * can commit it with its own progress. Returns the number deactivated.
+	 */
+	int expireInsurancePolicies(Collection<? extends PolicyKey> policies, Date endedBefore);
+
+	/**
+	 * Moves those of the given policies that are inactive and end before
+	 * {@code endedBefore} (checked again under a row lock) to the archive. They
+	 * stay readable by id and number, and through search with
+	 * {@link PolicySearchCriteria#isIncludeArchived()}, but can no longer be
+	 * changed, and leave the premium aggregates; no change event is published,
+	 * as the policy itself does not change. Returns the number archived.
+	 */
+	int archiveInsurancePolicies(Collection<? extends PolicyKey> policies, Date endedBefore);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.insurancepolicy.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import com.insurancepolicy.dto.PremiumTotalDTO;
+import com.insurancepolicy.dto.PremiumTotalPageDTO;
+
+/**
+ * Policy counts and premium sums computed in the database. The totals by type
+ * and by start month come from the incrementally maintained summary table;
+ * {@code from} and {@code to} bound the start month, inclusive, and may be
+ * null.
+ */
+public interface PolicyAggregateService {
+
+	List<PremiumTotalDTO> getTotalsByType(YearMonth from, YearMonth to);
+
+	/**
+	 * Totals per start month, keyed {@code yyyy-MM}, for one policy type or all
+	 * of them when {@code policyType} is null.
+	 */
+	List<PremiumTotalDTO> getTotalsByMonth(String policyType, YearMonth from, YearMonth to);
+
+	/**
+	 * Keyset page of the totals per customer, in customer id order, grouped from
+	 * the policy table through the customer index.
+	 */
+	PremiumTotalPageDTO getTotalsByCustomer(Integer afterCustomerId, int size);
+
+	/**
+	 * Recomputes the summary table from the policy table, for a first deployment
+	 * or after writes that bypassed the service. Returns the number of summary
+	 * rows.
+	 */
+	int rebuildSummary();
+}
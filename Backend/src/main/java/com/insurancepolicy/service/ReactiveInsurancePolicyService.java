@@ -0,0 +1,56 @@
+package com.insurancepolicy.service;
+
+import java.util.Set;
+
+import com.insurancepolicy.dto.BulkResultDTO;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.dto.PolicySearchCriteria;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link InsurancePolicyService}, active under the
+ * {@code reactive} profile. Reads never block the calling thread; writes run
+ * on a bounded elastic worker through the blocking service so both stacks
+ * share one write path.
+ */
+public interface ReactiveInsurancePolicyService {
+
+	/**
+	 * Every policy in id order, fetched from the database as the subscriber
+	 * requests more.
+	 */
+	Flux<InsurancePolicyDTO> getAllPolicies();
+
+	Mono<PolicyPageDTO> getPolicies(Long afterId, int size);
+
+	Mono<PolicyPageDTO> searchPolicies(PolicySearchCriteria criteria, Long afterId, int size);
+
+	/**
+	 * Checks the policy cache before the database. The emitted DTO may be the
+	 * cached instance and must not be modified.
+	 */
+	Mono<InsurancePolicyDTO> getInsurancePolicyById(Long id);
+
+	Mono<InsurancePolicyDTO> getInsurancePolicyByNumber(String policyNumber);
+
+	Mono<InsurancePolicyDTO> createInsurancePolicy(InsurancePolicyDTO insurancePolicyDTO);
+
+	Mono<InsurancePolicyDTO> updateInsurancePolicy(Long id, InsurancePolicyDTO insurancePolicyDTO);
+
+	/**
+	 * See {@link InsurancePolicyService#updateInsurancePolicy(Long, InsurancePolicyDTO, Set)}.
+	 */
+	Mono<InsurancePolicyDTO> updateInsurancePolicy(Long id, InsurancePolicyDTO insurancePolicyDTO,
+			Set<Long> expectedVersions);
+
+	Mono<Boolean> deleteInsurancePolicy(Long id);
+
+	Mono<BulkResultDTO> bulkCreateInsurancePolicies(Flux<InsurancePolicyDTO> policies);
+
+	Mono<BulkResultDTO> bulkUpdateInsurancePolicies(Flux<InsurancePolicyDTO> policies);
+
+	Mono<BulkResultDTO> bulkDeleteInsurancePolicies(Flux<Long> ids);
+}
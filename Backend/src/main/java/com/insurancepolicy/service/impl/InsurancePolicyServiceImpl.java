@@ -1,46 +1,656 @@
 package com.insurancepolicy.service.impl;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.insurancepolicy.config.CacheConfig;
+import com.insurancepolicy.dto.BulkItemResultDTO;
+import com.insurancepolicy.dto.BulkResultDTO;
 import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.entity.ArchivedPolicy;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.exception.BusinessException;
+import com.insurancepolicy.exception.GoneException;
+import com.insurancepolicy.exception.NotFoundException;
+import com.insurancepolicy.exception.PreconditionFailedException;
+import com.insurancepolicy.index.PolicyIndex;
+import com.insurancepolicy.mapper.InsurancePolicyMapper;
+import com.insurancepolicy.repo.ArchivedPolicyRepository;
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+import com.insurancepolicy.repo.PolicyFigures;
+import com.insurancepolicy.repo.PolicyKey;
+import com.insurancepolicy.routing.ReadRouting;
+import com.insurancepolicy.routing.ReplicaConsistency;
 import com.insurancepolicy.service.InsurancePolicyService;
+import com.insurancepolicy.sharding.PolicyShardKeys;
+import com.insurancepolicy.sharding.PolicyShards;
+import com.insurancepolicy.validation.PolicyBatchViolations;
+import com.insurancepolicy.validation.PolicyDtoValidator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 
 @Service
 public class InsurancePolicyServiceImpl implements InsurancePolicyService {
 
+	private static final String NOT_FOUND_MESSAGE = "Insurance Policy not found";
+
+	private static final String VERSION_MISMATCH_MESSAGE = "Insurance Policy has been modified";
+
+	private static final String ARCHIVED_MESSAGE = "Insurance Policy is archived and can no longer be changed";
+
+	private final InsurancePolicyRepository insurancePolicyRepository;
+
+	private final ArchivedPolicyRepository archivedPolicyRepository;
+
+	private final InsurancePolicyMapper policyMapper;
+
+	private final EntityManager entityManager;
+
+	private final PolicyDtoValidator dtoValidator;
+
+	private final CacheManager cacheManager;
+
+	private final PremiumSummaryRecorder premiumSummary;
+
+	private final PolicyOutbox outbox;
+
+	private final PolicyIndex policyIndex;
+
+	private final PolicyReadCoalescer readCoalescer;
+
+	private final ReplicaConsistency replicaConsistency;
+
+	private final PolicyShards policyShards;
+
+	// Caffeine's own cache.evictions only counts size/TTL evictions
+	private final Counter cacheInvalidations;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int maxPageSize;
+
+	private final int bulkChunkSize;
+
+	public InsurancePolicyServiceImpl(InsurancePolicyRepository insurancePolicyRepository,
+			ArchivedPolicyRepository archivedPolicyRepository, InsurancePolicyMapper policyMapper,
+			EntityManager entityManager, PolicyDtoValidator dtoValidator, CacheManager cacheManager,
+			PremiumSummaryRecorder premiumSummary, PolicyOutbox outbox, PolicyIndex policyIndex,
+			PolicyReadCoalescer readCoalescer, ReplicaConsistency replicaConsistency, PolicyShards policyShards,
+			MeterRegistry meterRegistry, PlatformTransactionManager transactionManager,
+			@Value("${insurancepolicy.page.max-size:1000}") int maxPageSize,
+			@Value("${insurancepolicy.bulk.chunk-size:1000}") int bulkChunkSize) {
+		this.insurancePolicyRepository = insurancePolicyRepository;
+		this.archivedPolicyRepository = archivedPolicyRepository;
+		this.policyMapper = policyMapper;
+		this.entityManager = entityManager;
+		this.dtoValidator = dtoValidator;
+		this.cacheManager = cacheManager;
+		this.premiumSummary = premiumSummary;
+		this.outbox = outbox;
+		this.policyIndex = policyIndex;
+		this.readCoalescer = readCoalescer;
+		this.replicaConsistency = replicaConsistency;
+		this.policyShards = policyShards;
+		this.cacheInvalidations = Counter.builder("insurancepolicy.cache.invalidations")
+				.description("Policies evicted from the read caches by writes").register(meterRegistry);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.maxPageSize = maxPageSize;
+		this.bulkChunkSize = Math.max(1, bulkChunkSize);
+	}
+
+	// the reads below run in a read-only transaction per shard, through PolicyShards
+
 	@Override
 	public List<InsurancePolicyDTO> getAllPolicies() {
-		// write your logic here
-		return null;
+		return PolicyShards.merge(policyShards.gather(() -> policyMapper.toDtoList(insurancePolicyRepository.findAll())),
+				Integer.MAX_VALUE, InsurancePolicyDTO::getPolicyId, policyShards.owned(InsurancePolicyDTO::getPolicyId),
+				(first, second) -> first).content();
 	}
 
 	@Override
+	public PolicyPageDTO getPolicies(Long afterId, int size) {
+		int pageSize = clampPageSize(size);
+		long after = afterId == null ? 0L : afterId;
+		return toPage(policyShards.gather(() -> policyMapper
+				.toDtoList(insurancePolicyRepository.findNextPage(after, PageRequest.ofSize(pageSize)))), pageSize);
+	}
+
+	@Override
+	public PolicyPageDTO searchPolicies(PolicySearchCriteria criteria, Long afterId, int size) {
+		int pageSize = clampPageSize(size);
+		List<List<InsurancePolicyDTO>> pages = policyShards.gather(
+				() -> policyMapper.toDtoList(insurancePolicyRepository.search(criteria, afterId, pageSize)));
+		if (!criteria.isIncludeArchived()) {
+			return toPage(pages, pageSize);
+		}
+		// after the hot tables, so a policy archived in between is still found
+		// in one of them; one found in both is merged into one row
+		List<List<InsurancePolicyDTO>> all = new ArrayList<>(pages);
+		all.addAll(policyShards.gather(
+				() -> policyMapper.toArchivedDtoList(archivedPolicyRepository.search(criteria, afterId, pageSize))));
+		int shards = pages.size();
+		BiPredicate<Integer, InsurancePolicyDTO> owned = policyShards.owned(InsurancePolicyDTO::getPolicyId);
+		PolicyShards.Merged<InsurancePolicyDTO, Long> page = PolicyShards.merge(all, pageSize,
+				InsurancePolicyDTO::getPolicyId, (shard, policy) -> owned.test(shard % shards, policy),
+				(first, second) -> first);
+		return new PolicyPageDTO(page.content(), page.nextCursor());
+	}
+
+	private int clampPageSize(int size) {
+		return Math.max(1, Math.min(size, maxPageSize));
+	}
+
+	/**
+	 * One page from the per-shard pages, which each hold up to
+	 * {@code pageSize} policies after the cursor in id order.
+	 */
+	private PolicyPageDTO toPage(List<List<InsurancePolicyDTO>> pages, int pageSize) {
+		PolicyShards.Merged<InsurancePolicyDTO, Long> page = PolicyShards.merge(pages, pageSize,
+				InsurancePolicyDTO::getPolicyId, policyShards.owned(InsurancePolicyDTO::getPolicyId),
+				(first, second) -> first);
+		return new PolicyPageDTO(page.content(), page.nextCursor());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void streamAllPolicies(Consumer<InsurancePolicyDTO> consumer) {
+		if (policyShards.isSharded()) {
+			// a cursor per shard would hold a connection on each for the whole export
+			Long after = null;
+			do {
+				PolicyPageDTO page = getPolicies(after, maxPageSize);
+				page.getContent().forEach(consumer);
+				after = page.getNextCursor();
+			} while (after != null);
+			return;
+		}
+		try (Stream<InsurancePolicy> policies = insurancePolicyRepository.streamAll()) {
+			policies.forEach(policy -> {
+				consumer.accept(policyMapper.toDto(policy));
+				// keep the persistence context from growing with the result set
+				entityManager.detach(policy);
+			});
+		}
+	}
+
+	// no transaction of its own: an index hit must not cost a connection, and
+	// concurrent misses for the same id share one load through the coalescer
+	@Override
+	@Cacheable(cacheNames = CacheConfig.POLICIES, key = "#id")
 	public InsurancePolicyDTO getInsurancePolicyById(Long id) {
-		// write your logic here
-		return null;
+		InsurancePolicyDTO indexed = policyIndex.findById(id);
+		if (indexed != null) {
+			return indexed;
+		}
+		long writtenAt = replicaConsistency.lastWrite(id);
+		InsurancePolicyDTO policy = writtenAt == 0 ? readCoalescer.load(id)
+				// not shared: this load has to see our own write, others' need not
+				: policyShards.onPolicy(id, () -> ReadRouting.caughtUpTo(writtenAt,
+						() -> insurancePolicyRepository.findById(id).map(policyMapper::toDto).orElse(null)));
+		if (policy == null) {
+			// archived policies never come back, so the archive is only asked after
+			// the hot table, and a policy archived in between is found in one of them
+			policy = policyShards.onPolicy(id,
+					() -> archivedPolicyRepository.findById(id).map(policyMapper::toDto).orElse(null));
+		}
+		if (policy == null) {
+			throw new NotFoundException(NOT_FOUND_MESSAGE);
+		}
+		return policy;
+	}
+
+	@Override
+	@Cacheable(cacheNames = CacheConfig.POLICIES_BY_NUMBER, key = "#policyNumber")
+	public InsurancePolicyDTO getInsurancePolicyByNumber(String policyNumber) {
+		InsurancePolicyDTO indexed = policyIndex.findByNumber(policyNumber);
+		if (indexed != null) {
+			return indexed;
+		}
+		if (policyShards.isSharded()) {
+			// numbers do not route, so every shard is asked
+			return onAnyShard(() -> insurancePolicyRepository.findByPolicyNumber(policyNumber).map(policyMapper::toDto))
+					.or(() -> onAnyShard(() -> archivedPolicyRepository
+							.findFirstByPolicyNumberOrderByPolicyIdDesc(policyNumber).map(policyMapper::toDto)))
+					.orElseThrow(() -> new NotFoundException(NOT_FOUND_MESSAGE));
+		}
+		return ReadRouting
+				.caughtUpTo(replicaConsistency.lastWrite(policyNumber),
+						() -> insurancePolicyRepository.findByPolicyNumber(policyNumber))
+				.map(policyMapper::toDto)
+				.or(() -> archivedPolicyRepository.findFirstByPolicyNumberOrderByPolicyIdDesc(policyNumber)
+						.map(policyMapper::toDto))
+				.orElseThrow(() -> new NotFoundException(NOT_FOUND_MESSAGE));
+	}
+
+	private Optional<InsurancePolicyDTO> onAnyShard(Supplier<Optional<InsurancePolicyDTO>> read) {
+		return PolicyShards.merge(policyShards.gather(() -> read.get().map(List::of).orElse(List.of())), 1,
+				InsurancePolicyDTO::getPolicyId, policyShards.owned(InsurancePolicyDTO::getPolicyId),
+				(first, second) -> first).content().stream().findFirst();
 	}
 
 	@Override
 	@Transactional
 	public InsurancePolicyDTO createInsurancePolicy(InsurancePolicyDTO insurancePolicyDTO) {
-		// write your logic here
-		return null;
+		policyShards.pinCustomer(insurancePolicyDTO.getCustomerId());
+		InsurancePolicy policy = policyMapper.toEntity(insurancePolicyDTO);
+		policy.setPolicyId(null);
+		premiumSummary.added(policy);
+		InsurancePolicy saved = insurancePolicyRepository.save(policy);
+		outbox.created(saved);
+		policyIndex.stored(saved);
+		replicaConsistency.written(saved);
+		return policyMapper.toDto(saved);
 	}
 
 	@Override
 	@Transactional
 	public InsurancePolicyDTO updateInsurancePolicy(Long id, InsurancePolicyDTO insurancePolicyDTO) {
-		// write your logic here
-		return null;
+		policyShards.pinPolicy(id);
+		InsurancePolicy policy = insurancePolicyRepository.findById(id).orElseThrow(() -> missing(id));
+		return update(policy, insurancePolicyDTO);
+	}
+
+	@Override
+	@Transactional
+	public InsurancePolicyDTO updateInsurancePolicy(Long id, InsurancePolicyDTO insurancePolicyDTO,
+			Set<Long> expectedVersions) {
+		policyShards.pinPolicy(id);
+		InsurancePolicy policy = insurancePolicyRepository.findById(id).orElseThrow(() -> missing(id));
+		if (!expectedVersions.contains(policy.getVersion())) {
+			throw new PreconditionFailedException(VERSION_MISMATCH_MESSAGE);
+		}
+		return update(policy, insurancePolicyDTO);
+	}
+
+	private InsurancePolicyDTO update(InsurancePolicy policy, InsurancePolicyDTO insurancePolicyDTO) {
+		evictAfterCommit(List.of(policy));
+		premiumSummary.removed(policy);
+		policyMapper.updateEntity(insurancePolicyDTO, policy);
+		premiumSummary.added(policy);
+		// flush now so the returned version (and ETag) is the one being committed
+		InsurancePolicy saved = insurancePolicyRepository.saveAndFlush(policy);
+		outbox.updated(saved);
+		policyIndex.stored(saved);
+		replicaConsistency.written(saved);
+		return policyMapper.toDto(saved);
 	}
 
 	@Override
 	@Transactional
 	public boolean deleteInsurancePolicy(Long id) {
-		// write your logic here
-		return false;
+		policyShards.pinPolicy(id);
+		InsurancePolicy policy = insurancePolicyRepository.findById(id).orElseThrow(() -> missing(id));
+		evictAfterCommit(List.of(policy));
+		premiumSummary.removed(policy);
+		outbox.deleted(policy);
+		policyIndex.deleted(policy);
+		replicaConsistency.written(policy);
+		insurancePolicyRepository.delete(policy);
+		return true;
+	}
+
+	/**
+	 * The error for a write to a policy that is not in the hot table: archived
+	 * policies are read-only.
+	 */
+	private BusinessException missing(Long id) {
+		return archivedPolicyRepository.existsById(id) ? new GoneException(ARCHIVED_MESSAGE)
+				: new NotFoundException(NOT_FOUND_MESSAGE);
+	}
+
+	@Override
+	public BulkResultDTO bulkCreateInsurancePolicies(Iterator<InsurancePolicyDTO> policies) {
+		return processInChunks(policies, InsurancePolicyDTO::getPolicyId, InsurancePolicyServiceImpl::customerBucket,
+				(chunk, offset) -> {
+			PolicyBatchViolations violations = dtoValidator.validate(chunk);
+			List<BulkItemResultDTO> outcomes = new ArrayList<>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++) {
+				InsurancePolicyDTO dto = chunk.get(i);
+				if (!violations.isValid(i)) {
+					outcomes.add(BulkItemResultDTO.failure(offset + i, null, violations.get(i)));
+					continue;
+				}
+				InsurancePolicy policy = policyMapper.toEntity(dto);
+				policy.setPolicyId(null);
+				// the pooled sequence assigns the id here; the insert itself is batched at flush
+				entityManager.persist(policy);
+				premiumSummary.added(policy);
+				outbox.created(policy);
+				policyIndex.stored(policy);
+				replicaConsistency.written(policy);
+				outcomes.add(BulkItemResultDTO.success(offset + i, policy.getPolicyId(), BulkItemResultDTO.CREATED));
+			}
+			return outcomes;
+		});
+	}
+
+	@Override
+	public BulkResultDTO bulkUpdateInsurancePolicies(Iterator<InsurancePolicyDTO> policies) {
+		return processInChunks(policies, InsurancePolicyDTO::getPolicyId, InsurancePolicyServiceImpl::policyBucket,
+				(chunk, offset) -> {
+			Set<Long> ids = chunk.stream().filter(Objects::nonNull).map(InsurancePolicyDTO::getPolicyId)
+					.filter(Objects::nonNull).collect(Collectors.toSet());
+			Map<Long, InsurancePolicy> existing = insurancePolicyRepository.findAllById(ids).stream()
+					.collect(Collectors.toMap(InsurancePolicy::getPolicyId, Function.identity()));
+			evictAfterCommit(existing.values());
+			PolicyBatchViolations batchViolations = dtoValidator.validate(chunk);
+			List<BulkItemResultDTO> outcomes = new ArrayList<>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++) {
+				InsurancePolicyDTO dto = chunk.get(i);
+				Long id = dto == null ? null : dto.getPolicyId();
+				String violations = id == null ? "policyId must not be null" : batchViolations.get(i);
+				if (violations != null) {
+					outcomes.add(BulkItemResultDTO.failure(offset + i, id, violations));
+					continue;
+				}
+				InsurancePolicy policy = existing.get(id);
+				if (policy == null) {
+					outcomes.add(BulkItemResultDTO.failure(offset + i, id, NOT_FOUND_MESSAGE));
+					continue;
+				}
+				premiumSummary.removed(policy);
+				policyMapper.updateEntity(dto, policy);
+				premiumSummary.added(policy);
+				outbox.updated(policy);
+				policyIndex.stored(policy);
+				replicaConsistency.written(policy);
+				outcomes.add(BulkItemResultDTO.success(offset + i, id, BulkItemResultDTO.UPDATED));
+			}
+			return outcomes;
+		});
+	}
+
+	@Override
+	public BulkResultDTO bulkDeleteInsurancePolicies(Iterator<Long> ids) {
+		return processInChunks(ids, Function.identity(), InsurancePolicyServiceImpl::idBucket, (chunk, offset) -> {
+			List<PolicyFigures> keys = insurancePolicyRepository
+					.findFiguresByIds(chunk.stream().filter(Objects::nonNull).collect(Collectors.toSet()));
+			evictAfterCommit(keys);
+			keys.forEach(premiumSummary::removed);
+			keys.forEach(outbox::deleted);
+			keys.forEach(policyIndex::deleted);
+			keys.forEach(replicaConsistency::written);
+			Set<Long> existing = keys.stream().map(PolicyKey::getPolicyId)
+					.collect(Collectors.toCollection(HashSet::new));
+			insurancePolicyRepository.deleteAllByIdInBatch(existing);
+			List<BulkItemResultDTO> outcomes = new ArrayList<>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++) {
+				Long id = chunk.get(i);
+				// remove() so a duplicated id in the same chunk is only reported deleted once
+				outcomes.add(existing.remove(id) ? BulkItemResultDTO.success(offset + i, id, BulkItemResultDTO.DELETED)
+						: BulkItemResultDTO.failure(offset + i, id, NOT_FOUND_MESSAGE));
+			}
+			return outcomes;
+		});
+	}
+
+	@Override
+	public long importInsurancePolicies(Iterator<InsurancePolicy> policies,
+			BiConsumer<InsurancePolicy, String> failures) {
+		long imported = 0;
+		List<InsurancePolicy> chunk = new ArrayList<>(bulkChunkSize);
+		while (policies.hasNext()) {
+			chunk.add(policies.next());
+			if (chunk.size() == bulkChunkSize || !policies.hasNext()) {
+				imported += importChunk(chunk, failures);
+				chunk.clear();
+			}
+		}
+		return imported;
+	}
+
+	private int importChunk(List<InsurancePolicy> chunk, BiConsumer<InsurancePolicy, String> failures) {
+		int imported = 0;
+		List<PolicyShards.Group<InsurancePolicy>> groups = policyShards.split(chunk,
+				InsurancePolicyServiceImpl::customerBucket);
+		for (PolicyShards.Group<InsurancePolicy> group : groups) {
+			try {
+				transactionTemplate.executeWithoutResult(status -> persistAll(group.items()));
+				imported += group.items().size();
+			} catch (RuntimeException e) {
+				// replayed row by row, as in processChunk
+				for (InsurancePolicy policy : group.items()) {
+					try {
+						transactionTemplate
+								.executeWithoutResult(status -> persistAll(Collections.singletonList(policy)));
+						imported++;
+					} catch (RuntimeException itemFailure) {
+						failures.accept(policy, NestedExceptionUtils.getMostSpecificCause(itemFailure).getMessage());
+					}
+				}
+			}
+		}
+		return imported;
+	}
+
+	private void persistAll(List<InsurancePolicy> policies) {
+		policyShards.pinBuckets(
+				policies.stream().map(InsurancePolicyServiceImpl::customerBucket).collect(Collectors.toSet()));
+		for (InsurancePolicy policy : policies) {
+			// a rolled-back attempt leaves the sequence id and version on the entity
+			policy.setPolicyId(null);
+			policy.setVersion(0);
+			entityManager.persist(policy);
+			premiumSummary.added(policy);
+			outbox.created(policy);
+			policyIndex.stored(policy);
+			replicaConsistency.written(policy);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Override
+	@Transactional
+	public int expireInsurancePolicies(Collection<? extends PolicyKey> policies, Date endedBefore) {
+		if (policies.isEmpty()) {
+			return 0;
+		}
+		List<Long> ids = policies.stream().map(PolicyKey::getPolicyId).collect(Collectors.toList());
+		policyShards.pinBuckets(ids.stream().map(PolicyShardKeys::bucketOf).collect(Collectors.toSet()));
+		evictAfterCommit(policies);
+		int expired = insurancePolicyRepository.deactivate(ids, endedBefore);
+		if (expired > 0) {
+			// the ones extended since they were read are still active and not expired
+			Set<Long> inactive = new HashSet<>(insurancePolicyRepository.findInactiveIds(ids));
+			policies.stream().filter(policy -> inactive.contains(policy.getPolicyId())).forEach(policy -> {
+				outbox.expired(policy);
+				policyIndex.expired(policy);
+				replicaConsistency.written(policy);
+			});
+		}
+		return expired;
+	}
+
+	@Override
+	@Transactional
+	public int archiveInsurancePolicies(Collection<? extends PolicyKey> policies, Date endedBefore) {
+		if (policies.isEmpty()) {
+			return 0;
+		}
+		List<Long> ids = policies.stream().map(PolicyKey::getPolicyId).collect(Collectors.toList());
+		policyShards.pinBuckets(ids.stream().map(PolicyShardKeys::bucketOf).collect(Collectors.toSet()));
+		// the ones reactivated or extended since they were read stay
+		List<InsurancePolicy> archivable = insurancePolicyRepository.lockArchivable(ids, endedBefore);
+		if (archivable.isEmpty()) {
+			return 0;
+		}
+		// the cached copies are still right, but their numbers are free for new policies
+		evictAfterCommit(archivable);
+		LocalDate archivedOn = LocalDate.now();
+		for (InsurancePolicy policy : archivable) {
+			entityManager.persist(new ArchivedPolicy(policy, archivedOn));
+			premiumSummary.removed(policy);
+			policyIndex.deleted(policy);
+		}
+		// the copies are inserted before the rows go, and the deleted entities are dropped
+		entityManager.flush();
+		insurancePolicyRepository.deleteAllInBatch(archivable);
+		entityManager.clear();
+		return archivable.size();
+	}
+
+	/**
+	 * Applies one chunk of work to a list of items and reports an outcome per
+	 * item, in order.
+	 */
+	@FunctionalInterface
+	private interface ChunkOperation<T> {
+		List<BulkItemResultDTO> apply(List<T> chunk, int offset);
+	}
+
+	private <T> BulkResultDTO processInChunks(Iterator<T> items, Function<T, Long> idOf, ToIntFunction<T> bucketOf,
+			ChunkOperation<T> operation) {
+		BulkResultDTO result = new BulkResultDTO();
+		List<T> chunk = new ArrayList<>(bulkChunkSize);
+		int offset = 0;
+		while (items.hasNext()) {
+			chunk.add(items.next());
+			if (chunk.size() == bulkChunkSize || !items.hasNext()) {
+				processChunk(chunk, offset, idOf, bucketOf, operation, result);
+				offset += chunk.size();
+				chunk.clear();
+			}
+		}
+		return result;
+	}
+
+	// the bucket each bulk item is written to; malformed items fail on any shard
+
+	private static int customerBucket(InsurancePolicyDTO dto) {
+		return dto == null ? 0 : PolicyShardKeys.bucketOfCustomer(dto.getCustomerId());
+	}
+
+	private static int customerBucket(InsurancePolicy policy) {
+		return PolicyShardKeys.bucketOfCustomer(policy.getCustomerId());
+	}
+
+	private static int policyBucket(InsurancePolicyDTO dto) {
+		return dto == null ? 0 : idBucket(dto.getPolicyId());
+	}
+
+	private static int idBucket(Long id) {
+		return id == null ? 0 : PolicyShardKeys.bucketOf(id);
+	}
+
+	/**
+	 * Runs a chunk as one transaction per shard it touches (one unsharded);
+	 * the outcomes are reported in chunk order either way.
+	 */
+	private <T> void processChunk(List<T> chunk, int offset, Function<T, Long> idOf, ToIntFunction<T> bucketOf,
+			ChunkOperation<T> operation, BulkResultDTO result) {
+		List<BulkItemResultDTO> outcomes = new ArrayList<>(chunk.size());
+		for (PolicyShards.Group<T> group : policyShards.split(chunk, bucketOf)) {
+			processGroup(group, offset, idOf, operation, outcomes);
+		}
+		outcomes.sort(Comparator.comparingInt(BulkItemResultDTO::getIndex));
+		outcomes.forEach(result::add);
+	}
+
+	private <T> void processGroup(PolicyShards.Group<T> group, int offset, Function<T, Long> idOf,
+			ChunkOperation<T> operation, List<BulkItemResultDTO> outcomes) {
+		List<T> items = group.items();
+		try {
+			List<BulkItemResultDTO> applied = transactionTemplate
+					.execute(status -> applyChunk(items, group.buckets(), 0, operation));
+			for (BulkItemResultDTO outcome : applied) {
+				outcome.setIndex(offset + group.indexes().get(outcome.getIndex()));
+				outcomes.add(outcome);
+			}
+		} catch (RuntimeException e) {
+			// a single bad row rolls back the whole chunk, so replay it row by row to
+			// isolate the failure and still commit everything else
+			for (int i = 0; i < items.size(); i++) {
+				T item = items.get(i);
+				int index = offset + group.indexes().get(i);
+				try {
+					outcomes.addAll(transactionTemplate.execute(
+							status -> applyChunk(Collections.singletonList(item), group.buckets(), index, operation)));
+				} catch (RuntimeException itemFailure) {
+					outcomes.add(BulkItemResultDTO.failure(index, item == null ? null : idOf.apply(item),
+							NestedExceptionUtils.getMostSpecificCause(itemFailure).getMessage()));
+				}
+			}
+		}
+	}
+
+	private <T> List<BulkItemResultDTO> applyChunk(List<T> chunk, Set<Integer> buckets, int offset,
+			ChunkOperation<T> operation) {
+		policyShards.pinBuckets(buckets);
+		List<BulkItemResultDTO> outcomes = operation.apply(chunk, offset);
+		entityManager.flush();
+		entityManager.clear();
+		return outcomes;
+	}
+
+	/**
+	 * Drops the cached entries for both lookup keys of the given policies once the
+	 * current transaction commits, so a concurrent reader cannot re-cache the
+	 * pre-commit row after an eager eviction.
+	 */
+	private void evictAfterCommit(Collection<? extends PolicyKey> policies) {
+		if (policies.isEmpty()) {
+			return;
+		}
+		List<Long> ids = new ArrayList<>(policies.size());
+		List<String> policyNumbers = new ArrayList<>(policies.size());
+		for (PolicyKey policy : policies) {
+			ids.add(policy.getPolicyId());
+			policyNumbers.add(policy.getPolicyNumber());
+		}
+		Runnable evict = () -> {
+			Cache byId = cacheManager.getCache(CacheConfig.POLICIES);
+			Cache byNumber = cacheManager.getCache(CacheConfig.POLICIES_BY_NUMBER);
+			readCoalescer.forget(ids);
+			ids.forEach(byId::evict);
+			policyNumbers.forEach(byNumber::evict);
+			cacheInvalidations.increment(ids.size());
+		};
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict.run();
+				}
+			});
+		} else {
+			evict.run();
+		}
 	}
 }
@@ -0,0 +1,130 @@
+package com.insurancepolicy.service.impl;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurancepolicy.dto.PremiumTotalDTO;
+import com.insurancepolicy.dto.PremiumTotalPageDTO;
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+import com.insurancepolicy.repo.PolicyPremiumSummaryRepository;
+import com.insurancepolicy.repo.PremiumTotal;
+import com.insurancepolicy.service.PolicyAggregateService;
+import com.insurancepolicy.sharding.PolicyShards;
+
+/**
+ * Premium totals. Sharded, each shard keeps the summary of the policies it
+ * holds, so the totals are read from every shard and added up by key; while
+ * a rebalance is moving buckets they can be off by the policies in flight,
+ * until its summary rebuild.
+ */
+@Service
+public class PolicyAggregateServiceImpl implements PolicyAggregateService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PolicyAggregateServiceImpl.class);
+
+	private static final int FIRST_MONTH = 0;
+
+	private static final int LAST_MONTH = 999_912;
+
+	private final PolicyPremiumSummaryRepository summaryRepository;
+
+	private final InsurancePolicyRepository insurancePolicyRepository;
+
+	private final PolicyShards policyShards;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int maxPageSize;
+
+	private final boolean rebuildIfEmpty;
+
+	public PolicyAggregateServiceImpl(PolicyPremiumSummaryRepository summaryRepository,
+			InsurancePolicyRepository insurancePolicyRepository, PolicyShards policyShards,
+			PlatformTransactionManager transactionManager,
+			@Value("${insurancepolicy.page.max-size:1000}") int maxPageSize,
+			@Value("${insurancepolicy.aggregates.rebuild-if-empty:true}") boolean rebuildIfEmpty) {
+		this.summaryRepository = summaryRepository;
+		this.insurancePolicyRepository = insurancePolicyRepository;
+		this.policyShards = policyShards;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.maxPageSize = maxPageSize;
+		this.rebuildIfEmpty = rebuildIfEmpty;
+	}
+
+	@Override
+	public List<PremiumTotalDTO> getTotalsByType(YearMonth from, YearMonth to) {
+		return sumByKey(policyShards.gather(() -> summaryRepository
+				.totalsByType(month(from, FIRST_MONTH), month(to, LAST_MONTH)).stream()
+				.map(total -> toDto(total.getName(), total)).collect(Collectors.toList())));
+	}
+
+	@Override
+	public List<PremiumTotalDTO> getTotalsByMonth(String policyType, YearMonth from, YearMonth to) {
+		return sumByKey(policyShards.gather(() -> summaryRepository
+				.totalsByMonth(policyType, month(from, FIRST_MONTH), month(to, LAST_MONTH)).stream().map(total -> {
+					int yyyymm = Integer.parseInt(total.getName());
+					return toDto(YearMonth.of(yyyymm / 100, yyyymm % 100).toString(), total);
+				}).collect(Collectors.toList())));
+	}
+
+	@Override
+	public PremiumTotalPageDTO getTotalsByCustomer(Integer afterCustomerId, int size) {
+		int pageSize = Math.max(1, Math.min(size, maxPageSize));
+		int after = afterCustomerId == null ? Integer.MIN_VALUE : afterCustomerId;
+		// a customer's policies from before sharding can be spread over shards
+		PolicyShards.Merged<PremiumTotalDTO, Integer> page = PolicyShards.merge(
+				policyShards.gather(() -> insurancePolicyRepository.totalsByCustomer(after, PageRequest.ofSize(pageSize))
+						.stream().map(total -> toDto(total.getName(), total)).collect(Collectors.toList())),
+				pageSize, total -> Integer.valueOf(total.getKey()), (shard, total) -> true,
+				PolicyAggregateServiceImpl::sum);
+		return new PremiumTotalPageDTO(page.content(), page.nextCursor());
+	}
+
+	@Override
+	public int rebuildSummary() {
+		return policyShards.eachShard(() -> transactionTemplate.execute(status -> {
+			summaryRepository.deleteAllInBatch();
+			return summaryRepository.insertFromPolicies();
+		})).stream().mapToInt(Integer::intValue).sum();
+	}
+
+	// a database created before the summary table existed starts with it empty
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildSummaryIfEmpty() {
+		// a single-row keyset page rather than count(*), which scans the whole table
+		if (rebuildIfEmpty && policyShards.eachShard(() -> transactionTemplate.execute(status -> summaryRepository
+				.count() == 0 && !insurancePolicyRepository.findNextPage(0L, PageRequest.ofSize(1)).isEmpty()))
+				.contains(Boolean.TRUE)) {
+			LOG.info("Premium summary is empty, rebuilt {} rows from the policy table", rebuildSummary());
+		}
+	}
+
+	private static List<PremiumTotalDTO> sumByKey(List<List<PremiumTotalDTO>> shards) {
+		return PolicyShards.merge(shards, Integer.MAX_VALUE, PremiumTotalDTO::getKey, (shard, total) -> true,
+				PolicyAggregateServiceImpl::sum).content();
+	}
+
+	private static PremiumTotalDTO sum(PremiumTotalDTO first, PremiumTotalDTO second) {
+		return new PremiumTotalDTO(first.getKey(), first.getPolicyCount() + second.getPolicyCount(),
+				first.getPremiumTotal().add(second.getPremiumTotal()));
+	}
+
+	private static int month(YearMonth month, int unbounded) {
+		return month == null ? unbounded : month.getYear() * 100 + month.getMonthValue();
+	}
+
+	private static PremiumTotalDTO toDto(String key, PremiumTotal total) {
+		return new PremiumTotalDTO(key, total.getPolicyCount(), total.getPremiumTotal());
+	}
+}
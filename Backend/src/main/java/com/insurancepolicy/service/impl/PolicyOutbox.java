@@ -0,0 +1,132 @@
+package com.insurancepolicy.service.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyChangeEventDTO;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.entity.PolicyOutboxEvent;
+import com.insurancepolicy.events.PolicyEventRelay;
+import com.insurancepolicy.mapper.InsurancePolicyMapper;
+import com.insurancepolicy.repo.PolicyKey;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Writes a change event to {@code policy_outbox} for every policy write, in
+ * the writing transaction, so an event exists if and only if its change
+ * committed. The events are built just before commit, after a flush, so
+ * they carry the ids and versions the database assigned; the relay is woken
+ * once the transaction has committed.
+ */
+@Component
+public class PolicyOutbox {
+
+	private final EntityManager entityManager;
+
+	private final InsurancePolicyMapper policyMapper;
+
+	private final ObjectWriter payloadWriter;
+
+	private final PolicyEventRelay relay;
+
+	private final boolean enabled;
+
+	public PolicyOutbox(EntityManager entityManager, InsurancePolicyMapper policyMapper, ObjectMapper objectMapper,
+			PolicyEventRelay relay, @Value("${insurancepolicy.events.enabled:true}") boolean enabled) {
+		this.entityManager = entityManager;
+		this.policyMapper = policyMapper;
+		this.payloadWriter = objectMapper.writerFor(InsurancePolicyDTO.class);
+		this.relay = relay;
+		this.enabled = enabled;
+	}
+
+	public void created(InsurancePolicy policy) {
+		record(PolicyChangeEventDTO.CREATED, policy);
+	}
+
+	public void updated(InsurancePolicy policy) {
+		record(PolicyChangeEventDTO.UPDATED, policy);
+	}
+
+	public void deleted(PolicyKey policy) {
+		record(PolicyChangeEventDTO.DELETED, policy);
+	}
+
+	public void expired(PolicyKey policy) {
+		record(PolicyChangeEventDTO.EXPIRED, policy);
+	}
+
+	private record Change(String type, PolicyKey policy, Instant occurredAt) {
+	}
+
+	private void record(String type, PolicyKey policy) {
+		if (!enabled) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("Policy changes must be written in a transaction");
+		}
+		@SuppressWarnings("unchecked")
+		List<Change> changes = (List<Change>) TransactionSynchronizationManager.getResource(this);
+		if (changes == null) {
+			List<Change> pending = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					writeEvents(pending);
+				}
+
+				@Override
+				public void afterCommit() {
+					relay.wakeUp();
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(PolicyOutbox.this);
+				}
+			});
+			changes = pending;
+		}
+		changes.add(new Change(type, policy, Instant.now()));
+	}
+
+	private void writeEvents(List<Change> changes) {
+		// assigns the ids and versions of writes not flushed yet
+		entityManager.flush();
+		for (Change change : changes) {
+			PolicyKey key = change.policy();
+			Long version = null;
+			String payload = null;
+			if (key instanceof InsurancePolicy policy) {
+				version = policy.getVersion();
+				if (!PolicyChangeEventDTO.DELETED.equals(change.type())) {
+					payload = toJson(policy);
+				}
+			}
+			entityManager.persist(new PolicyOutboxEvent(change.type(), key.getPolicyId(), key.getPolicyNumber(),
+					version, payload, change.occurredAt()));
+		}
+		entityManager.flush();
+	}
+
+	private String toJson(InsurancePolicy policy) {
+		try {
+			return payloadWriter.writeValueAsString(policyMapper.toDto(policy));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialise policy " + policy.getPolicyId(), e);
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package com.insurancepolicy.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.mapper.InsurancePolicyMapper;
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+import com.insurancepolicy.sharding.PolicyShardKeys;
+import com.insurancepolicy.sharding.PolicyShards;
+import com.insurancepolicy.sharding.ShardContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Loads policies by id from the database on behalf of
+ * {@code getInsurancePolicyById}, so that concurrent callers for the same id
+ * share one in-flight load instead of each running a query.
+ * <p>
+ * With {@code insurancepolicy.reads.batch-window-micros} above 0, the loads
+ * themselves are micro-batched: the distinct ids requested within one window
+ * (up to {@code batch-max-size}) are fetched with a single
+ * {@code findAllById} on one of {@code batch-loaders} threads. The
+ * {@code insurancepolicy.reads.collapse.ratio} gauge is requests per query.
+ * Sharded, a batch runs one query per shard its ids route to.
+ */
+@Component
+public class PolicyReadCoalescer {
+
+	private record Pending(Long id, CompletableFuture<InsurancePolicyDTO> result) {
+	}
+
+	private final InsurancePolicyRepository insurancePolicyRepository;
+
+	private final InsurancePolicyMapper policyMapper;
+
+	private final PolicyShards policyShards;
+
+	private final boolean coalesce;
+
+	private final long windowNanos;
+
+	private final int maxBatchSize;
+
+	private final Map<Long, CompletableFuture<InsurancePolicyDTO>> inFlight = new ConcurrentHashMap<>();
+
+	// only used when batching
+	private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+	private final ExecutorService collector;
+
+	private final ExecutorService loaders;
+
+	private final Counter requests;
+
+	private final Counter shared;
+
+	private final Counter queries;
+
+	private final DistributionSummary batchSizes;
+
+	public PolicyReadCoalescer(InsurancePolicyRepository insurancePolicyRepository, InsurancePolicyMapper policyMapper,
+			PolicyShards policyShards, MeterRegistry meterRegistry, @Value("${insurancepolicy.reads.coalesce:true}") boolean coalesce,
+			@Value("${insurancepolicy.reads.batch-window-micros:0}") long windowMicros,
+			@Value("${insurancepolicy.reads.batch-max-size:500}") int maxBatchSize,
+			@Value("${insurancepolicy.reads.batch-loaders:4}") int batchLoaders) {
+		this.insurancePolicyRepository = insurancePolicyRepository;
+		this.policyMapper = policyMapper;
+		this.policyShards = policyShards;
+		this.coalesce = coalesce;
+		this.windowNanos = coalesce ? TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros)) : 0;
+		this.maxBatchSize = Math.max(1, maxBatchSize);
+		this.requests = Counter.builder("insurancepolicy.reads.requests")
+				.description("Policy loads by id requested after an index and cache miss").register(meterRegistry);
+		this.shared = Counter.builder("insurancepolicy.reads.shared")
+				.description("Policy loads answered by joining one already in flight").register(meterRegistry);
+		this.queries = Counter.builder("insurancepolicy.reads.queries")
+				.description("Database queries run for policy loads by id").register(meterRegistry);
+		this.batchSizes = DistributionSummary.builder("insurancepolicy.reads.batch.size")
+				.description("Distinct ids fetched per micro-batched query").register(meterRegistry);
+		Gauge.builder("insurancepolicy.reads.collapse.ratio", this, PolicyReadCoalescer::collapseRatio)
+				.description("Policy load requests per database query").register(meterRegistry);
+		if (windowNanos > 0) {
+			this.collector = Executors.newSingleThreadExecutor(daemon("policy-read-batcher"));
+			this.loaders = Executors.newFixedThreadPool(Math.max(1, batchLoaders), daemon("policy-read-loader"));
+			this.collector.execute(this::collect);
+		} else {
+			this.collector = null;
+			this.loaders = null;
+		}
+	}
+
+	private static ThreadFactory daemon(String name) {
+		AtomicInteger threads = new AtomicInteger();
+		return task -> {
+			Thread thread = new Thread(task, name + "-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * The policy with this id, or null when there is none.
+	 */
+	public InsurancePolicyDTO load(Long id) {
+		requests.increment();
+		if (!coalesce) {
+			return query(id);
+		}
+		CompletableFuture<InsurancePolicyDTO> mine = new CompletableFuture<>();
+		CompletableFuture<InsurancePolicyDTO> running = inFlight.putIfAbsent(id, mine);
+		if (running != null) {
+			shared.increment();
+			return await(running);
+		}
+		if (windowNanos > 0) {
+			queue.add(new Pending(id, mine));
+			return await(mine);
+		}
+		try {
+			InsurancePolicyDTO policy = query(id);
+			// removed first, so nobody joins a load that has already finished
+			inFlight.remove(id, mine);
+			mine.complete(policy);
+			return policy;
+		} catch (RuntimeException e) {
+			inFlight.remove(id, mine);
+			mine.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Stops new callers from joining loads of these ids that started before a
+	 * write committed; they start a fresh one instead.
+	 */
+	public void forget(Collection<Long> ids) {
+		ids.forEach(inFlight::remove);
+	}
+
+	private InsurancePolicyDTO query(Long id) {
+		queries.increment();
+		return policyShards.onPolicy(id,
+				() -> insurancePolicyRepository.findById(id).map(policyMapper::toDto).orElse(null));
+	}
+
+	private static InsurancePolicyDTO await(CompletableFuture<InsurancePolicyDTO> load) {
+		try {
+			return load.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	private void collect() {
+		List<Pending> batch = new ArrayList<>(maxBatchSize);
+		try {
+			while (true) {
+				batch.add(queue.take());
+				long deadline = System.nanoTime() + windowNanos;
+				while (batch.size() < maxBatchSize) {
+					long remaining = deadline - System.nanoTime();
+					Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+				List<Pending> ready = List.copyOf(batch);
+				batch.clear();
+				try {
+					loaders.execute(() -> loadBatch(ready));
+				} catch (RejectedExecutionException e) {
+					fail(ready, e);
+				}
+			}
+		} catch (InterruptedException e) {
+			queue.drainTo(batch);
+			fail(batch, new RejectedExecutionException("Policy reads are shutting down"));
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void loadBatch(List<Pending> batch) {
+		try {
+			Map<Long, InsurancePolicyDTO> found = new HashMap<>();
+			for (PolicyShards.Group<Pending> group : policyShards.split(batch,
+					pending -> PolicyShardKeys.bucketOf(pending.id()))) {
+				List<Long> ids = new ArrayList<>(group.items().size());
+				group.items().forEach(pending -> ids.add(pending.id()));
+				queries.increment();
+				batchSizes.record(ids.size());
+				ShardContext.on(group.shard(), () -> {
+					for (InsurancePolicy policy : insurancePolicyRepository.findAllById(ids)) {
+						found.put(policy.getPolicyId(), policyMapper.toDto(policy));
+					}
+				});
+			}
+			for (Pending pending : batch) {
+				inFlight.remove(pending.id(), pending.result());
+				pending.result().complete(found.get(pending.id()));
+			}
+		} catch (RuntimeException e) {
+			fail(batch, e);
+		}
+	}
+
+	private void fail(List<Pending> batch, RuntimeException e) {
+		for (Pending pending : batch) {
+			inFlight.remove(pending.id(), pending.result());
+			pending.result().completeExceptionally(e);
+		}
+	}
+
+	private double collapseRatio() {
+		double queried = queries.count();
+		return queried == 0 ? 1.0 : requests.count() / queried;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (collector != null) {
+			collector.shutdownNow();
+			loaders.shutdownNow();
+		}
+	}
+}
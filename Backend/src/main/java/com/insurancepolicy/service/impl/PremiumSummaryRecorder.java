@@ -0,0 +1,126 @@
+package com.insurancepolicy.service.impl;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurancepolicy.entity.PolicyPremiumSummaryId;
+import com.insurancepolicy.repo.PolicyFigures;
+import com.insurancepolicy.repo.PolicyPremiumSummaryRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Keeps {@code policy_premium_summary} in step with the policy writes. The
+ * deltas of a transaction are summed per summary row and applied just before
+ * it commits, in key order: one upsert per touched row however many policies
+ * changed, row locks held only for the commit, and no lock-order deadlocks
+ * between writers. A rolled-back transaction never touches the summary.
+ */
+@Component
+public class PremiumSummaryRecorder {
+
+	private final PolicyPremiumSummaryRepository summaryRepository;
+
+	private final TransactionTemplate transactionTemplate;
+
+	// the zone the database's year() and month() see a stored start date in;
+	// the JVM's when unset, which is the zone JDBC drivers write timestamps in
+	private final ZoneId zoneId;
+
+	private final boolean h2;
+
+	public PremiumSummaryRecorder(PolicyPremiumSummaryRepository summaryRepository,
+			EntityManagerFactory entityManagerFactory, PlatformTransactionManager transactionManager,
+			@Value("${insurancepolicy.aggregates.zone-id:}") String zoneId) {
+		this.summaryRepository = summaryRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.zoneId = zoneId.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(zoneId);
+		this.h2 = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+				.getDialect() instanceof H2Dialect;
+	}
+
+	public void added(PolicyFigures policy) {
+		record(policy, 1, policy.getPremiumAmount());
+	}
+
+	/**
+	 * Call before the policy is modified or deleted: the figures are read
+	 * immediately.
+	 */
+	public void removed(PolicyFigures policy) {
+		record(policy, -1, policy.getPremiumAmount().negate());
+	}
+
+	/**
+	 * The summary month (yyyymm) of a start date, as the rebuild computes it from
+	 * the stored column.
+	 */
+	int startMonth(Date startDate) {
+		// java.sql.Date does not support toInstant()
+		LocalDate day = Instant.ofEpochMilli(startDate.getTime()).atZone(zoneId).toLocalDate();
+		return day.getYear() * 100 + day.getMonthValue();
+	}
+
+	private void record(PolicyFigures policy, long count, BigDecimal premium) {
+		PolicyPremiumSummaryId id = new PolicyPremiumSummaryId(policy.getPolicyType(),
+				startMonth(policy.getStartDate()));
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			transactionTemplate.executeWithoutResult(status -> apply(Map.of(id, new Delta(count, premium))));
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		Map<PolicyPremiumSummaryId, Delta> deltas = (Map<PolicyPremiumSummaryId, Delta>) TransactionSynchronizationManager
+				.getResource(this);
+		if (deltas == null) {
+			Map<PolicyPremiumSummaryId, Delta> pending = new TreeMap<>();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					apply(pending);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(PremiumSummaryRecorder.this);
+				}
+			});
+			deltas = pending;
+		}
+		deltas.merge(id, new Delta(count, premium), Delta::plus);
+	}
+
+	private void apply(Map<PolicyPremiumSummaryId, Delta> deltas) {
+		deltas.forEach((id, delta) -> {
+			if (delta.count() == 0 && delta.premium().signum() == 0) {
+				return;
+			}
+			if (h2) {
+				summaryRepository.mergeSummary(id.getPolicyType(), id.getStartMonth(), delta.count(), delta.premium());
+			} else {
+				summaryRepository.upsertSummary(id.getPolicyType(), id.getStartMonth(), delta.count(), delta.premium());
+			}
+		});
+	}
+
+	private record Delta(long count, BigDecimal premium) {
+
+		Delta plus(Delta other) {
+			return new Delta(count + other.count, premium.add(other.premium));
+		}
+	}
+}
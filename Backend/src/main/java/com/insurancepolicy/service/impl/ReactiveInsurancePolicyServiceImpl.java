@@ -0,0 +1,181 @@
+package com.insurancepolicy.service.impl;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.insurancepolicy.config.CacheConfig;
+import com.insurancepolicy.dto.BulkResultDTO;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.exception.NotFoundException;
+import com.insurancepolicy.mapper.InsurancePolicyMapper;
+import com.insurancepolicy.repo.ReactiveInsurancePolicyRepository;
+import com.insurancepolicy.service.InsurancePolicyService;
+import com.insurancepolicy.service.ReactiveInsurancePolicyService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@Service
+@Profile("reactive")
+public class ReactiveInsurancePolicyServiceImpl implements ReactiveInsurancePolicyService {
+
+	private static final String NOT_FOUND_MESSAGE = "Insurance Policy not found";
+
+	// items buffered ahead of the bulk writer while the request body is decoded
+	private static final int BULK_PREFETCH = 256;
+
+	private static final Comparator<InsurancePolicy> BY_ID = Comparator.comparing(InsurancePolicy::getPolicyId);
+
+	private final ReactiveInsurancePolicyRepository reactiveRepository;
+
+	private final InsurancePolicyService insurancePolicyService;
+
+	private final InsurancePolicyMapper policyMapper;
+
+	private final Cache policiesById;
+
+	private final Cache policiesByNumber;
+
+	private final int maxPageSize;
+
+	public ReactiveInsurancePolicyServiceImpl(ReactiveInsurancePolicyRepository reactiveRepository,
+			InsurancePolicyService insurancePolicyService, InsurancePolicyMapper policyMapper,
+			CacheManager cacheManager, @Value("${insurancepolicy.page.max-size:1000}") int maxPageSize) {
+		this.reactiveRepository = reactiveRepository;
+		this.insurancePolicyService = insurancePolicyService;
+		this.policyMapper = policyMapper;
+		this.policiesById = cacheManager.getCache(CacheConfig.POLICIES);
+		this.policiesByNumber = cacheManager.getCache(CacheConfig.POLICIES_BY_NUMBER);
+		this.maxPageSize = maxPageSize;
+	}
+
+	@Override
+	public Flux<InsurancePolicyDTO> getAllPolicies() {
+		return reactiveRepository.findAll().map(policyMapper::toDto);
+	}
+
+	@Override
+	public Mono<PolicyPageDTO> getPolicies(Long afterId, int size) {
+		int pageSize = clampPageSize(size);
+		return toPage(reactiveRepository.findNextPage(afterId == null ? 0L : afterId, pageSize), pageSize);
+	}
+
+	@Override
+	public Mono<PolicyPageDTO> searchPolicies(PolicySearchCriteria criteria, Long afterId, int size) {
+		int pageSize = clampPageSize(size);
+		Flux<InsurancePolicy> policies = reactiveRepository.search(criteria, afterId, pageSize);
+		if (criteria.isIncludeArchived()) {
+			// both come in id order; a policy archived between the two reads is in both
+			policies = Flux
+					.mergeComparing(BY_ID, policies, reactiveRepository.searchArchived(criteria, afterId, pageSize))
+					.distinctUntilChanged(InsurancePolicy::getPolicyId)
+					.take(pageSize);
+		}
+		return toPage(policies, pageSize);
+	}
+
+	private int clampPageSize(int size) {
+		return Math.max(1, Math.min(size, maxPageSize));
+	}
+
+	private Mono<PolicyPageDTO> toPage(Flux<InsurancePolicy> policies, int pageSize) {
+		return policies.map(policyMapper::toDto).collectList().map(content -> {
+			Long nextCursor = content.size() < pageSize ? null : content.get(content.size() - 1).getPolicyId();
+			return new PolicyPageDTO(content, nextCursor);
+		});
+	}
+
+	// the archive is only asked once the hot table has no such policy
+
+	@Override
+	public Mono<InsurancePolicyDTO> getInsurancePolicyById(Long id) {
+		return cached(policiesById, id,
+				reactiveRepository.findById(id).switchIfEmpty(reactiveRepository.findArchivedById(id)));
+	}
+
+	@Override
+	public Mono<InsurancePolicyDTO> getInsurancePolicyByNumber(String policyNumber) {
+		return cached(policiesByNumber, policyNumber, reactiveRepository.findByPolicyNumber(policyNumber)
+				.switchIfEmpty(reactiveRepository.findArchivedByPolicyNumber(policyNumber)));
+	}
+
+	/**
+	 * Read-through on the same caches the blocking service fills and the write
+	 * path evicts. Caffeine lookups are in-memory, so they are safe on the event
+	 * loop.
+	 */
+	private Mono<InsurancePolicyDTO> cached(Cache cache, Object key, Mono<InsurancePolicy> load) {
+		return Mono.defer(() -> {
+			InsurancePolicyDTO hit = cache == null ? null : cache.get(key, InsurancePolicyDTO.class);
+			if (hit != null) {
+				return Mono.just(hit);
+			}
+			return load.map(policyMapper::toDto).doOnNext(dto -> {
+				if (cache != null) {
+					cache.put(key, dto);
+				}
+			}).switchIfEmpty(Mono.error(() -> new NotFoundException(NOT_FOUND_MESSAGE)));
+		});
+	}
+
+	@Override
+	public Mono<InsurancePolicyDTO> createInsurancePolicy(InsurancePolicyDTO insurancePolicyDTO) {
+		return blocking(() -> insurancePolicyService.createInsurancePolicy(insurancePolicyDTO));
+	}
+
+	@Override
+	public Mono<InsurancePolicyDTO> updateInsurancePolicy(Long id, InsurancePolicyDTO insurancePolicyDTO) {
+		return blocking(() -> insurancePolicyService.updateInsurancePolicy(id, insurancePolicyDTO));
+	}
+
+	@Override
+	public Mono<InsurancePolicyDTO> updateInsurancePolicy(Long id, InsurancePolicyDTO insurancePolicyDTO,
+			Set<Long> expectedVersions) {
+		return blocking(() -> insurancePolicyService.updateInsurancePolicy(id, insurancePolicyDTO, expectedVersions));
+	}
+
+	@Override
+	public Mono<Boolean> deleteInsurancePolicy(Long id) {
+		return blocking(() -> insurancePolicyService.deleteInsurancePolicy(id));
+	}
+
+	@Override
+	public Mono<BulkResultDTO> bulkCreateInsurancePolicies(Flux<InsurancePolicyDTO> policies) {
+		return blocking(() -> insurancePolicyService.bulkCreateInsurancePolicies(iterate(policies)));
+	}
+
+	@Override
+	public Mono<BulkResultDTO> bulkUpdateInsurancePolicies(Flux<InsurancePolicyDTO> policies) {
+		return blocking(() -> insurancePolicyService.bulkUpdateInsurancePolicies(iterate(policies)));
+	}
+
+	@Override
+	public Mono<BulkResultDTO> bulkDeleteInsurancePolicies(Flux<Long> ids) {
+		return blocking(() -> insurancePolicyService.bulkDeleteInsurancePolicies(iterate(ids)));
+	}
+
+	/**
+	 * The body is still decoded as the chunks are written: the iterator blocks
+	 * the worker, not the event loop, and requests {@link #BULK_PREFETCH} items
+	 * at a time.
+	 */
+	private static <T> Iterator<T> iterate(Flux<T> items) {
+		return items.toIterable(BULK_PREFETCH).iterator();
+	}
+
+	private static <T> Mono<T> blocking(Callable<T> call) {
+		return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+	}
+}
@@ -0,0 +1,53 @@
+package com.insurancepolicy.sharding;
+
+/**
+ * How a policy id carries its shard routing.
+ * <p>
+ * Policies are hashed by customer into {@value #BUCKETS} buckets, and the
+ * {@link ShardDirectory} assigns buckets to shards; rebalancing moves whole
+ * buckets, so a policy's bucket never changes. A sharded id is
+ * {@code (sequence << 16) | (originShard << 10) | bucket}: the low bits route
+ * it, and the shard it was created on keeps ids from different shards'
+ * sequences apart after its bucket has moved elsewhere. Ids created before
+ * sharding was enabled are routed by their low bits in the same way.
+ */
+public final class PolicyShardKeys {
+
+	public static final int BUCKET_BITS = 10;
+
+	public static final int BUCKETS = 1 << BUCKET_BITS;
+
+	public static final int SHARD_BITS = 6;
+
+	public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+	private PolicyShardKeys() {
+	}
+
+	public static int bucketOf(long policyId) {
+		return (int) (policyId & (BUCKETS - 1));
+	}
+
+	/**
+	 * The bucket new policies of this customer are created in, so a customer's
+	 * policies share a shard.
+	 */
+	public static int bucketOfCustomer(int customerId) {
+		// murmur3 finaliser: consecutive customer ids spread over all buckets
+		int h = customerId;
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h & (BUCKETS - 1);
+	}
+
+	public static long compose(long sequenceValue, int originShard, int bucket) {
+		return (sequenceValue << (SHARD_BITS + BUCKET_BITS)) | ((long) originShard << BUCKET_BITS) | bucket;
+	}
+
+	public static int originShardOf(long policyId) {
+		return (int) ((policyId >>> BUCKET_BITS) & (MAX_SHARDS - 1));
+	}
+}
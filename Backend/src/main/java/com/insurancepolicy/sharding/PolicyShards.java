@@ -0,0 +1,298 @@
+package com.insurancepolicy.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The sharding layer under the policy services. Without a
+ * {@link ShardDirectory} (sharding disabled) every call runs once, on the
+ * single database, exactly as before.
+ * <p>
+ * With one, single-policy reads run on the shard the id routes to, writes pin
+ * their transaction to the shard of the buckets they touch, and list, search
+ * and aggregate reads are fanned out to every shard in parallel, each in its
+ * own read-only transaction, and merged in key order.
+ */
+@Component
+public class PolicyShards {
+
+	/**
+	 * Items of one bulk chunk that live on the same shard, with their
+	 * positions in the chunk; the shard is {@link ShardContext#NONE} unsharded.
+	 */
+	public record Group<T>(int shard, Set<Integer> buckets, List<T> items, List<Integer> indexes) {
+	}
+
+	/**
+	 * One merged keyset page: {@code nextCursor} is null once every shard is
+	 * exhausted, and may be set on a page shorter than requested.
+	 */
+	public record Merged<T, K>(List<T> content, K nextCursor) {
+	}
+
+	@Nullable
+	private final ShardDirectory directory;
+
+	@Nullable
+	private final TransactionTemplate readOnlyTransaction;
+
+	@Nullable
+	private final ExecutorService fanOut;
+
+	public PolicyShards(@Nullable ShardDirectory directory, @Nullable PlatformTransactionManager transactionManager) {
+		this.directory = directory;
+		if (transactionManager != null) {
+			this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+			this.readOnlyTransaction.setReadOnly(true);
+		} else {
+			this.readOnlyTransaction = null;
+		}
+		if (directory != null && directory.shardCount() > 1) {
+			AtomicInteger threads = new AtomicInteger();
+			this.fanOut = Executors.newCachedThreadPool(task -> {
+				Thread thread = new Thread(task, "policy-shard-fanout-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		} else {
+			this.fanOut = null;
+		}
+	}
+
+	public boolean isSharded() {
+		return directory != null;
+	}
+
+	public int shardCount() {
+		return directory == null ? 1 : directory.shardCount();
+	}
+
+	/**
+	 * Runs a read of one policy on the shard its id routes to.
+	 */
+	public <T> T onPolicy(Long policyId, Supplier<T> read) {
+		if (directory == null || policyId == null) {
+			return read.get();
+		}
+		return ShardContext.on(directory.shardOf(policyId), read);
+	}
+
+	/**
+	 * Runs {@code work} on every shard in turn, outside any transaction it
+	 * does not start itself; the results are in shard order.
+	 */
+	public <T> List<T> eachShard(Supplier<T> work) {
+		List<T> results = new ArrayList<>(shardCount());
+		if (directory == null) {
+			results.add(work.get());
+			return results;
+		}
+		for (int shard = 0; shard < directory.shardCount(); shard++) {
+			results.add(ShardContext.on(shard, work));
+		}
+		return results;
+	}
+
+	/**
+	 * Runs {@code read} on every shard at once, each in its own read-only
+	 * transaction; the results are in shard order. Unsharded, it runs once on
+	 * the calling thread.
+	 */
+	public <T> List<T> gather(Supplier<T> read) {
+		if (fanOut == null) {
+			List<T> results = new ArrayList<>(1);
+			results.add(ShardContext.on(directory == null ? ShardContext.NONE : 0, () -> inReadOnly(read)));
+			return results;
+		}
+		List<Future<T>> pending = new ArrayList<>(directory.shardCount());
+		for (int shard = 0; shard < directory.shardCount(); shard++) {
+			int target = shard;
+			pending.add(fanOut.submit(() -> ShardContext.on(target, () -> inReadOnly(read))));
+		}
+		List<T> results = new ArrayList<>(pending.size());
+		for (Future<T> result : pending) {
+			try {
+				results.add(result.get());
+			} catch (InterruptedException e) {
+				pending.forEach(other -> other.cancel(true));
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while reading the policy shards", e);
+			} catch (ExecutionException e) {
+				pending.forEach(other -> other.cancel(true));
+				if (e.getCause() instanceof RuntimeException cause) {
+					throw cause;
+				}
+				throw new IllegalStateException("Reading a policy shard failed", e.getCause());
+			}
+		}
+		return results;
+	}
+
+	private <T> T inReadOnly(Supplier<T> read) {
+		return readOnlyTransaction == null ? read.get() : readOnlyTransaction.execute(status -> read.get());
+	}
+
+	/**
+	 * Keeps, from shard {@code shard}'s rows, those of the policies it owns:
+	 * during a bucket move, the copy on the other shard is not counted twice.
+	 */
+	public <T> BiPredicate<Integer, T> owned(ToLongFunction<T> idOf) {
+		if (directory == null) {
+			return (shard, row) -> true;
+		}
+		return (shard, row) -> directory.owns(shard, idOf.applyAsLong(row));
+	}
+
+	/**
+	 * Merges one keyset page per shard into one page in key order. A full
+	 * page from a shard proves nothing about that shard's keys beyond its
+	 * last, so only the keys up to the smallest such last key are certain to
+	 * be complete; the page stops there, and rows sharing a key (groups split
+	 * over shards) are combined. With a single page this is that page.
+	 */
+	public static <T, K extends Comparable<? super K>> Merged<T, K> merge(List<List<T>> pages, int pageSize,
+			Function<T, K> keyOf, BiPredicate<Integer, T> keep, BinaryOperator<T> combine) {
+		if (pages.size() == 1) {
+			List<T> page = pages.get(0);
+			return new Merged<>(page, page.size() < pageSize ? null : keyOf.apply(page.get(page.size() - 1)));
+		}
+		K boundary = null;
+		for (List<T> page : pages) {
+			if (page.size() >= pageSize) {
+				K last = keyOf.apply(page.get(page.size() - 1));
+				if (boundary == null || last.compareTo(boundary) < 0) {
+					boundary = last;
+				}
+			}
+		}
+		TreeMap<K, T> merged = new TreeMap<>();
+		for (int shard = 0; shard < pages.size(); shard++) {
+			for (T row : pages.get(shard)) {
+				K key = keyOf.apply(row);
+				if ((boundary == null || key.compareTo(boundary) <= 0) && keep.test(shard, row)) {
+					merged.merge(key, row, combine);
+				}
+			}
+		}
+		List<T> content = new ArrayList<>(Math.min(pageSize, merged.size()));
+		for (Map.Entry<K, T> entry : merged.entrySet()) {
+			if (content.size() == pageSize) {
+				break;
+			}
+			content.add(entry.getValue());
+		}
+		K nextCursor = content.size() == pageSize ? keyOf.apply(content.get(content.size() - 1)) : boundary;
+		return new Merged<>(content, nextCursor);
+	}
+
+	/**
+	 * Splits a bulk chunk by the shard of each item's bucket; unsharded, the
+	 * whole chunk is one group.
+	 */
+	public <T> List<Group<T>> split(List<T> items, ToIntFunction<T> bucketOf) {
+		if (directory == null) {
+			List<Integer> indexes = new ArrayList<>(items.size());
+			for (int i = 0; i < items.size(); i++) {
+				indexes.add(i);
+			}
+			return List.of(new Group<>(ShardContext.NONE, Set.of(), items, indexes));
+		}
+		Map<Integer, Group<T>> groups = new TreeMap<>();
+		for (int i = 0; i < items.size(); i++) {
+			T item = items.get(i);
+			int bucket = bucketOf.applyAsInt(item);
+			Group<T> group = groups.computeIfAbsent(directory.shardOfBucket(bucket),
+					shard -> new Group<>(shard, new HashSet<>(), new ArrayList<>(), new ArrayList<>()));
+			group.buckets().add(bucket);
+			group.items().add(item);
+			group.indexes().add(i);
+		}
+		return new ArrayList<>(groups.values());
+	}
+
+	public void pinPolicy(Long policyId) {
+		if (directory != null && policyId != null) {
+			pinBuckets(List.of(PolicyShardKeys.bucketOf(policyId)));
+		}
+	}
+
+	public void pinCustomer(int customerId) {
+		if (directory != null) {
+			pinBuckets(List.of(PolicyShardKeys.bucketOfCustomer(customerId)));
+		}
+	}
+
+	/**
+	 * Pins the current transaction to the shard holding these buckets, and
+	 * holds their gates until it completes so none of them is moved under it.
+	 * Gates are taken in bucket order, as the rebalancer takes them.
+	 */
+	public void pinBuckets(Collection<Integer> buckets) {
+		if (directory == null || buckets.isEmpty()) {
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		Set<Integer> held = (Set<Integer>) TransactionSynchronizationManager.getResource(this);
+		if (held == null) {
+			Set<Integer> entered = new HashSet<>();
+			TransactionSynchronizationManager.bindResource(this, entered);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(PolicyShards.this);
+					entered.forEach(directory::exitWrite);
+				}
+			});
+			held = entered;
+		}
+		for (int bucket : new TreeSet<>(buckets)) {
+			if (!held.contains(bucket)) {
+				directory.enterWrite(bucket);
+				held.add(bucket);
+			}
+		}
+		int shard = ShardContext.NONE;
+		for (int bucket : held) {
+			int owner = directory.shardOfBucket(bucket);
+			if (shard != ShardContext.NONE && owner != shard) {
+				throw new IllegalStateException("The policies written in one transaction span shards " + shard
+						+ " and " + owner);
+			}
+			shard = owner;
+		}
+		ShardContext.pin(shard);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (fanOut != null) {
+			fanOut.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.insurancepolicy.sharding;
+
+import java.util.List;
+
+/**
+ * What one rebalance did, and the bucket count per shard it left.
+ */
+public class RebalanceReport {
+
+	private final int movedBuckets;
+
+	private final long movedPolicies;
+
+	private final long elapsedMillis;
+
+	private final List<Integer> bucketsPerShard;
+
+	public RebalanceReport(int movedBuckets, long movedPolicies, long elapsedMillis, List<Integer> bucketsPerShard) {
+		this.movedBuckets = movedBuckets;
+		this.movedPolicies = movedPolicies;
+		this.elapsedMillis = elapsedMillis;
+		this.bucketsPerShard = bucketsPerShard;
+	}
+
+	public int getMovedBuckets() {
+		return movedBuckets;
+	}
+
+	public long getMovedPolicies() {
+		return movedPolicies;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public List<Integer> getBucketsPerShard() {
+		return bucketsPerShard;
+	}
+
+	@Override
+	public String toString() {
+		return "moved " + movedBuckets + " buckets (" + movedPolicies + " policies) in " + elapsedMillis
+				+ " ms, buckets per shard " + bucketsPerShard;
+	}
+}
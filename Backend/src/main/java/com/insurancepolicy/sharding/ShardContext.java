@@ -0,0 +1,93 @@
+package com.insurancepolicy.sharding;
+
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The shard the current thread's connections go to, read by the
+ * {@link ShardRoutingDataSource}. A connection is only routed when it is
+ * opened, and a transaction keeps the one it opened first, so a transaction
+ * works on a single shard: {@link #pin} fixes it for the rest of the
+ * transaction, {@link #on} for the duration of a call made outside one.
+ */
+public final class ShardContext {
+
+	public static final int NONE = -1;
+
+	private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+	private ShardContext() {
+	}
+
+	/**
+	 * The current shard, or {@link #NONE} when none is set and connections go
+	 * to shard 0.
+	 */
+	public static int current() {
+		Integer shard = CURRENT.get();
+		return shard == null ? NONE : shard;
+	}
+
+	public static <T> T on(int shard, Supplier<T> work) {
+		if (shard == NONE) {
+			return work.get();
+		}
+		Integer previous = CURRENT.get();
+		CURRENT.set(shard);
+		try {
+			return work.get();
+		} finally {
+			restore(previous);
+		}
+	}
+
+	public static void on(int shard, Runnable work) {
+		on(shard, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Routes the current transaction to {@code shard} until it completes.
+	 * Pinning it again to the same shard is a no-op; to another one, or to one
+	 * other than {@link #on} set, an error.
+	 */
+	static void pin(int shard) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("Only a transaction can be pinned to a shard");
+		}
+		Integer pinned = (Integer) TransactionSynchronizationManager.getResource(ShardContext.class);
+		if (pinned != null) {
+			if (pinned != shard) {
+				throw new IllegalStateException(
+						"A transaction on shard " + pinned + " cannot also write to shard " + shard);
+			}
+			return;
+		}
+		Integer previous = CURRENT.get();
+		if (previous != null && previous != shard) {
+			// started by on() for a shard whose buckets have since moved
+			throw new IllegalStateException("A transaction on shard " + previous + " cannot write to shard " + shard);
+		}
+		TransactionSynchronizationManager.bindResource(ShardContext.class, shard);
+		CURRENT.set(shard);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(ShardContext.class);
+				restore(previous);
+			}
+		});
+	}
+
+	private static void restore(Integer previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+}
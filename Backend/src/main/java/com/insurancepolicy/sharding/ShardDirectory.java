@@ -0,0 +1,293 @@
+package com.insurancepolicy.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.insurancepolicy.exception.ServiceUnavailableException;
+
+/**
+ * Which shard each policy bucket lives on, read from
+ * {@code policy_shard_bucket} on shard 0 and re-read every refresh interval
+ * so instances converge after a rebalance.
+ * <p>
+ * An empty table is filled on first start: every bucket on shard 0 when it
+ * already holds policies (sharding enabled on an existing database, to be
+ * spread out by the {@link ShardRebalancer}), round robin over the shards
+ * otherwise.
+ * <p>
+ * Each bucket also has a gate: policy writes hold it shared for their
+ * transaction, and a bucket move holds it exclusively while it copies.
+ */
+public class ShardDirectory implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ShardDirectory.class);
+
+	static final String SELECT_ALL = "select bucket, shard from policy_shard_bucket";
+
+	static final String INSERT = "insert into policy_shard_bucket (bucket, shard) values (?, ?)";
+
+	static final String UPDATE = "update policy_shard_bucket set shard = ? where bucket = ?";
+
+	static final String ANY_POLICY = "select min(policy_id) from insurance_policy";
+
+	private final List<DataSource> shards;
+
+	private final long gateWaitMillis;
+
+	private final ReentrantReadWriteLock[] gates = new ReentrantReadWriteLock[PolicyShardKeys.BUCKETS];
+
+	// replaced, never modified, so lookups need no lock
+	private volatile int[] assignment;
+
+	// serializes loads and moves of the assignment; a lock, not synchronized,
+	// so a virtual thread waiting on the directory table does not pin its carrier
+	private final ReentrantLock updating = new ReentrantLock();
+
+	private ScheduledExecutorService refresher;
+
+	public ShardDirectory(List<DataSource> shards, long gateWaitMillis) {
+		if (shards.isEmpty() || shards.size() > PolicyShardKeys.MAX_SHARDS) {
+			throw new IllegalArgumentException("Between 1 and " + PolicyShardKeys.MAX_SHARDS + " shards are supported");
+		}
+		this.shards = List.copyOf(shards);
+		this.gateWaitMillis = gateWaitMillis;
+		for (int bucket = 0; bucket < gates.length; bucket++) {
+			gates[bucket] = new ReentrantReadWriteLock();
+		}
+	}
+
+	public int shardCount() {
+		return shards.size();
+	}
+
+	public DataSource shard(int shard) {
+		return shards.get(shard);
+	}
+
+	public int shardOfBucket(int bucket) {
+		int[] current = assignment;
+		if (current == null) {
+			throw new IllegalStateException("The shard directory has not been loaded");
+		}
+		return current[bucket];
+	}
+
+	public int shardOf(long policyId) {
+		return shardOfBucket(PolicyShardKeys.bucketOf(policyId));
+	}
+
+	public int shardOfCustomer(int customerId) {
+		return shardOfBucket(PolicyShardKeys.bucketOfCustomer(customerId));
+	}
+
+	/**
+	 * Whether the policy lives on {@code shard}. A bucket being moved has rows
+	 * on both shards for a while; only its owner's count.
+	 */
+	public boolean owns(int shard, long policyId) {
+		return shardOf(policyId) == shard;
+	}
+
+	public int[] getAssignment() {
+		return assignment.clone();
+	}
+
+	/**
+	 * Reads the assignment, creating it when the table is empty.
+	 */
+	public void load() {
+		updating.lock();
+		try (Connection connection = shards.get(0).getConnection()) {
+			int[] loaded = read(connection);
+			if (loaded == null) {
+				loaded = initialise(connection);
+			}
+			for (int shard : loaded) {
+				if (shard < 0 || shard >= shards.size()) {
+					throw new IllegalStateException("Policy buckets are assigned to shard " + shard + " but only "
+							+ shards.size() + " are configured");
+				}
+			}
+			assignment = loaded;
+		} catch (SQLException e) {
+			throw new IllegalStateException("Could not load the shard directory", e);
+		} finally {
+			updating.unlock();
+		}
+	}
+
+	public void startRefreshing(long intervalMillis) {
+		if (intervalMillis <= 0) {
+			return;
+		}
+		refresher = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "shard-directory-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		refresher.scheduleWithFixedDelay(() -> {
+			try {
+				load();
+			} catch (RuntimeException e) {
+				LOG.warn("Could not refresh the shard directory", e);
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private static int[] read(Connection connection) throws SQLException {
+		int[] loaded = new int[PolicyShardKeys.BUCKETS];
+		Arrays.fill(loaded, -1);
+		int rows = 0;
+		try (PreparedStatement select = connection.prepareStatement(SELECT_ALL);
+				ResultSet result = select.executeQuery()) {
+			while (result.next()) {
+				loaded[result.getInt(1)] = result.getInt(2);
+				rows++;
+			}
+		}
+		rollback(connection);
+		if (rows == 0) {
+			return null;
+		}
+		if (rows != PolicyShardKeys.BUCKETS) {
+			throw new IllegalStateException("policy_shard_bucket has " + rows + " rows, expected "
+					+ PolicyShardKeys.BUCKETS);
+		}
+		return loaded;
+	}
+
+	private int[] initialise(Connection connection) throws SQLException {
+		boolean existingPolicies;
+		try (PreparedStatement select = connection.prepareStatement(ANY_POLICY);
+				ResultSet result = select.executeQuery()) {
+			existingPolicies = result.next() && result.getObject(1) != null;
+		}
+		int[] initial = new int[PolicyShardKeys.BUCKETS];
+		for (int bucket = 0; bucket < initial.length; bucket++) {
+			initial[bucket] = existingPolicies ? 0 : bucket % shards.size();
+		}
+		try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+			for (int bucket = 0; bucket < initial.length; bucket++) {
+				insert.setInt(1, bucket);
+				insert.setInt(2, initial[bucket]);
+				insert.addBatch();
+			}
+			insert.executeBatch();
+			commit(connection);
+		} catch (SQLException e) {
+			// another instance initialised it first
+			rollback(connection);
+			int[] loaded = read(connection);
+			if (loaded == null) {
+				throw e;
+			}
+			return loaded;
+		}
+		LOG.info("Shard directory created with {} buckets on {}", PolicyShardKeys.BUCKETS,
+				existingPolicies ? "shard 0, which already holds policies" : shards.size() + " shards");
+		return initial;
+	}
+
+	/**
+	 * Moves the buckets to {@code shard}, in the table and then here.
+	 */
+	void assign(Collection<Integer> buckets, int shard) {
+		updating.lock();
+		try {
+			try (Connection connection = shards.get(0).getConnection();
+					PreparedStatement update = connection.prepareStatement(UPDATE)) {
+				for (int bucket : buckets) {
+					update.setInt(1, shard);
+					update.setInt(2, bucket);
+					update.addBatch();
+				}
+				update.executeBatch();
+				commit(connection);
+			} catch (SQLException e) {
+				throw new IllegalStateException("Could not update the shard directory", e);
+			}
+			int[] updated = assignment.clone();
+			buckets.forEach(bucket -> updated[bucket] = shard);
+			assignment = updated;
+		} finally {
+			updating.unlock();
+		}
+	}
+
+	/**
+	 * Holds the bucket's gate shared, waiting while it is being moved.
+	 */
+	void enterWrite(int bucket) {
+		try {
+			if (!gates[bucket].readLock().tryLock(gateWaitMillis, TimeUnit.MILLISECONDS)) {
+				throw new ServiceUnavailableException("Policies are being moved between shards, retry shortly");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceUnavailableException("Interrupted while waiting for a shard move");
+		}
+	}
+
+	void exitWrite(int bucket) {
+		gates[bucket].readLock().unlock();
+	}
+
+	/**
+	 * Holds the bucket's gate exclusively once the writes in flight on it have
+	 * finished.
+	 */
+	void enterMove(int bucket) {
+		gates[bucket].writeLock().lock();
+	}
+
+	void exitMove(int bucket) {
+		gates[bucket].writeLock().unlock();
+	}
+
+	private static void commit(Connection connection) throws SQLException {
+		if (!connection.getAutoCommit()) {
+			connection.commit();
+		}
+	}
+
+	private static void rollback(Connection connection) throws SQLException {
+		if (!connection.getAutoCommit()) {
+			connection.rollback();
+		}
+	}
+
+	/**
+	 * Stops refreshing and closes the pools of shards 1 and up; shard 0's
+	 * belongs to the application context.
+	 */
+	@Override
+	public void close() {
+		if (refresher != null) {
+			refresher.shutdownNow();
+		}
+		for (DataSource shard : shards.subList(1, shards.size())) {
+			if (shard instanceof AutoCloseable closeable) {
+				try {
+					closeable.close();
+				} catch (Exception e) {
+					LOG.warn("Could not close a policy shard pool", e);
+				}
+			}
+		}
+	}
+}
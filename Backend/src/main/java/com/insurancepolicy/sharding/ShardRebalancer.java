@@ -0,0 +1,245 @@
+package com.insurancepolicy.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Spreads the policy buckets evenly over the configured shards, moving as few
+ * as possible: after shards are added, the existing ones each hand over their
+ * excess buckets.
+ * <p>
+ * Buckets move while the application keeps running, a step of up to
+ * {@code bucketsPerStep} at a time from one shard to another. A step closes
+ * the gates of its buckets, so writes to them wait (reads carry on from the
+ * old shard), copies their policies, archived policies and renewal flags
+ * over in keyset batches, switches the directory, deletes the old rows and
+ * opens the gates. The gates are per instance: while a rebalance runs, writes
+ * should come through this instance only. The premium summaries are rebuilt
+ * afterwards.
+ */
+public class ShardRebalancer {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ShardRebalancer.class);
+
+	private static final String POLICY_TABLE = "insurance_policy";
+
+	private static final String RENEWAL_TABLE = "policy_renewal";
+
+	private static final String ARCHIVE_TABLE = "insurance_policy_archive";
+
+	private final ShardDirectory directory;
+
+	private final Runnable afterRebalance;
+
+	private final int bucketsPerStep;
+
+	private final int batchSize;
+
+	private final Counter movedPolicies;
+
+	// one rebalance at a time; a lock, so a waiting virtual thread does not pin its carrier
+	private final ReentrantLock running = new ReentrantLock();
+
+	public ShardRebalancer(ShardDirectory directory, Runnable afterRebalance, MeterRegistry meterRegistry,
+			int bucketsPerStep, int batchSize) {
+		this.directory = directory;
+		this.afterRebalance = afterRebalance;
+		this.bucketsPerStep = Math.max(1, bucketsPerStep);
+		this.batchSize = Math.max(1, batchSize);
+		this.movedPolicies = Counter.builder("insurancepolicy.shards.moved")
+				.description("Policies copied to another shard by rebalancing").register(meterRegistry);
+	}
+
+	public RebalanceReport rebalance() {
+		running.lock();
+		try {
+			long started = System.nanoTime();
+			int[] current = directory.getAssignment();
+			int[] target = plan(current, directory.shardCount());
+			// (from, to) -> buckets, in bucket order
+			Map<Long, List<Integer>> moves = new TreeMap<>();
+			for (int bucket = 0; bucket < current.length; bucket++) {
+				if (current[bucket] != target[bucket]) {
+					moves.computeIfAbsent((long) current[bucket] << 32 | target[bucket], key -> new ArrayList<>())
+							.add(bucket);
+				}
+			}
+			int movedBuckets = 0;
+			long moved = 0;
+			for (Map.Entry<Long, List<Integer>> move : moves.entrySet()) {
+				int from = (int) (move.getKey() >>> 32);
+				int to = (int) (long) move.getKey();
+				List<Integer> buckets = move.getValue();
+				for (int i = 0; i < buckets.size(); i += bucketsPerStep) {
+					List<Integer> step = buckets.subList(i, Math.min(i + bucketsPerStep, buckets.size()));
+					moved += move(from, to, step);
+					movedBuckets += step.size();
+				}
+			}
+			if (movedBuckets > 0 && afterRebalance != null) {
+				afterRebalance.run();
+			}
+			RebalanceReport report = new RebalanceReport(movedBuckets, moved,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), bucketsPerShard());
+			LOG.info("Shard rebalance {}", report);
+			return report;
+		} finally {
+			running.unlock();
+		}
+	}
+
+	public List<Integer> bucketsPerShard() {
+		int[] counts = new int[directory.shardCount()];
+		for (int shard : directory.getAssignment()) {
+			counts[shard]++;
+		}
+		List<Integer> perShard = new ArrayList<>(counts.length);
+		for (int count : counts) {
+			perShard.add(count);
+		}
+		return perShard;
+	}
+
+	/**
+	 * The even assignment closest to {@code current}: every shard ends with
+	 * its quota, and only buckets over a shard's quota change hands.
+	 */
+	static int[] plan(int[] current, int shards) {
+		int[] quota = new int[shards];
+		int[] count = new int[shards];
+		for (int shard = 0; shard < shards; shard++) {
+			quota[shard] = current.length / shards + (shard < current.length % shards ? 1 : 0);
+		}
+		for (int shard : current) {
+			count[shard]++;
+		}
+		int[] target = current.clone();
+		int receiver = 0;
+		for (int bucket = 0; bucket < target.length; bucket++) {
+			int owner = target[bucket];
+			if (count[owner] <= quota[owner]) {
+				continue;
+			}
+			while (count[receiver] >= quota[receiver]) {
+				receiver++;
+			}
+			target[bucket] = receiver;
+			count[owner]--;
+			count[receiver]++;
+		}
+		return target;
+	}
+
+	private long move(int from, int to, List<Integer> buckets) {
+		String inBuckets = "mod(policy_id, " + PolicyShardKeys.BUCKETS + ") in ("
+				+ buckets.stream().map(String::valueOf).collect(Collectors.joining(", ")) + ")";
+		long started = System.nanoTime();
+		buckets.forEach(directory::enterMove);
+		try {
+			long copied;
+			try (Connection source = directory.shard(from).getConnection();
+					Connection target = directory.shard(to).getConnection()) {
+				target.setAutoCommit(false);
+				// left behind by an earlier attempt that failed before switching
+				delete(target, POLICY_TABLE, inBuckets);
+				delete(target, RENEWAL_TABLE, inBuckets);
+				delete(target, ARCHIVE_TABLE, inBuckets);
+				copied = copy(source, target, POLICY_TABLE, inBuckets);
+				copy(source, target, RENEWAL_TABLE, inBuckets);
+				copy(source, target, ARCHIVE_TABLE, inBuckets);
+			}
+			directory.assign(buckets, to);
+			try (Connection source = directory.shard(from).getConnection()) {
+				source.setAutoCommit(false);
+				delete(source, POLICY_TABLE, inBuckets);
+				delete(source, RENEWAL_TABLE, inBuckets);
+				delete(source, ARCHIVE_TABLE, inBuckets);
+			}
+			movedPolicies.increment(copied);
+			LOG.info("Moved {} buckets ({} policies) from shard {} to {} in {} ms", buckets.size(), copied, from, to,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+			return copied;
+		} catch (SQLException e) {
+			throw new IllegalStateException("Moving buckets " + buckets + " from shard " + from + " to " + to
+					+ " failed; they stay on shard " + from, e);
+		} finally {
+			buckets.forEach(directory::exitMove);
+		}
+	}
+
+	private static void delete(Connection connection, String table, String where) throws SQLException {
+		try (PreparedStatement delete = connection.prepareStatement("delete from " + table + " where " + where)) {
+			delete.executeUpdate();
+		}
+		connection.commit();
+	}
+
+	/**
+	 * Copies the matching rows in policy id order, a committed batch at a time.
+	 */
+	private long copy(Connection source, Connection target, String table, String where) throws SQLException {
+		String select = "select * from " + table + " where " + where + " and policy_id > ? order by policy_id";
+		long after = Long.MIN_VALUE;
+		long copied = 0;
+		String insert = null;
+		while (true) {
+			int rows = 0;
+			try (PreparedStatement read = source.prepareStatement(select)) {
+				read.setLong(1, after);
+				read.setMaxRows(batchSize);
+				try (ResultSet result = read.executeQuery()) {
+					ResultSetMetaData columns = result.getMetaData();
+					if (insert == null) {
+						insert = insertInto(table, columns);
+					}
+					try (PreparedStatement write = target.prepareStatement(insert)) {
+						while (result.next()) {
+							for (int column = 1; column <= columns.getColumnCount(); column++) {
+								write.setObject(column, result.getObject(column));
+							}
+							write.addBatch();
+							after = result.getLong("policy_id");
+							rows++;
+						}
+						if (rows > 0) {
+							write.executeBatch();
+						}
+					}
+				}
+			}
+			if (!source.getAutoCommit()) {
+				source.rollback();
+			}
+			target.commit();
+			copied += rows;
+			if (rows < batchSize) {
+				return copied;
+			}
+		}
+	}
+
+	private static String insertInto(String table, ResultSetMetaData columns) throws SQLException {
+		List<String> names = new ArrayList<>(columns.getColumnCount());
+		for (int column = 1; column <= columns.getColumnCount(); column++) {
+			names.add(columns.getColumnName(column));
+		}
+		return "insert into " + table + " (" + String.join(", ", names) + ") values ("
+				+ names.stream().map(name -> "?").collect(Collectors.joining(", ")) + ")";
+	}
+}
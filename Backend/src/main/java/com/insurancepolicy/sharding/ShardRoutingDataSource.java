@@ -0,0 +1,35 @@
+package com.insurancepolicy.sharding;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Opens connections on the shard in the {@link ShardContext}, or on shard 0,
+ * which also holds the shard directory, when none is set. Like the replica
+ * routing, this has to sit behind a {@code LazyConnectionDataSourceProxy}:
+ * a transaction is pinned to its shard after it has begun.
+ */
+public class ShardRoutingDataSource extends AbstractDataSource {
+
+	private final List<DataSource> shards;
+
+	public ShardRoutingDataSource(List<DataSource> shards) {
+		this.shards = List.copyOf(shards);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		int shard = ShardContext.current();
+		return shards.get(shard == ShardContext.NONE ? 0 : shard).getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new UnsupportedOperationException("Shard routing uses the pools' own credentials");
+	}
+}
@@ -0,0 +1,84 @@
+package com.insurancepolicy.sharding;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.TargetType;
+import org.hibernate.tool.schema.spi.ContributableMatcher;
+import org.hibernate.tool.schema.spi.ExceptionHandler;
+import org.hibernate.tool.schema.spi.ExecutionOptions;
+import org.hibernate.tool.schema.spi.SchemaManagementTool;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.hibernate.tool.schema.spi.ScriptTargetOutput;
+import org.hibernate.tool.schema.spi.TargetDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hibernate's schema update only runs against the connection it is given at
+ * startup, which routes to shard 0. This captures the mapping as the
+ * session factory is built so the same update can then be run on every other
+ * shard, a newly added one included.
+ */
+public class ShardSchemaUpdater implements Integrator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ShardSchemaUpdater.class);
+
+	private static final TargetDescriptor DATABASE = new TargetDescriptor() {
+		@Override
+		public EnumSet<TargetType> getTargetTypes() {
+			return EnumSet.of(TargetType.DATABASE);
+		}
+
+		@Override
+		public ScriptTargetOutput getScriptTargetOutput() {
+			return null;
+		}
+	};
+
+	// a failed statement stops the shard's update, as on shard 0 at startup
+	private static final ExceptionHandler HALT = e -> {
+		throw e;
+	};
+
+	private volatile Metadata metadata;
+
+	private volatile SessionFactoryImplementor sessionFactory;
+
+	@Override
+	public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+			SessionFactoryImplementor sessionFactory) {
+		this.metadata = metadata;
+		this.sessionFactory = sessionFactory;
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+		this.metadata = null;
+		this.sessionFactory = null;
+	}
+
+	/**
+	 * Brings shards 1 to {@code shardCount - 1} up to the mapped schema.
+	 */
+	public void updateShards(int shardCount) {
+		if (metadata == null) {
+			throw new IllegalStateException("The policy session factory has not been built yet");
+		}
+		Map<String, Object> settings = new HashMap<>(sessionFactory.getProperties());
+		SchemaManagementTool tool = sessionFactory.getServiceRegistry().getService(SchemaManagementTool.class);
+		ExecutionOptions options = SchemaManagementToolCoordinator.buildExecutionOptions(settings, HALT);
+		for (int shard = 1; shard < shardCount; shard++) {
+			// the migrator opens its connection through the routing data source
+			ShardContext.on(shard, () -> tool.getSchemaMigrator(settings).doMigration(metadata, options,
+					ContributableMatcher.ALL, DATABASE));
+			LOG.info("Schema of policy shard {} is up to date", shard);
+		}
+	}
+}
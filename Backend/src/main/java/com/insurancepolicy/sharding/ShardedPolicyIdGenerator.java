@@ -0,0 +1,52 @@
+package com.insurancepolicy.sharding;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import com.insurancepolicy.entity.InsurancePolicy;
+
+/**
+ * The policy id generator. Unsharded it is the plain pooled sequence. In a
+ * transaction pinned to a shard it takes blocks from that shard's own
+ * sequence, one block cache per shard, and composes the id from the value,
+ * the shard and the customer's bucket (see {@link PolicyShardKeys}).
+ */
+public class ShardedPolicyIdGenerator extends SequenceStyleGenerator {
+
+	// per shard: the next value and the end of its block
+	private final Map<Integer, long[]> blocks = new HashMap<>();
+
+	// a lock, not synchronized, so a virtual thread waiting on the sequence
+	// does not pin its carrier
+	private final ReentrantLock lock = new ReentrantLock();
+
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object object) {
+		int shard = ShardContext.current();
+		if (shard == ShardContext.NONE) {
+			return super.generate(session, object);
+		}
+		int bucket = PolicyShardKeys.bucketOfCustomer(((InsurancePolicy) object).getCustomerId());
+		return PolicyShardKeys.compose(next(session, shard), shard, bucket);
+	}
+
+	private long next(SharedSessionContractImplementor session, int shard) {
+		lock.lock();
+		try {
+			long[] block = blocks.get(shard);
+			if (block == null || block[0] == block[1]) {
+				// the sequence steps by the increment; each value starts a block of that size
+				long start = getDatabaseStructure().buildCallback(session).getNextValue().makeValue().longValue();
+				block = new long[] { start, start + getDatabaseStructure().getIncrementSize() };
+				blocks.put(shard, block);
+			}
+			return block[0]++;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
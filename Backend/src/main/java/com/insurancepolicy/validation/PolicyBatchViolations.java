@@ -0,0 +1,42 @@
+package com.insurancepolicy.validation;
+
+/**
+ * The violations of a batch of policies, by position: null for a valid
+ * policy, otherwise its messages as one string.
+ */
+public final class PolicyBatchViolations {
+
+	private final String[] violations;
+
+	private final int invalidCount;
+
+	PolicyBatchViolations(String[] violations) {
+		this.violations = violations;
+		int invalid = 0;
+		for (String violation : violations) {
+			if (violation != null) {
+				invalid++;
+			}
+		}
+		this.invalidCount = invalid;
+	}
+
+	public int size() {
+		return violations.length;
+	}
+
+	public int getInvalidCount() {
+		return invalidCount;
+	}
+
+	public boolean isValid(int index) {
+		return violations[index] == null;
+	}
+
+	/**
+	 * The violations of the policy at {@code index}, or null when it is valid.
+	 */
+	public String get(int index) {
+		return violations[index];
+	}
+}
@@ -0,0 +1,52 @@
+package com.insurancepolicy.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.insurancepolicy.datagen.PolicyDataGenerator;
+import com.insurancepolicy.datagen.PolicyGeneratorSettings;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.entity.InsurancePolicy;
+
+/**
+ * Reproducible rows shared by the benchmark suites: the default
+ * {@link PolicyGeneratorSettings} dataset (seed 42), the same one the
+ * {@code datagen} profile writes for load tests.
+ */
+public final class BenchmarkData {
+
+	private static final PolicyDataGenerator GENERATOR = new PolicyDataGenerator(new PolicyGeneratorSettings());
+
+	private BenchmarkData() {
+	}
+
+	public static InsurancePolicy entity(int i) {
+		return GENERATOR.policy(i);
+	}
+
+	public static List<InsurancePolicy> entities(int size) {
+		List<InsurancePolicy> policies = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			InsurancePolicy policy = entity(i);
+			policy.setPolicyId((long) i + 1);
+			policies.add(policy);
+		}
+		return policies;
+	}
+
+	public static InsurancePolicyDTO dto(int i) {
+		InsurancePolicy policy = entity(i);
+		return new InsurancePolicyDTO(null, policy.getPolicyNumber(), policy.getPolicyType(), policy.getPremiumAmount(),
+				policy.getStartDate(), policy.getEndDate(), policy.isActive(), policy.getCustomerId());
+	}
+
+	public static List<InsurancePolicyDTO> dtos(int size) {
+		List<InsurancePolicyDTO> dtos = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			InsurancePolicyDTO dto = dto(i);
+			dto.setPolicyId((long) i + 1);
+			dtos.add(dto);
+		}
+		return dtos;
+	}
+}
@@ -0,0 +1,94 @@
+package com.insurancepolicy.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.insurancepolicy.ingest.AvroCsvSchema;
+import com.insurancepolicy.ingest.CsvAvroValidator;
+import com.insurancepolicy.ingest.ValidationReport;
+
+/**
+ * CSV validation throughput against the number of workers, on a synthetic
+ * file held in memory (about 1% bad rows). workers=1 is the sequential
+ * baseline; the speed-up of the others is bounded by the cores available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CsvIngestBenchmark {
+
+	private static final String SCHEMA = "{\"type\":\"record\",\"name\":\"policy_row\",\"fields\":["
+			+ "{\"name\":\"id\",\"type\":\"long\"},"
+			+ "{\"name\":\"premium\",\"type\":[\"null\",{\"type\":\"bytes\",\"logicalType\":\"decimal\",\"precision\":12,\"scale\":2}]},"
+			+ "{\"name\":\"start_date\",\"type\":{\"type\":\"int\",\"logicalType\":\"date\"}},"
+			+ "{\"name\":\"created_at\",\"type\":{\"type\":\"long\",\"logicalType\":\"timestamp-millis\"}},"
+			+ "{\"name\":\"holder\",\"type\":[\"null\",\"string\"]}]}";
+
+	@Param({ "1", "4" })
+	private int workers;
+
+	@Param({ "500000" })
+	private int rows;
+
+	private AvroCsvSchema schema;
+
+	private ExecutorService pool;
+
+	private byte[] csv;
+
+	private Path outputDir;
+
+	@Setup
+	public void setUp() throws IOException {
+		schema = AvroCsvSchema.parse(new ByteArrayInputStream(SCHEMA.getBytes(StandardCharsets.UTF_8)));
+		pool = Executors.newFixedThreadPool(workers);
+		outputDir = Files.createTempDirectory("csv-ingest-benchmark");
+		Random random = new Random(42);
+		StringBuilder text = new StringBuilder("id,premium,start_date,created_at,holder\n");
+		for (int i = 0; i < rows; i++) {
+			boolean bad = random.nextInt(100) == 0;
+			text.append(bad ? "P" + i : Integer.toString(i)).append(',')
+					.append(random.nextInt(1_000_000)).append('.').append(random.nextInt(90) + 10).append(',')
+					.append("2024-").append(1 + random.nextInt(12)).append('-').append(1 + random.nextInt(28)).append(',')
+					.append("2024-05-01T10:").append(10 + random.nextInt(50)).append(":00Z,")
+					.append("\"Holder, ").append(i).append("\"\n");
+		}
+		csv = text.toString().getBytes(StandardCharsets.UTF_8);
+		System.out.printf("csv: %d rows, %d bytes%n", rows, csv.length);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Benchmark
+	public ValidationReport validate() throws IOException {
+		CsvAvroValidator validator = new CsvAvroValidator(schema, pool, 4 * 1024 * 1024, 2 * workers);
+		return validator.validate(new ByteArrayInputStream(csv), outputDir.resolve("records_contains_error.csv"),
+				outputDir.resolve("error_log.csv"));
+	}
+}
@@ -0,0 +1,72 @@
+package com.insurancepolicy.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.mapper.InsurancePolicyMapper;
+
+/**
+ * Entity to DTO conversion: the hand-written {@link InsurancePolicyMapper}
+ * against the reflective ModelMapper it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+	@Param({ "1", "1000" })
+	private int size;
+
+	private List<InsurancePolicy> policies;
+
+	private InsurancePolicyMapper policyMapper;
+
+	private ModelMapper modelMapper;
+
+	@Setup
+	public void setUp() {
+		policyMapper = new InsurancePolicyMapper();
+		modelMapper = new ModelMapper();
+		policies = BenchmarkData.entities(size);
+	}
+
+	@Benchmark
+	public List<InsurancePolicyDTO> handWrittenMapper() {
+		return policyMapper.toDtoList(policies);
+	}
+
+	@Benchmark
+	public List<InsurancePolicyDTO> modelMapper() {
+		List<InsurancePolicyDTO> dtos = new ArrayList<>(policies.size());
+		for (InsurancePolicy policy : policies) {
+			dtos.add(modelMapper.map(policy, InsurancePolicyDTO.class));
+		}
+		return dtos;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(MapperBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,100 @@
+package com.insurancepolicy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancepolicy.exception.ErrorResponse;
+import com.insurancepolicy.exception.NotFoundException;
+import com.insurancepolicy.exception.RestExceptionHandler;
+
+/**
+ * The 404 path from the service throwing to the response body: before, a
+ * RuntimeException with a stack trace and a fresh {@link ErrorResponse}
+ * serialised per request; after, the stackless {@link NotFoundException} and
+ * the handler's cached problem body. The exception is thrown {@code depth}
+ * frames down, about what a request goes through under the servlet
+ * container, Spring MVC and the service proxies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundPathBenchmark {
+
+	private static final String MESSAGE = "Insurance Policy not found";
+
+	/**
+	 * NotFoundException as it was: a plain RuntimeException.
+	 */
+	static class StackfulNotFoundException extends RuntimeException {
+		StackfulNotFoundException(String message) {
+			super(message);
+		}
+	}
+
+	@Param({ "20", "120" })
+	private int depth;
+
+	private ObjectMapper objectMapper;
+
+	private RestExceptionHandler handler;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		handler = new RestExceptionHandler(objectMapper);
+	}
+
+	private static void throwAt(int depth, boolean stackless) {
+		if (depth > 0) {
+			throwAt(depth - 1, stackless);
+			return;
+		}
+		throw stackless ? new NotFoundException(MESSAGE) : new StackfulNotFoundException(MESSAGE);
+	}
+
+	@Benchmark
+	public byte[] before() throws JsonProcessingException {
+		try {
+			throwAt(depth, false);
+			return null;
+		} catch (StackfulNotFoundException e) {
+			return objectMapper.writeValueAsBytes(new ErrorResponse(HttpStatus.NOT_FOUND.value(), e.getMessage()));
+		}
+	}
+
+	@Benchmark
+	public ResponseEntity<byte[]> after() {
+		try {
+			throwAt(depth, true);
+			return null;
+		} catch (NotFoundException e) {
+			return handler.handleBusinessException(e);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(NotFoundPathBenchmark.class.getSimpleName()).build()).run();
+	}
+}
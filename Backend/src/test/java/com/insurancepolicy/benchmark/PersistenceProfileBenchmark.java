@@ -0,0 +1,115 @@
+package com.insurancepolicy.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.insurancepolicy.InsurancePolicyManagementApplication;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+/**
+ * Service throughput with the default persistence settings against the
+ * {@code prod} profile. Both run on embedded H2: only the profile's datasource
+ * URL is replaced, so the Connector/J statement caching is not exercised here,
+ * but SQL printing, session statistics and the Hikari/autocommit settings are.
+ * Console output is discarded, so the default run pays for formatting the SQL
+ * but not for writing it anywhere.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceProfileBenchmark {
+
+	@Param({ "default", "prod" })
+	private String profile;
+
+	@Param({ "10000" })
+	private int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private InsurancePolicyService service;
+
+	private List<Long> ids;
+
+	private final AtomicInteger sequence = new AtomicInteger();
+
+	private PrintStream stdout;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		stdout = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(InsurancePolicyManagementApplication.class)
+				.web(WebApplicationType.NONE);
+		if (!"default".equals(profile)) {
+			builder.profiles(profile);
+		}
+		context = builder.run("--logging.level.root=WARN",
+				"--spring.datasource.url=jdbc:h2:mem:persistence-" + profile + ";DB_CLOSE_DELAY=-1",
+				"--spring.datasource.username=sa", "--spring.datasource.password=",
+				"--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+				"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+				"--spring.jpa.hibernate.ddl-auto=create-drop");
+		service = context.getBean(InsurancePolicyService.class);
+		ids = new ArrayList<>(rows);
+		service.bulkCreateInsurancePolicies(BenchmarkData.dtos(rows).stream().map(dto -> {
+			dto.setPolicyId(null);
+			return dto;
+		}).iterator()).getItems().forEach(item -> ids.add(item.getPolicyId()));
+		sequence.set(rows);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+		System.setOut(stdout);
+	}
+
+	private Long randomId() {
+		return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+	}
+
+	@Benchmark
+	public PolicyPageDTO getPage() {
+		return service.getPolicies(randomId(), 100);
+	}
+
+	@Benchmark
+	public InsurancePolicyDTO create() {
+		return service.createInsurancePolicy(BenchmarkData.dto(sequence.incrementAndGet()));
+	}
+
+	@Benchmark
+	public InsurancePolicyDTO update() {
+		int i = sequence.incrementAndGet();
+		return service.updateInsurancePolicy(randomId(), BenchmarkData.dto(i));
+	}
+}
@@ -0,0 +1,93 @@
+package com.insurancepolicy.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.insurancepolicy.datagen.PolicyDataGenerator;
+import com.insurancepolicy.datagen.PolicyGeneratorSettings;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.ingest.MappedPolicyCsvReader;
+
+/**
+ * Parsing a policy backfill file into entities: the memory-mapped reader
+ * against {@code BufferedReader} plus {@code String.split} and the JDK
+ * parsers. No database; run with {@code -prof gc} to compare allocation per
+ * row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PolicyCsvReaderBenchmark {
+
+	@Param({ "1000000" })
+	private int rows;
+
+	private Path file;
+
+	@Setup
+	public void setUp() throws IOException {
+		file = Files.createTempFile("policies", ".csv");
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+			new PolicyDataGenerator(new PolicyGeneratorSettings()).write(out, rows, PolicyDataGenerator.Format.CSV,
+					ForkJoinPool.commonPool());
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public void mapped(Blackhole blackhole) throws IOException {
+		try (MappedPolicyCsvReader reader = MappedPolicyCsvReader.open(file)) {
+			for (MappedPolicyCsvReader.Segment segment : reader.split(1)) {
+				Iterator<InsurancePolicy> policies = reader.policies(segment, (line, message) -> {
+				});
+				while (policies.hasNext()) {
+					blackhole.consume(policies.next());
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void bufferedSplit(Blackhole blackhole) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file)) {
+			reader.readLine();
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				String[] fields = line.split(",");
+				blackhole.consume(new InsurancePolicy(null, fields[0], fields[1], new BigDecimal(fields[2]),
+						Date.valueOf(LocalDate.parse(fields[3])), Date.valueOf(LocalDate.parse(fields[4])),
+						Boolean.parseBoolean(fields[5]), Integer.parseInt(fields[6])));
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.insurancepolicy.benchmark;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.index.PolicyIndex;
+import com.insurancepolicy.mapper.InsurancePolicyMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Lookup by id in the off-heap {@link PolicyIndex} against a heap map of
+ * entities mapped per call, the shape of an entity cache. Run with
+ * {@code -prof gc} to compare allocation, and look at the heap after setup
+ * for the footprint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyIndexBenchmark {
+
+	@Param({ "1000000" })
+	private int size;
+
+	private PolicyIndex index;
+
+	private Map<Long, InsurancePolicy> entities;
+
+	private InsurancePolicyMapper policyMapper;
+
+	@Setup
+	public void setUp() {
+		List<InsurancePolicy> policies = BenchmarkData.entities(size);
+		index = new PolicyIndex(null, null, null, null, new SimpleMeterRegistry(), true, size);
+		index.load(policies.iterator(), () -> {
+		});
+		entities = new HashMap<>();
+		policies.forEach(policy -> entities.put(policy.getPolicyId(), policy));
+		policyMapper = new InsurancePolicyMapper();
+	}
+
+	private long randomId() {
+		return 1 + ThreadLocalRandom.current().nextInt(size);
+	}
+
+	@Benchmark
+	public InsurancePolicyDTO offHeapIndex() {
+		return index.findById(randomId());
+	}
+
+	@Benchmark
+	public InsurancePolicyDTO heapMap() {
+		return policyMapper.toDto(entities.get(randomId()));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PolicyIndexBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,107 @@
+package com.insurancepolicy.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.insurancepolicy.InsurancePolicyManagementApplication;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+/**
+ * CRUD through the real {@code InsurancePolicyServiceImpl} (transactions,
+ * Hibernate, mapping) against embedded H2 using the {@code h2} profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyServiceBenchmark {
+
+	@Param({ "10000" })
+	private int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private InsurancePolicyService service;
+
+	private List<Long> ids;
+
+	private final AtomicInteger sequence = new AtomicInteger();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(InsurancePolicyManagementApplication.class)
+				.web(WebApplicationType.NONE).profiles("h2").run("--logging.level.root=WARN");
+		service = context.getBean(InsurancePolicyService.class);
+		ids = new ArrayList<>(rows);
+		service.bulkCreateInsurancePolicies(BenchmarkData.dtos(rows).stream().map(dto -> {
+			dto.setPolicyId(null);
+			return dto;
+		}).iterator()).getItems().forEach(item -> ids.add(item.getPolicyId()));
+		sequence.set(rows);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	private Long randomId() {
+		return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+	}
+
+	private InsurancePolicyDTO newPolicy() {
+		return BenchmarkData.dto(sequence.incrementAndGet());
+	}
+
+	@Benchmark
+	public InsurancePolicyDTO getById() {
+		return service.getInsurancePolicyById(randomId());
+	}
+
+	@Benchmark
+	public PolicyPageDTO getPage() {
+		return service.getPolicies(randomId(), 100);
+	}
+
+	@Benchmark
+	public InsurancePolicyDTO create() {
+		return service.createInsurancePolicy(newPolicy());
+	}
+
+	@Benchmark
+	public InsurancePolicyDTO update() {
+		Long id = randomId();
+		InsurancePolicyDTO policy = service.getInsurancePolicyById(id);
+		policy.setActive(!policy.isActive());
+		return service.updateInsurancePolicy(id, policy);
+	}
+
+	@Benchmark
+	public boolean createThenDelete() {
+		return service.deleteInsurancePolicy(service.createInsurancePolicy(newPolicy()).getPolicyId());
+	}
+}
@@ -0,0 +1,86 @@
+package com.insurancepolicy.benchmark;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.validation.PolicyBatchViolations;
+import com.insurancepolicy.validation.PolicyDtoValidator;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Validating one bulk chunk: Bean Validation per item, as the bulk endpoints
+ * did, against the compiled {@link PolicyDtoValidator} in a loop and in
+ * parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyValidationBenchmark {
+
+	@Param({ "1000", "100000" })
+	private int size;
+
+	private List<InsurancePolicyDTO> dtos;
+
+	private Validator validator;
+
+	private PolicyDtoValidator inLoop;
+
+	private PolicyDtoValidator inParallel;
+
+	@Setup
+	public void setUp() {
+		ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+		validator = factory.getValidator();
+		inLoop = new PolicyDtoValidator(factory, Integer.MAX_VALUE);
+		inParallel = new PolicyDtoValidator(factory, 1);
+		dtos = BenchmarkData.dtos(size);
+	}
+
+	@Benchmark
+	public void beanValidation(Blackhole blackhole) {
+		for (InsurancePolicyDTO dto : dtos) {
+			Set<ConstraintViolation<InsurancePolicyDTO>> violations = validator.validate(dto);
+			blackhole.consume(violations);
+		}
+	}
+
+	@Benchmark
+	public PolicyBatchViolations compiledLoop() {
+		return inLoop.validate(dtos);
+	}
+
+	@Benchmark
+	public PolicyBatchViolations compiledParallel() {
+		return inParallel.validate(dtos);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PolicyValidationBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,80 @@
+package com.insurancepolicy.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+
+/**
+ * Jackson serialization of policy lists, configured the way Spring Boot
+ * configures the application's ObjectMapper. Output goes to a discarding
+ * stream so only encoding is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SerializationBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	private int size;
+
+	private List<InsurancePolicyDTO> policies;
+
+	private ObjectMapper objectMapper;
+
+	private ObjectWriter listWriter;
+
+	private ObjectWriter elementWriter;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class,
+				InsurancePolicyDTO.class));
+		elementWriter = objectMapper.writerFor(InsurancePolicyDTO.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		policies = BenchmarkData.dtos(size);
+	}
+
+	/**
+	 * What GET /api/policies does: the whole list in one writeValue call.
+	 */
+	@Benchmark
+	public void serializeList() throws IOException {
+		listWriter.writeValue(OutputStream.nullOutputStream(), policies);
+	}
+
+	/**
+	 * What GET /api/policies/stream does: one array, one value at a time.
+	 */
+	@Benchmark
+	public void serializeStreaming() throws IOException {
+		try (SequenceWriter sequence = elementWriter.writeValuesAsArray(OutputStream.nullOutputStream())) {
+			for (int i = 0, n = policies.size(); i < n; i++) {
+				sequence.write(policies.get(i));
+			}
+		}
+	}
+}
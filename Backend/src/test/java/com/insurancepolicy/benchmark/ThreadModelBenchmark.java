@@ -0,0 +1,101 @@
+package com.insurancepolicy.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.insurancepolicy.InsurancePolicyManagementApplication;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+/**
+ * Load test of the running server over HTTP with many concurrent clients,
+ * comparing Tomcat's platform-thread pool with
+ * {@code insurancepolicy.threads.virtual=true}. Throughput mode gives
+ * requests/ms, SampleTime gives the latency percentiles (p99 included).
+ * <p>
+ * The {@code virtual} parameter needs a Java 21+ JVM; on Java 17 its setup
+ * fails and JMH reports only the platform numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+	@Param({ "platform", "virtual" })
+	private String threadModel;
+
+	@Param({ "10000" })
+	private int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private HttpClient client;
+
+	private String baseUrl;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(InsurancePolicyManagementApplication.class).profiles("h2").run(
+				"--server.port=0", "--logging.level.root=WARN",
+				"--insurancepolicy.threads.virtual=" + "virtual".equals(threadModel));
+		context.getBean(InsurancePolicyService.class).bulkCreateInsurancePolicies(BenchmarkData.dtos(rows).stream()
+				.peek(dto -> dto.setPolicyId(null)).iterator());
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		baseUrl = "http://localhost:" + port + "/insurancepolicy/api/policies";
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	private int get(String path) throws IOException, InterruptedException {
+		HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+				BodyHandlers.ofByteArray());
+		return response.body().length;
+	}
+
+	/**
+	 * A keyset page: a database round trip on every request.
+	 */
+	@Benchmark
+	public int getPage() throws IOException, InterruptedException {
+		return get("/page?size=50&after=" + ThreadLocalRandom.current().nextInt(rows));
+	}
+
+	/**
+	 * A single policy: mostly served from the policy cache.
+	 */
+	@Benchmark
+	public int getById() throws IOException, InterruptedException {
+		return get("/" + (1 + ThreadLocalRandom.current().nextInt(rows)));
+	}
+}
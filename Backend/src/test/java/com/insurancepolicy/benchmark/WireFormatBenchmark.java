@@ -0,0 +1,80 @@
+package com.insurancepolicy.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.insurancepolicy.config.CborConfig;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+
+/**
+ * JSON as the API serves it (ISO dates, Boot's default) against the CBOR
+ * representation negotiated with {@code Accept: application/cbor}. Encoding
+ * goes to a discarding stream; decoding reads a payload encoded once in setup.
+ * The payload size of each format is printed at the start of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class WireFormatBenchmark {
+
+	@Param({ "json", "cbor" })
+	private String format;
+
+	@Param({ "1000", "100000" })
+	private int size;
+
+	private List<InsurancePolicyDTO> policies;
+
+	private ObjectWriter listWriter;
+
+	private ObjectReader listReader;
+
+	private byte[] payload;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper mapper = "cbor".equals(format) ? CborConfig.cborObjectMapper()
+				: Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+						.build();
+		listWriter = mapper.writerFor(
+				mapper.getTypeFactory().constructCollectionType(List.class, InsurancePolicyDTO.class));
+		listReader = mapper.readerFor(
+				mapper.getTypeFactory().constructCollectionType(List.class, InsurancePolicyDTO.class));
+		policies = BenchmarkData.dtos(size);
+		payload = listWriter.writeValueAsBytes(policies);
+		System.out.printf("%s payload: %d policies, %d bytes, %.1f bytes/policy%n", format, size, payload.length,
+				(double) payload.length / size);
+	}
+
+	@Benchmark
+	public void encode() throws IOException {
+		listWriter.writeValue(OutputStream.nullOutputStream(), policies);
+	}
+
+	@Benchmark
+	public List<InsurancePolicyDTO> decode() throws IOException {
+		return listReader.readValue(payload);
+	}
+}
@@ -0,0 +1,55 @@
+package com.insurancepolicy.config;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * A real request through Tomcat in virtual-thread mode, answered by a probe
+ * that reports the thread it runs on. Virtual threads need Java 21, so on an
+ * older runtime the test is skipped rather than failing at startup.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "insurancepolicy.threads.virtual=true")
+@ActiveProfiles("h2")
+@Import(VirtualThreadConfigTest.ThreadProbe.class)
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class VirtualThreadConfigTest {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@RestController
+	static class ThreadProbe {
+
+		// Thread.isVirtual() is Java 21 API and the project compiles for 17
+		@GetMapping("/api/test/thread-is-virtual")
+		public boolean threadIsVirtual() throws ReflectiveOperationException {
+			return (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread());
+		}
+	}
+
+	@Test
+	public void testRequestRunsOnAVirtualThread() throws Exception {
+		Boolean virtual = restTemplate.getForObject("/api/test/thread-is-virtual", Boolean.class);
+		yakshaAssert(currentTest(), Boolean.TRUE.equals(virtual), businessTestFile);
+	}
+}
@@ -0,0 +1,103 @@
+package com.insurancepolicy.datagen;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.ingest.MappedPolicyCsvReader;
+
+public class PolicyDataGeneratorTest {
+
+	@TempDir
+	Path dir;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@Test
+	public void testOutputDependsOnlyOnTheSeed() throws Exception {
+		PolicyDataGenerator generator = new PolicyDataGenerator(new PolicyGeneratorSettings());
+		// a partial last block, rendered across several windows
+		int rows = PolicyDataGenerator.BLOCK_ROWS * 5 + 123;
+		byte[] sequential = write(generator, rows, new ForkJoinPool(1));
+		byte[] parallel = write(generator, rows, new ForkJoinPool(4));
+		byte[] again = write(new PolicyDataGenerator(new PolicyGeneratorSettings()), rows, new ForkJoinPool(3));
+		PolicyGeneratorSettings otherSeed = new PolicyGeneratorSettings();
+		otherSeed.setSeed(7);
+		byte[] reseeded = write(new PolicyDataGenerator(otherSeed), rows, new ForkJoinPool(4));
+
+		yakshaAssert(currentTest(),
+				Arrays.equals(sequential, parallel) && Arrays.equals(sequential, again)
+						&& !Arrays.equals(sequential, reseeded)
+						&& new String(sequential).split("\n").length == rows + 1,
+				businessTestFile);
+	}
+
+	@Test
+	public void testRowsFollowTheSettings() throws Exception {
+		PolicyGeneratorSettings settings = new PolicyGeneratorSettings();
+		settings.setCustomers(1000);
+		PolicyDataGenerator generator = new PolicyDataGenerator(settings);
+		int[] perCustomer = new int[1001];
+		int health = 0;
+		boolean valid = true;
+		int rows = 50_000;
+		for (int i = 0; i < rows; i++) {
+			InsurancePolicy policy = generator.policy(i);
+			perCustomer[policy.getCustomerId()]++;
+			health += "Health".equals(policy.getPolicyType()) ? 1 : 0;
+			valid &= policy.getPolicyNumber().equals("GEN" + (i + 1))
+					&& policy.getPremiumAmount().compareTo(new BigDecimal("100.00")) >= 0
+					&& policy.getPremiumAmount().compareTo(new BigDecimal("50000.00")) <= 0
+					&& policy.getEndDate().after(policy.getStartDate());
+		}
+		// Zipf with exponent 1.1: the top customer holds far more than an even share
+		yakshaAssert(currentTest(),
+				valid && perCustomer[1] > perCustomer[10] && perCustomer[1] > 20 * rows / 1000
+						&& Math.abs(health - rows * 0.35) < rows * 0.02,
+				businessTestFile);
+	}
+
+	@Test
+	public void testCsvCanBeImported() throws Exception {
+		PolicyDataGenerator generator = new PolicyDataGenerator(new PolicyGeneratorSettings());
+		Path file = Files.write(dir.resolve("generated.csv"), write(generator, 1000, ForkJoinPool.commonPool()));
+
+		List<InsurancePolicy> imported = new ArrayList<>();
+		List<String> errors = new ArrayList<>();
+		try (MappedPolicyCsvReader reader = MappedPolicyCsvReader.open(file)) {
+			for (MappedPolicyCsvReader.Segment segment : reader.split(2)) {
+				reader.policies(segment, (line, message) -> errors.add(message)).forEachRemaining(imported::add);
+			}
+		}
+
+		boolean same = imported.size() == 1000;
+		for (int i = 0; same && i < imported.size(); i++) {
+			same = imported.get(i).toString().equals(generator.policy(i).toString());
+		}
+		yakshaAssert(currentTest(), same && errors.isEmpty(), businessTestFile);
+	}
+
+	private static byte[] write(PolicyDataGenerator generator, int rows, ForkJoinPool pool) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		generator.write(out, rows, PolicyDataGenerator.Format.CSV, pool);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,97 @@
+package com.insurancepolicy.events;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancepolicy.dto.PolicyChangeEventDTO;
+import com.insurancepolicy.exception.GoneException;
+
+public class PolicyEventLogTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@TempDir
+	Path dir;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	private static PolicyChangeEventDTO event(long eventId) {
+		return new PolicyChangeEventDTO(eventId, PolicyChangeEventDTO.DELETED, eventId, "P" + eventId, null,
+				Instant.parse("2026-01-01T00:00:00Z"), null);
+	}
+
+	private static String offsets(List<PolicyChangeEventDTO> events) {
+		return events.stream().map(event -> event.getOffset() + ":" + event.getEventId())
+				.collect(Collectors.joining(","));
+	}
+
+	@Test
+	public void testOffsetsGrowAndOldEventsAreGone() throws Exception {
+		PolicyEventLog log = new PolicyEventLog(objectMapper, 3, "");
+		log.publish(List.of(event(10), event(11)));
+		log.publish(List.of(event(12), event(13)));
+
+		boolean gone = false;
+		try {
+			log.read(-1, 10);
+		} catch (GoneException e) {
+			gone = true;
+		}
+		yakshaAssert(currentTest(),
+				gone && offsets(log.read(0, 10)).equals("1:11,2:12,3:13") && offsets(log.read(1, 1)).equals("2:12")
+						&& log.read(3, 10).isEmpty() && log.getFirstOffset() == 1,
+				businessTestFile);
+	}
+
+	@Test
+	public void testOffsetsSurviveRestartWithFile() throws Exception {
+		String file = dir.resolve("events.ndjson").toString();
+		PolicyEventLog log = new PolicyEventLog(objectMapper, 100, file);
+		log.publish(List.of(event(1), event(2), event(3)));
+		log.close();
+
+		PolicyEventLog reopened = new PolicyEventLog(objectMapper, 100, file);
+		String recovered = offsets(reopened.read(0, 10));
+		reopened.publish(List.of(event(4)));
+		reopened.close();
+
+		yakshaAssert(currentTest(), recovered.equals("1:2,2:3") && offsets(reopened.read(2, 10)).equals("3:4"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testLongPollAnswersOnPublish() throws Exception {
+		PolicyEventLog log = new PolicyEventLog(objectMapper, 100, "");
+		log.publish(List.of(event(1)));
+		PolicyEventStreamer streamer = new PolicyEventStreamer(log, 1000, 30_000, 0);
+
+		DeferredResult<List<PolicyChangeEventDTO>> ready = streamer.poll(null, 10, 5_000);
+		DeferredResult<List<PolicyChangeEventDTO>> waiting = streamer.poll(0L, 10, 5_000);
+		boolean waitedFirst = !waiting.hasResult();
+		log.publish(List.of(event(2)));
+
+		@SuppressWarnings("unchecked")
+		List<PolicyChangeEventDTO> first = (List<PolicyChangeEventDTO>) ready.getResult();
+		@SuppressWarnings("unchecked")
+		List<PolicyChangeEventDTO> next = (List<PolicyChangeEventDTO>) waiting.getResult();
+		yakshaAssert(currentTest(), offsets(first).equals("0:1") && waitedFirst && offsets(next).equals("1:2"),
+				businessTestFile);
+		streamer.shutdown();
+	}
+}
@@ -0,0 +1,68 @@
+package com.insurancepolicy.events;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyChangeEventDTO;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+/**
+ * Policy writes through the service end up in the event log via the outbox
+ * and the relay, on H2.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class PolicyOutboxTest {
+
+	@Autowired
+	private InsurancePolicyService insurancePolicyService;
+
+	@Autowired
+	private PolicyEventLog eventLog;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@Test
+	public void testWritesArePublishedInOrder() throws Exception {
+		long before = eventLog.getNextOffset() - 1;
+		InsurancePolicyDTO created = insurancePolicyService.createInsurancePolicy(new InsurancePolicyDTO(null,
+				"OUTBOX-1", "Health", new BigDecimal("120.00"), Date.valueOf("2030-01-01"),
+				Date.valueOf("2031-01-01"), true, 940001));
+		created.setPremiumAmount(new BigDecimal("130.00"));
+		insurancePolicyService.updateInsurancePolicy(created.getPolicyId(), created);
+		insurancePolicyService.deleteInsurancePolicy(created.getPolicyId());
+
+		// the relay runs in the background; wait for it
+		List<PolicyChangeEventDTO> events = List.of();
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (events.size() < 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+			events = eventLog.read(before, 1000).stream()
+					.filter(event -> created.getPolicyId().equals(event.getPolicyId())).toList();
+		}
+
+		yakshaAssert(currentTest(), events.size() == 3
+				&& events.get(0).getType().equals(PolicyChangeEventDTO.CREATED) && events.get(0).getVersion() == 0
+				&& events.get(1).getType().equals(PolicyChangeEventDTO.UPDATED) && events.get(1).getVersion() == 1
+				&& events.get(1).getPolicy().getPremiumAmount().compareTo(new BigDecimal("130.00")) == 0
+				&& events.get(2).getType().equals(PolicyChangeEventDTO.DELETED) && events.get(2).getPolicy() == null
+				&& events.get(0).getOffset() < events.get(1).getOffset()
+				&& events.get(1).getOffset() < events.get(2).getOffset(), businessTestFile);
+	}
+}
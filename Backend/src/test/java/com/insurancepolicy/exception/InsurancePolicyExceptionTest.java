@@ -6,6 +6,7 @@ import static com.insurancepolicy.utils.TestUtils.exceptionTestFile;
 import static com.insurancepolicy.utils.TestUtils.testReport;
 import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
@@ -15,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -126,4 +128,39 @@ public class InsurancePolicyExceptionTest {
 				(result.getResponse().getContentAsString().contains(exResponse.getMessage()) ? "true" : "false"),
 				exceptionTestFile);
 	}
+
+	@Test
+	public void testUpdatePolicyPreconditionFailedException() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+
+		when(this.insurancePolicyService.updateInsurancePolicy(eq(policyDTO.getPolicyId()), any(), anySet()))
+				.thenThrow(new PreconditionFailedException("Insurance Policy has been modified"));
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.put("/api/policies/" + policyDTO.getPolicyId())
+				.header(HttpHeaders.IF_MATCH, "\"1-2\"").content(MasterData.asJsonString(policyDTO))
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+
+		yakshaAssert(currentTest(),
+				(result.getResponse().getStatus() == HttpStatus.PRECONDITION_FAILED.value() ? "true" : "false"),
+				exceptionTestFile);
+	}
+
+	@Test
+	public void testNotFoundIsAnsweredAsProblemDetail() throws Exception {
+		when(this.insurancePolicyService.getInsurancePolicyById(404L))
+				.thenThrow(new NotFoundException("Insurance Policy not found"));
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/policies/404")
+				.accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+
+		yakshaAssert(currentTest(),
+				(result.getResponse().getStatus() == HttpStatus.NOT_FOUND.value()
+						&& MediaType.APPLICATION_PROBLEM_JSON_VALUE.equals(result.getResponse().getContentType())
+						&& result.getResponse().getContentAsString().contains("\"detail\":\"Insurance Policy not found\"")
+								? "true"
+								: "false"),
+				exceptionTestFile);
+	}
 }
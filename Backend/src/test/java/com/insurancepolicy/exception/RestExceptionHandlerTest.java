@@ -0,0 +1,71 @@
+package com.insurancepolicy.exception;
+
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.exceptionTestFile;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class RestExceptionHandlerTest {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private final RestExceptionHandler handler = new RestExceptionHandler(objectMapper);
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@Test
+	public void testNotFoundIsAProblemDetail() throws Exception {
+		ResponseEntity<byte[]> response = handler
+				.handleBusinessException(new NotFoundException("Insurance Policy not found"));
+		JsonNode body = objectMapper.readTree(response.getBody());
+
+		yakshaAssert(currentTest(), response.getStatusCode() == HttpStatus.NOT_FOUND
+				&& MediaType.APPLICATION_PROBLEM_JSON.equals(response.getHeaders().getContentType())
+				&& body.path("status").asInt() == 404 && body.path("title").asText().equals("Not Found")
+				&& body.path("detail").asText().equals("Insurance Policy not found")
+				&& body.path("type").asText().equals("about:blank"), exceptionTestFile);
+	}
+
+	@Test
+	public void testCommonBodiesAreCached() throws Exception {
+		byte[] first = handler.handleBusinessException(new NotFoundException("Insurance Policy not found")).getBody();
+		byte[] second = handler.handleBusinessException(new NotFoundException("Insurance Policy not found"))
+				.getBody();
+		byte[] gone = handler.handleBusinessException(new GoneException("Insurance Policy not found")).getBody();
+
+		// past the cache bound bodies are still produced, just not kept
+		boolean uncachedStillServed = true;
+		for (int i = 0; i < 1100; i++) {
+			String message = "Malformed request body: " + i;
+			uncachedStillServed &= new String(handler.problem(HttpStatus.BAD_REQUEST, message).getBody(),
+					StandardCharsets.UTF_8).contains(message);
+		}
+		yakshaAssert(currentTest(), first == second && gone != first && uncachedStillServed, exceptionTestFile);
+	}
+
+	@Test
+	public void testBusinessExceptionsAreStackless() throws Exception {
+		BusinessException notFound = new NotFoundException("Insurance Policy not found");
+		BusinessException precondition = new PreconditionFailedException("Insurance Policy has been modified");
+		notFound.addSuppressed(new IllegalStateException());
+
+		yakshaAssert(currentTest(), notFound.getStackTrace().length == 0 && notFound.getSuppressed().length == 0
+				&& precondition.getStackTrace().length == 0 && precondition.getStatus() == HttpStatus.PRECONDITION_FAILED,
+				exceptionTestFile);
+	}
+}
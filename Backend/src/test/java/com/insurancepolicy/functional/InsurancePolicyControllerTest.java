@@ -7,10 +7,18 @@ import static com.insurancepolicy.utils.TestUtils.currentTest;
 import static com.insurancepolicy.utils.TestUtils.testReport;
 import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
@@ -18,19 +26,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import com.insurancepolicy.config.CborConfig;
 import com.insurancepolicy.controller.InsurancePolicyController;
+import com.insurancepolicy.dto.BulkItemResultDTO;
+import com.insurancepolicy.dto.BulkResultDTO;
 import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.exception.PreconditionFailedException;
 import com.insurancepolicy.service.InsurancePolicyService;
 import com.insurancepolicy.utils.MasterData;
 
 @WebMvcTest(InsurancePolicyController.class)
 @AutoConfigureMockMvc
+@Import(CborConfig.class)
 public class InsurancePolicyControllerTest {
 
 	@Autowired
@@ -59,6 +76,82 @@ public class InsurancePolicyControllerTest {
 				businessTestFile);
 	}
 
+	@Test
+	public void testGetPoliciesPage() throws Exception {
+		List<InsurancePolicyDTO> policyDTOS = getInsurancePolicyDTOList();
+		PolicyPageDTO page = new PolicyPageDTO(policyDTOS, 1L);
+
+		when(this.insurancePolicyService.getPolicies(isNull(), eq(1))).thenReturn(page);
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/policies/page?size=1")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		yakshaAssert(currentTest(),
+				(result.getResponse().getContentAsString().contentEquals(MasterData.asJsonString(page)) ? "true"
+						: "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testSearchPolicies() throws Exception {
+		List<InsurancePolicyDTO> policyDTOS = getInsurancePolicyDTOList();
+		PolicyPageDTO page = new PolicyPageDTO(policyDTOS, null);
+
+		when(this.insurancePolicyService.searchPolicies(
+				argThat(criteria -> criteria.getCustomerId() == 123 && Boolean.TRUE.equals(criteria.getActive())
+						&& criteria.getEndFrom() != null && criteria.getPolicyType() == null),
+				isNull(), eq(50))).thenReturn(page);
+		RequestBuilder requestBuilder = MockMvcRequestBuilders
+				.get("/api/policies/search?customerId=123&active=true&endFrom=2024-01-01&size=50")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		yakshaAssert(currentTest(),
+				(result.getResponse().getContentAsString().contentEquals(MasterData.asJsonString(page)) ? "true"
+						: "false"),
+				businessTestFile);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStreamAllPolicies() throws Exception {
+		List<InsurancePolicyDTO> policyDTOS = getInsurancePolicyDTOList();
+
+		doAnswer(invocation -> {
+			policyDTOS.forEach(invocation.getArgument(0, Consumer.class));
+			return null;
+		}).when(this.insurancePolicyService).streamAllPolicies(any());
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/policies/stream")
+				.accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(asyncDispatch(mockMvc.perform(requestBuilder).andReturn())).andReturn();
+		yakshaAssert(currentTest(),
+				(result.getResponse().getContentAsString().contentEquals(MasterData.asJsonString(policyDTOS)) ? "true"
+						: "false"),
+				businessTestFile);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStreamAllPoliciesAsCbor() throws Exception {
+		List<InsurancePolicyDTO> policyDTOS = getInsurancePolicyDTOList();
+
+		doAnswer(invocation -> {
+			policyDTOS.forEach(invocation.getArgument(0, Consumer.class));
+			return null;
+		}).when(this.insurancePolicyService).streamAllPolicies(any());
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/policies/stream")
+				.accept(MediaType.APPLICATION_CBOR);
+
+		MvcResult result = mockMvc.perform(asyncDispatch(mockMvc.perform(requestBuilder).andReturn())).andReturn();
+		InsurancePolicyDTO[] decoded = CborConfig.cborObjectMapper()
+				.readValue(result.getResponse().getContentAsByteArray(), InsurancePolicyDTO[].class);
+		yakshaAssert(currentTest(),
+				(MasterData.asJsonString(decoded).contentEquals(MasterData.asJsonString(policyDTOS)) ? "true"
+						: "false"),
+				businessTestFile);
+	}
+
 	@Test
 	public void testGetPolicyById() throws Exception {
 		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
@@ -73,6 +166,77 @@ public class InsurancePolicyControllerTest {
 				businessTestFile);
 	}
 
+	@Test
+	public void testGetPolicyByIdNotModified() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+		policyDTO.setVersion(3L);
+		when(this.insurancePolicyService.getInsurancePolicyById(policyDTO.getPolicyId())).thenReturn(policyDTO);
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/policies/" + policyDTO.getPolicyId())
+				.header(HttpHeaders.IF_NONE_MATCH, "\"1-3\"").accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		yakshaAssert(currentTest(),
+				(result.getResponse().getStatus() == HttpStatus.NOT_MODIFIED.value()
+						&& result.getResponse().getContentAsString().isEmpty()
+						&& "\"1-3\"".equals(result.getResponse().getHeader(HttpHeaders.ETAG))
+						&& result.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT) ? "true"
+								: "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testGetPolicyByIdAsCbor() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+		when(this.insurancePolicyService.getInsurancePolicyById(policyDTO.getPolicyId())).thenReturn(policyDTO);
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/policies/" + policyDTO.getPolicyId())
+				.accept(MediaType.APPLICATION_CBOR);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		InsurancePolicyDTO decoded = CborConfig.cborObjectMapper().readValue(result.getResponse().getContentAsByteArray(),
+				InsurancePolicyDTO.class);
+		yakshaAssert(currentTest(),
+				(MediaType.APPLICATION_CBOR_VALUE.equals(result.getResponse().getContentType())
+						&& MasterData.asJsonString(decoded).contentEquals(MasterData.asJsonString(policyDTO)) ? "true"
+								: "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testGetPolicyByIdAsCborHasItsOwnETag() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+		policyDTO.setVersion(3L);
+		when(this.insurancePolicyService.getInsurancePolicyById(policyDTO.getPolicyId())).thenReturn(policyDTO);
+		// the JSON representation's tag does not validate the CBOR one
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/policies/" + policyDTO.getPolicyId())
+				.header(HttpHeaders.IF_NONE_MATCH, "\"1-3\"").accept(MediaType.APPLICATION_CBOR);
+		RequestBuilder revalidate = MockMvcRequestBuilders.get("/api/policies/" + policyDTO.getPolicyId())
+				.header(HttpHeaders.IF_NONE_MATCH, "\"1-3-cbor\"").accept(MediaType.APPLICATION_CBOR);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		MvcResult revalidated = mockMvc.perform(revalidate).andReturn();
+		yakshaAssert(currentTest(),
+				(result.getResponse().getStatus() == HttpStatus.OK.value()
+						&& "\"1-3-cbor\"".equals(result.getResponse().getHeader(HttpHeaders.ETAG))
+						&& result.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)
+						&& revalidated.getResponse().getStatus() == HttpStatus.NOT_MODIFIED.value() ? "true"
+								: "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testGetPolicyByNumber() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+		when(this.insurancePolicyService.getInsurancePolicyByNumber(policyDTO.getPolicyNumber())).thenReturn(policyDTO);
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/api/policies/number/" + policyDTO.getPolicyNumber())
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		yakshaAssert(currentTest(),
+				(result.getResponse().getContentAsString().contentEquals(MasterData.asJsonString(policyDTO)) ? "true"
+						: "false"),
+				businessTestFile);
+	}
+
 	@Test
 	public void testCreatePolicy() throws Exception {
 		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
@@ -106,6 +270,75 @@ public class InsurancePolicyControllerTest {
 				businessTestFile);
 	}
 
+	@Test
+	public void testUpdatePolicyIfMatch() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+		InsurancePolicyDTO updated = getInsurancePolicyDTO();
+		updated.setVersion(4L);
+
+		when(this.insurancePolicyService.updateInsurancePolicy(eq(policyDTO.getPolicyId()), any(), eq(Set.of(3L))))
+				.thenReturn(updated);
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.put("/api/policies/" + policyDTO.getPolicyId())
+				.header(HttpHeaders.IF_MATCH, "\"1-3\"").content(MasterData.asJsonString(policyDTO))
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		yakshaAssert(currentTest(),
+				("\"1-4\"".equals(result.getResponse().getHeader(HttpHeaders.ETAG)) ? "true" : "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testUpdatePolicyIfMatchOtherPolicysTag() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+		InsurancePolicyDTO updated = getInsurancePolicyDTO();
+		updated.setVersion(4L);
+
+		when(this.insurancePolicyService.updateInsurancePolicy(eq(policyDTO.getPolicyId()), any(), anySet()))
+				.thenThrow(new PreconditionFailedException("Insurance Policy has been modified"));
+		when(this.insurancePolicyService.updateInsurancePolicy(eq(policyDTO.getPolicyId()), any(), eq(Set.of(3L))))
+				.thenReturn(updated);
+		// policy 2's tag at the same version
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.put("/api/policies/" + policyDTO.getPolicyId())
+				.header(HttpHeaders.IF_MATCH, "\"2-3\"").content(MasterData.asJsonString(policyDTO))
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		yakshaAssert(currentTest(),
+				(result.getResponse().getStatus() == HttpStatus.PRECONDITION_FAILED.value() ? "true" : "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testUpdatePolicyIfMatchList() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+		InsurancePolicyDTO updated = getInsurancePolicyDTO();
+		updated.setVersion(4L);
+
+		// the stored policy is at version 3
+		when(this.insurancePolicyService.updateInsurancePolicy(eq(policyDTO.getPolicyId()), any(), anySet()))
+				.thenThrow(new PreconditionFailedException("Insurance Policy has been modified"));
+		when(this.insurancePolicyService.updateInsurancePolicy(eq(policyDTO.getPolicyId()), any(),
+				argThat(versions -> versions.contains(3L)))).thenReturn(updated);
+		// only the CBOR tag at the end matches; the weak and other policy's tags never do
+		RequestBuilder matching = MockMvcRequestBuilders.put("/api/policies/" + policyDTO.getPolicyId())
+				.header(HttpHeaders.IF_MATCH, "\"1-2\", W/\"1-3\", \"2-3\", \"1-3-cbor\"")
+				.content(MasterData.asJsonString(policyDTO)).contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON);
+		RequestBuilder stale = MockMvcRequestBuilders.put("/api/policies/" + policyDTO.getPolicyId())
+				.header(HttpHeaders.IF_MATCH, "\"1-2\", W/\"1-3\", \"2-3\"")
+				.content(MasterData.asJsonString(policyDTO)).contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON);
+
+		MvcResult passed = mockMvc.perform(matching).andReturn();
+		MvcResult failed = mockMvc.perform(stale).andReturn();
+		yakshaAssert(currentTest(),
+				("\"1-4\"".equals(passed.getResponse().getHeader(HttpHeaders.ETAG))
+						&& failed.getResponse().getStatus() == HttpStatus.PRECONDITION_FAILED.value() ? "true"
+								: "false"),
+				businessTestFile);
+	}
+
 	@Test
 	public void testDeletePolicy() throws Exception {
 		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
@@ -117,4 +350,53 @@ public class InsurancePolicyControllerTest {
 		yakshaAssert(currentTest(), (result.getResponse().getContentAsString().contentEquals("") ? "true" : "false"),
 				businessTestFile);
 	}
+
+	@Test
+	public void testBulkCreatePoliciesFromJsonArray() throws Exception {
+		List<InsurancePolicyDTO> policyDTOS = getInsurancePolicyDTOList();
+
+		when(this.insurancePolicyService.bulkCreateInsurancePolicies(any()))
+				.thenAnswer(invocation -> consumeBulk(invocation.getArgument(0)));
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/policies/bulk")
+				.content(MasterData.asJsonString(policyDTOS)).contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		yakshaAssert(currentTest(),
+				(result.getResponse().getContentAsString()
+						.contentEquals(MasterData.asJsonString(bulkResultOf(policyDTOS.size()))) ? "true" : "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testBulkCreatePoliciesFromNdjson() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+		String body = MasterData.asJsonString(policyDTO) + "\n" + MasterData.asJsonString(policyDTO) + "\n";
+
+		when(this.insurancePolicyService.bulkCreateInsurancePolicies(any()))
+				.thenAnswer(invocation -> consumeBulk(invocation.getArgument(0)));
+		RequestBuilder requestBuilder = MockMvcRequestBuilders.post("/api/policies/bulk").content(body)
+				.contentType(MediaType.APPLICATION_NDJSON).accept(MediaType.APPLICATION_JSON);
+
+		MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+		yakshaAssert(currentTest(), (result.getResponse().getContentAsString()
+				.contentEquals(MasterData.asJsonString(bulkResultOf(2))) ? "true" : "false"), businessTestFile);
+	}
+
+	private static BulkResultDTO consumeBulk(Iterator<?> items) {
+		int count = 0;
+		while (items.hasNext()) {
+			items.next();
+			count++;
+		}
+		return bulkResultOf(count);
+	}
+
+	private static BulkResultDTO bulkResultOf(int count) {
+		BulkResultDTO bulkResult = new BulkResultDTO();
+		for (int i = 0; i < count; i++) {
+			bulkResult.add(BulkItemResultDTO.success(i, (long) i + 1, BulkItemResultDTO.CREATED));
+		}
+		return bulkResult;
+	}
 }
@@ -0,0 +1,164 @@
+package com.insurancepolicy.functional;
+
+import static com.insurancepolicy.utils.MasterData.getInsurancePolicyDTO;
+import static com.insurancepolicy.utils.MasterData.getInsurancePolicyDTOList;
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.insurancepolicy.controller.ReactiveInsurancePolicyController;
+import com.insurancepolicy.dto.BulkItemResultDTO;
+import com.insurancepolicy.dto.BulkResultDTO;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.exception.NotFoundException;
+import com.insurancepolicy.service.ReactiveInsurancePolicyService;
+import com.insurancepolicy.utils.MasterData;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactiveInsurancePolicyController.class)
+@ActiveProfiles("reactive")
+public class ReactiveInsurancePolicyControllerTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@MockBean
+	private ReactiveInsurancePolicyService policyService;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@Test
+	public void testGetAllPoliciesReactive() throws Exception {
+		List<InsurancePolicyDTO> policyDTOS = getInsurancePolicyDTOList();
+
+		when(this.policyService.getAllPolicies()).thenReturn(Flux.fromIterable(policyDTOS));
+		EntityExchangeResult<String> result = webTestClient.get().uri("/api/policies")
+				.accept(MediaType.APPLICATION_JSON).exchange().expectBody(String.class).returnResult();
+		yakshaAssert(currentTest(),
+				(result.getResponseBody().contentEquals(MasterData.asJsonString(policyDTOS)) ? "true" : "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testStreamAllPoliciesAsNdjsonReactive() throws Exception {
+		List<InsurancePolicyDTO> policyDTOS = getInsurancePolicyDTOList();
+		StringBuilder expected = new StringBuilder();
+		for (InsurancePolicyDTO policyDTO : policyDTOS) {
+			expected.append(MasterData.asJsonString(policyDTO)).append('\n');
+		}
+
+		when(this.policyService.getAllPolicies()).thenReturn(Flux.fromIterable(policyDTOS));
+		EntityExchangeResult<String> result = webTestClient.get().uri("/api/policies/stream")
+				.accept(MediaType.APPLICATION_NDJSON).exchange().expectBody(String.class).returnResult();
+		yakshaAssert(currentTest(),
+				(result.getResponseBody().contentEquals(expected) ? "true" : "false"), businessTestFile);
+	}
+
+	@Test
+	public void testGetPoliciesPageReactive() throws Exception {
+		PolicyPageDTO page = new PolicyPageDTO(getInsurancePolicyDTOList(), 1L);
+
+		when(this.policyService.getPolicies(isNull(), eq(1))).thenReturn(Mono.just(page));
+		EntityExchangeResult<String> result = webTestClient.get().uri("/api/policies/page?size=1")
+				.accept(MediaType.APPLICATION_JSON).exchange().expectBody(String.class).returnResult();
+		yakshaAssert(currentTest(),
+				(result.getResponseBody().contentEquals(MasterData.asJsonString(page)) ? "true" : "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testGetPolicyByIdReactive() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+
+		when(this.policyService.getInsurancePolicyById(policyDTO.getPolicyId())).thenReturn(Mono.just(policyDTO));
+		EntityExchangeResult<String> result = webTestClient.get().uri("/api/policies/" + policyDTO.getPolicyId())
+				.accept(MediaType.APPLICATION_JSON).exchange().expectBody(String.class).returnResult();
+		yakshaAssert(currentTest(),
+				(result.getResponseBody().contentEquals(MasterData.asJsonString(policyDTO)) ? "true" : "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testGetPolicyByIdNotFoundReactive() throws Exception {
+		when(this.policyService.getInsurancePolicyById(any()))
+				.thenReturn(Mono.error(new NotFoundException("Insurance Policy not found")));
+		EntityExchangeResult<String> result = webTestClient.get().uri("/api/policies/404")
+				.accept(MediaType.APPLICATION_JSON).exchange().expectBody(String.class).returnResult();
+		yakshaAssert(currentTest(), (result.getStatus() == HttpStatus.NOT_FOUND
+				&& result.getResponseBody().contains("Insurance Policy not found") ? "true" : "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testCreatePolicyReactive() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+
+		when(this.policyService.createInsurancePolicy(any())).thenReturn(Mono.just(policyDTO));
+		EntityExchangeResult<String> result = webTestClient.post().uri("/api/policies")
+				.contentType(MediaType.APPLICATION_JSON).bodyValue(MasterData.asJsonString(policyDTO))
+				.accept(MediaType.APPLICATION_JSON).exchange().expectBody(String.class).returnResult();
+		yakshaAssert(currentTest(),
+				(result.getResponseBody().contentEquals(MasterData.asJsonString(policyDTO)) ? "true" : "false"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testDeletePolicyReactive() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+
+		when(this.policyService.deleteInsurancePolicy(policyDTO.getPolicyId())).thenReturn(Mono.just(true));
+		EntityExchangeResult<byte[]> result = webTestClient.delete().uri("/api/policies/" + policyDTO.getPolicyId())
+				.exchange().expectBody().returnResult();
+		yakshaAssert(currentTest(),
+				(result.getStatus() == HttpStatus.NO_CONTENT && result.getResponseBody() == null ? "true" : "false"),
+				businessTestFile);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testBulkCreatePoliciesFromNdjsonReactive() throws Exception {
+		InsurancePolicyDTO policyDTO = getInsurancePolicyDTO();
+		String body = MasterData.asJsonString(policyDTO) + "\n" + MasterData.asJsonString(policyDTO) + "\n";
+
+		when(this.policyService.bulkCreateInsurancePolicies(any())).thenAnswer(invocation -> invocation
+				.getArgument(0, Flux.class).count().map(count -> bulkResultOf(((Long) count).intValue())));
+		EntityExchangeResult<String> result = webTestClient.post().uri("/api/policies/bulk")
+				.contentType(MediaType.APPLICATION_NDJSON).bodyValue(body).accept(MediaType.APPLICATION_JSON)
+				.exchange().expectBody(String.class).returnResult();
+		yakshaAssert(currentTest(),
+				(result.getResponseBody().contentEquals(MasterData.asJsonString(bulkResultOf(2))) ? "true" : "false"),
+				businessTestFile);
+	}
+
+	private static BulkResultDTO bulkResultOf(int count) {
+		BulkResultDTO bulkResult = new BulkResultDTO();
+		for (int i = 0; i < count; i++) {
+			bulkResult.add(BulkItemResultDTO.success(i, (long) i + 1, BulkItemResultDTO.CREATED));
+		}
+		return bulkResult;
+	}
+}
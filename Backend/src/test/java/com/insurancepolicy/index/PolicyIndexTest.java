@@ -0,0 +1,164 @@
+package com.insurancepolicy.index;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import com.insurancepolicy.datagen.PolicyDataGenerator;
+import com.insurancepolicy.datagen.PolicyGeneratorSettings;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.entity.InsurancePolicy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The index on its own: no transaction is active, so changes apply at once.
+ */
+public class PolicyIndexTest {
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	private static PolicyIndex index(int expectedSize) {
+		return new PolicyIndex(null, null, null, null, new SimpleMeterRegistry(), true, expectedSize);
+	}
+
+	private static InsurancePolicy policy(long id, String number, int customerId, String premium, long version) {
+		InsurancePolicy policy = new InsurancePolicy(id, number, "Health", new BigDecimal(premium),
+				Timestamp.valueOf("2030-01-01 00:00:00"), Timestamp.valueOf("2031-01-01 12:30:00"), true, customerId);
+		policy.setVersion(version);
+		return policy;
+	}
+
+	private static String numbers(List<InsurancePolicyDTO> policies) {
+		return policies.stream().map(InsurancePolicyDTO::getPolicyNumber).sorted().collect(Collectors.joining(","));
+	}
+
+	@Test
+	public void testLookupsByIdNumberAndCustomer() throws Exception {
+		PolicyIndex index = index(16);
+		InsurancePolicy first = policy(1, "P-1", 7, "120.50", 3);
+		index.stored(first);
+		boolean answeredBeforeLoad = index.findById(1) != null;
+		index.load(List.of(policy(2, "P-2", 7, "99.99", 0), policy(3, "P-3", 8, "10.00", 0)).iterator(), () -> {
+		});
+
+		InsurancePolicyDTO byId = index.findById(1);
+		yakshaAssert(currentTest(), !answeredBeforeLoad && byId.getPolicyNumber().equals("P-1")
+				&& byId.getPremiumAmount().equals(new BigDecimal("120.50")) && byId.getVersion() == 3
+				&& byId.getEndDate().getTime() == first.getEndDate().getTime() && byId.getCustomerId() == 7
+				&& byId.getPolicyType().equals("Health") && byId.isActive()
+				&& index.findByNumber("P-3").getPolicyId() == 3 && index.findById(4) == null
+				&& index.findByNumber("P-4") == null && numbers(index.findByCustomer(7)).equals("P-1,P-2")
+				&& index.findByCustomer(9).isEmpty() && index.size() == 3, businessTestFile);
+	}
+
+	@Test
+	public void testUpdatesMoveKeysAndStaleWritesAreIgnored() throws Exception {
+		PolicyIndex index = index(16);
+		index.load(List.of(policy(1, "P-1", 7, "100.00", 0), policy(2, "P-2", 7, "100.00", 0)).iterator(), () -> {
+		});
+		index.stored(policy(1, "P-1B", 8, "150.00", 1));
+		// committed earlier, applied later
+		index.stored(policy(1, "P-1", 7, "100.00", 0));
+
+		yakshaAssert(currentTest(), index.findByNumber("P-1") == null
+				&& index.findByNumber("P-1B").getPremiumAmount().equals(new BigDecimal("150.00"))
+				&& numbers(index.findByCustomer(7)).equals("P-2") && numbers(index.findByCustomer(8)).equals("P-1B")
+				&& index.findById(1).getVersion() == 1, businessTestFile);
+	}
+
+	@Test
+	public void testDeletesAndExpiries() throws Exception {
+		PolicyIndex index = index(16);
+		index.stored(policy(1, "P-1", 7, "100.00", 0));
+		// deleted while the load runs, which may still read the row
+		index.deleted(policy(2, "P-2", 7, "100.00", 0));
+		index.load(List.of(policy(2, "P-2", 7, "100.00", 0), policy(3, "P-3", 7, "100.00", 0)).iterator(), () -> {
+		});
+		index.expired(policy(3, "P-3", 7, "100.00", 0));
+		index.deleted(policy(1, "P-1", 7, "100.00", 0));
+
+		InsurancePolicyDTO expired = index.findById(3);
+		yakshaAssert(currentTest(), index.findById(1) == null && index.findById(2) == null
+				&& !expired.isActive() && expired.getVersion() == 1 && numbers(index.findByCustomer(7)).equals("P-3")
+				&& index.size() == 1, businessTestFile);
+	}
+
+	@Test
+	public void testMatchesAMapUnderRandomWrites() throws Exception {
+		PolicyIndex index = index(16);
+		index.load(List.<InsurancePolicy>of().iterator(), () -> {
+		});
+		Map<Long, InsurancePolicy> expected = new HashMap<>();
+		Random random = new Random(19);
+		for (int i = 0; i < 50_000; i++) {
+			long id = 1 + random.nextInt(2_000);
+			if (random.nextInt(3) == 0) {
+				InsurancePolicy removed = expected.remove(id);
+				index.deleted(removed == null ? policy(id, "X", 0, "1.00", 0) : removed);
+			} else {
+				InsurancePolicy previous = expected.get(id);
+				InsurancePolicy policy = policy(id, "N-" + id + "-" + random.nextInt(3), random.nextInt(50),
+						(1 + random.nextInt(1000)) + ".25", previous == null ? 0 : previous.getVersion() + 1);
+				expected.put(id, policy);
+				index.stored(policy);
+			}
+		}
+
+		boolean consistent = index.size() == expected.size();
+		for (long id = 1; id <= 2_000 && consistent; id++) {
+			InsurancePolicy policy = expected.get(id);
+			InsurancePolicyDTO byId = index.findById(id);
+			consistent = policy == null ? byId == null
+					: byId != null && byId.getPolicyNumber().equals(policy.getPolicyNumber())
+							&& byId.getCustomerId() == policy.getCustomerId()
+							&& Objects.equals(index.findByNumber(policy.getPolicyNumber()).getPolicyId(), id);
+		}
+		for (int customerId = 0; customerId < 50 && consistent; customerId++) {
+			int customer = customerId;
+			List<String> policies = new ArrayList<>();
+			expected.values().stream().filter(policy -> policy.getCustomerId() == customer)
+					.forEach(policy -> policies.add(policy.getPolicyNumber()));
+			consistent = numbers(index.findByCustomer(customerId))
+					.equals(policies.stream().sorted().collect(Collectors.joining(",")));
+		}
+		yakshaAssert(currentTest(), consistent, businessTestFile);
+	}
+
+	@Test
+	public void testMemoryPerPolicyIsSmall() throws Exception {
+		int count = 200_000;
+		PolicyIndex index = index(count);
+		PolicyDataGenerator generator = new PolicyDataGenerator(new PolicyGeneratorSettings());
+		List<InsurancePolicy> policies = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			InsurancePolicy policy = generator.policy(i);
+			policy.setPolicyId((long) i + 1);
+			policies.add(policy);
+		}
+		index.load(policies.iterator(), () -> {
+		});
+
+		long bytesPerPolicy = index.memoryBytes() / count;
+		yakshaAssert(currentTest(), index.size() == count && bytesPerPolicy < 150
+				&& index.findById(count).getPolicyNumber().equals(policies.get(count - 1).getPolicyNumber()),
+				businessTestFile);
+	}
+}
@@ -0,0 +1,109 @@
+package com.insurancepolicy.ingest;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CsvAvroValidatorTest {
+
+	private static final String SCHEMA = "{\"type\":\"record\",\"name\":\"policy_row\",\"fields\":["
+			+ "{\"name\":\"id\",\"type\":\"long\"},"
+			+ "{\"name\":\"premium\",\"type\":[\"null\",{\"type\":\"bytes\",\"logicalType\":\"decimal\",\"precision\":7,\"scale\":2}]},"
+			+ "{\"name\":\"start_date\",\"type\":{\"type\":\"int\",\"logicalType\":\"date\"}}]}";
+
+	@TempDir
+	Path outputDir;
+
+	private ExecutorService workers;
+
+	private AvroCsvSchema schema;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		workers = Executors.newFixedThreadPool(4);
+		schema = AvroCsvSchema.parse(new ByteArrayInputStream(SCHEMA.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		workers.shutdownNow();
+	}
+
+	@Test
+	public void testBadRowsAreReportedInFileOrder() throws Exception {
+		// enough rows for several 4 KB chunks to be validated at once
+		StringBuilder csv = new StringBuilder("id,premium,start_date\n");
+		for (int i = 0; i < 5000; i++) {
+			if (i % 1000 == 999) {
+				csv.append("x").append(i).append(",12.345,2024-01-01\n");
+			} else {
+				csv.append(i).append(",100.50,2024-01-01\n");
+			}
+		}
+
+		ValidationReport report = validate(csv.toString());
+
+		List<String> errorLog = Files.readAllLines(outputDir.resolve("error_log.csv"));
+		List<String> badRecords = Files.readAllLines(outputDir.resolve("bad_records.csv"));
+		yakshaAssert(currentTest(),
+				report.getRows() == 5000 && report.getBadRows() == 5 && report.getErrors() == 10
+						&& errorLog.get(0).equals("row_number,column,error_code,message,value")
+						&& errorLog.get(1).startsWith("1001,id,TYPE_LONG,")
+						&& errorLog.get(2).startsWith("1001,premium,DECIMAL_SCALE,")
+						&& errorLog.get(10).startsWith("5001,premium,DECIMAL_SCALE,")
+						&& badRecords.get(0).equals("id,premium,start_date,__errors__")
+						&& badRecords.get(1).equals("x999,12.345,2024-01-01,id: TYPE_LONG; premium: DECIMAL_SCALE"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testHeaderAndRequiredFieldErrors() throws Exception {
+		ValidationReport report = validate("\uFEFFid,premium,branch\r\n,,north\r\n\r\n7,,south\r\n");
+
+		List<String> errorLog = Files.readAllLines(outputDir.resolve("error_log.csv"));
+		yakshaAssert(currentTest(),
+				report.getRows() == 2 && report.getBadRows() == 2
+						&& errorLog.contains("0,start_date,MISSING_COLUMN,Column 'start_date' missing from CSV header,")
+						&& errorLog.contains("0,branch,EXTRA_COLUMN,Column 'branch' not defined in schema,")
+						&& errorLog.get(3).startsWith("2,id,REQUIRED,")
+						&& errorLog.get(4).startsWith("2,start_date,REQUIRED,")
+						&& errorLog.get(5).startsWith("3,start_date,REQUIRED,"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testValidFileWritesNoBadRecords() throws Exception {
+		ValidationReport report = validate("id,premium,start_date\n1,,2024-02-29\n2,99999.99,19000\n");
+
+		yakshaAssert(currentTest(),
+				report.getRows() == 2 && report.getErrors() == 0 && report.getBadRecordsFile() == null
+						&& !Files.exists(outputDir.resolve("bad_records.csv")),
+				businessTestFile);
+	}
+
+	private ValidationReport validate(String csv) throws Exception {
+		CsvAvroValidator validator = new CsvAvroValidator(schema, workers, 4096, 8);
+		return validator.validate(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+				outputDir.resolve("bad_records.csv"), outputDir.resolve("error_log.csv"));
+	}
+}
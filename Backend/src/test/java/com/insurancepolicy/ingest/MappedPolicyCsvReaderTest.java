@@ -0,0 +1,112 @@
+package com.insurancepolicy.ingest;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.insurancepolicy.entity.InsurancePolicy;
+
+public class MappedPolicyCsvReaderTest {
+
+	@TempDir
+	Path dir;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@Test
+	public void testSegmentsCoverEveryLineOnce() throws Exception {
+		StringBuilder csv = new StringBuilder("customerId,policyNumber,policyType,premiumAmount,startDate,endDate,isActive\r\n");
+		for (int i = 0; i < 1000; i++) {
+			csv.append(i).append(",PN").append(i).append(',').append(i % 2 == 0 ? "Health" : "\"Motor\"").append(',')
+					.append(i).append(".00,2024-01-31,2025-01-31,").append(i % 3 == 0).append("\r\n");
+		}
+		Path file = write(csv.toString());
+
+		List<InsurancePolicy> policies = new ArrayList<>();
+		List<String> errors = new ArrayList<>();
+		// a 4 KB window makes each segment remap several times
+		try (MappedPolicyCsvReader reader = MappedPolicyCsvReader.open(file, 4096)) {
+			for (MappedPolicyCsvReader.Segment segment : reader.split(3)) {
+				reader.policies(segment, (line, message) -> errors.add(message)).forEachRemaining(policies::add);
+			}
+		}
+
+		InsurancePolicy last = policies.get(policies.size() - 1);
+		yakshaAssert(currentTest(),
+				policies.size() == 999 && errors.size() == 1
+						&& errors.get(0).equals("premiumAmount must be a decimal of at least 0.01")
+						&& policies.get(0).getPolicyNumber().equals("PN1") && policies.get(0).getPolicyType().equals("Motor")
+						&& last.getPolicyNumber().equals("PN999") && last.getCustomerId() == 999 && last.isActive()
+						&& last.getPremiumAmount().equals(new BigDecimal("999.00"))
+						&& last.getStartDate().getTime() == utcMillis(LocalDate.of(2024, 1, 31))
+						&& last.getEndDate().getTime() == utcMillis(LocalDate.of(2025, 1, 31))
+						&& policies.get(1).getPolicyType() == policies.get(3).getPolicyType(),
+				businessTestFile);
+	}
+
+	@Test
+	public void testInvalidRowsAreRejectedWithTheirLine() throws Exception {
+		Path file = write("policyNumber,policyType,premiumAmount,startDate,endDate,isActive,customerId\n"
+				+ "PN1,Health,100.00,2024-02-29,2025-02-28,true,7\n"
+				+ "\n"
+				+ "PN2,Health,100.00,2023-02-29,2024-02-28,true,7\n"
+				+ "PN3,Health,abc,2024-01-01,2025-01-01,true,7\n"
+				+ "PN4,Health,100.00,2024-01-01,2025-01-01,maybe,7\n"
+				+ "PN5,Health,100.00,2024-01-01,2025-01-01,false,99999999999\n"
+				+ "PN6,Health,100.00,2024-01-01\n"
+				+ "PN7,\"Life, term\",5,2024-01-01,2025-01-01,FALSE,-3");
+
+		List<InsurancePolicy> policies = new ArrayList<>();
+		List<String> errors = new ArrayList<>();
+		try (MappedPolicyCsvReader reader = MappedPolicyCsvReader.open(file)) {
+			Iterator<InsurancePolicy> iterator = reader.policies(reader.split(1).get(0),
+					(line, message) -> errors.add(line + ": " + message));
+			iterator.forEachRemaining(policies::add);
+		}
+
+		yakshaAssert(currentTest(),
+				policies.size() == 2 && policies.get(1).getPolicyType().equals("Life, term")
+						&& policies.get(1).getCustomerId() == -3 && !policies.get(1).isActive()
+						&& errors.equals(List.of("3: startDate and endDate must be yyyy-MM-dd",
+								"4: premiumAmount must be a decimal of at least 0.01",
+								"5: isActive must be true or false", "6: customerId must be an int",
+								"7: expected 7 fields but found 4")),
+				businessTestFile);
+	}
+
+	@Test
+	public void testDaysFromCivilMatchesLocalDate() throws Exception {
+		boolean matches = true;
+		for (LocalDate date = LocalDate.of(1899, 12, 25); date.getYear() < 2101; date = date.plusDays(7)) {
+			matches &= MappedPolicyCsvReader.daysFromCivil(date.getYear(), date.getMonthValue(),
+					date.getDayOfMonth()) == date.toEpochDay();
+		}
+		yakshaAssert(currentTest(), matches, businessTestFile);
+	}
+
+	private Path write(String content) throws Exception {
+		return Files.write(dir.resolve("policies.csv"), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static long utcMillis(LocalDate date) {
+		return date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+	}
+}
@@ -0,0 +1,137 @@
+package com.insurancepolicy.lifecycle;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.exception.GoneException;
+import com.insurancepolicy.repo.ArchivedPolicyRepository;
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+/**
+ * Runs the archive job on H2 with small batches. The old policies end in 1950 and
+ * the job runs as of 1951, so only this test's policies are old enough.
+ */
+@SpringBootTest(properties = { "insurancepolicy.archive.enabled=false", "insurancepolicy.archive.batch-size=2",
+		"insurancepolicy.archive.min-age-days=100", "insurancepolicy.lifecycle.enabled=false" })
+@ActiveProfiles("h2")
+public class PolicyArchiveJobTest {
+
+	private static final LocalDate RUN_DATE = LocalDate.of(1951, 6, 1);
+
+	@Autowired
+	private PolicyArchiveJob policyArchiveJob;
+
+	@Autowired
+	private InsurancePolicyService insurancePolicyService;
+
+	@Autowired
+	private InsurancePolicyRepository insurancePolicyRepository;
+
+	@Autowired
+	private ArchivedPolicyRepository archivedPolicyRepository;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	private Long create(String number, String endDate, boolean active, int customerId) {
+		return insurancePolicyService.createInsurancePolicy(new InsurancePolicyDTO(null, number, "Health",
+				new BigDecimal("100.00"), Date.valueOf("1949-01-01"), Date.valueOf(endDate), active, customerId))
+				.getPolicyId();
+	}
+
+	@Test
+	public void testArchivesOldInactivePolicies() throws Exception {
+		List<Long> old = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			old.add(create("AR-OLD-" + i, "1950-03-0" + (i + 1), false, 940001));
+		}
+		Long recent = create("AR-RECENT", "1951-05-01", false, 940001);
+		// past the lifecycle test's run dates, so its expiry pass leaves it alone
+		Long active = create("AR-ACTIVE", "2001-01-01", true, 940001);
+		// cached before the job runs
+		insurancePolicyService.getInsurancePolicyById(old.get(0));
+
+		JobPassReport first = policyArchiveJob.run(RUN_DATE);
+		JobPassReport again = policyArchiveJob.run(RUN_DATE);
+
+		boolean moved = old.stream().noneMatch(insurancePolicyRepository::existsById)
+				&& old.stream().allMatch(archivedPolicyRepository::existsById);
+		boolean kept = insurancePolicyRepository.existsById(recent) && insurancePolicyRepository.existsById(active)
+				&& !archivedPolicyRepository.existsById(recent) && !archivedPolicyRepository.existsById(active);
+		boolean readable = old.stream().allMatch(id -> {
+			InsurancePolicyDTO policy = insurancePolicyService.getInsurancePolicyById(id);
+			return policy.getPolicyId().equals(id) && !policy.isActive();
+		}) && insurancePolicyService.getInsurancePolicyByNumber("AR-OLD-3").getPolicyId().equals(old.get(3));
+		yakshaAssert(currentTest(),
+				moved && kept && readable && first.getChanged() == 5 && first.getProcessed() == 5
+						&& again.getChanged() == 0 && again.getFailedPartitions() == 0,
+				businessTestFile);
+	}
+
+	@Test
+	public void testArchivedPoliciesOnlySearchedOnRequest() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		ids.add(create("AR-SRCH-0", "1950-04-01", false, 940002));
+		ids.add(create("AR-SRCH-1", "2001-04-01", true, 940002));
+		ids.add(create("AR-SRCH-2", "1950-04-02", false, 940002));
+		policyArchiveJob.run(RUN_DATE);
+
+		PolicySearchCriteria criteria = new PolicySearchCriteria();
+		criteria.setCustomerId(940002);
+		PolicyPageDTO hot = insurancePolicyService.searchPolicies(criteria, null, 10);
+		criteria.setIncludeArchived(true);
+		PolicyPageDTO first = insurancePolicyService.searchPolicies(criteria, null, 2);
+		PolicyPageDTO second = insurancePolicyService.searchPolicies(criteria, first.getNextCursor(), 2);
+		List<Long> all = new ArrayList<>(first.getContent().stream().map(InsurancePolicyDTO::getPolicyId)
+				.collect(Collectors.toList()));
+		second.getContent().forEach(policy -> all.add(policy.getPolicyId()));
+
+		yakshaAssert(currentTest(),
+				hot.getContent().size() == 1 && hot.getContent().get(0).getPolicyId().equals(ids.get(1))
+						&& all.equals(ids) && second.getNextCursor() == null,
+				businessTestFile);
+	}
+
+	@Test
+	public void testArchivedPolicyCannotBeChanged() throws Exception {
+		Long id = create("AR-GONE", "1950-05-01", false, 940003);
+		policyArchiveJob.run(RUN_DATE);
+		InsurancePolicyDTO archived = insurancePolicyService.getInsurancePolicyById(id);
+
+		boolean updateGone = false;
+		try {
+			insurancePolicyService.updateInsurancePolicy(id, archived);
+		} catch (GoneException e) {
+			updateGone = true;
+		}
+		boolean deleteGone = false;
+		try {
+			insurancePolicyService.deleteInsurancePolicy(id);
+		} catch (GoneException e) {
+			deleteGone = true;
+		}
+		yakshaAssert(currentTest(), updateGone && deleteGone && archivedPolicyRepository.existsById(id),
+				businessTestFile);
+	}
+}
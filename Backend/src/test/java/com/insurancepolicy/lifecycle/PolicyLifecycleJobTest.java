@@ -0,0 +1,124 @@
+package com.insurancepolicy.lifecycle;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.entity.PolicyJobCheckpoint;
+import com.insurancepolicy.repo.PolicyJobCheckpointRepository;
+import com.insurancepolicy.repo.PolicyRenewalRepository;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+/**
+ * Runs the lifecycle job on H2 with small chunks over several partitions. The
+ * run dates are in 1999 so only this test's policies are due. The job walks
+ * every policy, so each test deletes its own afterwards: policies one test
+ * leaves active would otherwise be expired or flagged by the other.
+ */
+@SpringBootTest(properties = { "insurancepolicy.lifecycle.enabled=false", "insurancepolicy.lifecycle.workers=3",
+		"insurancepolicy.lifecycle.chunk-size=2", "insurancepolicy.lifecycle.renewal-window-days=30" })
+@ActiveProfiles("h2")
+public class PolicyLifecycleJobTest {
+
+	@Autowired
+	private PolicyLifecycleJob policyLifecycleJob;
+
+	@Autowired
+	private InsurancePolicyService insurancePolicyService;
+
+	@Autowired
+	private PolicyJobCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private PolicyRenewalRepository renewalRepository;
+
+	private final List<Long> created = new ArrayList<>();
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@AfterEach
+	public void deleteCreated() {
+		created.forEach(insurancePolicyService::deleteInsurancePolicy);
+	}
+
+	private Long create(String number, String endDate) {
+		Long id = insurancePolicyService.createInsurancePolicy(new InsurancePolicyDTO(null, number, "Health",
+				new BigDecimal("100.00"), Date.valueOf("1998-01-01"), Date.valueOf(endDate), true, 930001))
+				.getPolicyId();
+		created.add(id);
+		return id;
+	}
+
+	@Test
+	public void testExpiresAndFlagsDuePolicies() throws Exception {
+		List<Long> expired = new ArrayList<>();
+		List<Long> due = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			expired.add(create("LC-EXP-" + i, "1999-06-0" + (i + 1)));
+		}
+		for (int i = 0; i < 3; i++) {
+			due.add(create("LC-DUE-" + i, "1999-06-2" + i));
+		}
+		Long later = create("LC-LATER", "1999-09-01");
+		// cached as active before the job runs
+		insurancePolicyService.getInsurancePolicyById(expired.get(0));
+
+		List<JobPassReport> first = policyLifecycleJob.run(LocalDate.of(1999, 6, 15));
+		List<JobPassReport> again = policyLifecycleJob.run(LocalDate.of(1999, 6, 15));
+
+		boolean deactivated = expired.stream()
+				.noneMatch(id -> insurancePolicyService.getInsurancePolicyById(id).isActive());
+		boolean flagged = due.stream().allMatch(renewalRepository::existsById)
+				&& !renewalRepository.existsById(later) && insurancePolicyService.getInsurancePolicyById(later).isActive();
+		JobPassReport expiry = first.get(0);
+		JobPassReport renewal = first.get(1);
+		yakshaAssert(currentTest(),
+				deactivated && flagged && expiry.getChanged() == 7 && expiry.getProcessed() == 7
+						&& expiry.getPartitions() == 3 && !expiry.isResumed() && renewal.getChanged() == 3
+						&& again.get(0).isResumed() && again.get(0).getProcessed() == 0
+						&& again.get(1).getProcessed() == 0,
+				businessTestFile);
+	}
+
+	@Test
+	public void testStoppedRunResumesFromCheckpoint() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			ids.add(create("LC-RES-" + i, "1999-07-01"));
+		}
+		LocalDate today = LocalDate.of(1999, 7, 10);
+		// as left by a run stopped after committing the chunk ending at the second policy
+		checkpointRepository.deleteAll(checkpointRepository.findByJobNameOrderByPartitionNo(PolicyLifecycleJob.EXPIRY));
+		PolicyJobCheckpoint checkpoint = new PolicyJobCheckpoint(PolicyLifecycleJob.EXPIRY, 0, today, 0,
+				Long.MAX_VALUE, Date.valueOf("1900-01-01"));
+		checkpoint.advance(Date.valueOf("1999-07-01"), ids.get(1), 2);
+		checkpointRepository.save(checkpoint);
+
+		JobPassReport expiry = policyLifecycleJob.run(today).get(0);
+
+		yakshaAssert(currentTest(),
+				expiry.isResumed() && expiry.getProcessed() == 2 && expiry.getChanged() == 2
+						&& insurancePolicyService.getInsurancePolicyById(ids.get(1)).isActive()
+						&& !insurancePolicyService.getInsurancePolicyById(ids.get(3)).isActive()
+						&& checkpointRepository.findById(checkpoint.getId()).get().getProcessed() == 4,
+				businessTestFile);
+	}
+}
@@ -0,0 +1,77 @@
+package com.insurancepolicy.metrics;
+
+import static com.insurancepolicy.utils.MasterData.getInsurancePolicyDTO;
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.insurancepolicy.exception.NotFoundException;
+import com.insurancepolicy.service.InsurancePolicyService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ServiceMetricsAspectTest {
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private InsurancePolicyService target;
+
+	private InsurancePolicyService service;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		target = mock(InsurancePolicyService.class);
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+		proxyFactory.addAspect(new ServiceMetricsAspect(meterRegistry));
+		service = proxyFactory.getProxy();
+	}
+
+	@Test
+	public void testServiceCallIsTimed() throws Exception {
+		when(target.getInsurancePolicyById(1L)).thenReturn(getInsurancePolicyDTO());
+
+		service.getInsurancePolicyById(1L);
+		service.getInsurancePolicyById(1L);
+
+		Timer timer = meterRegistry.find(ServiceMetricsAspect.TIMER_NAME).tag("operation", "getInsurancePolicyById")
+				.tag("outcome", "success").timer();
+		yakshaAssert(currentTest(), timer != null && timer.count() == 2, businessTestFile);
+	}
+
+	@Test
+	public void testFailedServiceCallIsCounted() throws Exception {
+		when(target.updateInsurancePolicy(any(), any())).thenThrow(new NotFoundException("Insurance Policy not found"));
+
+		boolean rethrown = false;
+		try {
+			service.updateInsurancePolicy(1L, getInsurancePolicyDTO());
+		} catch (NotFoundException e) {
+			rethrown = true;
+		}
+
+		Counter errors = meterRegistry.find(ServiceMetricsAspect.ERROR_COUNTER_NAME)
+				.tag("operation", "updateInsurancePolicy").tag("exception", "NotFoundException").counter();
+		Timer timer = meterRegistry.find(ServiceMetricsAspect.TIMER_NAME).tag("operation", "updateInsurancePolicy")
+				.tag("outcome", "error").timer();
+		yakshaAssert(currentTest(),
+				rethrown && errors != null && errors.count() == 1 && timer != null && timer.count() == 1,
+				businessTestFile);
+	}
+}
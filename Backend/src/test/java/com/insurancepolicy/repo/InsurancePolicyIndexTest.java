@@ -0,0 +1,101 @@
+package com.insurancepolicy.repo;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.entity.InsurancePolicy;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Checks the query plans of the search predicates against the indexes declared
+ * on {@link InsurancePolicy}, using H2's EXPLAIN as the stand-in for MySQL's.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class InsurancePolicyIndexTest {
+
+	private static final long DAY = 86_400_000L;
+
+	@Autowired
+	private InsurancePolicyRepository insurancePolicyRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		for (int i = 0; i < 200; i++) {
+			insurancePolicyRepository.save(new InsurancePolicy(null, "IDX" + i, i % 2 == 0 ? "Health" : "Motor",
+					new BigDecimal("150.00"), new Date(i * DAY), new Date((i + 30) * DAY), i % 4 != 0, i % 20));
+		}
+		entityManager.flush();
+	}
+
+	private String explain(String sql) {
+		return String.valueOf(entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult()).toUpperCase();
+	}
+
+	@Test
+	public void testCustomerLookupUsesCustomerIndex() throws Exception {
+		String plan = explain("SELECT * FROM insurance_policy WHERE customer_id = 7 AND is_active = TRUE");
+		yakshaAssert(currentTest(), plan.contains("IDX_POLICY_CUSTOMER"), businessTestFile);
+	}
+
+	@Test
+	public void testEndDateRangeUsesActiveEndIndex() throws Exception {
+		String plan = explain("SELECT * FROM insurance_policy WHERE is_active = TRUE"
+				+ " AND end_date BETWEEN DATE '1970-02-01' AND DATE '1970-03-01'");
+		yakshaAssert(currentTest(), plan.contains("IDX_POLICY_ACTIVE_END"), businessTestFile);
+	}
+
+	@Test
+	public void testPolicyNumberLookupUsesUniqueIndex() throws Exception {
+		String plan = explain("SELECT * FROM insurance_policy WHERE policy_number = 'IDX42'");
+		yakshaAssert(currentTest(), plan.contains("UK_POLICY_NUMBER"), businessTestFile);
+	}
+
+	@Test
+	public void testSearchActiveByCustomer() throws Exception {
+		PolicySearchCriteria criteria = new PolicySearchCriteria();
+		criteria.setCustomerId(7);
+		criteria.setActive(true);
+		List<InsurancePolicy> policies = insurancePolicyRepository.search(criteria, null, 100);
+		yakshaAssert(currentTest(), !policies.isEmpty()
+				&& policies.stream().allMatch(p -> p.getCustomerId() == 7 && p.isActive()), businessTestFile);
+	}
+
+	@Test
+	public void testSearchEndingBetween() throws Exception {
+		PolicySearchCriteria criteria = new PolicySearchCriteria();
+		criteria.setActive(true);
+		criteria.setEndFrom(new Date(40 * DAY));
+		criteria.setEndTo(new Date(49 * DAY));
+		List<InsurancePolicy> first = insurancePolicyRepository.search(criteria, null, 4);
+		List<InsurancePolicy> rest = insurancePolicyRepository.search(criteria,
+				first.get(first.size() - 1).getPolicyId(), 100);
+		// policies 10..19 end in the window; 12 and 16 are inactive
+		yakshaAssert(currentTest(), first.size() == 4 && first.size() + rest.size() == 8, businessTestFile);
+	}
+}
@@ -0,0 +1,137 @@
+package com.insurancepolicy.routing;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.dto.PolicySearchCriteria;
+import com.insurancepolicy.service.InsurancePolicyService;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The service over a primary and one replica, two H2 databases. The replica
+ * gets the primary's schema but nothing replicates: each test stores the same
+ * policy in both under a different type, so the type read back names the
+ * database that served the read. Those rows bypass the service, so they are
+ * deleted from the primary after each test.
+ */
+@SpringBootTest(properties = { "insurancepolicy.replicas.enabled=true",
+		"insurancepolicy.replicas.urls=" + ReplicaRoutingServiceTest.REPLICA_URL,
+		"insurancepolicy.replicas.check-interval-ms=0", "insurancepolicy.replicas.max-lag-ms=60000" })
+@ActiveProfiles("h2")
+public class ReplicaRoutingServiceTest {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:insurancepolicy-replica;DB_CLOSE_DELAY=-1";
+
+	private static final String PRIMARY = "Primary";
+
+	private static final String REPLICA = "Replica";
+
+	private static final String INSERT = "insert into insurance_policy (policy_id, policy_number, policy_type,"
+			+ " premium_amount, start_date, end_date, is_active, customer_id, version)"
+			+ " values (?, ?, ?, ?, ?, ?, true, ?, 0)";
+
+	@Autowired
+	private InsurancePolicyService insurancePolicyService;
+
+	@Autowired
+	private HikariDataSource primaryDataSource;
+
+	@Autowired
+	private ReplicaPool replicaPool;
+
+	private JdbcTemplate primary;
+
+	private JdbcTemplate replica;
+
+	// written straight to the primary, which the other tests share
+	private final List<Long> stored = new ArrayList<>();
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		primary = new JdbcTemplate(primaryDataSource);
+		replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+		replica.execute("drop all objects");
+		primary.queryForList("script nodata", String.class).forEach(replica::execute);
+		// the check beats on the primary and reads the replica's copy of the beat
+		replica.update("insert into replica_heartbeat (id, beat_millis) values (1, ?)", System.currentTimeMillis());
+		replicaPool.check();
+	}
+
+	@AfterEach
+	public void deleteStored() {
+		stored.forEach(id -> primary.update("delete from insurance_policy where policy_id = ?", id));
+	}
+
+	private void store(long id, int customerId) {
+		stored.add(id);
+		for (JdbcTemplate database : List.of(primary, replica)) {
+			database.update(INSERT, id, "RR-" + id, database == primary ? PRIMARY : REPLICA, new BigDecimal("100.00"),
+					Date.valueOf("2030-01-01"), Date.valueOf("2031-01-01"), customerId);
+		}
+	}
+
+	private BigDecimal premium(JdbcTemplate database, long id) {
+		return database.queryForObject("select premium_amount from insurance_policy where policy_id = ?",
+				BigDecimal.class, id);
+	}
+
+	@Test
+	public void testReadsAreServedByTheReplica() throws Exception {
+		store(9_710_001L, 971001);
+		store(9_710_002L, 971001);
+
+		InsurancePolicyDTO byId = insurancePolicyService.getInsurancePolicyById(9_710_001L);
+		InsurancePolicyDTO byNumber = insurancePolicyService.getInsurancePolicyByNumber("RR-9710002");
+		PolicySearchCriteria criteria = new PolicySearchCriteria();
+		criteria.setCustomerId(971001);
+		PolicyPageDTO found = insurancePolicyService.searchPolicies(criteria, null, 10);
+
+		yakshaAssert(currentTest(),
+				REPLICA.equals(byId.getPolicyType()) && REPLICA.equals(byNumber.getPolicyType())
+						&& found.getContent().size() == 2
+						&& found.getContent().stream().allMatch(policy -> REPLICA.equals(policy.getPolicyType())),
+				businessTestFile);
+	}
+
+	@Test
+	public void testWritesGoToThePrimaryAndItsOwnReadsFollow() throws Exception {
+		store(9_720_001L, 972001);
+		InsurancePolicyDTO read = insurancePolicyService.getInsurancePolicyById(9_720_001L);
+		read.setPremiumAmount(new BigDecimal("250.00"));
+
+		InsurancePolicyDTO updated = insurancePolicyService.updateInsurancePolicy(9_720_001L, read);
+		// the replica has not seen the update, so reading it back takes the primary
+		InsurancePolicyDTO reread = insurancePolicyService.getInsurancePolicyById(9_720_001L);
+
+		boolean written = new BigDecimal("250.00").compareTo(premium(primary, 9_720_001L)) == 0
+				&& new BigDecimal("100.00").compareTo(premium(replica, 9_720_001L)) == 0
+				&& updated.getVersion() == 1L;
+		boolean readBack = new BigDecimal("250.00").compareTo(reread.getPremiumAmount()) == 0
+				&& reread.getVersion() == 1L;
+		yakshaAssert(currentTest(), written && readBack, businessTestFile);
+	}
+}
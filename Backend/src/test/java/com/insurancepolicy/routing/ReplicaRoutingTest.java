@@ -0,0 +1,186 @@
+package com.insurancepolicy.routing;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurancepolicy.entity.InsurancePolicy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Routing over three H2 databases standing in for a primary and two
+ * replicas. Nothing replicates between them: each names itself in
+ * {@code whoami}, and the replicas' heartbeats are set by hand.
+ */
+public class ReplicaRoutingTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private DataSource primary;
+
+	private DataSource replica1;
+
+	private DataSource replica2;
+
+	private ReplicaPool pool;
+
+	private JdbcTemplate jdbc;
+
+	private TransactionTemplate readOnly;
+
+	private TransactionTemplate readWrite;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	private static DataSource database(String name) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("drop table if exists whoami");
+		jdbc.execute("drop table if exists replica_heartbeat");
+		jdbc.execute("create table whoami (name varchar(20))");
+		jdbc.update("insert into whoami values (?)", name);
+		jdbc.execute("create table replica_heartbeat (id int primary key, beat_millis bigint not null)");
+		return dataSource;
+	}
+
+	private static void beat(DataSource replica, long millis) {
+		JdbcTemplate jdbc = new JdbcTemplate(replica);
+		jdbc.update("delete from replica_heartbeat");
+		jdbc.update("insert into replica_heartbeat values (1, ?)", millis);
+	}
+
+	@BeforeEach
+	public void setUp() {
+		primary = database("primary");
+		replica1 = database("replica1");
+		replica2 = database("replica2");
+		long now = System.currentTimeMillis();
+		beat(replica1, now);
+		beat(replica2, now);
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("replica-1", replica1);
+		replicas.put("replica-2", replica2);
+		// no background checks; the tests run them
+		pool = new ReplicaPool(primary, replicas, 5_000, 0, meterRegistry);
+		pool.check();
+		DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, pool));
+		jdbc = new JdbcTemplate(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		readWrite = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		pool.close();
+	}
+
+	private String whoami(TransactionTemplate transaction) {
+		return transaction.execute(status -> jdbc.queryForObject("select name from whoami", String.class));
+	}
+
+	private Set<String> readers(int reads) {
+		Set<String> readers = new HashSet<>();
+		for (int i = 0; i < reads; i++) {
+			readers.add(whoami(readOnly));
+		}
+		return readers;
+	}
+
+	@Test
+	public void testReadsAreSpreadOverReplicasAndWritesGoToThePrimary() throws Exception {
+		boolean spread = readers(4).equals(Set.of("replica1", "replica2"));
+		boolean writes = "primary".equals(whoami(readWrite));
+		boolean outsideTransaction = "primary".equals(jdbc.queryForObject("select name from whoami", String.class));
+		boolean beat = new JdbcTemplate(primary).queryForObject("select count(*) from replica_heartbeat",
+				Integer.class) == 1;
+		yakshaAssert(currentTest(), spread && writes && outsideTransaction && beat, businessTestFile);
+	}
+
+	@Test
+	public void testUnhealthyReplicaIsEjectedUntilItRecovers() throws Exception {
+		new JdbcTemplate(replica2).execute("drop table replica_heartbeat");
+		pool.check();
+		boolean ejected = readers(4).equals(Set.of("replica1"));
+		new JdbcTemplate(replica2)
+				.execute("create table replica_heartbeat (id int primary key, beat_millis bigint not null)");
+		beat(replica2, System.currentTimeMillis());
+		pool.check();
+		boolean readmitted = readers(4).equals(Set.of("replica1", "replica2"));
+		yakshaAssert(currentTest(), ejected && readmitted, businessTestFile);
+	}
+
+	@Test
+	public void testLaggingReplicasAreSkippedAndReadsFallBackToThePrimary() throws Exception {
+		beat(replica1, System.currentTimeMillis() - 60_000);
+		pool.check();
+		boolean skipped = readers(4).equals(Set.of("replica2"));
+		beat(replica2, System.currentTimeMillis() - 60_000);
+		pool.check();
+		boolean fallback = readers(2).equals(Set.of("primary"));
+		double primaryReads = meterRegistry.get("insurancepolicy.replicas.reads").tag("target", "primary").counter()
+				.count();
+		yakshaAssert(currentTest(), skipped && fallback && primaryReads == 2, businessTestFile);
+	}
+
+	@Test
+	public void testReadAfterWriteNeedsAReplicaThatHasTheWrite() throws Exception {
+		long replica1Beat = System.currentTimeMillis() - 1_000;
+		beat(replica1, replica1Beat);
+		beat(replica2, replica1Beat + 500);
+		pool.check();
+		Set<String> caughtUp = new HashSet<>();
+		Set<String> ahead = new HashSet<>();
+		for (int i = 0; i < 4; i++) {
+			// replica2 beat after this write, replica1 before it
+			caughtUp.add(ReadRouting.caughtUpTo(replica1Beat + 1, () -> whoami(readOnly)));
+			ahead.add(ReadRouting.caughtUpTo(System.currentTimeMillis() + 60_000, () -> whoami(readOnly)));
+		}
+		boolean pinned = "primary".equals(ReadRouting.onPrimary(() -> whoami(readOnly)));
+		yakshaAssert(currentTest(),
+				caughtUp.equals(Set.of("replica2")) && ahead.equals(Set.of("primary")) && pinned,
+				businessTestFile);
+	}
+
+	@Test
+	public void testConsistencyRemembersRecentWritesByIdAndNumber() throws Exception {
+		InsurancePolicy policy = new InsurancePolicy(42L, "P-42", "Health", new BigDecimal("10.00"),
+				Timestamp.valueOf("2030-01-01 00:00:00"), Timestamp.valueOf("2031-01-01 00:00:00"), true, 1);
+		ReplicaConsistency consistency = new ReplicaConsistency(true, 5_000);
+		long before = System.currentTimeMillis();
+		consistency.written(policy);
+		boolean remembered = consistency.lastWrite(42L) >= before && consistency.lastWrite("P-42") >= before
+				&& consistency.lastWrite(43L) == 0;
+		ReplicaConsistency expired = new ReplicaConsistency(true, -1);
+		expired.written(policy);
+		ReplicaConsistency disabled = new ReplicaConsistency(false, 5_000);
+		disabled.written(policy);
+		yakshaAssert(currentTest(), remembered && expired.lastWrite(42L) == 0 && disabled.lastWrite(42L) == 0,
+				businessTestFile);
+	}
+}
@@ -0,0 +1,107 @@
+package com.insurancepolicy.service;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PremiumTotalDTO;
+import com.insurancepolicy.dto.PremiumTotalPageDTO;
+
+/**
+ * The summary table against the real service writes on H2. Not transactional
+ * itself: the summary is only updated when the writes commit. Each test uses
+ * its own policy types and customer ids, since the database is shared.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class PolicyAggregateServiceTest {
+
+	private static final YearMonth FROM = YearMonth.of(2031, 1);
+
+	private static final YearMonth TO = YearMonth.of(2031, 12);
+
+	@Autowired
+	private InsurancePolicyService insurancePolicyService;
+
+	@Autowired
+	private PolicyAggregateService policyAggregateService;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	private static InsurancePolicyDTO policy(String number, String type, String premium, String start, int customer) {
+		return new InsurancePolicyDTO(null, number, type, new BigDecimal(premium), Date.valueOf(start),
+				Date.valueOf("2035-12-31"), true, customer);
+	}
+
+	private static String totals(List<PremiumTotalDTO> totals) {
+		return totals.stream()
+				.filter(total -> total.getKey().matches("Agg.*|2031-.*|92000."))
+				.map(total -> total.getKey() + "=" + total.getPolicyCount() + "/" + total.getPremiumTotal())
+				.toList().toString();
+	}
+
+	@Test
+	public void testSummaryFollowsEveryWrite() throws Exception {
+		InsurancePolicyDTO health = insurancePolicyService
+				.createInsurancePolicy(policy("AGG-1", "AggHealth", "100.00", "2031-01-15", 910001));
+		insurancePolicyService.createInsurancePolicy(policy("AGG-2", "AggHealth", "200.00", "2031-02-01", 910001));
+		InsurancePolicyDTO motor = insurancePolicyService
+				.createInsurancePolicy(policy("AGG-3", "AggMotor", "50.00", "2031-01-31", 910002));
+		// moves to another type and month
+		insurancePolicyService.updateInsurancePolicy(health.getPolicyId(),
+				policy("AGG-1", "AggMotor", "120.00", "2031-03-10", 910001));
+		insurancePolicyService.deleteInsurancePolicy(motor.getPolicyId());
+		List<Long> bulk = insurancePolicyService.bulkCreateInsurancePolicies(
+				List.of(policy("AGG-4", "AggHealth", "10.00", "2031-02-02", 910002),
+						policy("AGG-5", "AggHealth", "20.00", "2031-02-03", 910002),
+						// rejected: the chunk is replayed and only the valid rows count
+						policy("AGG-2", "AggHealth", "30.00", "2031-02-04", 910002)).iterator())
+				.getItems().stream().filter(item -> item.getPolicyId() != null).map(item -> item.getPolicyId())
+				.toList();
+		insurancePolicyService.bulkDeleteInsurancePolicies(List.of(bulk.get(0)).iterator());
+
+		String byType = totals(policyAggregateService.getTotalsByType(FROM, TO));
+		String byMonth = totals(policyAggregateService.getTotalsByMonth(null, FROM, TO));
+		String healthByMonth = totals(policyAggregateService.getTotalsByMonth("AggHealth", FROM, TO));
+		policyAggregateService.rebuildSummary();
+		String rebuilt = totals(policyAggregateService.getTotalsByType(FROM, TO));
+
+		yakshaAssert(currentTest(),
+				byType.equals("[AggHealth=2/220.00, AggMotor=1/120.00]") && byType.equals(rebuilt)
+						&& byMonth.equals("[2031-02=2/220.00, 2031-03=1/120.00]")
+						&& healthByMonth.equals("[2031-02=2/220.00]"),
+				businessTestFile);
+	}
+
+	@Test
+	public void testTotalsByCustomerArePaged() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			insurancePolicyService.createInsurancePolicy(
+					policy("AGGC-" + i, "AggCustomer", "10.00", "2033-06-01", 920001 + i % 3));
+		}
+		PremiumTotalPageDTO first = policyAggregateService.getTotalsByCustomer(920000, 2);
+		PremiumTotalPageDTO second = policyAggregateService.getTotalsByCustomer(first.getNextCursor(), 2);
+
+		yakshaAssert(currentTest(),
+				totals(first.getContent()).equals("[920001=2/20.00, 920002=2/20.00]")
+						&& first.getNextCursor() == 920002 && second.getContent().get(0).getKey().equals("920003")
+						&& second.getContent().get(0).getPolicyCount() == 1,
+				businessTestFile);
+	}
+}
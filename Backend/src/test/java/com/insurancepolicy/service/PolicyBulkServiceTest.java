@@ -0,0 +1,77 @@
+package com.insurancepolicy.service;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.insurancepolicy.dto.BulkItemResultDTO;
+import com.insurancepolicy.dto.BulkResultDTO;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+
+/**
+ * Bulk writes in chunks of three on H2, so seven items make three chunks. A
+ * duplicate policy number only fails at flush, rolling back its whole chunk;
+ * the chunk is then replayed row by row and every other row still commits.
+ */
+@SpringBootTest(properties = "insurancepolicy.bulk.chunk-size=3")
+@ActiveProfiles("h2")
+public class PolicyBulkServiceTest {
+
+	@Autowired
+	private InsurancePolicyService insurancePolicyService;
+
+	@Autowired
+	private InsurancePolicyRepository insurancePolicyRepository;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	private static InsurancePolicyDTO policy(String number) {
+		return new InsurancePolicyDTO(null, number, "Health", new BigDecimal("100.00"), Date.valueOf("2031-01-01"),
+				Date.valueOf("2032-01-01"), true, 960001);
+	}
+
+	@Test
+	public void testBadRowFailsAloneAndTheRestOfItsChunkIsReplayed() throws Exception {
+		InsurancePolicyDTO existing = insurancePolicyService.createInsurancePolicy(policy("BK-TAKEN"));
+		// the middle chunk is items 3 to 5, and item 4 reuses a stored number
+		List<InsurancePolicyDTO> policies = List.of(policy("BK-0"), policy("BK-1"), policy("BK-2"), policy("BK-3"),
+				policy("BK-TAKEN"), policy("BK-5"), policy("BK-6"));
+
+		BulkResultDTO result = insurancePolicyService.bulkCreateInsurancePolicies(policies.iterator());
+
+		List<BulkItemResultDTO> items = result.getItems();
+		BulkItemResultDTO failed = items.size() == 7 ? items.get(4) : null;
+		boolean failedAlone = failed != null && failed.getIndex() == 4
+				&& BulkItemResultDTO.FAILED.equals(failed.getStatus()) && failed.getPolicyId() == null
+				&& failed.getError() != null;
+		List<BulkItemResultDTO> created = items.stream().filter(item -> item != failed).toList();
+		boolean othersCreated = created.size() == 6
+				&& created.stream().allMatch(item -> BulkItemResultDTO.CREATED.equals(item.getStatus()))
+				&& created.stream().map(BulkItemResultDTO::getIndex).toList().equals(List.of(0, 1, 2, 3, 5, 6));
+		boolean rowsStored = created.stream().map(BulkItemResultDTO::getPolicyId).filter(Objects::nonNull)
+				.filter(insurancePolicyRepository::existsById).count() == 6;
+		boolean takenUnchanged = insurancePolicyService.getInsurancePolicyByNumber("BK-TAKEN").getPolicyId()
+				.equals(existing.getPolicyId());
+
+		insurancePolicyService.bulkDeleteInsurancePolicies(created.stream().map(BulkItemResultDTO::getPolicyId)
+				.filter(Objects::nonNull).iterator());
+		insurancePolicyService.deleteInsurancePolicy(existing.getPolicyId());
+		yakshaAssert(currentTest(), failedAlone && othersCreated && rowsStored && takenUnchanged, businessTestFile);
+	}
+}
@@ -0,0 +1,124 @@
+package com.insurancepolicy.service;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.insurancepolicy.config.CacheConfig;
+import com.insurancepolicy.dto.BulkItemResultDTO;
+import com.insurancepolicy.dto.BulkResultDTO;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+
+/**
+ * Every write evicts a policy under both lookup keys once it commits, and
+ * deletes actually remove the rows. Each test reads its policies into both
+ * caches first, then checks the entries are gone after the write.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class PolicyCacheEvictionTest {
+
+	@Autowired
+	private InsurancePolicyService insurancePolicyService;
+
+	@Autowired
+	private InsurancePolicyRepository insurancePolicyRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	private static InsurancePolicyDTO policy(Long id, String number, String premium) {
+		return new InsurancePolicyDTO(id, number, "Health", new BigDecimal(premium), Date.valueOf("2031-01-01"),
+				Date.valueOf("2032-01-01"), true, 950001);
+	}
+
+	private InsurancePolicyDTO create(String number) {
+		return insurancePolicyService.createInsurancePolicy(policy(null, number, "100.00"));
+	}
+
+	private void readIntoCaches(InsurancePolicyDTO policy) {
+		insurancePolicyService.getInsurancePolicyById(policy.getPolicyId());
+		insurancePolicyService.getInsurancePolicyByNumber(policy.getPolicyNumber());
+	}
+
+	private boolean cached(InsurancePolicyDTO policy) {
+		return byId().get(policy.getPolicyId()) != null && byNumber().get(policy.getPolicyNumber()) != null;
+	}
+
+	private boolean evicted(InsurancePolicyDTO policy) {
+		return byId().get(policy.getPolicyId()) == null && byNumber().get(policy.getPolicyNumber()) == null;
+	}
+
+	private Cache byId() {
+		return cacheManager.getCache(CacheConfig.POLICIES);
+	}
+
+	private Cache byNumber() {
+		return cacheManager.getCache(CacheConfig.POLICIES_BY_NUMBER);
+	}
+
+	@Test
+	public void testUpdateAndDeleteEvictBothKeys() throws Exception {
+		InsurancePolicyDTO policy = create("EV-ONE-1");
+		readIntoCaches(policy);
+		boolean cachedBefore = cached(policy);
+
+		// renumbered: the old number must not keep answering with the old row
+		insurancePolicyService.updateInsurancePolicy(policy.getPolicyId(),
+				policy(policy.getPolicyId(), "EV-ONE-2", "150.00"));
+		boolean updateEvicted = evicted(policy);
+		InsurancePolicyDTO renumbered = insurancePolicyService.getInsurancePolicyByNumber("EV-ONE-2");
+		readIntoCaches(renumbered);
+
+		insurancePolicyService.deleteInsurancePolicy(policy.getPolicyId());
+		yakshaAssert(currentTest(),
+				cachedBefore && updateEvicted && new BigDecimal("150.00").compareTo(renumbered.getPremiumAmount()) == 0
+						&& evicted(renumbered) && !insurancePolicyRepository.existsById(policy.getPolicyId()),
+				businessTestFile);
+	}
+
+	@Test
+	public void testBulkUpdateAndDeleteEvictBothKeysAndDeleteTheRows() throws Exception {
+		List<InsurancePolicyDTO> policies = List.of(create("EV-BULK-1"), create("EV-BULK-2"), create("EV-BULK-3"));
+		policies.forEach(this::readIntoCaches);
+		boolean cachedBefore = policies.stream().allMatch(this::cached);
+
+		insurancePolicyService.bulkUpdateInsurancePolicies(policies.stream()
+				.map(policy -> policy(policy.getPolicyId(), policy.getPolicyNumber(), "175.00")).iterator());
+		boolean updateEvicted = policies.stream().allMatch(this::evicted);
+		policies.forEach(this::readIntoCaches);
+		boolean updated = policies.stream()
+				.map(policy -> insurancePolicyService.getInsurancePolicyById(policy.getPolicyId()))
+				.allMatch(policy -> new BigDecimal("175.00").compareTo(policy.getPremiumAmount()) == 0);
+
+		BulkResultDTO deleted = insurancePolicyService
+				.bulkDeleteInsurancePolicies(policies.stream().map(InsurancePolicyDTO::getPolicyId).iterator());
+		boolean deleteReported = deleted.getItems().stream()
+				.allMatch(item -> BulkItemResultDTO.DELETED.equals(item.getStatus()));
+		boolean rowsGone = policies.stream()
+				.noneMatch(policy -> insurancePolicyRepository.existsById(policy.getPolicyId()));
+		yakshaAssert(currentTest(),
+				cachedBefore && updateEvicted && updated && deleteReported && deleted.getItems().size() == 3 && rowsGone
+						&& policies.stream().allMatch(this::evicted),
+				businessTestFile);
+	}
+}
@@ -0,0 +1,86 @@
+package com.insurancepolicy.service;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.insurancepolicy.dto.BulkItemResultDTO;
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.dto.PolicyPageDTO;
+import com.insurancepolicy.dto.PolicySearchCriteria;
+
+/**
+ * The prod profile's pool settings on H2: connections leave the pool with
+ * autocommit off and Hibernate is told so. Every write must still commit, so
+ * its rows are checked from a connection of its own, outside the pool.
+ */
+@SpringBootTest(properties = { "spring.datasource.hikari.auto-commit=false",
+		"spring.jpa.properties.hibernate.connection.provider_disables_autocommit=true" })
+@ActiveProfiles("h2")
+public class PolicyManualCommitTest {
+
+	@Autowired
+	private InsurancePolicyService insurancePolicyService;
+
+	private final JdbcTemplate outsidePool = new JdbcTemplate(new DriverManagerDataSource(
+			"jdbc:h2:mem:insurancepolicy;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE", "sa", ""));
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	private static InsurancePolicyDTO policy(Long id, String number, String premium) {
+		return new InsurancePolicyDTO(id, number, "Health", new BigDecimal(premium), Date.valueOf("2031-01-01"),
+				Date.valueOf("2032-01-01"), true, 980001);
+	}
+
+	private BigDecimal storedPremium(Long id) {
+		List<BigDecimal> premiums = outsidePool.queryForList(
+				"select premium_amount from insurance_policy where policy_id = ?", BigDecimal.class, id);
+		return premiums.isEmpty() ? null : premiums.get(0);
+	}
+
+	@Test
+	public void testReadsAndWritesWithAutocommitOff() throws Exception {
+		InsurancePolicyDTO created = insurancePolicyService.createInsurancePolicy(policy(null, "MC-1", "100.00"));
+		boolean createCommitted = new BigDecimal("100.00").compareTo(storedPremium(created.getPolicyId())) == 0;
+		insurancePolicyService.updateInsurancePolicy(created.getPolicyId(),
+				policy(created.getPolicyId(), "MC-1", "120.00"));
+		boolean updateCommitted = new BigDecimal("120.00").compareTo(storedPremium(created.getPolicyId())) == 0;
+
+		InsurancePolicyDTO byId = insurancePolicyService.getInsurancePolicyById(created.getPolicyId());
+		InsurancePolicyDTO byNumber = insurancePolicyService.getInsurancePolicyByNumber("MC-1");
+		PolicySearchCriteria criteria = new PolicySearchCriteria();
+		criteria.setCustomerId(980001);
+		PolicyPageDTO found = insurancePolicyService.searchPolicies(criteria, null, 10);
+		boolean read = new BigDecimal("120.00").compareTo(byId.getPremiumAmount()) == 0
+				&& created.getPolicyId().equals(byNumber.getPolicyId()) && found.getContent().size() == 1;
+
+		List<Long> bulk = insurancePolicyService
+				.bulkCreateInsurancePolicies(List.of(policy(null, "MC-2", "10.00"), policy(null, "MC-3", "20.00"))
+						.iterator())
+				.getItems().stream().map(BulkItemResultDTO::getPolicyId).toList();
+		boolean bulkCommitted = bulk.stream().allMatch(id -> storedPremium(id) != null);
+		insurancePolicyService.bulkDeleteInsurancePolicies(bulk.iterator());
+		insurancePolicyService.deleteInsurancePolicy(created.getPolicyId());
+		boolean deletesCommitted = storedPremium(created.getPolicyId()) == null
+				&& bulk.stream().allMatch(id -> storedPremium(id) == null);
+
+		yakshaAssert(currentTest(), createCommitted && updateCommitted && read && bulkCommitted && deletesCommitted,
+				businessTestFile);
+	}
+}
@@ -0,0 +1,145 @@
+package com.insurancepolicy.service;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+import com.insurancepolicy.entity.InsurancePolicy;
+import com.insurancepolicy.mapper.InsurancePolicyMapper;
+import com.insurancepolicy.repo.InsurancePolicyRepository;
+import com.insurancepolicy.service.impl.PolicyReadCoalescer;
+import com.insurancepolicy.sharding.PolicyShards;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PolicyReadCoalescerTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final InsurancePolicyRepository repository = mock(InsurancePolicyRepository.class);
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	private static InsurancePolicy policy(long id) {
+		return new InsurancePolicy(id, "P-" + id, "Health", new BigDecimal("100.00"), Date.valueOf("2030-01-01"),
+				Date.valueOf("2031-01-01"), true, 1);
+	}
+
+	private double count(String name) {
+		return meterRegistry.get(name).counter().count();
+	}
+
+	private void awaitCount(String name, int expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (count(name) < expected && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+	}
+
+	@Test
+	public void testConcurrentReadsOfOneIdShareOneQuery() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(repository.findById(7L)).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return Optional.of(policy(7));
+		});
+		PolicyReadCoalescer coalescer = new PolicyReadCoalescer(repository, new InsurancePolicyMapper(),
+				new PolicyShards(null, null), meterRegistry, true, 0, 500, 4);
+
+		ExecutorService callers = Executors.newFixedThreadPool(20);
+		List<Future<InsurancePolicyDTO>> results = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			results.add(callers.submit(() -> coalescer.load(7L)));
+		}
+		// everyone but the first caller has joined its load
+		awaitCount("insurancepolicy.reads.shared", 19);
+		release.countDown();
+		boolean allLoaded = true;
+		for (Future<InsurancePolicyDTO> result : results) {
+			allLoaded &= "P-7".equals(result.get(5, TimeUnit.SECONDS).getPolicyNumber());
+		}
+		callers.shutdown();
+
+		verify(repository, times(1)).findById(7L);
+		yakshaAssert(currentTest(), allLoaded && count("insurancepolicy.reads.queries") == 1
+				&& count("insurancepolicy.reads.shared") == 19
+				&& meterRegistry.get("insurancepolicy.reads.collapse.ratio").gauge().value() == 20.0,
+				businessTestFile);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testDistinctIdsInOneWindowShareOneQuery() throws Exception {
+		List<Collection<Long>> queried = new ArrayList<>();
+		when(repository.findAllById(any())).thenAnswer(invocation -> {
+			Collection<Long> ids = (Collection<Long>) invocation.getArgument(0);
+			synchronized (queried) {
+				queried.add(List.copyOf(ids));
+			}
+			// id 3 does not exist
+			return ids.stream().filter(id -> id != 3L).map(PolicyReadCoalescerTest::policy).toList();
+		});
+		// a wide window, so all five callers land in it
+		PolicyReadCoalescer coalescer = new PolicyReadCoalescer(repository, new InsurancePolicyMapper(),
+				new PolicyShards(null, null), meterRegistry, true, 200_000, 500, 2);
+
+		ExecutorService callers = Executors.newFixedThreadPool(5);
+		List<Future<InsurancePolicyDTO>> results = new ArrayList<>();
+		for (long id = 1; id <= 5; id++) {
+			long policyId = id;
+			results.add(callers.submit(() -> coalescer.load(policyId)));
+		}
+		boolean loaded = results.get(0).get(5, TimeUnit.SECONDS).getPolicyId() == 1L
+				&& results.get(2).get(5, TimeUnit.SECONDS) == null
+				&& results.get(4).get(5, TimeUnit.SECONDS).getPolicyId() == 5L;
+		callers.shutdown();
+		coalescer.shutdown();
+
+		yakshaAssert(currentTest(), loaded && queried.size() == 1 && queried.get(0).size() == 5
+				&& meterRegistry.get("insurancepolicy.reads.batch.size").summary().max() == 5, businessTestFile);
+	}
+
+	@Test
+	public void testFailedLoadIsNotShared() throws Exception {
+		when(repository.findById(9L)).thenThrow(new IllegalStateException("database down"));
+		PolicyReadCoalescer coalescer = new PolicyReadCoalescer(repository, new InsurancePolicyMapper(),
+				new PolicyShards(null, null), meterRegistry, true, 0, 500, 4);
+
+		// nothing is left in flight after a failure: the next call queries again
+		int failures = 0;
+		for (int i = 0; i < 2; i++) {
+			try {
+				coalescer.load(9L);
+			} catch (IllegalStateException e) {
+				failures++;
+			}
+		}
+		verify(repository, times(2)).findById(9L);
+		yakshaAssert(currentTest(), failures == 2, businessTestFile);
+	}
+}
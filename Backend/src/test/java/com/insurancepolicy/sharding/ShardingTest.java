@@ -0,0 +1,267 @@
+package com.insurancepolicy.sharding;
+
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.insurancepolicy.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Sharding over H2 databases standing in for the shards, each naming itself
+ * in {@code whoami}, with just the tables the directory and the rebalancer
+ * touch.
+ */
+public class ShardingTest {
+
+	private final List<ShardDirectory> directories = new ArrayList<>();
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		directories.forEach(ShardDirectory::close);
+	}
+
+	private static DataSource database(String name) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		for (String table : List.of("whoami", "policy_shard_bucket", "insurance_policy", "policy_renewal",
+				"insurance_policy_archive")) {
+			jdbc.execute("drop table if exists " + table);
+		}
+		jdbc.execute("create table whoami (name varchar(20))");
+		jdbc.update("insert into whoami values (?)", name);
+		jdbc.execute("create table policy_shard_bucket (bucket int primary key, shard int not null)");
+		jdbc.execute("create table insurance_policy (policy_id bigint primary key, policy_number varchar(20),"
+				+ " customer_id int not null)");
+		jdbc.execute("create table policy_renewal (policy_id bigint primary key, flagged_on date)");
+		jdbc.execute("create table insurance_policy_archive (policy_id bigint primary key, policy_number varchar(20),"
+				+ " customer_id int not null, archived_on date)");
+		return dataSource;
+	}
+
+	private ShardDirectory directory(List<DataSource> shards, long gateWaitMillis) {
+		ShardDirectory directory = new ShardDirectory(shards, gateWaitMillis);
+		directories.add(directory);
+		directory.load();
+		return directory;
+	}
+
+	private static List<DataSource> shards(String prefix, int count) {
+		List<DataSource> shards = new ArrayList<>(count);
+		for (int shard = 0; shard < count; shard++) {
+			shards.add(database(prefix + shard));
+		}
+		return shards;
+	}
+
+	private static int count(DataSource shard, String table) {
+		return new JdbcTemplate(shard).queryForObject("select count(*) from " + table, Integer.class);
+	}
+
+	@Test
+	public void testPolicyIdsCarryTheirBucketAndOriginShard() throws Exception {
+		long id = PolicyShardKeys.compose(123_456, 5, 1000);
+		boolean decomposed = PolicyShardKeys.bucketOf(id) == 1000 && PolicyShardKeys.originShardOf(id) == 5
+				&& id >>> 16 == 123_456;
+		// the same sequence value on another shard gives another id
+		boolean distinct = PolicyShardKeys.compose(123_456, 6, 1000) != id;
+		boolean[] used = new boolean[PolicyShardKeys.BUCKETS];
+		int spread = 0;
+		for (int customer = 1; customer <= 4096; customer++) {
+			int bucket = PolicyShardKeys.bucketOfCustomer(customer);
+			if (!used[bucket]) {
+				used[bucket] = true;
+				spread++;
+			}
+		}
+		boolean stable = PolicyShardKeys.bucketOfCustomer(42) == PolicyShardKeys.bucketOfCustomer(42);
+		yakshaAssert(currentTest(), decomposed && distinct && spread > 900 && stable, businessTestFile);
+	}
+
+	@Test
+	public void testDirectorySpreadsAFreshSetupAndKeepsExistingPoliciesOnShardZero() throws Exception {
+		List<DataSource> fresh = shards("fresh", 3);
+		int[] spread = directory(fresh, 100).getAssignment();
+		boolean roundRobin = spread[0] == 0 && spread[1] == 1 && spread[2] == 2 && spread[1023] == 1023 % 3;
+		// a second instance reads the same assignment back
+		boolean shared = Arrays.equals(spread, directory(fresh, 100).getAssignment());
+
+		List<DataSource> existing = shards("existing", 3);
+		new JdbcTemplate(existing.get(0)).update("insert into insurance_policy values (7, 'P-7', 1)");
+		boolean onShardZero = Arrays.stream(directory(existing, 100).getAssignment()).allMatch(shard -> shard == 0);
+		yakshaAssert(currentTest(), roundRobin && shared && onShardZero, businessTestFile);
+	}
+
+	@Test
+	public void testReadsFanOutAndWritesArePinnedToTheirShard() throws Exception {
+		List<DataSource> shards = shards("routed", 3);
+		ShardDirectory directory = directory(shards, 100);
+		DataSource routing = new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shards));
+		JdbcTemplate jdbc = new JdbcTemplate(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		PolicyShards policyShards = new PolicyShards(directory, transactionManager);
+		try {
+			boolean fannedOut = policyShards.gather(() -> jdbc.queryForObject("select name from whoami", String.class))
+					.equals(List.of("routed0", "routed1", "routed2"));
+			// bucket 4 is on shard 1, bucket 5 on shard 2
+			String written = transaction.execute(status -> {
+				policyShards.pinPolicy(PolicyShardKeys.compose(1, 0, 4));
+				return jdbc.queryForObject("select name from whoami", String.class);
+			});
+			String read = policyShards.onPolicy(PolicyShardKeys.compose(1, 0, 5),
+					() -> jdbc.queryForObject("select name from whoami", String.class));
+			boolean spanning = false;
+			try {
+				transaction.executeWithoutResult(status -> {
+					policyShards.pinPolicy(PolicyShardKeys.compose(1, 0, 4));
+					policyShards.pinPolicy(PolicyShardKeys.compose(1, 0, 5));
+				});
+			} catch (IllegalStateException e) {
+				spanning = true;
+			}
+			boolean released = ShardContext.current() == ShardContext.NONE;
+			yakshaAssert(currentTest(), fannedOut && "routed1".equals(written) && "routed2".equals(read) && spanning
+					&& released, businessTestFile);
+		} finally {
+			policyShards.shutdown();
+		}
+	}
+
+	@Test
+	public void testMergedPagesStopWhereEveryShardIsComplete() throws Exception {
+		// both pages are full, so nothing is known past 4 on the second shard
+		PolicyShards.Merged<Long, Long> first = PolicyShards.merge(List.of(List.of(1L, 5L, 9L), List.of(2L, 3L, 4L)),
+				3, Long::longValue, (shard, id) -> true, (a, b) -> a);
+		// a short page means that shard is exhausted
+		PolicyShards.Merged<Long, Long> last = PolicyShards.merge(List.of(List.of(5L, 9L), List.of(4L)), 3,
+				Long::longValue, (shard, id) -> true, (a, b) -> a);
+		// 2 is being moved to shard 0: shard 1's copy is not counted
+		PolicyShards.Merged<Long, Long> moving = PolicyShards.merge(List.of(List.of(1L, 2L), List.of(2L, 3L)), 3,
+				Long::longValue, (shard, id) -> shard == 0 || id != 2L, (a, b) -> a + b);
+		boolean firstPage = first.content().equals(List.of(1L, 2L, 3L)) && first.nextCursor() == 3L;
+		boolean lastPage = last.content().equals(List.of(4L, 5L, 9L)) && last.nextCursor() == 9L;
+		boolean filtered = moving.content().equals(List.of(1L, 2L, 3L)) && moving.nextCursor() == 3L;
+		PolicyShards.Merged<Long, Long> done = PolicyShards.merge(List.of(List.of(), List.of(10L)), 3,
+				Long::longValue, (shard, id) -> true, (a, b) -> a);
+		yakshaAssert(currentTest(),
+				firstPage && lastPage && filtered && done.content().equals(List.of(10L)) && done.nextCursor() == null,
+				businessTestFile);
+	}
+
+	@Test
+	public void testPlanMovesOnlyTheBucketsOverEachQuota() throws Exception {
+		int[] allOnZero = new int[PolicyShardKeys.BUCKETS];
+		int[] even = ShardRebalancer.plan(allOnZero, 4);
+		int[] counts = new int[4];
+		Arrays.stream(even).forEach(shard -> counts[shard]++);
+		boolean quartered = Arrays.equals(counts, new int[] { 256, 256, 256, 256 });
+
+		int[] overTwo = new int[PolicyShardKeys.BUCKETS];
+		for (int bucket = 0; bucket < overTwo.length; bucket++) {
+			overTwo[bucket] = bucket % 2;
+		}
+		int[] overThree = ShardRebalancer.plan(overTwo, 3);
+		int moved = 0;
+		boolean toNewShard = true;
+		for (int bucket = 0; bucket < overTwo.length; bucket++) {
+			if (overTwo[bucket] != overThree[bucket]) {
+				moved++;
+				toNewShard &= overThree[bucket] == 2;
+			}
+		}
+		// only the new shard receives, and only its quota
+		yakshaAssert(currentTest(), quartered && moved == 341 && toNewShard, businessTestFile);
+	}
+
+	@Test
+	public void testRebalanceMovesPoliciesWithTheirRenewalFlagsAndArchive() throws Exception {
+		List<DataSource> shards = shards("moved", 2);
+		JdbcTemplate shardZero = new JdbcTemplate(shards.get(0));
+		for (long id = 1; id <= 3000; id++) {
+			shardZero.update("insert into insurance_policy values (?, ?, ?)", id, "P-" + id, (int) id % 50);
+			if (id % 3 == 0) {
+				shardZero.update("insert into policy_renewal values (?, current_date)", id);
+			}
+		}
+		for (long id = 3001; id <= 3600; id++) {
+			shardZero.update("insert into insurance_policy_archive values (?, ?, ?, current_date)", id, "A-" + id,
+					(int) id % 50);
+		}
+		ShardDirectory directory = directory(shards, 100);
+		AtomicInteger rebuilds = new AtomicInteger();
+		ShardRebalancer rebalancer = new ShardRebalancer(directory, rebuilds::incrementAndGet,
+				new SimpleMeterRegistry(), 100, 250);
+		RebalanceReport report = rebalancer.rebalance();
+		int kept = count(shards.get(0), "insurance_policy");
+		int moved = count(shards.get(1), "insurance_policy");
+		boolean owned = new JdbcTemplate(shards.get(1)).queryForList("select policy_id from insurance_policy", Long.class)
+				.stream().allMatch(id -> directory.owns(1, id));
+		int renewals = count(shards.get(0), "policy_renewal") + count(shards.get(1), "policy_renewal");
+		int archivedKept = count(shards.get(0), "insurance_policy_archive");
+		List<Long> archivedMoved = new JdbcTemplate(shards.get(1))
+				.queryForList("select policy_id from insurance_policy_archive", Long.class);
+		boolean archiveMoved = archivedKept + archivedMoved.size() == 600 && archivedMoved.size() > 200
+				&& archivedMoved.stream().allMatch(id -> directory.owns(1, id));
+		boolean reloaded = Arrays.equals(directory.getAssignment(), directory(shards, 100).getAssignment());
+		yakshaAssert(currentTest(), report.getMovedBuckets() == 512 && report.getMovedPolicies() == moved
+				&& kept + moved == 3000 && moved > 1000 && owned && renewals == 1000 && archiveMoved
+				&& rebuilds.get() == 1
+				&& report.getBucketsPerShard().equals(List.of(512, 512)) && reloaded
+				&& rebalancer.rebalance().getMovedBuckets() == 0, businessTestFile);
+	}
+
+	@Test
+	public void testWritesToABucketBeingMovedWaitThenAreRefused() throws Exception {
+		ShardDirectory directory = directory(shards("gated", 1), 50);
+		directory.enterMove(9);
+		boolean refused;
+		try {
+			// the gate is reentrant for the moving thread, so the write comes from another
+			CompletableFuture.runAsync(() -> directory.enterWrite(9)).get(5, TimeUnit.SECONDS);
+			refused = false;
+		} catch (ExecutionException e) {
+			refused = e.getCause() instanceof ServiceUnavailableException;
+		} finally {
+			directory.exitMove(9);
+		}
+		boolean admitted;
+		try {
+			CompletableFuture.runAsync(() -> {
+				directory.enterWrite(9);
+				directory.exitWrite(9);
+			}).join();
+			admitted = true;
+		} catch (CompletionException e) {
+			admitted = false;
+		}
+		yakshaAssert(currentTest(), refused && admitted, businessTestFile);
+	}
+}
@@ -0,0 +1,125 @@
+package com.insurancepolicy.validation;
+
+import static com.insurancepolicy.utils.MasterData.getInsurancePolicyDTO;
+import static com.insurancepolicy.utils.TestUtils.businessTestFile;
+import static com.insurancepolicy.utils.TestUtils.currentTest;
+import static com.insurancepolicy.utils.TestUtils.testReport;
+import static com.insurancepolicy.utils.TestUtils.yakshaAssert;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.insurancepolicy.dto.InsurancePolicyDTO;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+public class PolicyDtoValidatorTest {
+
+	private static ValidatorFactory factory;
+
+	private static Validator validator;
+
+	private static PolicyDtoValidator engine;
+
+	@BeforeAll
+	public static void setUp() {
+		factory = Validation.buildDefaultValidatorFactory();
+		validator = factory.getValidator();
+		engine = new PolicyDtoValidator(factory, 4096);
+	}
+
+	@AfterAll
+	public static void afterAll() {
+		testReport();
+	}
+
+	// what the bulk endpoints reported before the engine
+	private static String beanValidation(InsurancePolicyDTO dto) {
+		String violations = validator.validate(dto).stream().map(v -> v.getPropertyPath() + " " + v.getMessage())
+				.sorted().collect(Collectors.joining("; "));
+		return violations.isEmpty() ? null : violations;
+	}
+
+	private static InsurancePolicyDTO policy(Consumer<InsurancePolicyDTO> change) {
+		InsurancePolicyDTO dto = getInsurancePolicyDTO();
+		change.accept(dto);
+		return dto;
+	}
+
+	@Test
+	public void testSameMessagesAsBeanValidation() throws Exception {
+		List<InsurancePolicyDTO> cases = List.of(getInsurancePolicyDTO(), policy(dto -> dto.setPolicyNumber(null)),
+				policy(dto -> dto.setPolicyType(null)), policy(dto -> dto.setPremiumAmount(null)),
+				policy(dto -> dto.setStartDate(null)), policy(dto -> dto.setEndDate(null)),
+				policy(dto -> dto.setPolicyType("A")), policy(dto -> dto.setPolicyType("A".repeat(51))),
+				policy(dto -> dto.setPremiumAmount(BigDecimal.valueOf(-0.01))),
+				policy(dto -> dto.setPolicyNumber("A".repeat(21))), policy(dto -> {
+					dto.setPolicyNumber(null);
+					dto.setPolicyType("A");
+					dto.setPremiumAmount(BigDecimal.ZERO);
+				}));
+
+		boolean same = true;
+		for (InsurancePolicyDTO dto : cases) {
+			same &= Objects.equals(engine.violationsOf(dto), beanValidation(dto));
+		}
+		yakshaAssert(currentTest(), same && engine.violationsOf(cases.get(0)) == null, businessTestFile);
+	}
+
+	@Test
+	public void testCrossFieldChecks() throws Exception {
+		Date start = new Date(1_900_000_000_000L);
+		String sameDay = engine.violationsOf(policy(dto -> {
+			dto.setStartDate(start);
+			dto.setEndDate(start);
+		}));
+		String tooPrecise = engine.violationsOf(policy(dto -> dto.setPremiumAmount(new BigDecimal("10.001"))));
+		String tooLarge = engine.violationsOf(policy(dto -> dto.setPremiumAmount(new BigDecimal("12345678901.00"))));
+		String largest = engine.violationsOf(policy(dto -> dto.setPremiumAmount(new BigDecimal("9999999999.990"))));
+
+		yakshaAssert(currentTest(), "endDate must be after startDate".equals(sameDay)
+				&& tooPrecise.startsWith("premiumAmount numeric value out of bounds")
+				&& tooLarge.startsWith("premiumAmount numeric value out of bounds") && largest == null,
+				businessTestFile);
+	}
+
+	@Test
+	public void testParallelBatchMatchesLoop() throws Exception {
+		List<InsurancePolicyDTO> dtos = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			int n = i;
+			dtos.add(i % 1000 == 0 ? null : policy(dto -> {
+				if (n % 3 == 0) {
+					dto.setPolicyType("A");
+				}
+				if (n % 7 == 0) {
+					dto.setPremiumAmount(new BigDecimal("0.005"));
+				}
+			}));
+		}
+		PolicyBatchViolations inLoop = new PolicyDtoValidator(factory, Integer.MAX_VALUE).validate(dtos);
+		PolicyBatchViolations inParallel = new PolicyDtoValidator(factory, 1).validate(dtos);
+
+		String[] loop = new String[inLoop.size()];
+		String[] parallel = new String[inParallel.size()];
+		for (int i = 0; i < loop.length; i++) {
+			loop[i] = inLoop.get(i);
+			parallel[i] = inParallel.get(i);
+		}
+		yakshaAssert(currentTest(), Arrays.equals(loop, parallel) && inLoop.getInvalidCount() > 3000
+				&& inLoop.getInvalidCount() == inParallel.getInvalidCount()
+				&& PolicyDtoValidator.NULL_POLICY.equals(inLoop.get(0)) && inLoop.isValid(1), businessTestFile);
+	}
+}